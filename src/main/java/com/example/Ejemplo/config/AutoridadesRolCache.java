@@ -0,0 +1,104 @@
+package com.example.Ejemplo.config;
+
+import com.example.Ejemplo.events.RolModificadoEvent;
+import com.example.Ejemplo.models.Permiso;
+import com.example.Ejemplo.models.RolEntity;
+import com.example.Ejemplo.models.Usuario;
+import com.example.Ejemplo.repository.RolEntityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autoridades ya compiladas por rol (ROLE_X + sus permisos) en un Set
+ * inmutable. Todos los UsuarioDetails de un mismo rol comparten la instancia,
+ * así getAuthorities() no recorre los permisos en cada verificación.
+ * <p>
+ * La entrada se compila con el rol releído dentro del compute, no con el que
+ * trae el usuario: ese pudo leerse antes de una edición cuyo evento ya vació
+ * la entrada, y quedaría cacheado con permisos viejos. Como onRolModificado
+ * espera al compute en curso para quitar la entrada, una edición que confirma
+ * durante la relectura también termina descartándola.
+ */
+@Component
+@Slf4j
+public class AutoridadesRolCache {
+
+    private final ConcurrentHashMap<Integer, Set<GrantedAuthority>> porRol = new ConcurrentHashMap<>();
+    private final RolEntityRepository rolRepository;
+    private final TransactionTemplate transaccionLectura;
+
+    public AutoridadesRolCache(RolEntityRepository rolRepository, PlatformTransactionManager transactionManager) {
+        this.rolRepository = rolRepository;
+        // Transacción propia: en la del login el rol sale del contexto de persistencia, tal como se leyó
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    public Set<GrantedAuthority> autoridadesDe(Usuario usuario) {
+        RolEntity rol = usuario.getRolEntity();
+        if (rol == null || rol.getIdRol() == null) {
+            return compilar(usuario);
+        }
+        Set<GrantedAuthority> autoridades = porRol.computeIfAbsent(rol.getIdRol(), this::compilarVigente);
+        // Rol borrado entre el login y la relectura: se usa el del usuario sin cachearlo
+        return autoridades != null ? autoridades : compilarRol(rol);
+    }
+
+    /**
+     * Se descarta solo tras el commit, para no volver a compilar permisos viejos
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRolModificado(RolModificadoEvent event) {
+        if (porRol.remove(event.idRol()) != null) {
+            log.debug("Autoridades del rol {} descartadas, se recompilan en el próximo login", event.idRol());
+        }
+    }
+
+    /**
+     * Compila las autoridades sin pasar por la cache (roles sin ID o rol ENUM legacy)
+     */
+    static Set<GrantedAuthority> compilar(Usuario usuario) {
+        if (usuario.getRolEntity() != null) {
+            return compilarRol(usuario.getRolEntity());
+        }
+        if (usuario.getRol() != null) {
+            log.warn("Usuario '{}' usando rol ENUM (legacy): {}", usuario.getCorreo(), usuario.getRol());
+            return Set.of(new SimpleGrantedAuthority("ROLE_" + usuario.getRol()));
+        }
+        log.error("Usuario '{}' SIN ROL asignado!", usuario.getCorreo());
+        return Set.of();
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private Set<GrantedAuthority> compilarVigente(Integer idRol) {
+        return transaccionLectura.execute(status -> rolRepository.findById(idRol)
+                .map(AutoridadesRolCache::compilarRol)
+                .orElse(null));
+    }
+
+    private static Set<GrantedAuthority> compilarRol(RolEntity rol) {
+        Set<GrantedAuthority> autoridades = new LinkedHashSet<>();
+        autoridades.add(new SimpleGrantedAuthority("ROLE_" + rol.getNombre()));
+        if (rol.getPermisos() == null || rol.getPermisos().isEmpty()) {
+            log.warn("Rol '{}' SIN permisos asignados", rol.getNombre());
+        } else {
+            for (Permiso permiso : rol.getPermisos()) {
+                autoridades.add(new SimpleGrantedAuthority(permiso.getNombre()));
+            }
+        }
+        log.debug("Rol '{}' compilado con {} autoridades", rol.getNombre(), autoridades.size());
+        return Set.copyOf(autoridades);
+    }
+}
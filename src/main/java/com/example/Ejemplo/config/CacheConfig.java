@@ -0,0 +1,76 @@
+package com.example.Ejemplo.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caches en memoria de la aplicación. Todas registran estadísticas para que
+ * Actuator publique hits/misses/evictions en /actuator/metrics/cache.*
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CATALOGO = "catalogo";
+    public static final String MENU_DEL_DIA = "menuDelDia";
+    public static final String VENTAS_ANALITICA = "ventasAnalitica";
+    public static final String CATEGORIAS_RESUMEN = "categoriasResumen";
+    public static final String CONTEO_PRODUCTOS = "conteoProductos";
+    public static final String FRAGMENTOS_HTML = "fragmentosHtml";
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+
+        // Páginas del catálogo por (categoria, busqueda, page)
+        cacheManager.registerCustomCache(CATALOGO, Caffeine.newBuilder()
+                .maximumSize(500)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .recordStats()
+                .build());
+
+        cacheManager.registerCustomCache(MENU_DEL_DIA, Caffeine.newBuilder()
+                .maximumSize(7)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .recordStats()
+                .build());
+
+        // Una sola entrada (la lista completa); el TTL corto acota el desfase del stock total,
+        // que cambia con cada pedido sin publicar eventos
+        cacheManager.registerCustomCache(CATEGORIAS_RESUMEN, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .recordStats()
+                .build());
+
+        // Totales aproximados de los listados por cursor, por combinación de filtros
+        cacheManager.registerCustomCache(CONTEO_PRODUCTOS, Caffeine.newBuilder()
+                .maximumSize(200)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .recordStats()
+                .build());
+
+        // HTML ya renderizado de fragmentos de vista (ver FragmentosHtml); las claves
+        // llevan la versión del catálogo, así que las entradas viejas solo esperan a expirar
+        cacheManager.registerCustomCache(FRAGMENTOS_HTML, Caffeine.newBuilder()
+                .maximumSize(300)
+                .expireAfterAccess(Duration.ofMinutes(30))
+                .recordStats()
+                .build());
+
+        // Consultas de /api/ventas sobre períodos cerrados; se limpia si un día pasado cambia
+        cacheManager.registerCustomCache(VENTAS_ANALITICA, Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(Duration.ofHours(6))
+                .recordStats()
+                .build());
+
+        return cacheManager;
+    }
+}
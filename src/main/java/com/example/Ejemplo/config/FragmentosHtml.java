@@ -0,0 +1,152 @@
+package com.example.Ejemplo.config;
+
+import com.example.Ejemplo.dto.ProductoDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.support.RequestContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.context.webmvc.SpringWebMvcThymeleafRequestContext;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.spring6.naming.SpringContextVariableNames;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Fragmentos de vista que se repiten en muchas páginas y cambian poco. Se
+ * renderizan una vez a HTML y se guardan en cache; las plantillas los
+ * insertan con th:utext="${@fragmentosHtml.navbarAdmin('productos')}".
+ * <p>
+ * Los fragmentos con datos del catálogo llevan en la clave una versión que
+ * sube con cada CatalogoModificadoEvent: un cambio cae en otra entrada y las
+ * viejas solo esperan a expirar. La barra del panel lleva las autoridades del
+ * usuario. Con spring.thymeleaf.cache=false (desarrollo) se renderizan siempre.
+ */
+@Component("fragmentosHtml")
+public class FragmentosHtml {
+
+    private final SpringTemplateEngine templateEngine;
+    private final ApplicationContext applicationContext;
+    private final Cache cache;
+    private final boolean habilitado;
+    private final AtomicLong versionCatalogo = new AtomicLong();
+    private volatile JakartaServletWebApplication aplicacionWeb;
+
+    public FragmentosHtml(SpringTemplateEngine templateEngine,
+                          ApplicationContext applicationContext,
+                          CacheManager cacheManager,
+                          @Value("${spring.thymeleaf.cache:true}") boolean habilitado) {
+        this.templateEngine = templateEngine;
+        this.applicationContext = applicationContext;
+        this.cache = cacheManager.getCache(CacheConfig.FRAGMENTOS_HTML);
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Va después de la invalidación de caches del catálogo: con la versión
+     * nueva ya se leen los datos nuevos
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCatalogoModificado(CatalogoModificadoEvent event) {
+        versionCatalogo.incrementAndGet();
+    }
+
+    /**
+     * Barra lateral del panel: depende solo de la pestaña activa y de las
+     * autoridades del usuario (los sec:authorize de cada enlace)
+     */
+    public String navbarAdmin(String activeTab) {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        String autoridades = autenticacion == null ? "" : autenticacion.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(","));
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("activeTab", activeTab);
+        return renderizar("fragments/navbarAdmin", "navbarA",
+                "navbarAdmin|" + activeTab + "|" + autoridades, variables);
+    }
+
+    public String filtrosCatalogo(Map<String, Long> productosPorCategoria, String categoriaActiva) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("productosPorCategoria", productosPorCategoria);
+        variables.put("categoriaActiva", categoriaActiva);
+        return renderizar("fragments/catalogoSecciones", "filtros",
+                "filtros|" + categoriaActiva + "|" + versionCatalogo.get(), variables);
+    }
+
+    public String menuDelDia(List<ProductoDTO> menusDelDia, boolean invitado) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("menusDelDia", menusDelDia);
+        variables.put("invitado", invitado);
+        // La fecha va en la clave porque el fragmento la muestra
+        return renderizar("fragments/catalogoSecciones", "menuDelDia",
+                "menuDelDia|" + LocalDate.now() + "|" + invitado + "|" + versionCatalogo.get(), variables);
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private String renderizar(String plantilla, String fragmento, String clave, Map<String, Object> variables) {
+        if (!habilitado) {
+            return procesar(plantilla, fragmento, variables);
+        }
+        return cache.get(clave, () -> procesar(plantilla, fragmento, variables));
+    }
+
+    /**
+     * Mismo contexto que arma ThymeleafView, para que @{...}, sec:authorize y
+     * las expresiones SpEL funcionen igual que dentro de la página
+     */
+    private String procesar(String plantilla, String fragmento, Map<String, Object> variables) {
+        ServletRequestAttributes atributos = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletRequest request = atributos.getRequest();
+        HttpServletResponse response = atributos.getResponse();
+        ServletContext servletContext = request.getServletContext();
+
+        WebContext contexto = new WebContext(
+                aplicacionWeb(servletContext).buildExchange(request, response),
+                LocaleContextHolder.getLocale(), variables);
+        RequestContext requestContext = new RequestContext(request, response, servletContext, variables);
+        contexto.setVariable(SpringContextVariableNames.SPRING_REQUEST_CONTEXT, requestContext);
+        contexto.setVariable(SpringContextVariableNames.THYMELEAF_REQUEST_CONTEXT,
+                new SpringWebMvcThymeleafRequestContext(requestContext, request));
+        contexto.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(applicationContext, null));
+
+        return templateEngine.process(plantilla, Set.of(fragmento), contexto);
+    }
+
+    private JakartaServletWebApplication aplicacionWeb(ServletContext servletContext) {
+        JakartaServletWebApplication actual = aplicacionWeb;
+        if (actual == null) {
+            actual = JakartaServletWebApplication.buildApplication(servletContext);
+            aplicacionWeb = actual;
+        }
+        return actual;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.Ejemplo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Comprime con gzip una sola vez cada recurso de texto (css, js, svg, json) y
+ * guarda los bytes en memoria; las siguientes peticiones que acepten gzip se
+ * sirven desde ahí sin volver a comprimir. Las imágenes PNG/JPG ya vienen
+ * comprimidas y pasan de largo.
+ * <p>
+ * La clave incluye la fecha de modificación, así en desarrollo un archivo
+ * editado se vuelve a comprimir.
+ */
+@Slf4j
+class RecursoGzipResolver extends AbstractResourceResolver {
+
+    private static final String SUFIJO_ETAG = "-gzip";
+    private static final Set<String> EXTENSIONES_TEXTO = Set.of("css", "js", "svg", "json", "txt", "html");
+
+    private final ConcurrentHashMap<String, byte[]> comprimidos = new ConcurrentHashMap<>();
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource recurso = chain.resolveResource(request, requestPath, locations);
+        if (recurso == null || request == null || yaCodificado(recurso)
+                || !aceptaGzip(request) || !esTexto(recurso.getFilename())) {
+            return recurso;
+        }
+
+        byte[] gzip = comprimidos.computeIfAbsent(clave(recurso), k -> comprimir(recurso));
+        return gzip.length > 0 ? new RecursoGzip(recurso, gzip) : recurso;
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static boolean aceptaGzip(HttpServletRequest request) {
+        String aceptadas = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return aceptadas != null && aceptadas.toLowerCase().contains("gzip");
+    }
+
+    /**
+     * Un .br/.gz precomprimido ya trae su Content-Encoding. Los versionados
+     * también son HttpResource (agregan el ETag), pero esos sí se comprimen.
+     */
+    private static boolean yaCodificado(Resource recurso) {
+        return recurso instanceof HttpResource http
+                && http.getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    private static boolean esTexto(@Nullable String nombre) {
+        if (nombre == null || nombre.lastIndexOf('.') < 0) {
+            return false;
+        }
+        return EXTENSIONES_TEXTO.contains(nombre.substring(nombre.lastIndexOf('.') + 1).toLowerCase());
+    }
+
+    private static String clave(Resource recurso) {
+        try {
+            return recurso.getURL() + "@" + recurso.lastModified();
+        } catch (IOException e) {
+            return recurso.getDescription();
+        }
+    }
+
+    /**
+     * @return bytes comprimidos, o arreglo vacío si no conviene (no achica o falla la lectura)
+     */
+    private static byte[] comprimir(Resource recurso) {
+        try (InputStream entrada = recurso.getInputStream()) {
+            byte[] original = entrada.readAllBytes();
+            ByteArrayOutputStream salida = new ByteArrayOutputStream(original.length / 3 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+                gzip.write(original);
+            }
+            byte[] comprimido = salida.toByteArray();
+            log.debug("Recurso {} comprimido: {} -> {} bytes",
+                    recurso.getFilename(), original.length, comprimido.length);
+            return comprimido.length < original.length ? comprimido : new byte[0];
+        } catch (IOException e) {
+            log.warn("No se pudo comprimir el recurso {}", recurso.getDescription(), e);
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Conserva nombre (para el Content-Type), fecha (para Last-Modified) y las
+     * cabeceras que traiga el original. El ETag de los versionados se marca
+     * con "-gzip": son otros bytes que los de la versión sin comprimir, y una
+     * caché intermedia no debe tomar uno por el otro. El Vary lo pone el
+     * interceptor de RecursosEstaticosConfig para todas las respuestas.
+     */
+    private static final class RecursoGzip extends ByteArrayResource implements HttpResource {
+
+        private final Resource original;
+
+        private RecursoGzip(Resource original, byte[] gzip) {
+            super(gzip, original.getDescription());
+            this.original = original;
+        }
+
+        @Override
+        public String getFilename() {
+            return original.getFilename();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return original.lastModified();
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (original instanceof HttpResource http) {
+                headers.putAll(http.getResponseHeaders());
+            }
+            String etag = headers.getETag();
+            if (etag != null && etag.endsWith("\"")) {
+                headers.setETag(etag.substring(0, etag.length() - 1) + SUFIJO_ETAG + "\"");
+            }
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return headers;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.Ejemplo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Recursos de static/ con versión por contenido: las plantillas escriben
+ * @{/css/main.css} y ResourceUrlEncodingFilter lo reescribe a
+ * /css/main-&lt;md5&gt;.css. Esas URLs nunca cambian de contenido, así que se
+ * sirven como inmutables por un año; las URLs sin hash (enlaces escritos a
+ * mano, imágenes por defecto) se revalidan con Last-Modified.
+ * <p>
+ * Reemplaza el mapeo por defecto de Spring Boot (spring.web.resources.add-mappings=false).
+ */
+@Configuration
+public class RecursosEstaticosConfig implements WebMvcConfigurer {
+
+    private static final String[] RUTAS_ESTATICAS = {"/css/**", "/js/**", "/imagenes/**", "/data/**"};
+
+    // nombre-<md5 en hex>.ext, tal como lo genera ContentVersionStrategy
+    private static final Pattern URL_VERSIONADA = Pattern.compile(".*-[0-9a-f]{32}\\.[^/]+$");
+
+    private static final String CACHE_VERSIONADA = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+    private static final String CACHE_SIN_VERSION = CacheControl.noCache().cachePublic().getHeaderValue();
+
+    private final WebProperties webProperties;
+
+    public RecursosEstaticosConfig(WebProperties webProperties) {
+        this.webProperties = webProperties;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Orden: gzip en memoria -> .br/.gz precomprimidos en el build (si existen) -> versión -> archivo
+        registry.addResourceHandler("/**")
+                .addResourceLocations(webProperties.getResources().getStaticLocations())
+                .resourceChain(webProperties.getResources().getChain().isCache())
+                .addResolver(new RecursoGzipResolver())
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Spring Security no pisa un Cache-Control que ya esté puesto
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                boolean versionada = URL_VERSIONADA.matcher(request.getRequestURI()).matches();
+                response.setHeader(HttpHeaders.CACHE_CONTROL, versionada ? CACHE_VERSIONADA : CACHE_SIN_VERSION);
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                return true;
+            }
+        }).addPathPatterns(RUTAS_ESTATICAS);
+    }
+}
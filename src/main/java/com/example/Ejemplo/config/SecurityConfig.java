@@ -20,10 +20,10 @@ public class SecurityConfig {
         http.csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(auth -> auth
                     // Recursos públicos (sin /login ni /register ni /medio)
-                    .requestMatchers("/register/save", "/sobre-nosotros", "/css/**", "/js/**", "/imagenes/**", "/data/**").permitAll()
+                    .requestMatchers("/register/save", "/sobre-nosotros", "/css/**", "/js/**", "/imagenes/**", "/media/**", "/data/**").permitAll()
                     
                     // Catálogo - PÚBLICO (estudiantes pueden ver sin login)
-                    .requestMatchers("/", "/catalogo", "/catalogo/**").permitAll()
+                    .requestMatchers("/", "/catalogo", "/catalogo/**", "/api/catalogo/**").permitAll()
                     
                     // Carrito y Pedidos - REQUIERE LOGIN (estudiantes deben registrarse para comprar)
                     .requestMatchers("/carrito/**").authenticated()
@@ -54,6 +54,7 @@ public class SecurityConfig {
                     .requestMatchers("/ventas", "/ventas/**").hasAnyAuthority("VENTAS_VER", "ROLE_ADMINISTRADOR", "ROLE_TRABAJADOR")
                     
                     // Estadísticas - Admin y Trabajador
+                    .requestMatchers("/api/ventas/**").hasAnyAuthority("ESTADISTICAS_VER", "VENTAS_VER", "ROLE_ADMINISTRADOR", "ROLE_TRABAJADOR")
                     .requestMatchers("/api/estadisticas/**").hasAnyAuthority("ESTADISTICAS_VER", "ROLE_ADMINISTRADOR", "ROLE_TRABAJADOR")
                     
                     // Menú del día - Admin y Trabajador
@@ -63,6 +64,10 @@ public class SecurityConfig {
                     .requestMatchers("/notificacion/notificar").hasAnyAuthority("NOTIFICACIONES_CREAR", "ROLE_ADMINISTRADOR", "ROLE_TRABAJADOR")
                     .requestMatchers("/notificacion/**").hasAnyAuthority("NOTIFICACIONES_VER", "ROLE_ADMINISTRADOR", "ROLE_USUARIO", "ROLE_TRABAJADOR")
                     
+                    // Métricas (Actuator) - Solo admin
+                    .requestMatchers("/actuator/health").permitAll()
+                    .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMINISTRADOR")
+                    
                     // Login redirect
                     .requestMatchers("/login2").authenticated()
                     
@@ -5,19 +5,21 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @AllArgsConstructor
 @NoArgsConstructor
 @Slf4j
 public class UsuarioDetails implements UserDetails {
     private Usuario usuario;
+    private Set<GrantedAuthority> authorities;
+
+    public UsuarioDetails(Usuario usuario) {
+        this.usuario = usuario;
+    }
 
     public Usuario getUsuario() {
         return usuario;
@@ -25,42 +27,17 @@ public class UsuarioDetails implements UserDetails {
 
     public void setUsuario(Usuario usuario) {
         this.usuario = usuario;
+        this.authorities = null;
     }
 
+    /**
+     * Set inmutable compartido por los usuarios del mismo rol (ver AutoridadesRolCache)
+     */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        List<GrantedAuthority> authorities = new ArrayList<>();
-        
-        
-        if (usuario.getRolEntity() != null) {
-            String roleName = "ROLE_" + usuario.getRolEntity().getNombre();
-            authorities.add(new SimpleGrantedAuthority(roleName));
-            log.debug("Usuario '{}' tiene rol: {}", usuario.getCorreo(), roleName);
-            
-            
-            if (usuario.getRolEntity().getPermisos() != null) {
-                List<GrantedAuthority> permisos = usuario.getRolEntity().getPermisos().stream()
-                        .map(permiso -> new SimpleGrantedAuthority(permiso.getNombre()))
-                        .collect(Collectors.toList());
-                
-                authorities.addAll(permisos);
-                log.info("Usuario '{}' cargado con {} permisos: {}", 
-                        usuario.getCorreo(), 
-                        permisos.size(),
-                        permisos.stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(", ")));
-            } else {
-                log.warn("Usuario '{}' con rol '{}' pero SIN permisos asignados", 
-                        usuario.getCorreo(), usuario.getRolEntity().getNombre());
-            }
-        } else if (usuario.getRol() != null) {
-           
-            String roleName = "ROLE_" + usuario.getRol().toString();
-            authorities.add(new SimpleGrantedAuthority(roleName));
-            log.warn("Usuario '{}' usando rol ENUM (legacy): {}", usuario.getCorreo(), roleName);
-        } else {
-            log.error("Usuario '{}' SIN ROL asignado!", usuario.getCorreo());
+        if (authorities == null) {
+            authorities = AutoridadesRolCache.compilar(usuario);
         }
-        
         return authorities;
     }
 
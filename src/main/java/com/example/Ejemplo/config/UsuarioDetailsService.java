@@ -16,6 +16,9 @@ public class UsuarioDetailsService implements UserDetailsService{
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private AutoridadesRolCache autoridadesRolCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.debug("Intentando autenticar usuario: {}", username);
@@ -36,6 +39,6 @@ public class UsuarioDetailsService implements UserDetailsService{
         }
         
         log.info("Usuario encontrado: {} - Rol: {}", usuario.getCorreo(), usuario.getRolNombre());
-        return new UsuarioDetails(usuario);
+        return new UsuarioDetails(usuario, autoridadesRolCache.autoridadesDe(usuario));
     }
 }
@@ -0,0 +1,90 @@
+package com.example.Ejemplo.controllers;
+
+import com.example.Ejemplo.config.UsuarioDetails;
+import com.example.Ejemplo.dto.AgregarItemsCarritoDTO;
+import com.example.Ejemplo.dto.CarritoResumenDTO;
+import com.example.Ejemplo.dto.FranjaEntregaDTO;
+import com.example.Ejemplo.services.CarritoService;
+import com.example.Ejemplo.services.FranjasEntregaService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * API JSON del carrito: el catálogo agrega productos sin redirigir ni volver
+ * a renderizar la página
+ */
+@RestController
+@RequestMapping("/api/carrito")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasAnyAuthority('CARRITO_GESTIONAR', 'ROLE_ADMINISTRADOR', 'ROLE_USUARIO', 'ROLE_TRABAJADOR')")
+public class CarritoApiController {
+
+    private final CarritoService carritoService;
+    private final FranjasEntregaService franjasEntregaService;
+
+    @GetMapping
+    public ResponseEntity<CarritoResumenDTO> resumen(@AuthenticationPrincipal UsuarioDetails userDetails) {
+        return ResponseEntity.ok(carritoService.resumir(userDetails.getUsuario().getIdUsuario()));
+    }
+
+    /**
+     * Responde 200 aunque algún producto no entre por stock: esos vienen en
+     * "rechazados" y el resto queda agregado
+     */
+    @PostMapping("/items")
+    public ResponseEntity<CarritoResumenDTO> agregarItems(
+            @Valid @RequestBody AgregarItemsCarritoDTO solicitud,
+            @AuthenticationPrincipal UsuarioDetails userDetails) {
+        // Si el mismo producto viene repetido se suman las cantidades
+        Map<Integer, Integer> cantidades = new LinkedHashMap<>();
+        solicitud.getItems().forEach(item -> cantidades.merge(item.getIdProducto(), item.getCantidad(), Integer::sum));
+
+        int idUsuario = userDetails.getUsuario().getIdUsuario();
+        CarritoResumenDTO resumen = carritoService.agregarItems(idUsuario, cantidades);
+        log.debug("Usuario {} agregó {} productos al carrito ({} rechazados)",
+                idUsuario, cantidades.size(), resumen.getRechazados().size());
+        return ResponseEntity.ok(resumen);
+    }
+
+    /**
+     * Próximas franjas de recojo de hoy donde entra el carrito actual
+     */
+    @GetMapping("/franjas")
+    public ResponseEntity<List<FranjaEntregaDTO>> franjas(
+            @RequestParam(name = "limite", defaultValue = "12") int limite,
+            @AuthenticationPrincipal UsuarioDetails userDetails) {
+        long articulos = carritoService.resumir(userDetails.getUsuario().getIdUsuario()).getArticulos();
+        int unidades = (int) Math.max(1, articulos);
+        return ResponseEntity.ok(franjasEntregaService.disponibles(unidades, Math.min(Math.max(limite, 1), 50)));
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, MethodArgumentNotValidException.class})
+    public ResponseEntity<?> solicitudInvalida(Exception e) {
+        log.debug("Solicitud de carrito inválida: {}", e.getMessage());
+        String mensaje = e instanceof MethodArgumentNotValidException invalido
+                && invalido.getBindingResult().hasErrors()
+                ? invalido.getBindingResult().getAllErrors().get(0).getDefaultMessage()
+                : e.getMessage();
+        return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "mensaje", Objects.requireNonNullElse(mensaje, "Solicitud inválida")));
+    }
+}
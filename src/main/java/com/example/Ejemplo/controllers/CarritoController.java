@@ -1,6 +1,7 @@
 package com.example.Ejemplo.controllers;
 
 import com.example.Ejemplo.config.UsuarioDetails;
+import com.example.Ejemplo.dto.BandejaNotificacionesDTO;
 import com.example.Ejemplo.models.Usuario;
 import com.example.Ejemplo.services.impl.CarritoServiceImpl;
 import com.example.Ejemplo.services.impl.NotificacionServiceImpl;
@@ -31,8 +32,11 @@ public class CarritoController {
         Usuario usuario = userDetails.getUsuario();
         int idUsuario = usuario.getIdUsuario();
         model.addAttribute("usuarioAdmins", usuario.getRol().toString());
-        model.addAttribute("notificaciones",notificacionServiceImpl.findAllByUsuario_IdUsuario(idUsuario));
-        model.addAttribute("carrito", carritoServiceImpl.obtenerCarritosPorUsuario(idUsuario));
+        BandejaNotificacionesDTO bandeja = notificacionServiceImpl.obtenerBandeja(idUsuario);
+        model.addAttribute("notificaciones", bandeja.getRecientes());
+        model.addAttribute("notificacionesSinLeer", bandeja.getSinLeer());
+        model.addAttribute("hayMasNotificaciones", bandeja.isHayMas());
+        model.addAttribute("carrito", carritoServiceImpl.obtenerLineas(idUsuario));
         return "usuario/carrito";
     }
 
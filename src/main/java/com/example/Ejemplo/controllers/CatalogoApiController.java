@@ -0,0 +1,34 @@
+package com.example.Ejemplo.controllers;
+
+import com.example.Ejemplo.dto.SugerenciaDTO;
+import com.example.Ejemplo.services.SugerenciasService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * API pública del catálogo (autocompletado del buscador)
+ */
+@RestController
+@RequestMapping("/api/catalogo")
+@RequiredArgsConstructor
+public class CatalogoApiController {
+
+    private final SugerenciasService sugerenciasService;
+
+    @GetMapping("/sugerencias")
+    public ResponseEntity<List<SugerenciaDTO>> sugerencias(
+            @RequestParam(name = "q", defaultValue = "") String q,
+            @RequestParam(name = "limite", defaultValue = "8") int limite) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic())
+                .body(sugerenciasService.sugerir(q, limite));
+    }
+}
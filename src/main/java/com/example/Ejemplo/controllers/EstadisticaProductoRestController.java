@@ -6,22 +6,22 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.Ejemplo.repository.DetalleVentaRepository;
+import com.example.Ejemplo.services.ResumenVentasService;
 
 @RestController
 @RequestMapping("/api/estadisticas")
 public class EstadisticaProductoRestController {
 
-    private final DetalleVentaRepository detalleVentaRepository;
+    private final ResumenVentasService resumenVentasService;
 
     @Autowired
-    public EstadisticaProductoRestController(DetalleVentaRepository detalleVentaRepository) {
-        this.detalleVentaRepository = detalleVentaRepository;
+    public EstadisticaProductoRestController(ResumenVentasService resumenVentasService) {
+        this.resumenVentasService = resumenVentasService;
     }
 
 
     @GetMapping("/masVendidos")
     public List<?> getProductosMasVendidos() {
-        return detalleVentaRepository.findProductosMasVendidos();
+        return resumenVentasService.productosMasVendidos();
     }
 }
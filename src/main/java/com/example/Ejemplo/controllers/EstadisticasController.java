@@ -6,22 +6,22 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
-import com.example.Ejemplo.repository.DetalleVentaRepository;
+import com.example.Ejemplo.services.ResumenVentasService;
 
 @Controller
 @RequestMapping("/productos/estadisticas")
 public class EstadisticasController {
 
-    private final DetalleVentaRepository detalleVentaRepository;
+    private final ResumenVentasService resumenVentasService;
 
     @Autowired
-    public EstadisticasController(DetalleVentaRepository detalleVentaRepository) {
-        this.detalleVentaRepository = detalleVentaRepository;
+    public EstadisticasController(ResumenVentasService resumenVentasService) {
+        this.resumenVentasService = resumenVentasService;
     }
 
     @GetMapping
     public String mostrarEstadisticas(Model model) {
-        model.addAttribute("productosMasVendidos", detalleVentaRepository.findProductosMasVendidos());
+        model.addAttribute("productosMasVendidos", resumenVentasService.productosMasVendidos());
         return "administrador/estadisticasProductos";
     }
 }
@@ -0,0 +1,135 @@
+package com.example.Ejemplo.controllers;
+
+import com.example.Ejemplo.services.AlmacenImagenesService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sirve el almacén de imágenes. El nombre es el hash del contenido, así que
+ * sirve como ETag fuerte y la respuesta se puede cachear como inmutable.
+ * <p>
+ * El cuerpo no se copia al heap de la aplicación: con Tomcat se delega en
+ * sendfile (copia cero en el kernel) y, si el conector no lo soporta, se usa
+ * FileChannel.transferTo hacia la salida.
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class ImagenController {
+
+    // Tomcat: atributos de petición para delegar el envío al kernel
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    // Solo un rango simple; pedidos multirango (o con posiciones que no caben
+    // en un long) se responden con el archivo completo
+    private static final Pattern RANGO = Pattern.compile("^bytes=(\\d{0,18})-(\\d{0,18})$");
+
+    private static final String CACHE_INMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+
+    private final AlmacenImagenesService almacenImagenesService;
+
+    @GetMapping(AlmacenImagenesService.PREFIJO_URL + "{nombre:.+}")
+    public void servir(@PathVariable String nombre, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        Optional<Path> archivo = almacenImagenesService.ubicar(nombre);
+        if (archivo.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + nombre.substring(0, nombre.indexOf('.')) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_INMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        Path ruta = archivo.get();
+        long tamano = ruta.toFile().length();
+        long inicio = 0;
+        long fin = tamano - 1;
+
+        // If-Range con otro ETag: el cliente tiene otra versión, va el archivo completo
+        String rango = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        Matcher matcher = rango != null && (ifRange == null || ifRange.equals(etag))
+                ? RANGO.matcher(rango.trim()) : null;
+        if (matcher != null && matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            if (matcher.group(1).isEmpty()) {
+                // bytes=-N: los últimos N bytes
+                inicio = Math.max(0, tamano - Long.parseLong(matcher.group(2)));
+            } else {
+                inicio = Long.parseLong(matcher.group(1));
+                if (!matcher.group(2).isEmpty()) {
+                    fin = Math.min(fin, Long.parseLong(matcher.group(2)));
+                }
+            }
+            if (inicio >= tamano || inicio > fin) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + tamano);
+        }
+
+        long longitud = fin - inicio + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(nombre)
+                .map(Object::toString).orElse("application/octet-stream"));
+        response.setContentLengthLong(longitud);
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            request.setAttribute(SENDFILE_ARCHIVO, ruta.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIN, fin + 1);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(ruta)) {
+            OutputStream salida = response.getOutputStream();
+            WritableByteChannel destino = Channels.newChannel(salida);
+            long enviados = 0;
+            while (enviados < longitud) {
+                long n = canal.transferTo(inicio + enviados, longitud - enviados, destino);
+                if (n <= 0) {
+                    break;
+                }
+                enviados += n;
+            }
+        } catch (IOException e) {
+            // Cliente que cortó la descarga (p. ej. cambió de página)
+            log.debug("Envío de imagen {} interrumpido: {}", nombre, e.getMessage());
+        }
+    }
+}
@@ -2,18 +2,27 @@ package com.example.Ejemplo.controllers;
 
 import com.example.Ejemplo.config.UsuarioDetails;
 import com.example.Ejemplo.models.Usuario;
+import com.example.Ejemplo.services.NotificacionStreamService;
 import com.example.Ejemplo.services.impl.NotificacionServiceImpl;
 import com.example.Ejemplo.services.impl.PedidosServiceImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.Map;
+
 @Controller
 @RequestMapping("/notificacion")
 @RequiredArgsConstructor
@@ -22,6 +31,18 @@ public class NotificacionController {
 
     private final NotificacionServiceImpl notificacionServiceImpl;
     private final PedidosServiceImpl pedidosServiceImpl;
+    private final NotificacionStreamService notificacionStreamService;
+
+    /**
+     * Stream SSE del usuario autenticado (eventos "notificacion" y "pedido").
+     * El navegador reconecta solo y manda Last-Event-ID para recuperar lo perdido.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter stream(@AuthenticationPrincipal UsuarioDetails userDetails,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEventoId) {
+        return notificacionStreamService.suscribir(userDetails.getUsuario().getIdUsuario(), ultimoEventoId);
+    }
 
     @PostMapping("/notificar")
     public String notificar(@RequestParam("idUsuario") int idUsuario, @RequestParam("codigoPedido") String codigoPedido, Model model) {
@@ -34,6 +55,22 @@ public class NotificacionController {
     }
     
 
+    /**
+     * Se llama al abrir la campana; hastaId es la notificación más nueva que
+     * vio el usuario, así las que lleguen mientras tanto siguen sin leer
+     */
+    @PostMapping("/marcar-leidas")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> marcarLeidas(
+            @RequestParam("hastaId") int hastaId,
+            @AuthenticationPrincipal UsuarioDetails userDetails) {
+        int idUsuario = userDetails.getUsuario().getIdUsuario();
+        int marcadas = notificacionServiceImpl.marcarLeidas(idUsuario, hastaId);
+        return ResponseEntity.ok(Map.of(
+                "marcadas", marcadas,
+                "sinLeer", notificacionServiceImpl.contarSinLeer(idUsuario)));
+    }
+
     @PostMapping("/eliminar")
     public String eliminarNotificacion(
             @RequestParam("idNotificacion") int idNotificacion,
@@ -2,11 +2,17 @@ package com.example.Ejemplo.controllers;
 
 import com.example.Ejemplo.config.UsuarioDetails;
 import com.example.Ejemplo.dto.PedidoDTO;
+import com.example.Ejemplo.dto.PedidoSecuenciadoDTO;
+import com.example.Ejemplo.dto.ResumenVentasDTO;
 import com.example.Ejemplo.models.EstadoPedido;
 import com.example.Ejemplo.models.Pedido;
 import com.example.Ejemplo.models.Usuario;
 import com.example.Ejemplo.services.PedidosService;
+import com.example.Ejemplo.services.ResumenVentasService;
+import com.example.Ejemplo.services.SecuenciaCocinaService;
+import com.example.Ejemplo.services.TableroCocinaService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -16,8 +22,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 @Controller
@@ -26,10 +35,25 @@ import java.util.Map;
 @Slf4j
 public class PedidoAdminController {
     
+    private static final Set<EstadoPedido> ESTADOS_EN_CURSO =
+            EnumSet.of(EstadoPedido.PENDIENTE, EstadoPedido.EN_PREPARACION, EstadoPedido.LISTO);
+    
     private final PedidosService pedidosService;
+    private final TableroCocinaService tableroCocinaService;
+    private final ResumenVentasService resumenVentasService;
+    private final SecuenciaCocinaService secuenciaCocinaService;
+    private final int recomendados;
     
-    public PedidoAdminController(PedidosService pedidosService) {
+    public PedidoAdminController(PedidosService pedidosService,
+                                 TableroCocinaService tableroCocinaService,
+                                 ResumenVentasService resumenVentasService,
+                                 SecuenciaCocinaService secuenciaCocinaService,
+                                 @Value("${cocina.secuencia.recomendados:5}") int recomendados) {
         this.pedidosService = pedidosService;
+        this.tableroCocinaService = tableroCocinaService;
+        this.resumenVentasService = resumenVentasService;
+        this.secuenciaCocinaService = secuenciaCocinaService;
+        this.recomendados = recomendados;
     }
     
 
@@ -45,7 +69,7 @@ public class PedidoAdminController {
             String rolNombre = usuario.getRol() != null ? usuario.getRol().toString() : "USUARIO";
             
             Map<EstadoPedido, List<PedidoDTO>> pedidosPorEstado;
-            String periodoTexto = "Todos los pedidos";
+            String periodoTexto = "Pedidos activos y finalizados hoy";
             
             // Aplicar filtros predefinidos
             if (filtro != null) {
@@ -76,7 +100,19 @@ public class PedidoAdminController {
                     periodoTexto = "Pedidos del " + fechaInicio + " al " + fechaFin;
                 }
             } else {
-                pedidosPorEstado = pedidosService.agruparPedidosPorEstado();
+                // Vista por defecto: los activos salen del tablero en memoria y solo se
+                // consultan los finalizados de hoy, así no crece con el historial
+                pedidosPorEstado = new EnumMap<>(tableroCocinaService.obtenerTablero());
+                LocalDate hoy = LocalDate.now();
+                Map<EstadoPedido, List<PedidoDTO>> deHoy = pedidosService.agruparPedidosPorEstadoYFecha(hoy, hoy);
+                pedidosPorEstado.put(EstadoPedido.ENTREGADO, deHoy.getOrDefault(EstadoPedido.ENTREGADO, List.of()));
+                pedidosPorEstado.put(EstadoPedido.CANCELADO, deHoy.getOrDefault(EstadoPedido.CANCELADO, List.of()));
+                
+                // Pendientes en el orden sugerido (inicio límite), no en el de llegada
+                List<PedidoSecuenciadoDTO> secuencia = secuenciaCocinaService.siguientes(Integer.MAX_VALUE);
+                pedidosPorEstado.put(EstadoPedido.PENDIENTE,
+                        secuencia.stream().map(PedidoSecuenciadoDTO::getPedido).toList());
+                model.addAttribute("secuenciaCocina", secuencia.subList(0, Math.min(recomendados, secuencia.size())));
             }
             
             model.addAttribute("usuarioAdmins", rolNombre);
@@ -95,20 +131,24 @@ public class PedidoAdminController {
             model.addAttribute("fechaFin", fechaFin);
             model.addAttribute("filtroActivo", filtro);
             
-            // Calcular estadísticas del período
-            double totalVentas = pedidosPorEstado.values().stream()
-                    .flatMap(List::stream)
-                    .filter(p -> p.getEstado() != EstadoPedido.CANCELADO)
-                    .mapToDouble(PedidoDTO::getTotal)
-                    .sum();
+            // Estadísticas del período: los entregados y cancelados salen de los resúmenes
+            // de ventas y los que siguen en curso de las listas ya cargadas, así "Total
+            // Ventas" sigue siendo todo lo no cancelado, como antes de los resúmenes
+            LocalDate hoy = LocalDate.now();
+            ResumenVentasDTO resumen = resumenVentasService.totales(
+                    fechaInicio != null && fechaFin != null ? fechaInicio : hoy,
+                    fechaInicio != null && fechaFin != null ? fechaFin : hoy);
+            List<PedidoDTO> enCurso = ESTADOS_EN_CURSO.stream()
+                    .flatMap(estado -> pedidosPorEstado.getOrDefault(estado, List.of()).stream())
+                    .toList();
             
-            int pedidosCompletados = pedidosPorEstado.getOrDefault(EstadoPedido.ENTREGADO, List.of()).size();
-            int pedidosCancelados = pedidosPorEstado.getOrDefault(EstadoPedido.CANCELADO, List.of()).size();
-            double promedioVenta = totalPedidos > 0 ? totalVentas / totalPedidos : 0;
+            double totalVentas = resumen.getMontoTotal() + enCurso.stream().mapToDouble(PedidoDTO::getTotal).sum();
+            long pedidosPeriodo = resumen.getPedidosEntregados() + resumen.getPedidosCancelados() + enCurso.size();
+            double promedioVenta = pedidosPeriodo > 0 ? totalVentas / pedidosPeriodo : 0;
             
             model.addAttribute("totalVentas", totalVentas);
-            model.addAttribute("pedidosCompletados", pedidosCompletados);
-            model.addAttribute("pedidosCanceladosCount", pedidosCancelados);
+            model.addAttribute("pedidosCompletados", resumen.getPedidosEntregados());
+            model.addAttribute("pedidosCanceladosCount", resumen.getPedidosCancelados());
             model.addAttribute("promedioVenta", promedioVenta);
             
             log.debug("Listando pedidos: Total={}, Período={}", totalPedidos, periodoTexto);
@@ -123,6 +163,26 @@ public class PedidoAdminController {
     }
     
 
+    /**
+     * Tablero de cocina en JSON (solo pedidos activos, agrupados por estado)
+     */
+    @GetMapping("/tablero")
+    @ResponseBody
+    public Map<EstadoPedido, List<PedidoDTO>> tablero() {
+        return tableroCocinaService.obtenerTablero();
+    }
+    
+
+    /**
+     * Próximos pedidos a preparar según el inicio límite, en JSON
+     */
+    @GetMapping("/secuencia")
+    @ResponseBody
+    public List<PedidoSecuenciadoDTO> secuencia(@RequestParam(name = "limite", defaultValue = "5") int limite) {
+        return secuenciaCocinaService.siguientes(Math.min(Math.max(limite, 1), 100));
+    }
+    
+
     @PostMapping("/buscar")
     public String buscarPedido(
             @RequestParam("codigo") String codigo,
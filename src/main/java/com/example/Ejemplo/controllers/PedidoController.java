@@ -1,6 +1,8 @@
 package com.example.Ejemplo.controllers;
 
 import com.example.Ejemplo.config.UsuarioDetails;
+import com.example.Ejemplo.dto.BandejaNotificacionesDTO;
+import com.example.Ejemplo.dto.PaginaCursor;
 import com.example.Ejemplo.dto.PedidoDTO;
 import com.example.Ejemplo.models.*;
 import com.example.Ejemplo.services.*;
@@ -12,59 +14,57 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 
 @Slf4j
 @Controller
 @RequestMapping("/pedidos")
 public class PedidoController {
+    private static final int TAMANO_HISTORIAL = 10;
+
     private final PedidosService pedidosService;
-    private final UsuarioService usuarioService;
-    private final CarritoService carritoService;
-    private final DetallePedidoService detallePedidoService;
-    private final ProductoService productoService;
     private final NotificacionService notificacionService;
+    private final CheckoutService checkoutService;
 
     public PedidoController(PedidosService pedidosService, 
-                           UsuarioService usuarioService,
-                           CarritoService carritoService, 
-                           DetallePedidoService detallePedidoService,
-                           ProductoService productoService, 
-                           NotificacionService notificacionService) {
+                           NotificacionService notificacionService,
+                           CheckoutService checkoutService) {
         this.pedidosService = pedidosService;
-        this.usuarioService = usuarioService;
-        this.carritoService = carritoService;
-        this.detallePedidoService = detallePedidoService;
-        this.productoService = productoService;
         this.notificacionService = notificacionService;
+        this.checkoutService = checkoutService;
     }
 
 
     @GetMapping()
-    public String verPedidos(@AuthenticationPrincipal UsuarioDetails userDetails, Model model) {
+    public String verPedidos(@AuthenticationPrincipal UsuarioDetails userDetails,
+                             @RequestParam(required = false) String cursor,
+                             Model model) {
         try {
             Usuario usuario = userDetails.getUsuario();
             int idUsuario = usuario.getIdUsuario();
-            
 
-            List<Pedido> pedidos = pedidosService.obtenerPedidosPorUsuario(idUsuario);
-            List<PedidoDTO> pedidosDTO = pedidosService.convertirPedidosADTO(pedidos);
-            
+            List<PedidoDTO> pedidosActivos = pedidosService.obtenerActivosPorUsuario(idUsuario);
 
-            List<PedidoDTO> pedidosActivos = pedidosDTO.stream()
-                    .filter(p -> !p.getEstado().esFinal())
-                    .collect(Collectors.toList());
-            
-            List<PedidoDTO> pedidosCompletados = pedidosDTO.stream()
-                    .filter(p -> p.getEstado().esFinal())
-                    .collect(Collectors.toList());
+            // El historial crece sin límite: se pagina por cursor en vez de cargarlo entero
+            PaginaCursor<PedidoDTO> historial;
+            try {
+                historial = pedidosService.obtenerHistorialPorCursor(idUsuario, cursor, TAMANO_HISTORIAL);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                historial = pedidosService.obtenerHistorialPorCursor(idUsuario, null, TAMANO_HISTORIAL);
+            }
+            List<PedidoDTO> pedidosCompletados = historial.getContenido();
             
             model.addAttribute("usuarioAdmins", usuario.getRol().toString());
             model.addAttribute("pedidosActivos", pedidosActivos);
             model.addAttribute("pedidosCompletados", pedidosCompletados);
-            model.addAttribute("notificaciones", notificacionService.findAllByUsuario_IdUsuario(idUsuario));
+            model.addAttribute("cursorSiguiente", historial.getSiguiente());
+            model.addAttribute("cursorAnterior", historial.getAnterior());
+            BandejaNotificacionesDTO bandeja = notificacionService.obtenerBandeja(idUsuario);
+            model.addAttribute("notificaciones", bandeja.getRecientes());
+            model.addAttribute("notificacionesSinLeer", bandeja.getSinLeer());
+            model.addAttribute("hayMasNotificaciones", bandeja.isHayMas());
             
             log.debug("Mostrando pedidos del usuario {}: {} activos, {} completados", 
                      idUsuario, pedidosActivos.size(), pedidosCompletados.size());
@@ -92,84 +92,17 @@ public class PedidoController {
 
             int idUsuario = usuario.getIdUsuario();
 
-            // 2. Obtener productos del carrito
-            List<Producto> productos = obtenerTodosProductos(idUsuario);
-            List<Integer> cantidades = obtenerTodosProductosConCantidad(idUsuario);
-
-            // 3. Validar que haya productos en el carrito
-            if (productos.isEmpty()) {
-                model.addAttribute("error", "El carrito está vacío");
-                return "redirect:/carrito";
-            }
-
-            // 4. Validar que coincidan los tamaños
-            if (productos.size() != cantidades.size()) {
-                throw new IllegalStateException("Los productos y sus cantidades no coinciden");
-            }
-
-            // 5. Crear pedido con estado inicial PENDIENTE
-            Pedido pedido = new Pedido();
-            
-            // Buscar entidad Usuario usando método legacy del service
-            Usuario usuarioEntity = usuarioService.findUsuarioEntityById(idUsuario);
-            if (usuarioEntity == null) {
-                throw new IllegalStateException("Usuario no encontrado");
-            }
-            
-            pedido.setUsuario(usuarioEntity);
-            pedido.setFechaEntrega(horaEntrega);
-            pedido.setCodigoPedido(pedidosService.generarCodigoUnico());
-            pedido.setEstado(EstadoPedido.PENDIENTE); // Estado inicial
-            
-            Pedido pedidoGuardado = pedidosService.guardarPedido(pedido);
-
-            // 6. Procesar detalles del pedido
-            for (int i = 0; i < productos.size(); i++) {
-                Producto producto = productos.get(i);
-                int cantidad = cantidades.get(i);
-                
-                // Validar stock disponible
-                if (producto.getStock() < cantidad) {
-                    throw new IllegalStateException(
-                        String.format("Stock insuficiente para %s. Disponible: %d, Solicitado: %d", 
-                                     producto.getNombre(), producto.getStock(), cantidad)
-                    );
-                }
-                
-                DetallePedido detallePedido = new DetallePedido();
-                detallePedido.setPedido(pedidoGuardado);
-                detallePedido.setProducto(producto);
-                detallePedido.setCantidad(cantidad);
-                detallePedido.setSubtotal(producto.getPrecio() * cantidad);
-
-                DetallePedidoId detalleId = new DetallePedidoId(
-                        pedidoGuardado.getIdPedido(),
-                        producto.getIdProducto()
-                );
-                detallePedido.setDetallepedidoId(detalleId);
-
-                // Reducir stock
-                productoService.reducirStock(producto.getIdProducto(), cantidad);
-                detallePedidoService.saveDetallePedido(detallePedido);
-            }
-
-            // 7. Limpiar carrito
-            carritoService.limpiarCarrito(idUsuario);
-            
-            // 8. Crear notificación de confirmación
-            notificacionService.crearNotificacion(
-                idUsuario,
-                String.format("¡Pedido %s creado exitosamente! Te notificaremos cuando esté listo.", 
-                            pedidoGuardado.getCodigoPedido())
-            );
+            // 2. Checkout completo en una sola transacción
+            Pedido pedidoGuardado = checkoutService.confirmarPedido(idUsuario, horaEntrega);
             
             log.info("Pedido {} creado exitosamente para usuario {}", 
                     pedidoGuardado.getCodigoPedido(), idUsuario);
             
             return "redirect:/pedidos";
 
-        } catch (IllegalStateException e) {
-            log.error("Error de validación al crear pedido", e);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // Carrito vacío, sin stock, franja llena u hora de recojo inválida
+            log.warn("Pedido rechazado para usuario {}: {}", userDetails.getUsuario().getIdUsuario(), e.getMessage());
             model.addAttribute("error", e.getMessage());
             return "redirect:/carrito?error=" + e.getMessage();
         } catch (Exception e) {
@@ -178,17 +111,4 @@ public class PedidoController {
             return "error/error";
         }
     }
-
-
-    private List<Producto> obtenerTodosProductos(int idUsuario) {
-        return carritoService.obtenerCarritosPorUsuario(idUsuario).stream()
-                .map(Carrito::getIdProducto)
-                .collect(Collectors.toList());
-    }
-
-    private List<Integer> obtenerTodosProductosConCantidad(int idUsuario) {
-        return carritoService.obtenerCarritosPorUsuario(idUsuario).stream()
-                .map(Carrito::getCantidad)
-                .collect(Collectors.toList());
-    }
-}
+}
\ No newline at end of file
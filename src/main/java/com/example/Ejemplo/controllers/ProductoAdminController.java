@@ -5,6 +5,7 @@ import com.example.Ejemplo.dto.*;
 import com.example.Ejemplo.models.Usuario;
 import com.example.Ejemplo.services.CategoriaService;
 import com.example.Ejemplo.services.ProductoService;
+import com.example.Ejemplo.services.VariantesImagenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -26,43 +27,49 @@ import java.util.Map;
 @Slf4j
 public class ProductoAdminController {
 
+    private static final int TAMANO_PAGINA = 25;
+
     private final ProductoService productoService;
     private final CategoriaService categoriaService;
+    private final VariantesImagenService variantesImagenService;
 
     @GetMapping
     @PreAuthorize("hasAnyAuthority('PRODUCTOS_GESTIONAR', 'PRODUCTOS_VER', 'ROLE_ADMINISTRADOR', 'ROLE_TRABAJADOR')")
     public String listarProductos(
             @RequestParam(required = false) String busqueda,
             @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String cursor,
             Model model, 
             @AuthenticationPrincipal UsuarioDetails userDetails) {
         try {
             Usuario usuario = userDetails.getUsuario();
             log.info("Usuario {} accediendo a gestion de productos", usuario.getCorreo());
 
-            List<ProductoResponseDTO> productos = productoService.obtenerTodosConDetalles();
-            
-            if (busqueda != null && !busqueda.trim().isEmpty()) {
-                productos = productos.stream()
-                    .filter(p -> p.getNombre().toLowerCase().contains(busqueda.toLowerCase()))
-                    .toList();
-            }
-            
-            if (estado != null && !estado.isEmpty()) {
-                boolean estadoBoolean = "activo".equalsIgnoreCase(estado);
-                productos = productos.stream()
-                    .filter(p -> p.getEstado().equals(estadoBoolean))
-                    .toList();
+            String textoBusqueda = busqueda != null && !busqueda.trim().isEmpty() ? busqueda.trim() : null;
+            Boolean estadoBoolean = estado != null && !estado.isEmpty() ? "activo".equalsIgnoreCase(estado) : null;
+
+            // Filtros y orden en la BD, por cursor (sin cargar todos los productos)
+            PaginaCursor<ProductoResponseDTO> pagina;
+            try {
+                pagina = productoService.obtenerAdminPorCursor(textoBusqueda, estadoBoolean, cursor, TAMANO_PAGINA);
+            } catch (IllegalArgumentException e) {
+                log.debug("Cursor inválido en listado de productos: {}", e.getMessage());
+                pagina = productoService.obtenerAdminPorCursor(textoBusqueda, estadoBoolean, null, TAMANO_PAGINA);
             }
+            List<ProductoResponseDTO> productos = pagina.getContenido();
             
             List<CategoriaDTO> categorias = categoriaService.obtenerTodas();
             
-            log.debug("Listando productos. Total: {}", productos.size());
+            log.debug("Listando productos. En página: {}", productos.size());
 
             String rolNombre = usuario.getRol() != null ? usuario.getRol().toString() : "USUARIO";
             
             model.addAttribute("usuarioAdmins", rolNombre);
             model.addAttribute("productos", productos);
+            model.addAttribute("cursorSiguiente", pagina.getSiguiente());
+            model.addAttribute("cursorAnterior", pagina.getAnterior());
+            model.addAttribute("totalAproximado",
+                    productoService.contarAproximado(false, estadoBoolean, null, textoBusqueda));
             model.addAttribute("categorias", categorias);
             model.addAttribute("busqueda", busqueda);
             model.addAttribute("estadoFiltro", estado);
@@ -111,6 +118,7 @@ public class ProductoAdminController {
                     .precio(producto.getPrecio())
                     .descripcion(producto.getDescripcion())
                     .stock(producto.getStock())
+                    .minutosPreparacion(producto.getMinutosPreparacion())
                     .estado(producto.getEstado())
                     .imagenUrl(producto.getImagenUrl())
                     .idCategoria(producto.getCategoria().getIdCategoria())
@@ -146,6 +154,7 @@ public class ProductoAdminController {
             @RequestParam(value = "disponible", defaultValue = "false") Boolean disponible,
             @RequestParam(value = "id", required = false) Integer id,
             @RequestParam("stock") Integer stock,
+            @RequestParam(value = "minutosPreparacion", required = false) Integer minutosPreparacion,
             RedirectAttributes redirectAttributes) {
         
         try {
@@ -166,6 +175,10 @@ public class ProductoAdminController {
             if (stock == null || stock < 0) {
                 throw new IllegalArgumentException("El stock no puede ser negativo");
             }
+            
+            if (minutosPreparacion != null && minutosPreparacion < 0) {
+                throw new IllegalArgumentException("El tiempo de preparación no puede ser negativo");
+            }
 
             CategoriaDTO categoria = categoriaService.buscarPorNombre(categoriaNombre.trim())
                     .orElseGet(() -> {
@@ -181,6 +194,7 @@ public class ProductoAdminController {
                     .precio(precio)
                     .descripcion(descripcion.trim())
                     .stock(stock)
+                    .minutosPreparacion(minutosPreparacion)
                     .estado(disponible)
                     .idCategoria(categoria.getIdCategoria())
                     .nombreCategoria(categoria.getNombre())
@@ -306,6 +320,20 @@ public class ProductoAdminController {
     }
 
 
+    @PostMapping("/variantes-imagen")
+    @PreAuthorize("hasAuthority('ROLE_ADMINISTRADOR')")
+    public String generarVariantesImagen(RedirectAttributes redirectAttributes) {
+        // Importa de ImgBB y redimensiona todo el catálogo: corre en segundo plano
+        variantesImagenService.programarBackfill();
+
+        log.info("Backfill de variantes de imagen solicitado");
+        redirectAttributes.addFlashAttribute("mensaje",
+                "Se están generando las imágenes optimizadas en segundo plano");
+        redirectAttributes.addFlashAttribute("tipoMensaje", "success");
+        return "redirect:/admin/productos";
+    }
+
+
     @PostMapping("/{id}/eliminar-permanente")
     @PreAuthorize("hasAuthority('ROLE_ADMINISTRADOR')")
     public String eliminarPermanente(@PathVariable Integer id, RedirectAttributes redirectAttributes) {
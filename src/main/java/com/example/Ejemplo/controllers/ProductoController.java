@@ -1,23 +1,22 @@
 package com.example.Ejemplo.controllers;
 
 import java.time.LocalDate;
-import java.util.List;
 import java.util.stream.Collectors;
 
 import com.example.Ejemplo.config.UsuarioDetails;
+import com.example.Ejemplo.dto.BandejaNotificacionesDTO;
+import com.example.Ejemplo.dto.ProductoDTO;
 import com.example.Ejemplo.dto.UsuarioRegistroDTO;
-import com.example.Ejemplo.models.Carrito;
-import com.example.Ejemplo.models.MenuDia;
-import com.example.Ejemplo.models.Producto;
 import com.example.Ejemplo.models.Usuario;
+import com.example.Ejemplo.dto.CategoriaResponseDTO;
+import com.example.Ejemplo.dto.PaginaCursor;
+import com.example.Ejemplo.services.CatalogoService;
+import com.example.Ejemplo.services.CategoriaService;
+import com.example.Ejemplo.services.InventarioService;
 import com.example.Ejemplo.services.impl.CarritoServiceImpl;
-import com.example.Ejemplo.services.impl.MenuDiaServiceImpl;
 import com.example.Ejemplo.services.impl.NotificacionServiceImpl;
 import com.example.Ejemplo.services.impl.ProductoServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
@@ -39,24 +38,32 @@ public class ProductoController {
 
     private final NotificacionServiceImpl notificacionServiceImpl;
     
-    private final MenuDiaServiceImpl menuDiaServiceImpl;
+    private final CatalogoService catalogoService;
+
+    private final InventarioService inventarioService;
+
+    private final CategoriaService categoriaService;
 
     @Autowired
     public ProductoController(ProductoServiceImpl productosServiceImpl, 
                              CarritoServiceImpl carritoServiceImpl, 
                              NotificacionServiceImpl notificacionServiceImpl,
-                             MenuDiaServiceImpl menuDiaServiceImpl) {
+                             CatalogoService catalogoService,
+                             InventarioService inventarioService,
+                             CategoriaService categoriaService) {
         this.productosServiceImpl = productosServiceImpl;
         this.carritoServiceImpl = carritoServiceImpl;
         this.notificacionServiceImpl = notificacionServiceImpl;
-        this.menuDiaServiceImpl = menuDiaServiceImpl;
+        this.catalogoService = catalogoService;
+        this.inventarioService = inventarioService;
+        this.categoriaService = categoriaService;
     }
 
     @GetMapping()
     public String index(
             @RequestParam(required = false) String categoria,
             @RequestParam(required = false) String busqueda,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @AuthenticationPrincipal UsuarioDetails userDetails,
             Model model) {
         Usuario usuario = userDetails != null ? userDetails.getUsuario() : null;
@@ -65,61 +72,43 @@ public class ProductoController {
             String rolNombre = usuario.getRol() != null ? usuario.getRol().toString() : "USUARIO";
             model.addAttribute("usuarioAdmins", rolNombre);
             model.addAttribute("usuarioNombre", usuario.getNombre());
-            model.addAttribute("notificaciones", notificacionServiceImpl.findAllByUsuario_IdUsuario(usuario.getIdUsuario()));
+            BandejaNotificacionesDTO bandeja = notificacionServiceImpl.obtenerBandeja(usuario.getIdUsuario());
+            model.addAttribute("notificaciones", bandeja.getRecientes());
+            model.addAttribute("notificacionesSinLeer", bandeja.getSinLeer());
+            model.addAttribute("hayMasNotificaciones", bandeja.isHayMas());
         } else {
             model.addAttribute("usuarioAdmins", "INVITADO");
             model.addAttribute("usuarioNombre", "Invitado");
         }
         
-        List<MenuDia> menusHoy = menuDiaServiceImpl.findMenusDelDia(LocalDate.now());
-        List<Producto> productosMenuDelDia = menusHoy.stream()
-                .map(MenuDia::getProducto)
-                .collect(Collectors.toList());
-        model.addAttribute("menusDelDia", productosMenuDelDia);
+        model.addAttribute("menusDelDia", catalogoService.obtenerMenuDelDia(LocalDate.now()));
         
         if (!model.containsAttribute("usuarioRegistro")) {
             model.addAttribute("usuarioRegistro", new UsuarioRegistroDTO());
         }
 
-        int pageSize = 8;
-        Pageable pageable = PageRequest.of(page, pageSize);
-        Page<Producto> productosPage;
-
-        if ((categoria != null && !categoria.isEmpty()) || (busqueda != null && !busqueda.isEmpty())) {
-            productosPage = productosServiceImpl.buscarPorCategoriaYNombre(categoria, busqueda, pageable).map(dto -> {
-                Producto p = new Producto();
-                p.setIdProducto(dto.getIdProducto());
-                p.setNombre(dto.getNombre());
-                p.setDescripcion(dto.getDescripcion());
-                p.setPrecio(dto.getPrecio());
-                p.setStock(dto.getStock());
-                p.setImagenUrl(dto.getImagenUrl());
-                return p;
-            });
-        } else {
-            productosPage = productosServiceImpl.obtenerTodosPaginado(pageable).map(dto -> {
-                Producto p = new Producto();
-                p.setIdProducto(dto.getIdProducto());
-                p.setNombre(dto.getNombre());
-                p.setDescripcion(dto.getDescripcion());
-                p.setPrecio(dto.getPrecio());
-                p.setStock(dto.getStock());
-                p.setImagenUrl(dto.getImagenUrl());
-                return p;
-            });
+        // Páginas servidas desde cache; el stock se toma del libro en memoria
+        // porque cambia con cada pedido y no conviene invalidar el catálogo por eso
+        PaginaCursor<ProductoDTO> pagina;
+        try {
+            pagina = catalogoService.obtenerPagina(normalizar(categoria), normalizar(busqueda), normalizar(cursor));
+        } catch (IllegalArgumentException e) {
+            // Cursor viejo o manipulado: se vuelve a la primera página
+            pagina = catalogoService.obtenerPagina(normalizar(categoria), normalizar(busqueda), null);
         }
+        pagina = pagina.map(this::conStockActual);
 
-        if (busqueda != null && !busqueda.isEmpty() && productosPage.isEmpty()) {
-            model.addAttribute("noResultados", "Lo sentimos, no pudimos encontrar ese producto.");
-        }
-        
-        model.addAttribute("productos", productosPage.getContent());
-        model.addAttribute("productosPage", productosPage);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", productosPage.getTotalPages());
+        model.addAttribute("productos", pagina.getContenido());
+        model.addAttribute("cursorSiguiente", pagina.getSiguiente());
+        model.addAttribute("cursorAnterior", pagina.getAnterior());
+        model.addAttribute("totalAproximado", pagina.getTotalAproximado());
         model.addAttribute("categoriaActual", categoria);
         model.addAttribute("busquedaActual", busqueda);
-        model.addAttribute("noResultados", productosPage.getContent().isEmpty());
+        // Productos activos por nombre de categoría, para ocultar los filtros vacíos
+        model.addAttribute("productosPorCategoria", categoriaService.obtenerTodasConDetalles().stream()
+                .collect(Collectors.toMap(CategoriaResponseDTO::getNombre,
+                        CategoriaResponseDTO::getProductosActivos, (a, b) -> a)));
+        model.addAttribute("noResultados", pagina.isVacia());
 
         return "usuario/catalogo";
     }
@@ -132,58 +121,39 @@ public class ProductoController {
             @RequestParam int cantidad,
             RedirectAttributes redirectAttributes) {
 
-        Usuario usuario = userDetails.getUsuario();
-        int idUsuario = usuario.getIdUsuario();
-        int nuevaCantidad = 0;
-        double nuevoTotal = 0;
-        Producto producto = productosServiceImpl.buscarPorId(idProducto).map(dto -> {
-            Producto p = new Producto();
-            p.setIdProducto(dto.getIdProducto());
-            p.setNombre(dto.getNombre());
-            p.setPrecio(dto.getPrecio());
-            p.setStock(dto.getStock());
-            return p;
-        }).orElse(null);
-
-        if (producto == null) {
-            redirectAttributes.addFlashAttribute("error", "Producto no encontrado.");
-            return "redirect:/catalogo";
-        }
-
-        if (producto.getStock() <= 0) {
-            redirectAttributes.addFlashAttribute("error", "Lo sentimos, este producto no tiene stock disponible.");
+        int idUsuario = userDetails.getUsuario().getIdUsuario();
+        if (cantidad <= 0) {
+            redirectAttributes.addFlashAttribute("error", "La cantidad debe ser mayor a 0.");
             return "redirect:/catalogo";
         }
 
-        if (cantidad > producto.getStock()) {
-            redirectAttributes.addFlashAttribute("error", "No hay suficiente stock. Solo hay " + producto.getStock() + " unidades disponibles.");
+        // Se agrega en memoria con control de stock; el detalle del error solo se consulta si falla
+        if (carritoServiceImpl.agregarItem(idUsuario, idProducto, cantidad)) {
+            redirectAttributes.addFlashAttribute("success", "Se añadió al carrito correctamente");
             return "redirect:/catalogo";
         }
 
-        double total = cantidad * producto.getPrecio();
-        List<Carrito> carrito = carritoServiceImpl.obtenerCarritosPorUsuario(idUsuario);
-        for (Carrito carro : carrito) {
-            if (carro.getIdProducto().getIdProducto() == idProducto) {
-                nuevaCantidad = carro.getCantidad() + cantidad;
-                
-                if (nuevaCantidad > producto.getStock()) {
-                    redirectAttributes.addFlashAttribute("error", "No hay suficiente stock. Ya tienes " + carro.getCantidad() + " en el carrito. Stock disponible: " + producto.getStock());
-                    return "redirect:/catalogo";
-                }
-                
-                nuevoTotal = nuevaCantidad * carro.getIdProducto().getPrecio();
-                if (carritoServiceImpl.actualizarProductoAgregado(idUsuario, idProducto, nuevaCantidad,
-                        nuevoTotal) > 0) {
-                    redirectAttributes.addFlashAttribute("success", "Se añadió al carrito correctamente");
-                    return "redirect:/catalogo";
-                }
-            }
+        Integer stock = productosServiceImpl.buscarPorId(idProducto)
+                .map(dto -> conStockActual(dto).getStock())
+                .orElse(null);
+        if (stock == null) {
+            redirectAttributes.addFlashAttribute("error", "Producto no encontrado.");
+        } else if (stock <= 0) {
+            redirectAttributes.addFlashAttribute("error", "Lo sentimos, este producto no tiene stock disponible.");
+        } else {
+            redirectAttributes.addFlashAttribute("error", "No hay suficiente stock. Stock disponible: " + stock
+                    + " (incluye lo que ya tienes en el carrito).");
         }
-
-        carritoServiceImpl.saveCarrito(idUsuario, idProducto, cantidad, total);
-        redirectAttributes.addFlashAttribute("success", "Se añadió al carrito correctamente");
         return "redirect:/catalogo";
     }
 
+    private String normalizar(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
 
+    private ProductoDTO conStockActual(ProductoDTO dto) {
+        ProductoDTO copia = dto.toBuilder().build();
+        copia.setStock(inventarioService.stockDisponible(dto.getIdProducto()));
+        return copia;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.example.Ejemplo.controllers;
+
+import com.example.Ejemplo.models.VentaResumen;
+import com.example.Ejemplo.services.VentasAnaliticaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * API de análisis de ventas que usa la vista administrador/ventasGraf.
+ * Sin fechas se toman los últimos 30 días.
+ */
+@RestController
+@RequestMapping("/api/ventas")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasAnyAuthority('ESTADISTICAS_VER', 'VENTAS_VER', 'ROLE_ADMINISTRADOR', 'ROLE_TRABAJADOR')")
+public class VentasApiController {
+
+    private static final int DIAS_POR_DEFECTO = 30;
+
+    private final VentasAnaliticaService ventasAnaliticaService;
+
+    @GetMapping("/resumen")
+    public ResponseEntity<?> resumen(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Integer categoria) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1);
+        return ResponseEntity.ok(ventasAnaliticaService.resumen(inicio, fin, categoria));
+    }
+
+    @GetMapping("/serie")
+    public ResponseEntity<?> serie(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "DIA") VentaResumen.Granularidad granularidad,
+            @RequestParam(required = false) Integer categoria) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1);
+        return ResponseEntity.ok(ventasAnaliticaService.serie(inicio, fin, granularidad, categoria));
+    }
+
+    @GetMapping("/top-productos")
+    public ResponseEntity<?> topProductos(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Integer categoria,
+            @RequestParam(defaultValue = "10") int limite) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1);
+        return ResponseEntity.ok(ventasAnaliticaService.topProductos(inicio, fin, categoria, limite));
+    }
+
+    @GetMapping("/categorias")
+    public ResponseEntity<?> categorias(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1);
+        return ResponseEntity.ok(ventasAnaliticaService.categorias(inicio, fin));
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, MethodArgumentTypeMismatchException.class})
+    public ResponseEntity<?> parametrosInvalidos(Exception e) {
+        log.debug("Consulta de ventas inválida: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "mensaje", e instanceof MethodArgumentTypeMismatchException mismatch
+                        ? "Valor inválido para el parámetro " + mismatch.getName()
+                        : e.getMessage()
+        ));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.Ejemplo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cuerpo de POST /api/carrito/items: uno o varios productos en una sola llamada
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgregarItemsCarritoDTO {
+
+    @NotEmpty(message = "Debe enviar al menos un producto")
+    @Size(max = 20, message = "No se pueden agregar más de 20 productos a la vez")
+    private List<@Valid Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "El ID del producto es obligatorio")
+        private Integer idProducto;
+
+        @NotNull(message = "La cantidad es obligatoria")
+        @Min(value = 1, message = "La cantidad debe ser mayor a 0")
+        @Max(value = 99, message = "La cantidad no puede ser mayor a 99")
+        private Integer cantidad;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.Ejemplo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Lo que necesita el navbar: las últimas N notificaciones y el contador de no leídas
+ */
+@Data
+@AllArgsConstructor
+public class BandejaNotificacionesDTO {
+    private List<NotificacionDTO> recientes;
+    private int sinLeer;
+    // Hay más notificaciones que las mostradas
+    private boolean hayMas;
+}
@@ -0,0 +1,21 @@
+package com.example.Ejemplo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Totales del carrito tras agregar productos, más los que no entraron por stock
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarritoResumenDTO {
+
+    private long articulos;
+    private double total;
+    private List<Integer> rechazados = new ArrayList<>();
+}
@@ -16,6 +16,8 @@ public class CategoriaResponseDTO {
     private String nombre;
     private Long cantidadProductos;
     private Boolean tieneProdutos; 
+    private Long productosActivos;
+    private Long stockTotal;
     
     // Constructor sin cantidad de productos
     public CategoriaResponseDTO(Integer idCategoria, String nombre) {
@@ -24,4 +26,15 @@ public class CategoriaResponseDTO {
         this.cantidadProductos = 0L;
         this.tieneProdutos = false;
     }
+
+    // Proyección de CategoriaRepository.findResumenes
+    public CategoriaResponseDTO(Integer idCategoria, String nombre, Long cantidadProductos,
+                                Long productosActivos, Long stockTotal) {
+        this.idCategoria = idCategoria;
+        this.nombre = nombre;
+        this.cantidadProductos = cantidadProductos != null ? cantidadProductos : 0L;
+        this.tieneProdutos = this.cantidadProductos > 0;
+        this.productosActivos = productosActivos != null ? productosActivos : 0L;
+        this.stockTotal = stockTotal != null ? stockTotal : 0L;
+    }
 }
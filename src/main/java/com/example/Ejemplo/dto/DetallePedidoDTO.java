@@ -18,6 +18,8 @@ public class DetallePedidoDTO {
     private Integer cantidad;
     private Double subtotal;
     private String imagenUrl;
+    // Minutos por unidad según el producto (null = tiempo por defecto de cocina)
+    private Integer minutosPreparacion;
     
 
     public Double calcularSubtotal() {
@@ -0,0 +1,20 @@
+package com.example.Ejemplo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+/**
+ * Franja de recojo con su ocupación en unidades de preparación
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FranjaEntregaDTO {
+    private LocalTime inicio;
+    private LocalTime fin;
+    private int capacidad;
+    private int disponibles;
+}
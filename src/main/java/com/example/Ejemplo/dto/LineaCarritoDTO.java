@@ -0,0 +1,28 @@
+package com.example.Ejemplo.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Línea del carrito para la vista: datos del producto en una sola consulta
+ * más la cantidad que vive en memoria
+ */
+@Data
+@NoArgsConstructor
+public class LineaCarritoDTO {
+
+    private Integer idProducto;
+    private String nombre;
+    private double precio;
+    private String imagenUrl;
+    private int cantidad;
+    private double total;
+
+    // Usado por la proyección JPQL; cantidad y total se completan después
+    public LineaCarritoDTO(Integer idProducto, String nombre, Double precio, String imagenUrl) {
+        this.idProducto = idProducto;
+        this.nombre = nombre;
+        this.precio = precio != null ? precio : 0;
+        this.imagenUrl = imagenUrl;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.Ejemplo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Notificación para la campana del navbar (sin cargar el Usuario)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificacionDTO {
+    private int idNotificacion;
+    private String mensaje;
+    // true = leída
+    private boolean estado;
+}
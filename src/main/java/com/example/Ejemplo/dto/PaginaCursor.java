@@ -0,0 +1,114 @@
+package com.example.Ejemplo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página por cursor (keyset): en vez de número de página se devuelven tokens
+ * opacos con la clave de la primera/última fila, y la consulta siguiente
+ * continúa desde esa clave sin OFFSET ni COUNT.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursor<T> {
+
+    private static final String SEPARADOR = "\u001F";
+
+    private List<T> contenido;
+    // Token para la página siguiente / anterior (null si no hay)
+    private String siguiente;
+    private String anterior;
+    // Total aproximado (cacheado), null si no se calculó
+    private Long totalAproximado;
+
+    public boolean isVacia() {
+        return contenido == null || contenido.isEmpty();
+    }
+
+    public <R> PaginaCursor<R> map(Function<? super T, ? extends R> conversion) {
+        List<R> convertido = contenido.stream().<R>map(conversion).toList();
+        return new PaginaCursor<>(convertido, siguiente, anterior, totalAproximado);
+    }
+
+    /**
+     * Arma la página a partir de filas leídas con tamano + 1 en la dirección
+     * del cursor (la fila extra solo indica que hay más)
+     */
+    public static <T> PaginaCursor<T> armar(List<T> filas, int tamano, Cursor cursor,
+                                            Function<T, List<String>> clave) {
+        boolean hayMas = filas.size() > tamano;
+        List<T> contenido = new ArrayList<>(hayMas ? filas.subList(0, tamano) : filas);
+        if (contenido.isEmpty()) {
+            return new PaginaCursor<>(contenido, null, null, null);
+        }
+
+        T primera;
+        T ultima;
+        String siguiente;
+        String anterior;
+        if (cursor != null && cursor.haciaAtras()) {
+            // Se leyó en orden inverso: se restaura el orden natural
+            Collections.reverse(contenido);
+            primera = contenido.get(0);
+            ultima = contenido.get(contenido.size() - 1);
+            anterior = hayMas ? Cursor.codificar(true, clave.apply(primera)) : null;
+            siguiente = Cursor.codificar(false, clave.apply(ultima));
+        } else {
+            primera = contenido.get(0);
+            ultima = contenido.get(contenido.size() - 1);
+            siguiente = hayMas ? Cursor.codificar(false, clave.apply(ultima)) : null;
+            anterior = cursor != null ? Cursor.codificar(true, clave.apply(primera)) : null;
+        }
+        return new PaginaCursor<>(List.copyOf(contenido), siguiente, anterior, null);
+    }
+
+    /**
+     * Posición decodificada de un token
+     * @param haciaAtras true si se pide la página anterior a la clave
+     * @param clave valores de la fila límite, en el orden de la consulta
+     */
+    public record Cursor(boolean haciaAtras, List<String> clave) {
+
+        /**
+         * @return null si el token es null o vacío (primera página)
+         * @throws IllegalArgumentException si el token no es válido
+         */
+        public static Cursor leer(String token) {
+            if (token == null || token.isBlank()) {
+                return null;
+            }
+            String texto;
+            try {
+                texto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            String[] partes = texto.split(SEPARADOR, -1);
+            if (partes.length < 2 || !(partes[0].equals("A") || partes[0].equals("S"))) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            return new Cursor(partes[0].equals("A"), List.of(partes).subList(1, partes.length));
+        }
+
+        public static String codificar(boolean haciaAtras, List<String> clave) {
+            String texto = (haciaAtras ? "A" : "S") + SEPARADOR + String.join(SEPARADOR, clave);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public String valor(int posicion) {
+            if (posicion >= clave.size()) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            return clave.get(posicion);
+        }
+    }
+}
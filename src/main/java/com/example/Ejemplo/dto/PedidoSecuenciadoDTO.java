@@ -0,0 +1,33 @@
+package com.example.Ejemplo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * Pedido pendiente en el orden sugerido para la cocina
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoSecuenciadoDTO {
+    private int posicion;
+    private PedidoDTO pedido;
+
+    // Estimado a partir de los productos del pedido
+    private int minutosPreparacion;
+    private LocalDateTime horaRecojo;
+    // Último momento para empezar y llegar a la hora de recojo
+    private LocalDateTime inicioLimite;
+    // Minutos que quedan hasta el inicio límite (negativo = ya va tarde)
+    private long holguraMinutos;
+
+    public boolean isAtrasado() {
+        return holguraMinutos < 0;
+    }
+}
@@ -32,6 +32,9 @@ public class ProductoCreateDTO {
     @PositiveOrZero(message = "El stock no puede ser negativo")
     private Integer stock;
     
+    @PositiveOrZero(message = "El tiempo de preparación no puede ser negativo")
+    private Integer minutosPreparacion; // Null: se usa el tiempo por defecto de cocina
+    
     @NotNull(message = "Debes indicar si el producto está disponible")
     private Boolean estado;
     
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductoDTO {
@@ -19,6 +19,9 @@ public class ProductoDTO {
     private Integer stock;
     private Boolean estado;
     private String imagenUrl;
+    // Variantes de tamaño (null/original mientras no estén generadas)
+    private String imagenSrcset;
+    private String imagenMiniaturaUrl;
     
     // Información de la categoría (solo ID y nombre, no toda la entidad)
     private Integer idCategoria;
@@ -17,6 +17,11 @@ public class ProductoMasVendidoDTO {
         this.totalVendidos = totalVendidos != null ? totalVendidos.intValue() : 0;
     }
 
+    // Usado al leer desde venta_resumen, donde el precio viene como Double
+    public ProductoMasVendidoDTO(Integer id, String nombre, Double precio, String descripcion, Long totalVendidos) {
+        this(id, nombre, precio != null ? BigDecimal.valueOf(precio) : null, descripcion, totalVendidos);
+    }
+
     public Integer getId() { return id; }
     public String getNombre() { return nombre; }
     public BigDecimal getPrecio() { return precio; }
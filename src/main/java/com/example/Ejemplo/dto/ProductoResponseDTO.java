@@ -17,8 +17,12 @@ public class ProductoResponseDTO {
     private Double precio;
     private String descripcion;
     private Integer stock;
+    private Integer minutosPreparacion;
     private Boolean estado;
     private String imagenUrl;
+    // Variantes de tamaño (null/original mientras no estén generadas)
+    private String imagenSrcset;
+    private String imagenMiniaturaUrl;
     
     private CategoriaDTO categoria;
     
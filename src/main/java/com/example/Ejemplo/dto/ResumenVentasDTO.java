@@ -0,0 +1,37 @@
+package com.example.Ejemplo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenVentasDTO {
+    // Solo pedidos entregados: lo que sigue en curso no está en los resúmenes
+    private double montoTotal;
+    private long pedidosEntregados;
+    private long unidadesVendidas;
+    private long pedidosCancelados;
+    // Las cancelaciones solo se resumen en total: con filtro de categoría no hay tasa
+    private boolean filtradoPorCategoria;
+
+    public double getTicketPromedio() {
+        return pedidosEntregados > 0 ? montoTotal / pedidosEntregados : 0;
+    }
+
+    /**
+     * Porcentaje de pedidos cancelados sobre los finalizados (entregados + cancelados),
+     * o null si el resumen está filtrado por categoría
+     */
+    public Double getTasaCancelacion() {
+        if (filtradoPorCategoria) {
+            return null;
+        }
+        long finalizados = pedidosEntregados + pedidosCancelados;
+        return finalizados > 0 ? pedidosCancelados * 100.0 / finalizados : 0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.Ejemplo.dto;
+
+/**
+ * Sugerencia del buscador del catálogo
+ * @param texto nombre a mostrar (con tildes y mayúsculas originales)
+ * @param tipo PRODUCTO o CATEGORIA
+ * @param id ID del producto o de la categoría
+ */
+public record SugerenciaDTO(String texto, Tipo tipo, Integer id) {
+
+    public enum Tipo {
+        PRODUCTO,
+        CATEGORIA
+    }
+}
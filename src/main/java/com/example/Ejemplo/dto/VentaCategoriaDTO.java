@@ -0,0 +1,23 @@
+package com.example.Ejemplo.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+@Data
+@NoArgsConstructor
+public class VentaCategoriaDTO {
+    private Integer idCategoria;
+    private String nombre;
+    private double monto;
+    private long unidades;
+    // Participación sobre el monto total del período (0-100)
+    private double porcentaje;
+
+    public VentaCategoriaDTO(Integer idCategoria, String nombre, Double monto, Long unidades) {
+        this.idCategoria = idCategoria;
+        this.nombre = nombre;
+        this.monto = monto != null ? monto : 0;
+        this.unidades = unidades != null ? unidades : 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.Ejemplo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaPeriodoDTO {
+    // Inicio de la hora o del día
+    private LocalDateTime periodo;
+    private double monto;
+    private long pedidos;
+    private long unidades;
+}
@@ -0,0 +1,27 @@
+package com.example.Ejemplo.events;
+
+/**
+ * Se publica cuando cambia algo visible en el catálogo público.
+ * @param origen qué se modificó (decide qué caches se invalidan)
+ * @param id ID del producto, del menú o de la categoría afectada
+ */
+public record CatalogoModificadoEvent(Origen origen, Integer id) {
+
+    public enum Origen {
+        PRODUCTO,
+        MENU_DIA,
+        CATEGORIA
+    }
+
+    public static CatalogoModificadoEvent producto(Integer idProducto) {
+        return new CatalogoModificadoEvent(Origen.PRODUCTO, idProducto);
+    }
+
+    public static CatalogoModificadoEvent menuDia(Integer idMenu) {
+        return new CatalogoModificadoEvent(Origen.MENU_DIA, idMenu);
+    }
+
+    public static CatalogoModificadoEvent categoria(Integer idCategoria) {
+        return new CatalogoModificadoEvent(Origen.CATEGORIA, idCategoria);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.Ejemplo.events;
+
+/**
+ * Se publica cuando un producto pasa a usar una imagen del almacén local.
+ * @param idProducto producto que la usa
+ * @param nombre nombre del archivo en el almacén ("&lt;sha256&gt;.&lt;ext&gt;")
+ */
+public record ImagenAlmacenadaEvent(Integer idProducto, String nombre) {
+}
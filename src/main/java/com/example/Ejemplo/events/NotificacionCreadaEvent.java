@@ -0,0 +1,7 @@
+package com.example.Ejemplo.events;
+
+/**
+ * Se publica al guardar una notificación para un usuario.
+ */
+public record NotificacionCreadaEvent(int idUsuario, int idNotificacion, String mensaje) {
+}
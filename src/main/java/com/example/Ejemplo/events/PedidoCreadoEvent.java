@@ -0,0 +1,10 @@
+package com.example.Ejemplo.events;
+
+import com.example.Ejemplo.dto.PedidoDTO;
+
+/**
+ * Se publica al confirmar un pedido nuevo. Lleva el DTO ya armado para que
+ * los oyentes no tengan que volver a leer el pedido de la BD.
+ */
+public record PedidoCreadoEvent(PedidoDTO pedido) {
+}
@@ -0,0 +1,14 @@
+package com.example.Ejemplo.events;
+
+import com.example.Ejemplo.models.EstadoPedido;
+
+/**
+ * Se publica cada vez que un pedido cambia de estado (avance o cancelación).
+ * @param idUsuario dueño del pedido
+ */
+public record PedidoEstadoCambiadoEvent(int idPedido,
+                                        String codigoPedido,
+                                        Integer idUsuario,
+                                        EstadoPedido estadoAnterior,
+                                        EstadoPedido estadoNuevo) {
+}
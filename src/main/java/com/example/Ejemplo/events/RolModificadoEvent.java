@@ -0,0 +1,8 @@
+package com.example.Ejemplo.events;
+
+/**
+ * Se publica cuando cambian el nombre, el estado o los permisos de un rol.
+ * @param idRol ID del rol afectado
+ */
+public record RolModificadoEvent(Integer idRol) {
+}
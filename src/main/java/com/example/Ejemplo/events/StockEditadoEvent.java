@@ -0,0 +1,9 @@
+package com.example.Ejemplo.events;
+
+/**
+ * Se publica cuando el stock de un producto se escribe a mano (edición o
+ * borrado desde el admin), por fuera del libro de stock.
+ * @param idProducto producto cuyo stock en BD ya no coincide con el libro
+ */
+public record StockEditadoEvent(Integer idProducto) {
+}
@@ -67,6 +67,7 @@ public class PedidoMapper {
                 .cantidad(detalle.getCantidad())
                 .subtotal(detalle.getSubtotal())
                 .imagenUrl(detalle.getProducto().getImagenUrl())
+                .minutosPreparacion(detalle.getProducto().getMinutosPreparacion())
                 .build();
     }
     
@@ -5,6 +5,7 @@ import com.example.Ejemplo.dto.ProductoDTO;
 import com.example.Ejemplo.dto.ProductoResponseDTO;
 import com.example.Ejemplo.models.Categoria;
 import com.example.Ejemplo.models.Producto;
+import com.example.Ejemplo.services.VariantesImagenService;
 import org.springframework.stereotype.Component;
 
 /**
@@ -14,9 +15,11 @@ import org.springframework.stereotype.Component;
 public class ProductoMapper {
     
     private final CategoriaMapper categoriaMapper;
+    private final VariantesImagenService variantesImagenService;
     
-    public ProductoMapper(CategoriaMapper categoriaMapper) {
+    public ProductoMapper(CategoriaMapper categoriaMapper, VariantesImagenService variantesImagenService) {
         this.categoriaMapper = categoriaMapper;
+        this.variantesImagenService = variantesImagenService;
     }
     
     /**
@@ -35,6 +38,9 @@ public class ProductoMapper {
                 .stock(producto.getStock())
                 .estado(producto.getEstado())
                 .imagenUrl(producto.getImagenUrl())
+                .imagenSrcset(variantesImagenService.srcset(producto.getImagenUrl()))
+                .imagenMiniaturaUrl(variantesImagenService.url(
+                        producto.getImagenUrl(), VariantesImagenService.Variante.MINIATURA))
                 .idCategoria(producto.getCategoria() != null ? producto.getCategoria().getIdCategoria() : null)
                 .nombreCategoria(producto.getCategoria() != null ? producto.getCategoria().getNombre() : null)
                 .build();
@@ -65,8 +71,12 @@ public class ProductoMapper {
                 .precio(producto.getPrecio())
                 .descripcion(producto.getDescripcion())
                 .stock(producto.getStock())
+                .minutosPreparacion(producto.getMinutosPreparacion())
                 .estado(producto.getEstado())
                 .imagenUrl(producto.getImagenUrl())
+                .imagenSrcset(variantesImagenService.srcset(producto.getImagenUrl()))
+                .imagenMiniaturaUrl(variantesImagenService.url(
+                        producto.getImagenUrl(), VariantesImagenService.Variante.MINIATURA))
                 .categoria(categoriaMapper.toDTO(producto.getCategoria()))
                 .disponible(disponible)
                 .estadoTexto(estadoTexto)
@@ -87,6 +97,7 @@ public class ProductoMapper {
         producto.setPrecio(dto.getPrecio());
         producto.setDescripcion(dto.getDescripcion());
         producto.setStock(dto.getStock());
+        producto.setMinutosPreparacion(dto.getMinutosPreparacion());
         producto.setEstado(dto.getEstado());
         producto.setImagenUrl(dto.getImagenUrl());
         
@@ -106,6 +117,7 @@ public class ProductoMapper {
         producto.setPrecio(dto.getPrecio());
         producto.setDescripcion(dto.getDescripcion());
         producto.setStock(dto.getStock());
+        producto.setMinutosPreparacion(dto.getMinutosPreparacion());
         producto.setEstado(dto.getEstado());
         
         if (dto.getImagenUrl() != null && !dto.getImagenUrl().isEmpty()) {
@@ -5,11 +5,20 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "notificaciones")
+@Table(name = "notificaciones", indexes = {
+        // Bandeja: últimas N del usuario
+        @Index(name = "idx_notificacion_usuario", columnList = "id_usuario, id_notificacion"),
+        // Contador de no leídas y marcado en lote
+        @Index(name = "idx_notificacion_usuario_estado", columnList = "id_usuario, estado"),
+        // Job de retención: leídas más viejas que N días
+        @Index(name = "idx_notificacion_estado_fecha", columnList = "estado, fecha_creacion")
+})
 public class Notificacion {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,4 +32,13 @@ public class Notificacion {
 
     private boolean estado;
 
+    @Column(name = "fecha_creacion")
+    private LocalDateTime fechaCreacion;
+
+    @PrePersist
+    protected void onCreate() {
+        if (fechaCreacion == null) {
+            fechaCreacion = LocalDateTime.now();
+        }
+    }
 }
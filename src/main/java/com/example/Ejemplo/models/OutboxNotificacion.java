@@ -0,0 +1,51 @@
+package com.example.Ejemplo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notificación pendiente de entregar. Se escribe en la misma transacción que
+ * el cambio que la origina y el despachador la pasa a notificaciones después.
+ * La clave evita encolar dos veces lo mismo (p. ej. "pedido-15-LISTO").
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_notificaciones",
+        uniqueConstraints = @UniqueConstraint(name = "uk_outbox_clave", columnNames = "clave"),
+        indexes = @Index(name = "idx_outbox_pendientes", columnList = "procesado, id"))
+public class OutboxNotificacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_usuario", nullable = false)
+    private Integer idUsuario;
+
+    @Column(name = "mensaje", nullable = false, length = 500)
+    private String mensaje;
+
+    @Column(name = "clave", nullable = false, length = 100)
+    private String clave;
+
+    @Column(name = "procesado", nullable = false)
+    private boolean procesado;
+
+    @Column(name = "intentos", nullable = false)
+    private int intentos;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_procesado")
+    private LocalDateTime fechaProcesado;
+}
@@ -13,7 +13,13 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+    @Index(name = "uk_pedido_codigo", columnList = "codigo_pedido", unique = true),
+    @Index(name = "idx_pedido_actualizacion", columnList = "fecha_actualizacion"),
+    @Index(name = "idx_pedido_fecha", columnList = "fecha_pedido"),
+    @Index(name = "idx_pedido_estado_fecha", columnList = "estado, fecha_pedido"),
+    @Index(name = "idx_pedido_usuario_fecha", columnList = "id_usuario, fecha_pedido, id_pedido")
+})
 public class Pedido {
 
     @Id
@@ -31,6 +37,10 @@ public class Pedido {
     private LocalDateTime fechaPedido;
     @Column(name = "fecha_entrega")
     private LocalTime fechaEntrega;
+
+    // Último cambio (de estado u otro); lo usa el job de resúmenes de ventas
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
     
     @Enumerated(EnumType.STRING)
     @Column(name = "estado", nullable = false)
@@ -48,10 +58,16 @@ public class Pedido {
     @PrePersist
     protected void onCreate() {
         fechaPedido = LocalDateTime.now();
+        fechaActualizacion = fechaPedido;
         if (estado == null) {
             estado = EstadoPedido.PENDIENTE;
         }
     }
+
+    @PreUpdate
+    protected void onUpdate() {
+        fechaActualizacion = LocalDateTime.now();
+    }
     
     /**
      * Cambia el estado del pedido si la transición es válida
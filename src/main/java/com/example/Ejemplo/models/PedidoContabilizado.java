@@ -0,0 +1,31 @@
+package com.example.Ejemplo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registra con qué estado final quedó sumado cada pedido en venta_resumen.
+ * Hace idempotente la agregación (evento + job de recuperación).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "pedido_contabilizado")
+public class PedidoContabilizado {
+
+    @Id
+    @Column(name = "id_pedido")
+    private Integer idPedido;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    private EstadoPedido estado;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+}
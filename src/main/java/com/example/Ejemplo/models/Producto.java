@@ -11,7 +11,8 @@ import lombok.Builder;
 @Entity
 @Table(name = "productos", indexes = {
     @Index(name = "idx_producto_categoria", columnList = "id_categoria"),
-    @Index(name = "idx_producto_nombre", columnList = "nombre")
+    @Index(name = "idx_producto_nombre", columnList = "nombre"),
+    @Index(name = "idx_producto_cursor", columnList = "id_categoria, nombre, id_producto")
 })
 @Getter
 @Setter
@@ -41,9 +42,17 @@ public class Producto {
     @Builder.Default
     private Boolean estado = true;
 
+    // Minutos de cocina por unidad; null usa el valor por defecto (cocina.minutos-por-unidad)
+    @Column(name = "minutos_preparacion")
+    private Integer minutosPreparacion;
+
     @Column(name = "imagen_url", length = 255)
     private String imagenUrl;
 
+    // Copia en ImgBB de la imagen local (réplica opcional, se llena después del commit)
+    @Column(name = "imagen_remota_url", length = 255)
+    private String imagenRemotaUrl;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "id_categoria", nullable = false, foreignKey = @ForeignKey(name = "fk_producto_categoria"))
     private Categoria categoria;
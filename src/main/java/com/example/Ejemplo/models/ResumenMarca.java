@@ -0,0 +1,26 @@
+package com.example.Ejemplo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de agua de los jobs de agregación: hasta dónde se procesó.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "resumen_marca")
+public class ResumenMarca {
+
+    @Id
+    @Column(name = "nombre", length = 40)
+    private String nombre;
+
+    @Column(name = "valor", nullable = false)
+    private LocalDateTime valor;
+}
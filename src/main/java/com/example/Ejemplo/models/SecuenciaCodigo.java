@@ -0,0 +1,25 @@
+package com.example.Ejemplo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contador compartido entre nodos para los códigos de pedido.
+ * Cada nodo arrienda bloques de valores avanzando "siguiente".
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "secuencia_codigo")
+public class SecuenciaCodigo {
+
+    @Id
+    @Column(name = "nombre", length = 40)
+    private String nombre;
+
+    @Column(name = "siguiente", nullable = false)
+    private long siguiente;
+}
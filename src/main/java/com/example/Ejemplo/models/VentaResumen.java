@@ -0,0 +1,46 @@
+package com.example.Ejemplo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Acumulado de ventas entregadas por periodo (hora, día o histórico) y por
+ * dimensión (total, producto, categoría, cancelados). Se mantiene de forma
+ * incremental, así que las estadísticas no recorren el historial de pedidos.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "venta_resumen", indexes = {
+    @Index(name = "idx_resumen_dimension_periodo", columnList = "dimension, granularidad, periodo")
+})
+public class VentaResumen {
+
+    public enum Granularidad {
+        HORA,
+        DIA,
+        HISTORICO
+    }
+
+    public enum Dimension {
+        TOTAL,
+        PRODUCTO,
+        CATEGORIA,
+        CANCELADOS
+    }
+
+    @EmbeddedId
+    private VentaResumenId id;
+
+    @Column(name = "unidades", nullable = false)
+    private long unidades;
+
+    @Column(name = "monto", nullable = false)
+    private double monto;
+
+    @Column(name = "pedidos", nullable = false)
+    private long pedidos;
+}
@@ -0,0 +1,35 @@
+package com.example.Ejemplo.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaResumenId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularidad", length = 10)
+    private VentaResumen.Granularidad granularidad;
+
+    // Inicio del periodo (hora o día truncados)
+    @Column(name = "periodo")
+    private LocalDateTime periodo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", length = 10)
+    private VentaResumen.Dimension dimension;
+
+    // ID del producto o categoría; 0 para TOTAL y CANCELADOS
+    @Column(name = "id_referencia")
+    private Integer idReferencia;
+}
@@ -15,29 +15,34 @@ import jakarta.transaction.Transactional;
 
 @Repository
 public interface CarritoRepository extends JpaRepository<Carrito, CarritoId> {
-    @Modifying
-    @Transactional
-    @Query(value = "UPDATE carrito SET cantidad = :cantidad, total = :subTotal WHERE id_producto = :idProducto AND id_usuario = :idUsuario", nativeQuery = true)
-    int updateCantidadCarrito(@Param("idUsuario") int idUsuario,
-                              @Param("idProducto") int idProducto,
-                              @Param("cantidad") int cantidad,
-                              @Param("subTotal") double subTotal);
 
     @Modifying
     @Transactional
     @Query("DELETE FROM Carrito c WHERE c.idUsuario.idUsuario = :usuarioId AND c.idProducto.idProducto = :productoId")
     int deleteCarritoByUsuarioIdAndProductoId(@Param("usuarioId") int usuarioId, @Param("productoId") int productoId);
 
-    List<Carrito> findByIdUsuario_IdUsuario(Integer idUsuario);
+    // Solo (idProducto, cantidad): lo que necesita el carrito en memoria al cargarse
+    @Query("SELECT c.idProducto.idProducto, c.cantidad FROM Carrito c WHERE c.idUsuario.idUsuario = :idUsuario")
+    List<Object[]> findCantidadesByUsuario(@Param("idUsuario") int idUsuario);
 
+    // Borrado masivo en un único DELETE (el derivado carga y borra fila por fila)
+    @Modifying
     @Transactional
-    int deleteCarritoByIdUsuario_IdUsuario(Integer idUsuario);
+    @Query("DELETE FROM Carrito c WHERE c.idUsuario.idUsuario = :idUsuario")
+    int vaciarCarrito(@Param("idUsuario") Integer idUsuario);
 
+    /**
+     * Deja la línea con la cantidad indicada (inserta o reemplaza) en una sola
+     * sentencia; el total se calcula con el precio actual del producto
+     */
     @Modifying
     @Transactional
-    @Query(value = "INSERT INTO carrito (id_usuario, id_producto, cantidad, total) VALUES (:idUsuario, :idProducto, :cantidad, :total)", nativeQuery = true)
-    void saveCarritoByIdUsuario(@Param("idUsuario") int idUsuario,
-                                @Param("idProducto") int idProducto,
-                                @Param("cantidad") int cantidad,
-                                @Param("total") double total);
-}
\ No newline at end of file
+    @Query(value = "INSERT INTO carrito (id_usuario, id_producto, cantidad, total) " +
+            "SELECT :idUsuario, p.id_producto, :cantidad, p.precio * :cantidad " +
+            "FROM productos p WHERE p.id_producto = :idProducto " +
+            "ON DUPLICATE KEY UPDATE cantidad = :cantidad, total = p.precio * :cantidad",
+            nativeQuery = true)
+    int fijarCantidad(@Param("idUsuario") int idUsuario,
+                      @Param("idProducto") int idProducto,
+                      @Param("cantidad") int cantidad);
+}
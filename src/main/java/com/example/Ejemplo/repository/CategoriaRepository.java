@@ -4,8 +4,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.Ejemplo.dto.CategoriaResponseDTO;
 import com.example.Ejemplo.models.Categoria;
 
+import java.util.List;
+
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Integer> {
 
@@ -18,6 +21,16 @@ public interface CategoriaRepository extends JpaRepository<Categoria, Integer> {
     @Query("SELECT COUNT(p) FROM Producto p WHERE p.categoria.idCategoria = :idCategoria")
     long countProductosByCategoria(@Param("idCategoria") Integer idCategoria);
     
+    /**
+     * Resumen de todas las categorías en una sola consulta agrupada
+     * (las categorías sin productos salen con conteos en 0)
+     */
+    @Query("SELECT new com.example.Ejemplo.dto.CategoriaResponseDTO(c.idCategoria, c.nombre, COUNT(p), " +
+           "SUM(CASE WHEN p.estado = true THEN 1L ELSE 0L END), COALESCE(SUM(p.stock), 0L)) " +
+           "FROM Categoria c LEFT JOIN c.productos p " +
+           "GROUP BY c.idCategoria, c.nombre ORDER BY c.nombre")
+    List<CategoriaResponseDTO> findResumenes();
+
     /**
      * Encuentra una categoría con sus productos inicializados (si es necesario)
      */
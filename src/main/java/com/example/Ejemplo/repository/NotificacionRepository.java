@@ -1,18 +1,63 @@
 package com.example.Ejemplo.repository;
 
+import com.example.Ejemplo.dto.NotificacionDTO;
 import com.example.Ejemplo.models.Notificacion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificacionRepository extends JpaRepository<Notificacion, Integer> {
     List<Notificacion> findAllByUsuario_IdUsuario(int usuarioIdUsuario);
     
-    // Obtener las últimas N notificaciones ordenadas por ID descendente
-    @Query("SELECT n FROM Notificacion n WHERE n.usuario.idUsuario = :idUsuario ORDER BY n.idNotificacion DESC")
-    List<Notificacion> findTopByUsuarioOrderByIdDesc(@Param("idUsuario") int idUsuario);
+    // Obtener las últimas N notificaciones ordenadas por ID descendente (N = tamaño del Pageable)
+    List<Notificacion> findByUsuario_IdUsuarioOrderByIdNotificacionDesc(int idUsuario, Pageable pageable);
+
+    /**
+     * Últimas N para la campana, sin traer el Usuario de cada fila (usa idx_notificacion_usuario)
+     */
+    @Query("SELECT new com.example.Ejemplo.dto.NotificacionDTO(n.idNotificacion, n.mensaje, n.estado) " +
+           "FROM Notificacion n WHERE n.usuario.idUsuario = :idUsuario ORDER BY n.idNotificacion DESC")
+    List<NotificacionDTO> findRecientes(@Param("idUsuario") int idUsuario, Pageable pageable);
+
+    long countByUsuario_IdUsuarioAndEstadoFalse(int idUsuario);
+
+    /**
+     * Marca como leídas las no leídas hasta un ID (las que llegaron después no se tocan)
+     */
+    @Modifying
+    @Query("UPDATE Notificacion n SET n.estado = true " +
+           "WHERE n.usuario.idUsuario = :idUsuario AND n.estado = false AND n.idNotificacion <= :hastaId")
+    int marcarLeidas(@Param("idUsuario") int idUsuario, @Param("hastaId") int hastaId);
+
+    /**
+     * Borrado en un solo DELETE (sin cargar las entidades)
+     */
+    @Modifying
+    @Query("DELETE FROM Notificacion n WHERE n.usuario.idUsuario = :idUsuario")
+    int eliminarTodas(@Param("idUsuario") int idUsuario);
+
+    /**
+     * Borra un tramo de leídas anteriores al límite. El LIMIT acota las filas
+     * bloqueadas por sentencia; se recorre idx_notificacion_estado_fecha.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM notificaciones WHERE estado = true AND fecha_creacion < :limite " +
+            "ORDER BY fecha_creacion LIMIT :lote", nativeQuery = true)
+    int eliminarLeidasAnteriores(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+
+    /**
+     * Las filas creadas antes de existir fecha_creacion empiezan a contar desde hoy
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notificacion n SET n.fechaCreacion = CURRENT_TIMESTAMP WHERE n.fechaCreacion IS NULL")
+    int completarFechaCreacion();
 }
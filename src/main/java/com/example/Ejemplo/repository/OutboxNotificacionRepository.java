@@ -0,0 +1,54 @@
+package com.example.Ejemplo.repository;
+
+import com.example.Ejemplo.models.OutboxNotificacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxNotificacionRepository extends JpaRepository<OutboxNotificacion, Long> {
+
+    /**
+     * INSERT IGNORE sobre uk_outbox_clave: una clave repetida no falla ni marca
+     * la transacción del llamador para rollback
+     * @return 1 si se encoló, 0 si la clave ya existía
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO outbox_notificaciones " +
+            "(id_usuario, mensaje, clave, procesado, intentos, fecha_creacion) " +
+            "VALUES (:idUsuario, :mensaje, :clave, false, 0, NOW())", nativeQuery = true)
+    int encolar(@Param("idUsuario") int idUsuario,
+                @Param("mensaje") String mensaje,
+                @Param("clave") String clave);
+
+    /**
+     * Toma un lote de pendientes. SKIP LOCKED deja que otra instancia tome
+     * las siguientes en lugar de esperar a este lote.
+     */
+    @Query(value = "SELECT * FROM outbox_notificaciones WHERE procesado = false " +
+            "ORDER BY id LIMIT :lote FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxNotificacion> bloquearPendientes(@Param("lote") int lote);
+
+    @Query(value = "SELECT * FROM outbox_notificaciones WHERE id = :id AND procesado = false " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<OutboxNotificacion> bloquearPendiente(@Param("id") long id);
+
+    @Modifying
+    @Query("UPDATE OutboxNotificacion o SET o.procesado = true, o.fechaProcesado = :fecha WHERE o.id IN :ids")
+    int marcarProcesados(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Borra un tramo de entregadas anteriores al límite (ver RetencionNotificacionesService)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM outbox_notificaciones WHERE procesado = true AND fecha_procesado < :limite " +
+            "ORDER BY id LIMIT :lote", nativeQuery = true)
+    int eliminarProcesadasAnteriores(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+}
@@ -0,0 +1,22 @@
+package com.example.Ejemplo.repository;
+
+import com.example.Ejemplo.models.PedidoContabilizado;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PedidoContabilizadoRepository extends JpaRepository<PedidoContabilizado, Integer> {
+
+    /**
+     * Lee con bloqueo de fila para que evento y job no sumen el mismo pedido a la vez
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM PedidoContabilizado c WHERE c.idPedido = :idPedido")
+    Optional<PedidoContabilizado> findParaActualizar(@Param("idPedido") Integer idPedido);
+}
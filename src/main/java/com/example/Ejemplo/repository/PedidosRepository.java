@@ -3,6 +3,7 @@ package com.example.Ejemplo.repository;
 import com.example.Ejemplo.models.EstadoPedido;
 import com.example.Ejemplo.models.Pedido;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,7 +11,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PedidosRepository extends JpaRepository<Pedido, Integer> {
@@ -25,7 +28,7 @@ public interface PedidosRepository extends JpaRepository<Pedido, Integer> {
      */
     @Modifying
     @Transactional
-    @Query("UPDATE Pedido p SET p.estado = 'ENTREGADO' WHERE p.codigoPedido = :idPedido")
+    @Query("UPDATE Pedido p SET p.estado = 'ENTREGADO', p.fechaActualizacion = CURRENT_TIMESTAMP WHERE p.codigoPedido = :idPedido")
     int deleteByCodigoPedido(@Param("idPedido") String codigoPedido);
 
     /**
@@ -37,12 +40,98 @@ public interface PedidosRepository extends JpaRepository<Pedido, Integer> {
     /**
      * Obtiene todos los pedidos de un usuario con sus detalles
      */
-    @Query("SELECT DISTINCT p FROM Pedido p JOIN FETCH p.detallePedido dp JOIN FETCH dp.producto WHERE p.usuario.idUsuario = :idUsuario")
+    @Query("SELECT DISTINCT p FROM Pedido p JOIN FETCH p.detallePedido dp JOIN FETCH dp.producto pr LEFT JOIN FETCH pr.categoria WHERE p.usuario.idUsuario = :idUsuario")
     List<Pedido> findAllByUsuario_IdUsuario(@Param("idUsuario") int idUsuario);
     
+    /**
+     * Pedidos del usuario en los estados dados, con detalles y productos
+     */
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.detallePedido dp LEFT JOIN FETCH dp.producto pr LEFT JOIN FETCH pr.categoria " +
+           "WHERE p.usuario.idUsuario = :idUsuario AND p.estado IN :estados ORDER BY p.fechaPedido DESC")
+    List<Pedido> findConDetallesByUsuarioAndEstadoIn(@Param("idUsuario") int idUsuario,
+                                                     @Param("estados") Collection<EstadoPedido> estados);
+
+    // ============= HISTORIAL POR CURSOR =============
+    // Solo IDs, en orden (fecha_pedido DESC, id_pedido DESC) sobre idx_pedido_usuario_fecha;
+    // los detalles se cargan después con findConDetallesByIdIn para no paginar un JOIN FETCH.
+
+    @Query("SELECT p.idPedido FROM Pedido p WHERE p.usuario.idUsuario = :idUsuario AND p.estado IN :estados " +
+           "ORDER BY p.fechaPedido DESC, p.idPedido DESC")
+    List<Integer> findHistorialPrimeros(@Param("idUsuario") int idUsuario,
+                                        @Param("estados") Collection<EstadoPedido> estados,
+                                        Pageable pageable);
+
+    @Query("SELECT p.idPedido FROM Pedido p WHERE p.usuario.idUsuario = :idUsuario AND p.estado IN :estados " +
+           "AND (p.fechaPedido < :fecha OR (p.fechaPedido = :fecha AND p.idPedido < :idPedido)) " +
+           "ORDER BY p.fechaPedido DESC, p.idPedido DESC")
+    List<Integer> findHistorialDespuesDe(@Param("idUsuario") int idUsuario,
+                                         @Param("estados") Collection<EstadoPedido> estados,
+                                         @Param("fecha") LocalDateTime fecha,
+                                         @Param("idPedido") int idPedido,
+                                         Pageable pageable);
+
+    @Query("SELECT p.idPedido FROM Pedido p WHERE p.usuario.idUsuario = :idUsuario AND p.estado IN :estados " +
+           "AND (p.fechaPedido > :fecha OR (p.fechaPedido = :fecha AND p.idPedido > :idPedido)) " +
+           "ORDER BY p.fechaPedido ASC, p.idPedido ASC")
+    List<Integer> findHistorialAntesDe(@Param("idUsuario") int idUsuario,
+                                       @Param("estados") Collection<EstadoPedido> estados,
+                                       @Param("fecha") LocalDateTime fecha,
+                                       @Param("idPedido") int idPedido,
+                                       Pageable pageable);
+
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.detallePedido dp LEFT JOIN FETCH dp.producto pr LEFT JOIN FETCH pr.categoria " +
+           "WHERE p.idPedido IN :ids")
+    List<Pedido> findConDetallesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    boolean existsByCodigoPedido(String codigoPedido);
+
     /**
      * Busca pedidos por rango de fechas
      */
-    @Query("SELECT p FROM Pedido p WHERE p.fechaPedido BETWEEN :fechaInicio AND :fechaFin ORDER BY p.fechaPedido DESC")
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.usuario LEFT JOIN FETCH p.detallePedido dp LEFT JOIN FETCH dp.producto pr LEFT JOIN FETCH pr.categoria " +
+           "WHERE p.fechaPedido BETWEEN :fechaInicio AND :fechaFin ORDER BY p.fechaPedido DESC")
     List<Pedido> findByFechaPedidoBetween(@Param("fechaInicio") LocalDateTime fechaInicio, @Param("fechaFin") LocalDateTime fechaFin);
+
+    /**
+     * Pedidos en los estados dados con usuario, detalles y productos en una sola consulta
+     */
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.usuario LEFT JOIN FETCH p.detallePedido dp LEFT JOIN FETCH dp.producto pr LEFT JOIN FETCH pr.categoria " +
+           "WHERE p.estado IN :estados")
+    List<Pedido> findConDetallesByEstadoIn(@Param("estados") Collection<EstadoPedido> estados);
+
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.usuario LEFT JOIN FETCH p.detallePedido dp LEFT JOIN FETCH dp.producto pr LEFT JOIN FETCH pr.categoria " +
+           "WHERE p.idPedido = :idPedido")
+    Optional<Pedido> findConDetallesById(@Param("idPedido") int idPedido);
+
+    /**
+     * Unidades pedidas por hora de recojo en un rango de fechas de pedido
+     * (con qué se cargan las franjas de un día al iniciar o tras un reinicio)
+     */
+    @Query("SELECT p.fechaEntrega, SUM(d.cantidad) FROM DetallePedido d JOIN d.pedido p " +
+           "WHERE p.fechaPedido >= :desde AND p.fechaPedido < :hasta AND p.estado <> :excluido " +
+           "AND p.fechaEntrega IS NOT NULL GROUP BY p.fechaEntrega")
+    List<Object[]> sumarUnidadesPorHoraEntrega(@Param("desde") LocalDateTime desde,
+                                               @Param("hasta") LocalDateTime hasta,
+                                               @Param("excluido") EstadoPedido excluido);
+
+    /**
+     * Pedidos en estado final modificados después del cursor (fechaActualizacion, idPedido),
+     * en ese orden (devuelve [idPedido, fechaActualizacion])
+     */
+    @Query("SELECT p.idPedido, p.fechaActualizacion FROM Pedido p " +
+           "WHERE p.estado IN :estados AND (p.fechaActualizacion > :desde " +
+           "OR (p.fechaActualizacion = :desde AND p.idPedido > :idDesde)) " +
+           "ORDER BY p.fechaActualizacion, p.idPedido")
+    List<Object[]> findFinalizadosDesde(@Param("estados") Collection<EstadoPedido> estados,
+                                        @Param("desde") LocalDateTime desde,
+                                        @Param("idDesde") int idDesde,
+                                        Pageable pageable);
+
+    /**
+     * Completa fecha_actualizacion en pedidos anteriores a la columna
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Pedido p SET p.fechaActualizacion = p.fechaPedido WHERE p.fechaActualizacion IS NULL")
+    int completarFechaActualizacion();
 }
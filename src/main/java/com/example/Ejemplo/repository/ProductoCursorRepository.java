@@ -0,0 +1,31 @@
+package com.example.Ejemplo.repository;
+
+import com.example.Ejemplo.models.Producto;
+
+import java.util.List;
+
+/**
+ * Paginación por cursor de productos en orden (id_categoria, nombre, id_producto),
+ * el de idx_producto_cursor. Cada combinación de filtros arma su propia consulta
+ * con solo los predicados que aplica, sin "(:x IS NULL OR ...)" que impidan al
+ * optimizador usar el índice.
+ */
+public interface ProductoCursorRepository {
+
+    /**
+     * @param desde fila límite del cursor, o null para la primera página
+     * @param haciaAtras true para leer en orden inverso desde la clave (página anterior)
+     */
+    List<Producto> findPorCursor(FiltroProductos filtro, ClaveProducto desde, boolean haciaAtras, int limite);
+
+    long contarPorFiltros(FiltroProductos filtro);
+
+    /**
+     * Filtros del listado: null (o false en soloConStock) no filtra
+     */
+    record FiltroProductos(boolean soloConStock, Boolean estado, String categoria, String busqueda) {
+    }
+
+    record ClaveProducto(Integer idCategoria, String nombre, Integer idProducto) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.Ejemplo.repository;
+
+import com.example.Ejemplo.models.Producto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arma el JPQL con los predicados de los filtros presentes. Para una misma
+ * combinación el texto es siempre el mismo, así que Hibernate reutiliza el plan
+ * y la BD ve una sentencia fija por combinación (a lo sumo 16 distintas).
+ */
+public class ProductoCursorRepositoryImpl implements ProductoCursorRepository {
+
+    private static final String ORDEN_ASC = " ORDER BY p.categoria.idCategoria, p.nombre, p.idProducto";
+    private static final String ORDEN_DESC = " ORDER BY p.categoria.idCategoria DESC, p.nombre DESC, p.idProducto DESC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Producto> findPorCursor(FiltroProductos filtro, ClaveProducto desde, boolean haciaAtras, int limite) {
+        Consulta consulta = Consulta.de(filtro);
+        if (desde != null) {
+            String op = haciaAtras ? "<" : ">";
+            consulta.condiciones.add("(p.categoria.idCategoria " + op + " :idCategoria OR (p.categoria.idCategoria = :idCategoria " +
+                    "AND (p.nombre " + op + " :nombre OR (p.nombre = :nombre AND p.idProducto " + op + " :idProducto))))");
+            consulta.parametros.put("idCategoria", desde.idCategoria());
+            consulta.parametros.put("nombre", desde.nombre());
+            consulta.parametros.put("idProducto", desde.idProducto());
+        }
+
+        String jpql = "SELECT p FROM Producto p" + consulta.where() + (haciaAtras ? ORDEN_DESC : ORDEN_ASC);
+        TypedQuery<Producto> query = entityManager.createQuery(jpql, Producto.class);
+        consulta.parametros.forEach(query::setParameter);
+        return query.setMaxResults(limite).getResultList();
+    }
+
+    @Override
+    public long contarPorFiltros(FiltroProductos filtro) {
+        Consulta consulta = Consulta.de(filtro);
+        TypedQuery<Long> query = entityManager.createQuery("SELECT COUNT(p) FROM Producto p" + consulta.where(), Long.class);
+        consulta.parametros.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private record Consulta(List<String> condiciones, Map<String, Object> parametros) {
+
+        static Consulta de(FiltroProductos filtro) {
+            Consulta consulta = new Consulta(new ArrayList<>(), new LinkedHashMap<>());
+            if (filtro.soloConStock()) {
+                consulta.condiciones.add("p.stock > 0");
+            }
+            if (filtro.estado() != null) {
+                consulta.condiciones.add("p.estado = :estado");
+                consulta.parametros.put("estado", filtro.estado());
+            }
+            if (filtro.categoria() != null) {
+                consulta.condiciones.add("p.categoria.nombre = :categoria");
+                consulta.parametros.put("categoria", filtro.categoria());
+            }
+            if (filtro.busqueda() != null) {
+                consulta.condiciones.add("LOWER(p.nombre) LIKE :busqueda");
+                consulta.parametros.put("busqueda", "%" + filtro.busqueda().toLowerCase() + "%");
+            }
+            return consulta;
+        }
+
+        String where() {
+            return condiciones.isEmpty() ? "" : " WHERE " + String.join(" AND ", condiciones);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.Ejemplo.repository;
 
+import com.example.Ejemplo.dto.LineaCarritoDTO;
 import com.example.Ejemplo.models.Producto;
 
 import jakarta.transaction.Transactional;
@@ -11,11 +12,12 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Integer> {
+public interface ProductoRepository extends JpaRepository<Producto, Integer>, ProductoCursorRepository {
     List<Producto> findProductoByCategoria_Nombre(String categoriaNombre);
 
     List<Producto> findByNombreContaining(String nombre);
@@ -24,10 +26,6 @@ public interface ProductoRepository extends JpaRepository<Producto, Integer> {
     Page<Producto> findAll(Pageable pageable);
     @Query("SELECT p FROM Producto p WHERE p.stock > 0 AND p.categoria.nombre = :nombre")
     Page<Producto> findByCategoriaNombre(@Param("nombre") String nombre, Pageable pageable);
-    @Query("SELECT p FROM Producto p WHERE p.stock > 0 AND LOWER(p.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))")
-    Page<Producto> findByNombreContainingIgnoreCase(@Param("nombre") String nombre, Pageable pageable);
-    @Query(" SELECT p FROM Producto p WHERE p.stock > 0 AND p.categoria.nombre = :categoria AND LOWER(p.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))")
-    Page<Producto> findByCategoriaNombreAndNombreContainingIgnoreCase(String categoria, String nombre, Pageable pageable);
 
     @Query("SELECT p FROM Producto p WHERE LOWER(p.nombre) LIKE concat('%',:nombre,'%')")
     List<Producto> findByNombreContainingIgnoreCase(@Param("nombre") String nombre);
@@ -36,4 +34,58 @@ public interface ProductoRepository extends JpaRepository<Producto, Integer> {
     @Transactional
     @Query("UPDATE Producto p set p.stock = :stock WHERE p.idProducto = :idProducto")
     int reducirStock(int stock, int idProducto);
+
+    @Query("SELECT p.stock FROM Producto p WHERE p.idProducto = :idProducto")
+    Optional<Integer> findStockById(@Param("idProducto") Integer idProducto);
+
+    // Datos de producto de todas las líneas de un carrito en una consulta
+    @Query("SELECT new com.example.Ejemplo.dto.LineaCarritoDTO(p.idProducto, p.nombre, p.precio, p.imagenUrl) " +
+           "FROM Producto p WHERE p.idProducto IN :ids")
+    List<LineaCarritoDTO> findLineasCarrito(@Param("ids") Collection<Integer> ids);
+
+    // Checkout: productos con su categoría (EAGER) sin un SELECT extra por categoría
+    @Query("SELECT p FROM Producto p JOIN FETCH p.categoria WHERE p.idProducto IN :ids")
+    List<Producto> findConCategoriaByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Descuenta stock solo si alcanza (UPDATE condicional, sin leer la entidad)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Producto p SET p.stock = p.stock - :cantidad WHERE p.idProducto = :idProducto AND p.stock >= :cantidad")
+    int descontarStock(@Param("idProducto") Integer idProducto, @Param("cantidad") int cantidad);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Producto p SET p.stock = p.stock + :cantidad WHERE p.idProducto = :idProducto")
+    int incrementarStock(@Param("idProducto") Integer idProducto, @Param("cantidad") int cantidad);
+
+    /**
+     * Pares [idProducto, imagenUrl] para el backfill de variantes de imagen
+     */
+    @Query("SELECT p.idProducto, p.imagenUrl FROM Producto p WHERE p.imagenUrl IS NOT NULL")
+    List<Object[]> findImagenes();
+
+    /**
+     * Apunta el producto a la copia local de su imagen remota, que queda como réplica
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Producto p SET p.imagenUrl = :imagenUrl, p.imagenRemotaUrl = :anterior " +
+           "WHERE p.idProducto = :idProducto AND p.imagenUrl = :anterior")
+    int reemplazarImagenRemota(@Param("idProducto") Integer idProducto,
+                               @Param("anterior") String anterior,
+                               @Param("imagenUrl") String imagenUrl);
+
+    /**
+     * Guarda la URL de la réplica solo si el producto sigue usando esa imagen
+     * (pudo cambiar mientras se subía)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Producto p SET p.imagenRemotaUrl = :imagenRemotaUrl " +
+           "WHERE p.idProducto = :idProducto AND p.imagenUrl = :imagenUrl")
+    int actualizarImagenRemota(@Param("idProducto") Integer idProducto,
+                               @Param("imagenUrl") String imagenUrl,
+                               @Param("imagenRemotaUrl") String imagenRemotaUrl);
 }
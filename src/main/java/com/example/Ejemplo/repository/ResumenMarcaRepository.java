@@ -0,0 +1,9 @@
+package com.example.Ejemplo.repository;
+
+import com.example.Ejemplo.models.ResumenMarca;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ResumenMarcaRepository extends JpaRepository<ResumenMarca, String> {
+}
@@ -0,0 +1,26 @@
+package com.example.Ejemplo.repository;
+
+import com.example.Ejemplo.models.SecuenciaCodigo;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SecuenciaCodigoRepository extends JpaRepository<SecuenciaCodigo, String> {
+
+    /**
+     * Avanza la secuencia en un bloque (la crea si no existe). La fila queda
+     * bloqueada hasta el commit, así que la lectura posterior es consistente.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO secuencia_codigo (nombre, siguiente) VALUES (:nombre, :bloque) " +
+            "ON DUPLICATE KEY UPDATE siguiente = siguiente + :bloque", nativeQuery = true)
+    int avanzar(@Param("nombre") String nombre, @Param("bloque") long bloque);
+
+    @Query(value = "SELECT siguiente FROM secuencia_codigo WHERE nombre = :nombre", nativeQuery = true)
+    Long findSiguiente(@Param("nombre") String nombre);
+}
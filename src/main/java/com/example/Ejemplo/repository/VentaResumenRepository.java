@@ -0,0 +1,99 @@
+package com.example.Ejemplo.repository;
+
+import com.example.Ejemplo.dto.ProductoMasVendidoDTO;
+import com.example.Ejemplo.dto.VentaCategoriaDTO;
+import com.example.Ejemplo.models.VentaResumen;
+import com.example.Ejemplo.models.VentaResumenId;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VentaResumenRepository extends JpaRepository<VentaResumen, VentaResumenId> {
+
+    /**
+     * Suma (o resta, con valores negativos) sobre un bucket, creándolo si no existe
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO venta_resumen (granularidad, periodo, dimension, id_referencia, unidades, monto, pedidos) " +
+            "VALUES (:granularidad, :periodo, :dimension, :idReferencia, :unidades, :monto, :pedidos) " +
+            "ON DUPLICATE KEY UPDATE unidades = unidades + :unidades, monto = monto + :monto, pedidos = pedidos + :pedidos",
+            nativeQuery = true)
+    int acumular(@Param("granularidad") String granularidad,
+                 @Param("periodo") LocalDateTime periodo,
+                 @Param("dimension") String dimension,
+                 @Param("idReferencia") int idReferencia,
+                 @Param("unidades") long unidades,
+                 @Param("monto") double monto,
+                 @Param("pedidos") long pedidos);
+
+    /**
+     * Ranking de productos a partir de los buckets de una granularidad
+     * (con HISTORICO se lee una sola fila por producto)
+     */
+    @Query("SELECT new com.example.Ejemplo.dto.ProductoMasVendidoDTO(p.idProducto, p.nombre, p.precio, p.descripcion, r.unidades) " +
+           "FROM VentaResumen r JOIN Producto p ON p.idProducto = r.id.idReferencia " +
+           "WHERE r.id.granularidad = :granularidad AND r.id.dimension = :dimension " +
+           "AND r.unidades > 0 ORDER BY r.unidades DESC")
+    List<ProductoMasVendidoDTO> findRankingProductos(@Param("granularidad") VentaResumen.Granularidad granularidad,
+                                                     @Param("dimension") VentaResumen.Dimension dimension);
+
+    /**
+     * Buckets de una dimensión y granularidad dentro de [desde, hasta)
+     */
+    @Query("SELECT r FROM VentaResumen r WHERE r.id.dimension = :dimension AND r.id.granularidad = :granularidad " +
+           "AND r.id.periodo >= :desde AND r.id.periodo < :hasta ORDER BY r.id.periodo")
+    List<VentaResumen> findBuckets(@Param("dimension") VentaResumen.Dimension dimension,
+                                   @Param("granularidad") VentaResumen.Granularidad granularidad,
+                                   @Param("desde") LocalDateTime desde,
+                                   @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Igual que findBuckets pero para una sola referencia (un producto o una categoría)
+     */
+    @Query("SELECT r FROM VentaResumen r WHERE r.id.dimension = :dimension AND r.id.granularidad = :granularidad " +
+           "AND r.id.idReferencia = :idReferencia AND r.id.periodo >= :desde AND r.id.periodo < :hasta ORDER BY r.id.periodo")
+    List<VentaResumen> findBucketsDeReferencia(@Param("dimension") VentaResumen.Dimension dimension,
+                                               @Param("granularidad") VentaResumen.Granularidad granularidad,
+                                               @Param("idReferencia") Integer idReferencia,
+                                               @Param("desde") LocalDateTime desde,
+                                               @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Ranking de productos en un rango (agrupa los buckets diarios en la BD)
+     */
+    @Query("SELECT new com.example.Ejemplo.dto.ProductoMasVendidoDTO(p.idProducto, p.nombre, p.precio, p.descripcion, SUM(r.unidades)) " +
+           "FROM VentaResumen r JOIN Producto p ON p.idProducto = r.id.idReferencia " +
+           "WHERE r.id.dimension = :dimension " +
+           "AND r.id.granularidad = :granularidad AND r.id.periodo >= :desde AND r.id.periodo < :hasta " +
+           "AND (:idCategoria IS NULL OR p.categoria.idCategoria = :idCategoria) " +
+           "GROUP BY p.idProducto, p.nombre, p.precio, p.descripcion " +
+           "HAVING SUM(r.unidades) > 0 ORDER BY SUM(r.unidades) DESC")
+    List<ProductoMasVendidoDTO> findRankingProductosEntre(@Param("dimension") VentaResumen.Dimension dimension,
+                                                          @Param("granularidad") VentaResumen.Granularidad granularidad,
+                                                          @Param("desde") LocalDateTime desde,
+                                                          @Param("hasta") LocalDateTime hasta,
+                                                          @Param("idCategoria") Integer idCategoria,
+                                                          Pageable pageable);
+
+    /**
+     * Monto y unidades por categoría en un rango
+     */
+    @Query("SELECT new com.example.Ejemplo.dto.VentaCategoriaDTO(c.idCategoria, c.nombre, SUM(r.monto), SUM(r.unidades)) " +
+           "FROM VentaResumen r JOIN Categoria c ON c.idCategoria = r.id.idReferencia " +
+           "WHERE r.id.dimension = :dimension " +
+           "AND r.id.granularidad = :granularidad AND r.id.periodo >= :desde AND r.id.periodo < :hasta " +
+           "GROUP BY c.idCategoria, c.nombre ORDER BY SUM(r.monto) DESC")
+    List<VentaCategoriaDTO> findVentasPorCategoria(@Param("dimension") VentaResumen.Dimension dimension,
+                                                   @Param("granularidad") VentaResumen.Granularidad granularidad,
+                                                   @Param("desde") LocalDateTime desde,
+                                                   @Param("hasta") LocalDateTime hasta);
+}
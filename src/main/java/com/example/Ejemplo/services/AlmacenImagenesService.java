@@ -0,0 +1,50 @@
+package com.example.Ejemplo.services;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Almacén de imágenes de productos direccionado por contenido: el nombre de
+ * cada archivo es el SHA-256 de sus bytes, así que subir dos veces la misma
+ * imagen ocupa un solo archivo y la URL nunca cambia de contenido.
+ */
+public interface AlmacenImagenesService {
+
+    String PREFIJO_URL = "/media/imagenes/";
+
+    /**
+     * Copia la imagen al almacén leyéndola como stream (sin cargarla entera en memoria)
+     * @throws IllegalArgumentException si el archivo no es PNG, JPEG, GIF ni WEBP
+     * @throws IllegalStateException si falla la escritura
+     */
+    ImagenAlmacenada guardar(MultipartFile imagen);
+
+    /**
+     * Igual que {@link #guardar(MultipartFile)} para imágenes que no vienen de un
+     * formulario (p. ej. las que se importan desde ImgBB)
+     */
+    ImagenAlmacenada guardar(InputStream contenido);
+
+    /**
+     * Guarda un archivo derivado (variante de tamaño) junto al original
+     * @param nombre "&lt;sha256 del original&gt;-&lt;ancho&gt;.&lt;ext&gt;"
+     */
+    void guardarDerivada(String nombre, byte[] contenido);
+
+    /**
+     * @param nombre "&lt;sha256&gt;.&lt;ext&gt;" o el de una variante
+     *               ("&lt;sha256&gt;-&lt;ancho&gt;.&lt;ext&gt;"); cualquier otro formato devuelve vacío
+     */
+    Optional<Path> ubicar(String nombre);
+
+    /**
+     * @param nombre nombre del archivo en el almacén ("&lt;sha256&gt;.&lt;ext&gt;")
+     * @param url URL pública (PREFIJO_URL + nombre)
+     * @param nueva false si el contenido ya estaba almacenado
+     */
+    record ImagenAlmacenada(String nombre, String url, String tipo, long tamano, boolean nueva) {
+    }
+}
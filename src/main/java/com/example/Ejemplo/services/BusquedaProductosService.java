@@ -0,0 +1,42 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.dto.ProductoDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Búsqueda del catálogo sobre un índice invertido en memoria (nombre,
+ * descripción y categoría), sin acentos ni mayúsculas: "aji" encuentra "Ají".
+ */
+public interface BusquedaProductosService {
+
+    Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    Pattern NO_ALFANUMERICO = Pattern.compile("[^a-z0-9]+");
+
+    /**
+     * Productos activos y con stock que contienen todos los términos del texto,
+     * primero los que coinciden al inicio de una palabra del nombre
+     * @param categoria nombre exacto de la categoría, o null para todas
+     */
+    Page<ProductoDTO> buscar(String texto, String categoria, Pageable pageable);
+
+    /**
+     * Vuelve a cargar todos los productos desde la BD
+     */
+    void reconstruir();
+
+    /**
+     * Minúsculas, sin tildes ni diéresis y con cualquier signo convertido en espacio
+     */
+    static String normalizarTexto(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NO_ALFANUMERICO.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.Ejemplo.services;
+
+import java.util.Map;
+
+/**
+ * Carritos activos en memoria delante de la tabla carrito. Los cambios se
+ * aplican en memoria, se agrupan por línea y se vuelcan a la BD por lotes;
+ * si un carrito no está en memoria se carga desde la tabla.
+ */
+public interface CarritoMemoriaService {
+
+    /**
+     * @return copia de idProducto -> cantidad, en el orden en que se agregaron
+     */
+    Map<Integer, Integer> lineas(int idUsuario);
+
+    /**
+     * Suma unidades a una línea sin pasar de un máximo (comprobado y aplicado de forma atómica)
+     * @return false si la línea quedaría por encima del máximo
+     */
+    boolean sumar(int idUsuario, int idProducto, int cantidad, int maximo);
+
+    boolean quitar(int idUsuario, int idProducto);
+
+    /**
+     * Vacía el carrito y devuelve lo que tenía (checkout)
+     */
+    Map<Integer, Integer> tomar(int idUsuario);
+
+    /**
+     * Vuelve a sumar líneas tomadas con {@link #tomar} (rollback del checkout)
+     */
+    void devolver(int idUsuario, Map<Integer, Integer> lineas);
+
+    int volcarPendientes();
+}
@@ -1,18 +1,35 @@
 package com.example.Ejemplo.services;
 
-import com.example.Ejemplo.models.Carrito;
+import com.example.Ejemplo.dto.CarritoResumenDTO;
+import com.example.Ejemplo.dto.LineaCarritoDTO;
 import com.example.Ejemplo.models.Producto;
 
 import java.util.List;
+import java.util.Map;
 
 
 public interface CarritoService {
     List<Producto> findAllProductos();
     List<Producto> findAllProductosById(int id);
-    List<Carrito> obtenerCarritosPorUsuario(int id);
-    void saveCarrito(int id,int idProducto,int cantidad,double total);
-    int actualizarProductoAgregado(int idUsuario, int idProducto, int cantidad,double subTotal);
+
+    /**
+     * Líneas del carrito con los datos actuales de cada producto (una consulta)
+     */
+    List<LineaCarritoDTO> obtenerLineas(int idUsuario);
+
     int eliminarProductoAgregado(int idUsuario,int idProducto);
 
     int limpiarCarrito(int idUsuario);
-}
\ No newline at end of file
+
+    /**
+     * Suma al carrito cada producto sin pasar del stock disponible
+     * @param cantidadesPorProducto idProducto -> unidades a agregar
+     * @return totales del carrito; en rechazados, los productos que no existen o no tienen stock
+     * @throws IllegalArgumentException si alguna cantidad no es positiva
+     */
+    CarritoResumenDTO agregarItems(int idUsuario, Map<Integer, Integer> cantidadesPorProducto);
+
+    boolean agregarItem(int idUsuario, int idProducto, int cantidad);
+
+    CarritoResumenDTO resumir(int idUsuario);
+}
@@ -0,0 +1,24 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.dto.PaginaCursor;
+import com.example.Ejemplo.dto.ProductoDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Lecturas del catálogo público, servidas desde cache
+ */
+public interface CatalogoService {
+
+    int TAMANO_PAGINA = 8;
+
+    /**
+     * Página del catálogo por cursor, con total aproximado
+     * @param cursor token de la página anterior/siguiente, o null para la primera
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    PaginaCursor<ProductoDTO> obtenerPagina(String categoria, String busqueda, String cursor);
+
+    List<ProductoDTO> obtenerMenuDelDia(LocalDate fecha);
+}
@@ -0,0 +1,18 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.models.Pedido;
+
+import java.time.LocalTime;
+
+/**
+ * Convierte el carrito de un usuario en un pedido dentro de una sola transacción.
+ */
+public interface CheckoutService {
+
+    /**
+     * Reserva stock, crea el pedido con todos sus detalles, vacía el carrito y
+     * registra la notificación. Si algo falla no queda nada a medias.
+     * @throws IllegalStateException si el carrito está vacío o falta stock
+     */
+    Pedido confirmarPedido(int idUsuario, LocalTime horaEntrega);
+}
@@ -0,0 +1,54 @@
+package com.example.Ejemplo.services;
+
+/**
+ * Genera códigos de pedido con formato LLLDDD (3 letras + 3 dígitos)
+ * a partir de una secuencia en BD arrendada por bloques. Cada valor de la
+ * secuencia se desordena con una permutación antes de codificarse, para que
+ * los códigos consecutivos no se puedan adivinar.
+ */
+public interface CodigoPedidoService {
+
+    /** Total de códigos distintos representables: 26^3 * 10^3 */
+    long ESPACIO_CODIGOS = 26L * 26 * 26 * 1000;
+
+    String siguienteCodigo();
+
+    /**
+     * Permutación de [0, ESPACIO_CODIGOS) según la clave: Feistel de 4 rondas
+     * sobre 26 bits, recorriendo el ciclo hasta caer dentro del espacio.
+     * Valores distintos dan siempre resultados distintos.
+     */
+    static long permutar(long valor, long clave) {
+        long v = Math.floorMod(valor, ESPACIO_CODIGOS);
+        do {
+            long izquierda = v >>> 13;
+            long derecha = v & 0x1FFF;
+            for (int ronda = 0; ronda < 4; ronda++) {
+                long mezcla = (derecha ^ clave ^ ((long) ronda << 32)) * 0x9E3779B97F4A7C15L;
+                long nueva = izquierda ^ ((mezcla ^ (mezcla >>> 29)) & 0x1FFF);
+                izquierda = derecha;
+                derecha = nueva;
+            }
+            v = (izquierda << 13) | derecha;
+        } while (v >= ESPACIO_CODIGOS);
+        return v;
+    }
+
+    /**
+     * Convierte un valor de la secuencia a LLLDDD (biyectivo dentro de ESPACIO_CODIGOS)
+     */
+    static String codificar(long valor) {
+        long v = Math.floorMod(valor, ESPACIO_CODIGOS);
+        int digitos = (int) (v % 1000);
+        int letras = (int) (v / 1000);
+
+        char[] codigo = new char[6];
+        codigo[0] = (char) ('A' + letras / (26 * 26));
+        codigo[1] = (char) ('A' + (letras / 26) % 26);
+        codigo[2] = (char) ('A' + letras % 26);
+        codigo[3] = (char) ('0' + digitos / 100);
+        codigo[4] = (char) ('0' + (digitos / 10) % 10);
+        codigo[5] = (char) ('0' + digitos % 10);
+        return new String(codigo);
+    }
+}
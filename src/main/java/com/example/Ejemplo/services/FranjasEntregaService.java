@@ -0,0 +1,29 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.dto.FranjaEntregaDTO;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Reparte el horario de atención del día en franjas de recojo con una
+ * capacidad en unidades de preparación (una unidad = un producto pedido).
+ */
+public interface FranjasEntregaService {
+
+    /**
+     * Reserva capacidad de hoy en la franja que contiene la hora indicada
+     * @return inicio de la franja reservada
+     * @throws IllegalArgumentException si la hora está fuera del horario o ya pasó
+     * @throws IllegalStateException si la franja no tiene capacidad suficiente
+     */
+    LocalTime reservar(LocalTime horaEntrega, int unidades);
+
+    void liberar(LocalDate fecha, LocalTime horaEntrega, int unidades);
+
+    /**
+     * Próximas franjas de hoy donde entran las unidades indicadas
+     */
+    List<FranjaEntregaDTO> disponibles(int unidades, int limite);
+}
@@ -1,44 +1,301 @@
 package com.example.Ejemplo.services;
 
-import org.springframework.http.*;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
 
 import java.io.IOException;
-import java.util.Base64;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Cliente de la API de ImgBB. Un solo HttpClient compartido (mantiene las
+ * conexiones abiertas entre subidas) con timeouts de conexión y lectura, y
+ * por encima:
+ * <ul>
+ *   <li>bulkhead: como mucho imgbb.max-concurrentes subidas a la vez; el resto espera un rato y desiste</li>
+ *   <li>reintentos con backoff exponencial y jitter cuando no se pudo conectar y ante 5xx y 429.
+ *       Un timeout de lectura no se reintenta: ImgBB pudo haber recibido la imagen y se subiría dos veces</li>
+ *   <li>circuito: tras N fallos seguidos no se llama a ImgBB durante una pausa,
+ *       luego se deja pasar una sola petición de prueba</li>
+ * </ul>
+ * La respuesta se lee como stream con el parser de Jackson hasta encontrar data.url.
+ */
 @Service
+@Slf4j
 public class ImgBBUploader {
-    private final String IMGBB_API_KEY = "36b51553bbc62283b58273f943f6d2be"; // ← reemplaza con la tuya
 
-    public String subirImagen(MultipartFile imagen) throws IOException {
-        byte[] bytes = imagen.getBytes();
-        String base64Image = Base64.getEncoder().encodeToString(bytes);
+    private final RestClient restClient;
+    private final JsonFactory jsonFactory;
+    private final String url;
+    private final String apiKey;
+    private final Semaphore bulkhead;
+    private final long esperaBulkheadMs;
+    private final int intentos;
+    private final long backoffMs;
+    private final Circuito circuito;
 
-        String url = "https://api.imgbb.com/1/upload?key=" + IMGBB_API_KEY;
+    public ImgBBUploader(ObjectMapper objectMapper,
+                         @Value("${imgbb.url:https://api.imgbb.com/1/upload}") String url,
+                         @Value("${imgbb.api-key:}") String apiKey,
+                         @Value("${imgbb.timeout-conexion-ms:3000}") long timeoutConexionMs,
+                         @Value("${imgbb.timeout-lectura-ms:15000}") long timeoutLecturaMs,
+                         @Value("${imgbb.max-concurrentes:4}") int maxConcurrentes,
+                         @Value("${imgbb.espera-bulkhead-ms:2000}") long esperaBulkheadMs,
+                         @Value("${imgbb.intentos:3}") int intentos,
+                         @Value("${imgbb.backoff-ms:500}") long backoffMs,
+                         @Value("${imgbb.circuito.fallos:5}") int fallosParaAbrir,
+                         @Value("${imgbb.circuito.pausa-ms:60000}") long pausaCircuitoMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(timeoutConexionMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutLecturaMs));
 
-        MultiValueMap<String, String> map = new LinkedMultiValueMap<>();
-        map.add("image", base64Image);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        this.jsonFactory = objectMapper.getFactory();
+        this.url = url;
+        this.apiKey = apiKey;
+        this.bulkhead = new Semaphore(maxConcurrentes);
+        this.esperaBulkheadMs = esperaBulkheadMs;
+        this.intentos = Math.max(1, intentos);
+        this.backoffMs = backoffMs;
+        this.circuito = new Circuito(fallosParaAbrir, pausaCircuitoMs);
+    }
+
+    /**
+     * @return false si no se configuró la clave (variable de entorno IMGBB_API_KEY)
+     */
+    public boolean configurado() {
+        return apiKey != null && !apiKey.isBlank();
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+    /**
+     * Sube un archivo del almacén como multipart: se lee por stream desde
+     * disco, sin pasarlo a base64 en memoria
+     * @return URL pública de la imagen en ImgBB
+     * @throws IllegalStateException si ImgBB no responde bien, el circuito está
+     *         abierto o hay demasiadas subidas en curso
+     */
+    public String subirImagen(Path archivo) {
+        if (!configurado()) {
+            throw new IllegalStateException("Falta la clave de ImgBB (variable de entorno IMGBB_API_KEY)");
+        }
+        try {
+            if (!bulkhead.tryAcquire(esperaBulkheadMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Demasiadas subidas a ImgBB en curso");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Subida a ImgBB interrumpida", e);
+        }
 
-        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(map, headers);
+        Circuito.Paso paso = Circuito.Paso.RECHAZADO;
+        try {
+            paso = circuito.permite();
+            if (paso == Circuito.Paso.RECHAZADO) {
+                throw new IllegalStateException("ImgBB no disponible, se reintentará más tarde");
+            }
+            return subirConReintentos(archivo);
+        } finally {
+            // Una prueba que terminó con una excepción no prevista (p. ej. una
+            // interrupción) no puede dejar el circuito abierto para siempre
+            if (paso == Circuito.Paso.PRUEBA) {
+                circuito.terminarPrueba();
+            }
+            bulkhead.release();
+        }
+    }
 
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
 
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            // Extraer el enlace de la respuesta JSON
-            String body = response.getBody();
-            int start = body.indexOf("\"url\":\"") + 7;
-            int end = body.indexOf("\"", start);
-            return body.substring(start, end).replace("\\/", "/");
+    private String subirConReintentos(Path archivo) {
+        RuntimeException ultimo = null;
+        for (int intento = 1; intento <= intentos; intento++) {
+            try {
+                String imagenUrl = enviar(archivo);
+                circuito.exito();
+                return imagenUrl;
+            } catch (FalloTransitorio e) {
+                ultimo = e;
+            } catch (ResourceAccessException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // No es un fallo de ImgBB: el circuito no se entera
+                    throw new IllegalStateException("Subida a ImgBB interrumpida", e);
+                }
+                if (!esFalloDeConexion(e)) {
+                    // La petición ya salió: timeout de lectura o conexión cortada a mitad
+                    circuito.fallo();
+                    throw new IllegalStateException("No se pudo subir la imagen a ImgBB: " + e.getMessage(), e);
+                }
+                ultimo = e;
+            } catch (RuntimeException e) {
+                // 4xx o respuesta inesperada: ImgBB responde, no tiene sentido reintentar
+                circuito.exito();
+                throw e;
+            }
+            log.debug("Intento {}/{} de subida a ImgBB fallido: {}", intento, intentos, ultimo.getMessage());
+            if (intento < intentos) {
+                esperar(intento);
+            }
         }
+        circuito.fallo();
+        throw new IllegalStateException("No se pudo subir la imagen a ImgBB tras " + intentos + " intentos", ultimo);
+    }
 
-        throw new RuntimeException("Error al subir imagen a ImgBB");
+    /**
+     * @return true si no se llegó a abrir la conexión, así que ImgBB no recibió nada
+     */
+    private static boolean esFalloDeConexion(ResourceAccessException e) {
+        for (Throwable causa = e.getCause(); causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConnectException || causa instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String enviar(Path archivo) {
+        MultiValueMap<String, Object> formulario = new LinkedMultiValueMap<>();
+        formulario.add("image", new FileSystemResource(archivo));
+
+        return restClient.post()
+                .uri(url + "?key={key}", apiKey)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(formulario)
+                .exchange((request, response) -> {
+                    HttpStatusCode estado = response.getStatusCode();
+                    if (estado.is5xxServerError() || estado.value() == 429) {
+                        throw new FalloTransitorio("ImgBB respondió " + estado.value());
+                    }
+                    if (!estado.is2xxSuccessful()) {
+                        throw new IllegalStateException("ImgBB rechazó la imagen: " + estado.value());
+                    }
+                    return leerUrl(response.getBody());
+                });
+    }
+
+    /**
+     * Respuesta de ImgBB: {"data": {"url": "...", "image": {...}, ...}, "success": true, "status": 200}.
+     * Se recorre sin armar el árbol: los campos que no interesan se saltan enteros.
+     */
+    private String leerUrl(InputStream cuerpo) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(cuerpo)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Respuesta de ImgBB inválida");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                if ("data".equals(campo) && valor == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String campoData = parser.currentName();
+                        JsonToken valorData = parser.nextToken();
+                        if ("url".equals(campoData) && valorData == JsonToken.VALUE_STRING) {
+                            return parser.getText();
+                        }
+                        parser.skipChildren();
+                    }
+                    break;
+                }
+                parser.skipChildren();
+            }
+        }
+        throw new IllegalStateException("Respuesta de ImgBB sin data.url");
+    }
+
+    private void esperar(int intento) {
+        long espera = backoffMs * (1L << (intento - 1));
+        espera += ThreadLocalRandom.current().nextLong(espera / 2 + 1);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Subida a ImgBB interrumpida", e);
+        }
+    }
+
+    private static final class FalloTransitorio extends RuntimeException {
+        private FalloTransitorio(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    private static final class Circuito {
+
+        private enum Paso {
+            CERRADO,
+            PRUEBA,
+            RECHAZADO
+        }
+
+        private final int fallosParaAbrir;
+        private final long pausaMs;
+
+        private int fallosSeguidos;
+        private long abiertoHasta;
+        private boolean pruebaEnCurso;
+
+        private Circuito(int fallosParaAbrir, long pausaMs) {
+            this.fallosParaAbrir = fallosParaAbrir;
+            this.pausaMs = pausaMs;
+        }
+
+        private synchronized Paso permite() {
+            if (abiertoHasta == 0) {
+                return Paso.CERRADO;
+            }
+            if (System.currentTimeMillis() < abiertoHasta || pruebaEnCurso) {
+                return Paso.RECHAZADO;
+            }
+            // Medio abierto: una sola petición de prueba
+            pruebaEnCurso = true;
+            return Paso.PRUEBA;
+        }
+
+        /**
+         * Libera el turno de prueba; si la prueba ya registró éxito o fallo no cambia nada
+         */
+        private synchronized void terminarPrueba() {
+            pruebaEnCurso = false;
+        }
+
+        private synchronized void exito() {
+            if (abiertoHasta != 0) {
+                log.info("Circuito de ImgBB cerrado");
+            }
+            fallosSeguidos = 0;
+            abiertoHasta = 0;
+            pruebaEnCurso = false;
+        }
+
+        private synchronized void fallo() {
+            fallosSeguidos++;
+            pruebaEnCurso = false;
+            if (abiertoHasta != 0 || fallosSeguidos >= fallosParaAbrir) {
+                abiertoHasta = System.currentTimeMillis() + pausaMs;
+                log.warn("Circuito de ImgBB abierto por {} ms tras {} fallos seguidos", pausaMs, fallosSeguidos);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package com.example.Ejemplo.services;
+
+import java.util.Map;
+
+/**
+ * Libro de stock en memoria que se coloca delante de la columna productos.stock.
+ * Las reservas se resuelven en memoria y los deltas se vuelcan a la BD por lotes.
+ */
+public interface InventarioService {
+
+    /**
+     * Reserva todas las líneas o ninguna.
+     * @param cantidadesPorProducto idProducto -> cantidad solicitada
+     * @throws IllegalStateException si alguna línea no tiene stock suficiente
+     */
+    void reservar(Map<Integer, Integer> cantidadesPorProducto);
+
+    void liberar(Integer idProducto, int cantidad);
+
+    void liberar(Map<Integer, Integer> cantidadesPorProducto);
+
+    int stockDisponible(Integer idProducto);
+
+    /**
+     * Igual que stockDisponible pero sin ir nunca a la BD
+     * @return el disponible del libro, o null si el producto no está cargado
+     */
+    Integer stockEnLibro(Integer idProducto);
+
+    /**
+     * Vuelca los pendientes de un producto y lo saca del libro para que se
+     * vuelva a cargar desde la BD (usado cuando el stock se edita a mano)
+     */
+    void sincronizar(Integer idProducto);
+
+    int volcarPendientes();
+
+    /**
+     * @return idProducto -> unidades vendidas que la BD rechazó descontar
+     * hasta agotar los reintentos (requieren revisar el stock a mano)
+     */
+    Map<Integer, Integer> deltasDescartados();
+}
@@ -1,10 +1,14 @@
 package com.example.Ejemplo.services;
 
+import com.example.Ejemplo.dto.BandejaNotificacionesDTO;
 import com.example.Ejemplo.models.Notificacion;
 
 import java.util.List;
 
 public interface NotificacionService {
+
+    int TAMANO_BANDEJA = 10;
+
     void sendNotificacion(int idUsuario, String mensaje);
     
     void crearNotificacion(int idUsuario, String mensaje);
@@ -16,4 +20,18 @@ public interface NotificacionService {
     void deleteAllNotificaciones(int idUsuario);
 
     List<Notificacion> getRecentNotificaciones(int idUsuario, int limit);
+
+    /**
+     * Datos de la campana del navbar: una consulta top-N más el contador en memoria,
+     * sin importar cuántas notificaciones tenga el usuario
+     */
+    BandejaNotificacionesDTO obtenerBandeja(int idUsuario);
+
+    int contarSinLeer(int idUsuario);
+
+    /**
+     * Marca como leídas, en un solo UPDATE, las no leídas con ID menor o igual a hastaId
+     * @return cantidad de notificaciones marcadas
+     */
+    int marcarLeidas(int idUsuario, int hastaId);
 }
@@ -0,0 +1,20 @@
+package com.example.Ejemplo.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Canal SSE por usuario para empujar cambios de pedidos y notificaciones.
+ */
+public interface NotificacionStreamService {
+
+    /**
+     * Abre una conexión SSE para el usuario
+     * @param ultimoEventoId valor de Last-Event-ID al reconectar (puede ser null);
+     *                       se reenvían los eventos posteriores que sigan en memoria
+     */
+    SseEmitter suscribir(int idUsuario, Long ultimoEventoId);
+
+    void publicar(int idUsuario, String tipo, Object datos);
+
+    int conexionesActivas();
+}
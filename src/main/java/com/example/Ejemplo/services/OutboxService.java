@@ -0,0 +1,31 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.models.EstadoPedido;
+
+/**
+ * Bandeja de salida transaccional de notificaciones. Quien cambia un pedido
+ * solo agrega una fila en su propia transacción; un despachador en segundo
+ * plano las guarda en notificaciones y las empuja por SSE (al menos una vez).
+ */
+public interface OutboxService {
+
+    /**
+     * Encola dentro de la transacción actual (falla si no hay una)
+     * @param clave clave de deduplicación, p. ej. "pedido-15-LISTO"
+     * @return false si esa clave ya estaba encolada
+     */
+    boolean encolarNotificacion(int idUsuario, String mensaje, String clave);
+
+    /**
+     * Entrega un lote de pendientes
+     * @return cantidad de filas del lote (entregadas o con fallo registrado)
+     */
+    int despachar();
+
+    /**
+     * Una notificación por pedido y estado: si la transición se reintenta no se repite
+     */
+    static String clavePedido(int idPedido, EstadoPedido estado) {
+        return "pedido-" + idPedido + "-" + estado.name();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.Ejemplo.services;
 
+import com.example.Ejemplo.dto.PaginaCursor;
 import com.example.Ejemplo.dto.PedidoDTO;
 import com.example.Ejemplo.models.EstadoPedido;
 import com.example.Ejemplo.models.Pedido;
@@ -15,6 +16,17 @@ public interface PedidosService {
     
     List<Pedido> obtenerTodosPedidos();
     List<Pedido> obtenerPedidosPorUsuario(int idUsuario);
+
+    /**
+     * Pedidos del usuario que todavía no terminan (siempre pocos, sin paginar)
+     */
+    List<PedidoDTO> obtenerActivosPorUsuario(int idUsuario);
+
+    /**
+     * Historial (entregados y cancelados) del más reciente al más antiguo, por cursor
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    PaginaCursor<PedidoDTO> obtenerHistorialPorCursor(int idUsuario, String cursor, int tamano);
     Optional<Pedido> buscarPorId(Integer id);
     List<Pedido> obtenerPedidosPorEstado(EstadoPedido estado);
     List<Pedido> buscarPorCodigoPedido(String codigoPedido);
@@ -27,5 +39,4 @@ public interface PedidosService {
     boolean cancelarPedido(Integer idPedido, String motivo, Integer idUsuarioNotificar);
 
     String generarCodigoUnico();
-    List<String> obtenerTodosLosCodigos();
 }
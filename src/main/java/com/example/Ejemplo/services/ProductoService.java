@@ -1,5 +1,6 @@
 package com.example.Ejemplo.services;
 
+import com.example.Ejemplo.dto.PaginaCursor;
 import com.example.Ejemplo.dto.ProductoCreateDTO;
 import com.example.Ejemplo.dto.ProductoDTO;
 import com.example.Ejemplo.dto.ProductoResponseDTO;
@@ -39,6 +40,24 @@ public interface ProductoService {
 
  
     Page<ProductoDTO> buscarPorCategoriaYNombre(String categoria, String nombre, Pageable pageable);
+
+    /**
+     * Página del catálogo (solo con stock) por cursor, sin OFFSET ni COUNT
+     * @param cursor token de PaginaCursor, o null para la primera página
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    PaginaCursor<ProductoDTO> obtenerCatalogoPorCursor(String categoria, String cursor, int tamano);
+
+    /**
+     * Página del listado de administración por cursor (incluye inactivos y sin stock)
+     * @param estado null para todos
+     */
+    PaginaCursor<ProductoResponseDTO> obtenerAdminPorCursor(String busqueda, Boolean estado, String cursor, int tamano);
+
+    /**
+     * Conteo cacheado unos minutos; sirve para mostrar totales sin un COUNT por página
+     */
+    long contarAproximado(boolean soloConStock, Boolean estado, String categoria, String busqueda);
     
 
     ProductoDTO crear(ProductoCreateDTO createDTO, MultipartFile imagen);
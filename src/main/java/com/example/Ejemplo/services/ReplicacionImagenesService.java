@@ -0,0 +1,10 @@
+package com.example.Ejemplo.services;
+
+/**
+ * Réplica opcional de las imágenes del almacén local en ImgBB
+ * (imagenes.replicacion.imgbb=true). Corre fuera de la transacción que guardó el producto.
+ */
+public interface ReplicacionImagenesService {
+
+    void replicar(Integer idProducto, String nombre);
+}
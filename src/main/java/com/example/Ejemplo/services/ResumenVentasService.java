@@ -0,0 +1,35 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.dto.ProductoMasVendidoDTO;
+import com.example.Ejemplo.dto.ResumenVentasDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Resúmenes de ventas por hora/día/histórico, mantenidos de forma incremental
+ * a medida que los pedidos llegan a ENTREGADO o se cancelan.
+ */
+public interface ResumenVentasService {
+
+    /**
+     * Ajusta los resúmenes al estado actual del pedido. Es idempotente:
+     * llamarlo dos veces con el mismo estado no suma dos veces.
+     */
+    void contabilizar(int idPedido);
+
+    /**
+     * Procesa los pedidos finalizados desde la marca de agua
+     * @return cantidad de pedidos revisados
+     */
+    int procesarPendientes();
+
+    List<ProductoMasVendidoDTO> productosMasVendidos();
+
+    /**
+     * Totales de los días [desde, hasta] (ambos incluidos). El monto cuenta
+     * solo pedidos entregados; quien quiera "todo lo no cancelado" le suma los
+     * pedidos en curso (ver PedidoAdminController)
+     */
+    ResumenVentasDTO totales(LocalDate desde, LocalDate hasta);
+}
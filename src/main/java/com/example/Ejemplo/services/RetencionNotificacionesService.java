@@ -0,0 +1,14 @@
+package com.example.Ejemplo.services;
+
+/**
+ * Purga periódica de notificaciones leídas más viejas que la retención
+ * configurada. Se borra por tramos acotados para no retener muchos locks.
+ */
+public interface RetencionNotificacionesService {
+
+    /**
+     * Ejecuta una pasada completa (hasta el máximo de tramos por corrida)
+     * @return cantidad de notificaciones eliminadas
+     */
+    int purgar();
+}
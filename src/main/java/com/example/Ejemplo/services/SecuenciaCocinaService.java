@@ -0,0 +1,24 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.dto.PedidoSecuenciadoDTO;
+
+import java.util.List;
+
+/**
+ * Orden sugerido para empezar los pedidos PENDIENTE: primero el que tiene el
+ * inicio límite más cercano (hora de recojo menos el tiempo de preparación).
+ */
+public interface SecuenciaCocinaService {
+
+    /**
+     * Los próximos pedidos a preparar, del más urgente al menos urgente
+     */
+    List<PedidoSecuenciadoDTO> siguientes(int limite);
+
+    int totalEnCola();
+
+    /**
+     * Vuelve a armar la cola desde los pendientes del tablero
+     */
+    void reconstruir();
+}
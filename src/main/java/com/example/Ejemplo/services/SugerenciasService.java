@@ -0,0 +1,25 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.dto.SugerenciaDTO;
+
+import java.util.List;
+
+/**
+ * Autocompletado del buscador: nombres de productos activos y de categorías,
+ * ordenados por popularidad (unidades vendidas)
+ */
+public interface SugerenciasService {
+
+    int MAX_SUGERENCIAS = 10;
+
+    /**
+     * @param prefijo texto escrito (se normaliza sin tildes ni mayúsculas); coincide
+     *                con el inicio del nombre o de cualquiera de sus palabras
+     */
+    List<SugerenciaDTO> sugerir(String prefijo, int limite);
+
+    /**
+     * Recarga nombres y popularidad y vuelve a armar el índice
+     */
+    void reconstruir();
+}
@@ -0,0 +1,26 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.dto.PedidoDTO;
+import com.example.Ejemplo.models.EstadoPedido;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Proyección en memoria de los pedidos activos (PENDIENTE, EN_PREPARACION, LISTO).
+ * Se arma una vez al arrancar y se actualiza con cada cambio de estado.
+ */
+public interface TableroCocinaService {
+
+    /**
+     * Pedidos activos agrupados por estado, del más antiguo al más nuevo
+     */
+    Map<EstadoPedido, List<PedidoDTO>> obtenerTablero();
+
+    int totalActivos();
+
+    /**
+     * Vuelve a construir el tablero desde la BD
+     */
+    void reconstruir();
+}
@@ -0,0 +1,55 @@
+package com.example.Ejemplo.services;
+
+/**
+ * Variantes de ancho fijo de las imágenes del almacén, para no mandar el
+ * original (hasta 10MB) a tarjetas de 300px. Se generan en segundo plano;
+ * mientras no estén listas las vistas usan la imagen original.
+ */
+public interface VariantesImagenService {
+
+    enum Variante {
+        MINIATURA(120),
+        TARJETA(360),
+        DETALLE(720);
+
+        private final int ancho;
+
+        Variante(int ancho) {
+            this.ancho = ancho;
+        }
+
+        public int getAncho() {
+            return ancho;
+        }
+    }
+
+    /**
+     * Encola la generación de las variantes de una imagen recién almacenada
+     * @param nombre nombre del original en el almacén
+     */
+    void generar(Integer idProducto, String nombre);
+
+    /**
+     * @return "url 120w, url 360w, url 720w" o null si la imagen no es del
+     *         almacén o sus variantes aún no existen
+     */
+    String srcset(String imagenUrl);
+
+    /**
+     * @return URL de la variante, o imagenUrl tal cual si no hay variante lista
+     */
+    String url(String imagenUrl, Variante variante);
+
+    /**
+     * Encola el {@link #backfill()} en el pool de variantes; si la cola está
+     * llena se reintenta en la siguiente pasada
+     */
+    void programarBackfill();
+
+    /**
+     * Genera las variantes que falten e importa al almacén las imágenes que
+     * todavía apuntan a ImgBB
+     * @return cantidad de productos procesados
+     */
+    int backfill();
+}
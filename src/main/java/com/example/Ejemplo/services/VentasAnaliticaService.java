@@ -0,0 +1,38 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.dto.ProductoMasVendidoDTO;
+import com.example.Ejemplo.dto.ResumenVentasDTO;
+import com.example.Ejemplo.dto.VentaCategoriaDTO;
+import com.example.Ejemplo.dto.VentaPeriodoDTO;
+import com.example.Ejemplo.models.VentaResumen;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Consultas de análisis de ventas sobre los resúmenes de venta_resumen.
+ * Todos los rangos son de días [desde, hasta] (ambos incluidos) y los
+ * resultados de períodos ya cerrados (hasta &lt; hoy) se guardan en cache.
+ * @throws IllegalArgumentException si el rango o la granularidad no son válidos
+ */
+public interface VentasAnaliticaService {
+
+    /**
+     * Totales, ticket promedio y tasa de cancelación. Con categoría se
+     * filtran monto y unidades; las cancelaciones no se desglosan por categoría.
+     */
+    ResumenVentasDTO resumen(LocalDate desde, LocalDate hasta, Integer idCategoria);
+
+    /**
+     * Serie de ventas por DIA u HORA, con los períodos sin ventas en cero
+     */
+    List<VentaPeriodoDTO> serie(LocalDate desde, LocalDate hasta,
+                                VentaResumen.Granularidad granularidad, Integer idCategoria);
+
+    List<ProductoMasVendidoDTO> topProductos(LocalDate desde, LocalDate hasta, Integer idCategoria, int limite);
+
+    /**
+     * Participación de cada categoría en el monto vendido
+     */
+    List<VentaCategoriaDTO> categorias(LocalDate desde, LocalDate hasta);
+}
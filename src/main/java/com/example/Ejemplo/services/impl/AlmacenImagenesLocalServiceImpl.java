@@ -0,0 +1,184 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.services.AlmacenImagenesService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Backend por defecto: archivos en disco bajo imagenes.almacen.directorio,
+ * repartidos en subcarpetas por los dos primeros caracteres del hash
+ * (ab/abcdef...png) para no acumular miles de archivos en un directorio.
+ * <p>
+ * El archivo se escribe primero en un temporal mientras se calcula el hash y
+ * luego se mueve de forma atómica; si ya existía, el temporal se descarta.
+ */
+@Service
+@ConditionalOnProperty(name = "imagenes.almacen.tipo", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class AlmacenImagenesLocalServiceImpl implements AlmacenImagenesService {
+
+    private static final Pattern NOMBRE_VALIDO = Pattern.compile("^[0-9a-f]{64}(-\\d{1,4})?\\.(png|jpg|gif|webp)$");
+    private static final int BYTES_CABECERA = 12;
+
+    private final Path raiz;
+
+    public AlmacenImagenesLocalServiceImpl(
+            @Value("${imagenes.almacen.directorio:almacen-imagenes}") String directorio) throws IOException {
+        this.raiz = Files.createDirectories(Path.of(directorio).toAbsolutePath().normalize());
+        log.info("Almacén local de imágenes en {}", raiz);
+    }
+
+    @Override
+    public ImagenAlmacenada guardar(MultipartFile imagen) {
+        try (InputStream entrada = imagen.getInputStream()) {
+            return guardar(entrada);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la imagen subida: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public ImagenAlmacenada guardar(InputStream contenido) {
+        Path temporal = null;
+        try {
+            InputStream entrada = new BufferedInputStream(contenido);
+            String extension = detectarExtension(entrada);
+
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            temporal = Files.createTempFile(raiz, "subida-", ".tmp");
+            long tamano;
+            try (DigestInputStream conHash = new DigestInputStream(entrada, sha256)) {
+                tamano = Files.copy(conHash, temporal, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            String nombre = hash + "." + extension;
+            Path destino = rutaDe(nombre);
+            Files.createDirectories(destino.getParent());
+
+            // Mismo hash = mismo contenido: si ya está, no se vuelve a escribir
+            boolean nueva = !Files.exists(destino);
+            if (nueva) {
+                try {
+                    Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    nueva = false;
+                }
+            }
+            Files.deleteIfExists(temporal);
+
+            log.debug("Imagen {} almacenada ({} bytes, {})", nombre, tamano, nueva ? "nueva" : "ya existía");
+            return new ImagenAlmacenada(nombre, PREFIJO_URL + nombre, tipoDe(extension), tamano, nueva);
+        } catch (IOException e) {
+            borrarTemporal(temporal);
+            throw new IllegalStateException("No se pudo guardar la imagen: " + e.getMessage(), e);
+        } catch (NoSuchAlgorithmException e) {
+            borrarTemporal(temporal);
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        } catch (RuntimeException e) {
+            borrarTemporal(temporal);
+            throw e;
+        }
+    }
+
+    @Override
+    public void guardarDerivada(String nombre, byte[] contenido) {
+        if (!NOMBRE_VALIDO.matcher(nombre).matches()) {
+            throw new IllegalArgumentException("Nombre de variante inválido: " + nombre);
+        }
+        Path temporal = null;
+        try {
+            Path destino = rutaDe(nombre);
+            Files.createDirectories(destino.getParent());
+            temporal = Files.createTempFile(raiz, "variante-", ".tmp");
+            Files.write(temporal, contenido);
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            borrarTemporal(temporal);
+            throw new IllegalStateException("No se pudo guardar la variante " + nombre + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<Path> ubicar(String nombre) {
+        if (nombre == null || !NOMBRE_VALIDO.matcher(nombre).matches()) {
+            return Optional.empty();
+        }
+        Path ruta = rutaDe(nombre);
+        return Files.isRegularFile(ruta) ? Optional.of(ruta) : Optional.empty();
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private Path rutaDe(String nombre) {
+        return raiz.resolve(nombre.substring(0, 2)).resolve(nombre);
+    }
+
+    /**
+     * El formato se decide por los bytes mágicos y no por el nombre o el
+     * Content-Type que manda el navegador
+     */
+    private static String detectarExtension(InputStream entrada) throws IOException {
+        entrada.mark(BYTES_CABECERA);
+        byte[] cabecera = entrada.readNBytes(BYTES_CABECERA);
+        entrada.reset();
+
+        if (empiezaCon(cabecera, 0, 0x89, 'P', 'N', 'G')) {
+            return "png";
+        }
+        if (empiezaCon(cabecera, 0, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        }
+        if (empiezaCon(cabecera, 0, 'G', 'I', 'F', '8')) {
+            return "gif";
+        }
+        if (empiezaCon(cabecera, 0, 'R', 'I', 'F', 'F') && empiezaCon(cabecera, 8, 'W', 'E', 'B', 'P')) {
+            return "webp";
+        }
+        throw new IllegalArgumentException("Formato de imagen no soportado (se aceptan PNG, JPEG, GIF y WEBP)");
+    }
+
+    private static boolean empiezaCon(byte[] datos, int desde, int... esperados) {
+        if (datos.length < desde + esperados.length) {
+            return false;
+        }
+        for (int i = 0; i < esperados.length; i++) {
+            if ((datos[desde + i] & 0xFF) != esperados[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String tipoDe(String extension) {
+        return extension.equals("jpg") ? "image/jpeg" : "image/" + extension;
+    }
+
+    private static void borrarTemporal(Path temporal) {
+        if (temporal == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporal);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el temporal {}", temporal, e);
+        }
+    }
+}
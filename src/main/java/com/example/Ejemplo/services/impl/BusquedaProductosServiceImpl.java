@@ -0,0 +1,465 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.ProductoDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.mapper.ProductoMapper;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.BusquedaProductosService;
+import com.example.Ejemplo.services.InventarioService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Dos índices sobre el texto normalizado de cada producto:
+ * - trigramas: para términos de 3+ letras, los candidatos salen de intersectar
+ *   las listas de sus trigramas y luego se verifica el "contiene" real;
+ * - palabras ordenadas: para términos de 1-2 letras se busca por prefijo.
+ * Los índices forman una sola foto inmutable detrás de una referencia volatile:
+ * reconstruir arma la nueva aparte y la publica de una vez, y la edición de un
+ * producto copia solo los mapas y listas que toca. Una búsqueda lee una única
+ * foto de principio a fin, sin bloquear y sin ver índices a medio armar.
+ * El stock sale del libro de stock si lo tiene cargado y si no del valor con
+ * que se indexó el producto (una edición de stock lo reindexa): buscar nunca
+ * consulta la BD.
+ */
+@Service
+@Slf4j
+public class BusquedaProductosServiceImpl implements BusquedaProductosService {
+
+    private static final int N = 3;
+
+    // Relevancia: coincidencia en el nombre pesa más que en categoría o descripción
+    private static final int PESO_PALABRA_NOMBRE = 100;
+    private static final int PESO_PREFIJO_NOMBRE = 60;
+    private static final int PESO_NOMBRE = 30;
+    private static final int PESO_CATEGORIA = 10;
+    private static final int PESO_DESCRIPCION = 5;
+
+    private static final int[] SIN_IDS = new int[0];
+    private static final Comparator<Resultado> POR_RELEVANCIA = Comparator.comparingInt(Resultado::puntaje).reversed()
+            .thenComparing(r -> r.documento().nombre())
+            .thenComparingInt(r -> r.documento().producto().getIdProducto());
+
+    private final ProductoRepository productoRepository;
+    private final ProductoMapper productoMapper;
+    private final InventarioService inventarioService;
+    private final TransactionTemplate transaccionLectura;
+
+    private volatile Indice indice = Indice.construir(List.of());
+
+    public BusquedaProductosServiceImpl(ProductoRepository productoRepository,
+                                        ProductoMapper productoMapper,
+                                        InventarioService inventarioService,
+                                        PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.productoMapper = productoMapper;
+        this.inventarioService = inventarioService;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.transaccionLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    @Override
+    public synchronized void reconstruir() {
+        List<ProductoDTO> productos = transaccionLectura.execute(status ->
+                productoRepository.findAll().stream().map(productoMapper::toDTO).toList());
+
+        Indice nuevo = Indice.construir(productos);
+        indice = nuevo;
+        log.info("Índice de búsqueda construido con {} productos, {} trigramas y {} palabras",
+                nuevo.documentos().size(), nuevo.porTrigrama().size(), nuevo.porPalabra().size());
+    }
+
+    @Override
+    public Page<ProductoDTO> buscar(String texto, String categoria, Pageable pageable) {
+        String[] terminos = BusquedaProductosService.normalizarTexto(texto).split(" ");
+        if (terminos.length == 0 || terminos[0].isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Indice foto = indice;
+        int[] candidatos = null;
+        for (String termino : terminos) {
+            int[] ids = candidatosPara(foto, termino);
+            candidatos = candidatos == null ? ids : interseccion(candidatos, ids);
+            if (candidatos.length == 0) {
+                return Page.empty(pageable);
+            }
+        }
+
+        List<Resultado> resultados = new ArrayList<>();
+        for (int id : candidatos) {
+            Documento doc = foto.documentos().get(id);
+            if (doc == null || !doc.visibleEn(categoria) || !contieneTodos(doc, terminos)) {
+                continue;
+            }
+            Integer enLibro = inventarioService.stockEnLibro(id);
+            if ((enLibro != null ? enLibro : doc.stock()) <= 0) {
+                continue;
+            }
+            resultados.add(new Resultado(doc, puntaje(doc, terminos)));
+        }
+
+        int desde = (int) Math.min(pageable.getOffset(), resultados.size());
+        int hasta = Math.min(desde + pageable.getPageSize(), resultados.size());
+        List<ProductoDTO> pagina = mejores(resultados, hasta).subList(desde, hasta).stream()
+                .map(r -> r.documento().producto())
+                .toList();
+        log.debug("Búsqueda '{}' (categoría {}): {} resultados", texto, categoria, resultados.size());
+        return new PageImpl<>(pagina, pageable, resultados.size());
+    }
+
+    /**
+     * Se ordena antes que la invalidación de caches del catálogo para que
+     * una página recalculada ya vea el índice actualizado
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogoModificado(CatalogoModificadoEvent event) {
+        switch (event.origen()) {
+            case PRODUCTO -> actualizarProducto(event.id());
+            // Renombrar una categoría cambia el texto de todos sus productos
+            case CATEGORIA -> reconstruir();
+            case MENU_DIA -> { }
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private synchronized void actualizarProducto(Integer idProducto) {
+        if (idProducto == null) {
+            return;
+        }
+        ProductoDTO producto = transaccionLectura.execute(status ->
+                productoRepository.findById(idProducto).map(productoMapper::toDTO).orElse(null));
+        indice = indice.con(idProducto, producto);
+        log.debug("Producto {} {} en el índice de búsqueda", idProducto, producto != null ? "actualizado" : "eliminado");
+    }
+
+    private static int[] candidatosPara(Indice foto, String termino) {
+        if (termino.length() < N) {
+            Collection<int[]> listas = foto.porPalabra().subMap(termino, true, termino + Character.MAX_VALUE, false).values();
+            return union(listas);
+        }
+
+        // Se empieza por la lista más corta para que la intersección sea barata
+        List<int[]> listas = new ArrayList<>();
+        for (String trigrama : extraerTrigramas(termino)) {
+            int[] ids = foto.porTrigrama().get(trigrama);
+            if (ids == null) {
+                return SIN_IDS;
+            }
+            listas.add(ids);
+        }
+        listas.sort(Comparator.comparingInt(ids -> ids.length));
+        int[] resultado = listas.get(0);
+        for (int i = 1; i < listas.size() && resultado.length > 0; i++) {
+            resultado = interseccion(resultado, listas.get(i));
+        }
+        return resultado;
+    }
+
+    /**
+     * Los primeros {@code limite} resultados por relevancia, ya ordenados. Para
+     * las primeras páginas de una búsqueda con muchos resultados se seleccionan
+     * con un heap acotado en vez de ordenar todo
+     */
+    private static List<Resultado> mejores(List<Resultado> resultados, int limite) {
+        if (limite * 4 >= resultados.size()) {
+            resultados.sort(POR_RELEVANCIA);
+            return resultados;
+        }
+        // El peor de los que van quedando está en la cima
+        PriorityQueue<Resultado> heap = new PriorityQueue<>(limite + 1, POR_RELEVANCIA.reversed());
+        for (Resultado resultado : resultados) {
+            if (heap.size() < limite) {
+                heap.add(resultado);
+            } else if (POR_RELEVANCIA.compare(resultado, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(resultado);
+            }
+        }
+        List<Resultado> primeros = new ArrayList<>(heap);
+        primeros.sort(POR_RELEVANCIA);
+        return primeros;
+    }
+
+    /**
+     * Intersección de dos listas ordenadas de IDs en un solo recorrido
+     */
+    private static int[] interseccion(int[] a, int[] b) {
+        int[] resultado = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                resultado[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(resultado, k);
+    }
+
+    private static int[] union(Collection<int[]> listas) {
+        if (listas.size() == 1) {
+            return listas.iterator().next();
+        }
+        int[] todos = new int[listas.stream().mapToInt(ids -> ids.length).sum()];
+        int k = 0;
+        for (int[] ids : listas) {
+            System.arraycopy(ids, 0, todos, k, ids.length);
+            k += ids.length;
+        }
+        Arrays.sort(todos);
+        int distintos = 0;
+        for (int i = 0; i < todos.length; i++) {
+            if (i == 0 || todos[i] != todos[i - 1]) {
+                todos[distintos++] = todos[i];
+            }
+        }
+        return Arrays.copyOf(todos, distintos);
+    }
+
+    private static boolean contieneTodos(Documento doc, String[] terminos) {
+        for (String termino : terminos) {
+            if (termino.length() < N) {
+                if (!algunaEmpiezaCon(doc.palabras(), termino)) {
+                    return false;
+                }
+            } else if (!doc.textoCompleto().contains(termino)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int puntaje(Documento doc, String[] terminos) {
+        int puntaje = 0;
+        for (String termino : terminos) {
+            int enNombre = coincidenciaEnNombre(doc.palabrasNombre(), termino);
+            if (enNombre > 0) {
+                puntaje += enNombre;
+            } else if (doc.nombre().contains(termino)) {
+                puntaje += PESO_NOMBRE;
+            } else if (doc.categoria().contains(termino)) {
+                puntaje += PESO_CATEGORIA;
+            } else {
+                puntaje += PESO_DESCRIPCION;
+            }
+        }
+        // A igual coincidencia, el que empieza con el primer término va antes
+        return doc.nombre().startsWith(terminos[0]) ? puntaje + 1 : puntaje;
+    }
+
+    private static boolean algunaEmpiezaCon(String[] palabras, String prefijo) {
+        for (String palabra : palabras) {
+            if (palabra.startsWith(prefijo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return el peso de la palabra del nombre igual al término, el de una que
+     *         empiece con él, o 0 si ninguna
+     */
+    private static int coincidenciaEnNombre(String[] palabrasNombre, String termino) {
+        int peso = 0;
+        for (String palabra : palabrasNombre) {
+            if (palabra.equals(termino)) {
+                return PESO_PALABRA_NOMBRE;
+            }
+            if (palabra.startsWith(termino)) {
+                peso = PESO_PREFIJO_NOMBRE;
+            }
+        }
+        return peso;
+    }
+
+    private static Set<String> extraerTrigramas(String texto) {
+        Set<String> trigramas = new HashSet<>();
+        for (String palabra : texto.split(" ")) {
+            for (int i = 0; i + N <= palabra.length(); i++) {
+                trigramas.add(palabra.substring(i, i + N));
+            }
+        }
+        return trigramas;
+    }
+
+    private static String[] extraerPalabras(String texto) {
+        Set<String> palabras = new LinkedHashSet<>();
+        for (String palabra : texto.split(" ")) {
+            if (!palabra.isEmpty()) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras.toArray(String[]::new);
+    }
+
+    /**
+     * Foto del índice. Las listas de IDs van ordenadas para intersectarlas en
+     * un solo recorrido. Nada de lo que contiene se modifica después de
+     * publicarla: con() devuelve una foto nueva que comparte lo que no cambió.
+     */
+    private record Indice(Map<Integer, Documento> documentos,
+                          Map<String, int[]> porTrigrama,
+                          NavigableMap<String, int[]> porPalabra) {
+
+        static Indice construir(Collection<ProductoDTO> productos) {
+            Map<Integer, Documento> documentos = new HashMap<>();
+            Map<String, ListaIds> trigramas = new HashMap<>();
+            Map<String, ListaIds> palabras = new HashMap<>();
+            // Recorriendo por ID las listas quedan ordenadas al armarlas
+            productos.stream().sorted(Comparator.comparing(ProductoDTO::getIdProducto)).forEach(producto -> {
+                Documento doc = Documento.de(producto);
+                int id = producto.getIdProducto();
+                documentos.put(id, doc);
+                doc.trigramas().forEach(t -> trigramas.computeIfAbsent(t, k -> new ListaIds()).agregar(id));
+                for (String palabra : doc.palabras()) {
+                    palabras.computeIfAbsent(palabra, k -> new ListaIds()).agregar(id);
+                }
+            });
+
+            Map<String, int[]> porTrigrama = new HashMap<>();
+            trigramas.forEach((t, ids) -> porTrigrama.put(t, ids.comoArreglo()));
+            NavigableMap<String, int[]> porPalabra = new TreeMap<>();
+            palabras.forEach((p, ids) -> porPalabra.put(p, ids.comoArreglo()));
+            return new Indice(documentos, porTrigrama, porPalabra);
+        }
+
+        /**
+         * @param producto versión nueva, o null si el producto se eliminó
+         */
+        Indice con(Integer idProducto, ProductoDTO producto) {
+            Map<Integer, Documento> documentosNuevos = new HashMap<>(documentos);
+            Map<String, int[]> trigramasNuevos = new HashMap<>(porTrigrama);
+            NavigableMap<String, int[]> palabrasNuevas = new TreeMap<>(porPalabra);
+
+            Documento anterior = documentosNuevos.remove(idProducto);
+            if (anterior != null) {
+                anterior.trigramas().forEach(t -> copiarSin(trigramasNuevos, t, idProducto));
+                for (String palabra : anterior.palabras()) {
+                    copiarSin(palabrasNuevas, palabra, idProducto);
+                }
+            }
+            if (producto != null) {
+                Documento doc = Documento.de(producto);
+                documentosNuevos.put(idProducto, doc);
+                doc.trigramas().forEach(t -> copiarCon(trigramasNuevos, t, idProducto));
+                for (String palabra : doc.palabras()) {
+                    copiarCon(palabrasNuevas, palabra, idProducto);
+                }
+            }
+            return new Indice(documentosNuevos, trigramasNuevos, palabrasNuevas);
+        }
+
+        // Las listas se copian antes de tocarlas: la foto anterior sigue en uso
+        private static void copiarSin(Map<String, int[]> indice, String clave, int idProducto) {
+            int[] ids = indice.get(clave);
+            int posicion = ids != null ? Arrays.binarySearch(ids, idProducto) : -1;
+            if (posicion < 0) {
+                return;
+            }
+            if (ids.length == 1) {
+                indice.remove(clave);
+                return;
+            }
+            int[] copia = new int[ids.length - 1];
+            System.arraycopy(ids, 0, copia, 0, posicion);
+            System.arraycopy(ids, posicion + 1, copia, posicion, copia.length - posicion);
+            indice.put(clave, copia);
+        }
+
+        private static void copiarCon(Map<String, int[]> indice, String clave, int idProducto) {
+            int[] ids = indice.getOrDefault(clave, SIN_IDS);
+            int posicion = Arrays.binarySearch(ids, idProducto);
+            if (posicion >= 0) {
+                return;
+            }
+            int insercion = -posicion - 1;
+            int[] copia = new int[ids.length + 1];
+            System.arraycopy(ids, 0, copia, 0, insercion);
+            copia[insercion] = idProducto;
+            System.arraycopy(ids, insercion, copia, insercion + 1, ids.length - insercion);
+            indice.put(clave, copia);
+        }
+    }
+
+    /**
+     * Lista de IDs que crece mientras se arma el índice, sin encajonar cada int
+     */
+    private static final class ListaIds {
+        private int[] ids = new int[4];
+        private int tamano;
+
+        void agregar(int id) {
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            ids[tamano++] = id;
+        }
+
+        int[] comoArreglo() {
+            return Arrays.copyOf(ids, tamano);
+        }
+    }
+
+    private record Documento(ProductoDTO producto, String nombre, String categoria, String textoCompleto,
+                             String[] palabrasNombre, String[] palabras, Set<String> trigramas) {
+
+        static Documento de(ProductoDTO producto) {
+            String nombre = BusquedaProductosService.normalizarTexto(producto.getNombre());
+            String categoria = BusquedaProductosService.normalizarTexto(producto.getNombreCategoria());
+            String descripcion = BusquedaProductosService.normalizarTexto(producto.getDescripcion());
+            String textoCompleto = String.join(" ", nombre, categoria, descripcion);
+            return new Documento(producto, nombre, categoria, textoCompleto,
+                    extraerPalabras(nombre), extraerPalabras(textoCompleto), extraerTrigramas(textoCompleto));
+        }
+
+        int stock() {
+            return producto.getStock() != null ? producto.getStock() : 0;
+        }
+
+        boolean visibleEn(String categoriaFiltro) {
+            if (!Boolean.TRUE.equals(producto.getEstado())) {
+                return false;
+            }
+            return categoriaFiltro == null || categoriaFiltro.equals(producto.getNombreCategoria());
+        }
+    }
+
+    private record Resultado(Documento documento, int puntaje) {
+    }
+}
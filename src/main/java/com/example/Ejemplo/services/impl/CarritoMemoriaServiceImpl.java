@@ -0,0 +1,254 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.CarritoRepository;
+import com.example.Ejemplo.services.CarritoMemoriaService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Un carrito por usuario con su propio lock: las operaciones de usuarios
+ * distintos no compiten entre sí. Cada cambio solo marca la línea como sucia,
+ * así que diez clics sobre el mismo producto terminan en un único UPSERT.
+ * Solo se desalojan carritos limpios (ya volcados) e inactivos, o los menos
+ * usados cuando se pasa del máximo.
+ * Un apagado normal vuelca todo; una caída pierde como mucho el último
+ * intervalo de volcado (el checkout sí borra la tabla en su transacción).
+ */
+@Service
+@Slf4j
+public class CarritoMemoriaServiceImpl implements CarritoMemoriaService {
+
+    private final CarritoRepository carritoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxCarritos;
+    private final long inactividadNanos;
+
+    private final ConcurrentHashMap<Integer, CarritoActivo> carritos = new ConcurrentHashMap<>();
+
+    public CarritoMemoriaServiceImpl(CarritoRepository carritoRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${carrito.memoria.max-carritos:5000}") int maxCarritos,
+                                     @Value("${carrito.memoria.inactividad-min:30}") long inactividadMin) {
+        if (maxCarritos < 1) {
+            throw new IllegalArgumentException("El máximo de carritos en memoria debe ser mayor a 0");
+        }
+        this.carritoRepository = carritoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxCarritos = maxCarritos;
+        this.inactividadNanos = Duration.ofMinutes(inactividadMin).toNanos();
+    }
+
+    @Override
+    public Map<Integer, Integer> lineas(int idUsuario) {
+        return conCarrito(idUsuario, carrito -> new LinkedHashMap<>(carrito.lineas));
+    }
+
+    @Override
+    public boolean sumar(int idUsuario, int idProducto, int cantidad, int maximo) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+        }
+        return conCarrito(idUsuario, carrito -> {
+            int nueva = carrito.lineas.getOrDefault(idProducto, 0) + cantidad;
+            if (nueva > maximo) {
+                return false;
+            }
+            carrito.fijar(idProducto, nueva);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean quitar(int idUsuario, int idProducto) {
+        return conCarrito(idUsuario, carrito -> {
+            if (!carrito.lineas.containsKey(idProducto)) {
+                return false;
+            }
+            carrito.fijar(idProducto, 0);
+            return true;
+        });
+    }
+
+    @Override
+    public Map<Integer, Integer> tomar(int idUsuario) {
+        return conCarrito(idUsuario, carrito -> {
+            Map<Integer, Integer> tomadas = new LinkedHashMap<>(carrito.lineas);
+            tomadas.keySet().forEach(idProducto -> carrito.fijar(idProducto, 0));
+            return tomadas;
+        });
+    }
+
+    @Override
+    public void devolver(int idUsuario, Map<Integer, Integer> lineas) {
+        conCarrito(idUsuario, carrito -> {
+            lineas.forEach((idProducto, cantidad) ->
+                    carrito.fijar(idProducto, carrito.lineas.getOrDefault(idProducto, 0) + cantidad));
+            return null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${carrito.memoria.volcado-ms:1000}")
+    public void volcadoProgramado() {
+        volcarPendientes();
+        desalojar();
+    }
+
+    @PreDestroy
+    public void volcarAlApagar() {
+        int volcadas = volcarPendientes();
+        log.info("Carritos volcados al apagar: {} líneas", volcadas);
+    }
+
+    @Override
+    public synchronized int volcarPendientes() {
+        Map<Integer, Map<Integer, Integer>> lote = new HashMap<>();
+        carritos.forEach((idUsuario, carrito) -> {
+            Map<Integer, Integer> cambios = carrito.tomarCambios();
+            if (!cambios.isEmpty()) {
+                lote.put(idUsuario, cambios);
+            }
+        });
+
+        if (lote.isEmpty()) {
+            return 0;
+        }
+
+        int lineas = lote.values().stream().mapToInt(Map::size).sum();
+        try {
+            transactionTemplate.executeWithoutResult(status -> lote.forEach(this::persistir));
+            log.debug("Volcadas {} líneas de {} carritos a la BD", lineas, lote.size());
+            return lineas;
+        } catch (RuntimeException e) {
+            // Se vuelven a marcar como sucias: el próximo volcado toma su valor actual
+            lote.forEach((idUsuario, cambios) -> {
+                CarritoActivo carrito = carritos.get(idUsuario);
+                if (carrito != null) {
+                    carrito.marcarSucias(cambios.keySet());
+                }
+            });
+            log.error("Error al volcar carritos a la BD, se reintentará", e);
+            return 0;
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * Ejecuta la acción con el lock del carrito. Si justo se desalojó, se
+     * vuelve a cargar (ya estaba volcado, así que la BD está al día).
+     */
+    private <T> T conCarrito(int idUsuario, Function<CarritoActivo, T> accion) {
+        while (true) {
+            CarritoActivo carrito = obtenerCarrito(idUsuario);
+            synchronized (carrito) {
+                if (!carrito.descartado) {
+                    carrito.ultimoAcceso = System.nanoTime();
+                    return accion.apply(carrito);
+                }
+            }
+        }
+    }
+
+    private CarritoActivo obtenerCarrito(int idUsuario) {
+        CarritoActivo carrito = carritos.get(idUsuario);
+        if (carrito != null) {
+            return carrito;
+        }
+        // La lectura a BD se hace fuera del mapa para no bloquear el bucket
+        CarritoActivo nuevo = new CarritoActivo();
+        for (Object[] fila : carritoRepository.findCantidadesByUsuario(idUsuario)) {
+            nuevo.lineas.put((Integer) fila[0], (Integer) fila[1]);
+        }
+        CarritoActivo existente = carritos.putIfAbsent(idUsuario, nuevo);
+        return existente != null ? existente : nuevo;
+    }
+
+    private void persistir(Integer idUsuario, Map<Integer, Integer> cambios) {
+        cambios.forEach((idProducto, cantidad) -> {
+            if (cantidad > 0) {
+                carritoRepository.fijarCantidad(idUsuario, idProducto, cantidad);
+            } else {
+                carritoRepository.deleteCarritoByUsuarioIdAndProductoId(idUsuario, idProducto);
+            }
+        });
+    }
+
+    /**
+     * Con el mismo lock que {@link #volcarPendientes}: mientras un volcado está
+     * en curso sus carritos ya figuran limpios, pero si falla vuelven a quedar
+     * sucios, así que no se pueden desalojar hasta que termine
+     */
+    private synchronized void desalojar() {
+        long limite = System.nanoTime() - inactividadNanos;
+        carritos.forEach((idUsuario, carrito) -> {
+            if (carrito.ultimoAcceso - limite < 0) {
+                descartar(idUsuario, carrito);
+            }
+        });
+
+        int exceso = carritos.size() - maxCarritos;
+        if (exceso > 0) {
+            carritos.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entrada -> entrada.getValue().ultimoAcceso))
+                    .limit(exceso)
+                    .forEach(entrada -> descartar(entrada.getKey(), entrada.getValue()));
+        }
+    }
+
+    private void descartar(Integer idUsuario, CarritoActivo carrito) {
+        synchronized (carrito) {
+            if (!carrito.sucias.isEmpty()) {
+                return;
+            }
+            carrito.descartado = true;
+        }
+        carritos.remove(idUsuario, carrito);
+    }
+
+    /**
+     * Estado de un carrito; se accede siempre con su monitor tomado
+     */
+    private static final class CarritoActivo {
+        private final Map<Integer, Integer> lineas = new LinkedHashMap<>();
+        // Líneas cambiadas desde el último volcado (cantidad 0 = borrar la fila)
+        private final Set<Integer> sucias = new HashSet<>();
+        private volatile long ultimoAcceso = System.nanoTime();
+        private boolean descartado;
+
+        private void fijar(int idProducto, int cantidad) {
+            if (cantidad > 0) {
+                lineas.put(idProducto, cantidad);
+            } else {
+                lineas.remove(idProducto);
+            }
+            sucias.add(idProducto);
+        }
+
+        private synchronized Map<Integer, Integer> tomarCambios() {
+            Map<Integer, Integer> cambios = new HashMap<>();
+            for (Integer idProducto : sucias) {
+                cambios.put(idProducto, lineas.getOrDefault(idProducto, 0));
+            }
+            sucias.clear();
+            return cambios;
+        }
+
+        private synchronized void marcarSucias(Set<Integer> idsProducto) {
+            sucias.addAll(idsProducto);
+        }
+    }
+}
@@ -1,28 +1,43 @@
 package com.example.Ejemplo.services.impl;
 
-import com.example.Ejemplo.models.Carrito;
+import com.example.Ejemplo.dto.CarritoResumenDTO;
+import com.example.Ejemplo.dto.LineaCarritoDTO;
 import com.example.Ejemplo.models.Producto;
-import com.example.Ejemplo.repository.CarritoRepository;
 import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.CarritoMemoriaService;
 import com.example.Ejemplo.services.CarritoService;
+import com.example.Ejemplo.services.InventarioService;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Las cantidades viven en CarritoMemoriaService; aquí solo se valida contra
+ * el libro de stock y se completan los datos del producto al leer.
+ */
 @Service
+@Slf4j
 public class CarritoServiceImpl implements CarritoService {
 
-    private final CarritoRepository carritoRepository;
+    private final CarritoMemoriaService carritoMemoriaService;
     private final ProductoRepository productoRepository;
+    private final InventarioService inventarioService;
 
-    public CarritoServiceImpl(CarritoRepository carritoRepository, ProductoRepository productoRepository) {
-        this.carritoRepository = carritoRepository;
+    public CarritoServiceImpl(CarritoMemoriaService carritoMemoriaService,
+                              ProductoRepository productoRepository,
+                              InventarioService inventarioService) {
+        this.carritoMemoriaService = carritoMemoriaService;
         this.productoRepository = productoRepository;
+        this.inventarioService = inventarioService;
     }
 
     @Override
@@ -36,30 +51,79 @@ public class CarritoServiceImpl implements CarritoService {
         return producto.map(List::of).orElse(List.of());
     }
 
-
     @Override
-    public List<Carrito> obtenerCarritosPorUsuario(int id) {
-        return carritoRepository.findByIdUsuario_IdUsuario(id);
+    public List<LineaCarritoDTO> obtenerLineas(int idUsuario) {
+        Map<Integer, Integer> cantidades = carritoMemoriaService.lineas(idUsuario);
+        if (cantidades.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, LineaCarritoDTO> productos = productoRepository.findLineasCarrito(cantidades.keySet()).stream()
+                .collect(Collectors.toMap(LineaCarritoDTO::getIdProducto, Function.identity()));
+
+        // Se respeta el orden en que se agregaron; un producto borrado del catálogo no se muestra
+        List<LineaCarritoDTO> lineas = new ArrayList<>(cantidades.size());
+        cantidades.forEach((idProducto, cantidad) -> {
+            LineaCarritoDTO linea = productos.get(idProducto);
+            if (linea != null) {
+                linea.setCantidad(cantidad);
+                linea.setTotal(linea.getPrecio() * cantidad);
+                lineas.add(linea);
+            }
+        });
+        return lineas;
     }
 
+    @Override
+    public int eliminarProductoAgregado(int idUsuario,int idProducto){
+        return carritoMemoriaService.quitar(idUsuario, idProducto) ? 1 : 0;
+    }
 
     @Override
-    public void saveCarrito(int id,int idProducto,int cantidad,double total) {
-        carritoRepository.saveCarritoByIdUsuario(id, idProducto,cantidad,total);
+    public int limpiarCarrito(int idUsuario) {
+        return carritoMemoriaService.tomar(idUsuario).size();
     }
 
     @Override
-    public int actualizarProductoAgregado(int idUsuario, int idProducto, int cantidad, double subTotal){
-        return carritoRepository.updateCantidadCarrito(idUsuario,idProducto,cantidad,subTotal);
+    public CarritoResumenDTO agregarItems(int idUsuario, Map<Integer, Integer> cantidadesPorProducto) {
+        List<Integer> rechazados = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> linea : new TreeMap<>(cantidadesPorProducto).entrySet()) {
+            if (linea.getValue() == null || linea.getValue() <= 0) {
+                throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+            }
+            if (!agregarItem(idUsuario, linea.getKey(), linea.getValue())) {
+                rechazados.add(linea.getKey());
+            }
+        }
+
+        CarritoResumenDTO resumen = resumir(idUsuario);
+        resumen.setRechazados(rechazados);
+        return resumen;
     }
 
     @Override
-    public int eliminarProductoAgregado(int idUsuario,int idProducto){
-        return carritoRepository.deleteCarritoByUsuarioIdAndProductoId(idUsuario,idProducto);
+    public boolean agregarItem(int idUsuario, int idProducto, int cantidad) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+        }
+        int disponible;
+        try {
+            disponible = inventarioService.stockDisponible(idProducto);
+        } catch (IllegalArgumentException e) {
+            log.debug("Producto {} no encontrado al agregar al carrito", idProducto);
+            return false;
+        }
+        // El tope se comprueba dentro del lock del carrito: dos clics seguidos no lo superan
+        return carritoMemoriaService.sumar(idUsuario, idProducto, cantidad, disponible);
     }
 
     @Override
-    public int limpiarCarrito(int idUsuario) {
-        return carritoRepository.deleteCarritoByIdUsuario_IdUsuario(idUsuario);
+    public CarritoResumenDTO resumir(int idUsuario) {
+        CarritoResumenDTO resumen = new CarritoResumenDTO();
+        for (LineaCarritoDTO linea : obtenerLineas(idUsuario)) {
+            resumen.setArticulos(resumen.getArticulos() + linea.getCantidad());
+            resumen.setTotal(resumen.getTotal() + linea.getTotal());
+        }
+        return resumen;
     }
 }
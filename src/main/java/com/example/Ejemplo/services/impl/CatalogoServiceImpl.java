@@ -0,0 +1,108 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.config.CacheConfig;
+import com.example.Ejemplo.dto.PaginaCursor;
+import com.example.Ejemplo.dto.ProductoDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.mapper.ProductoMapper;
+import com.example.Ejemplo.models.MenuDia;
+import com.example.Ejemplo.services.BusquedaProductosService;
+import com.example.Ejemplo.services.CatalogoService;
+import com.example.Ejemplo.services.MenuDiaService;
+import com.example.Ejemplo.services.ProductoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogoServiceImpl implements CatalogoService {
+
+    private final ProductoService productoService;
+    private final BusquedaProductosService busquedaProductosService;
+    private final MenuDiaService menuDiaService;
+    private final ProductoMapper productoMapper;
+    private final CacheManager cacheManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATALOGO)
+    public PaginaCursor<ProductoDTO> obtenerPagina(String categoria, String busqueda, String cursor) {
+        log.debug("Cache miss catálogo - Categoría: {}, Búsqueda: {}, Cursor: {}", categoria, busqueda, cursor);
+        if (busqueda != null) {
+            return buscarPorTexto(categoria, busqueda, cursor);
+        }
+        PaginaCursor<ProductoDTO> pagina = productoService.obtenerCatalogoPorCursor(categoria, cursor, TAMANO_PAGINA);
+        pagina.setTotalAproximado(productoService.contarAproximado(true, null, categoria, null));
+        return pagina;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MENU_DEL_DIA)
+    public List<ProductoDTO> obtenerMenuDelDia(LocalDate fecha) {
+        log.debug("Cache miss menú del día: {}", fecha);
+        // Se mapea dentro de la transacción: MenuDia.producto es LAZY
+        return menuDiaService.findMenusDelDia(fecha).stream()
+                .map(MenuDia::getProducto)
+                .map(productoMapper::toDTO)
+                .toList();
+    }
+
+    /**
+     * Invalida solo las caches afectadas y únicamente si la transacción confirmó.
+     * Va antes que la versión de FragmentosHtml, que se renderiza con estos datos
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onCatalogoModificado(CatalogoModificadoEvent event) {
+        if (event.origen() != CatalogoModificadoEvent.Origen.MENU_DIA) {
+            // Los productos muestran el nombre de su categoría y la categoría cuenta sus productos
+            limpiar(CacheConfig.CATALOGO);
+            limpiar(CacheConfig.CATEGORIAS_RESUMEN);
+            limpiar(CacheConfig.CONTEO_PRODUCTOS);
+        }
+        // El menú del día muestra datos del producto, así que ambos orígenes lo afectan
+        limpiar(CacheConfig.MENU_DEL_DIA);
+        log.debug("Cache del catálogo invalidada por {} {}", event.origen(), event.id());
+    }
+
+    /**
+     * La búsqueda se resuelve en memoria y ya viene ordenada por relevancia, así
+     * que el cursor solo lleva el número de página (no hay OFFSET en la BD)
+     */
+    private PaginaCursor<ProductoDTO> buscarPorTexto(String categoria, String busqueda, String token) {
+        PaginaCursor.Cursor cursor = PaginaCursor.Cursor.leer(token);
+        int pagina = cursor != null ? Integer.parseInt(cursor.valor(0)) : 0;
+        if (pagina < 0) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+
+        Page<ProductoDTO> resultado = busquedaProductosService.buscar(
+                busqueda, categoria, PageRequest.of(pagina, TAMANO_PAGINA));
+        String siguiente = resultado.hasNext()
+                ? PaginaCursor.Cursor.codificar(false, List.of(String.valueOf(pagina + 1))) : null;
+        String anterior = pagina > 0
+                ? PaginaCursor.Cursor.codificar(false, List.of(String.valueOf(pagina - 1))) : null;
+        return new PaginaCursor<>(List.copyOf(resultado.getContent()), siguiente, anterior, resultado.getTotalElements());
+    }
+
+    private void limpiar(String nombreCache) {
+        Cache cache = cacheManager.getCache(nombreCache);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.Ejemplo.services.impl;
 
+import com.example.Ejemplo.config.CacheConfig;
 import com.example.Ejemplo.dto.CategoriaCreateDTO;
 import com.example.Ejemplo.dto.CategoriaDTO;
 import com.example.Ejemplo.mapper.CategoriaMapper;
 import com.example.Ejemplo.dto.CategoriaResponseDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
 import com.example.Ejemplo.models.Categoria;
 import com.example.Ejemplo.repository.CategoriaRepository;
 import com.example.Ejemplo.services.CategoriaService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +28,7 @@ public class CategoriaServiceImpl implements CategoriaService {
 
     private final CategoriaRepository categoriaRepository;
     private final CategoriaMapper categoriaMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<CategoriaDTO> obtenerTodas() {
@@ -33,24 +38,14 @@ public class CategoriaServiceImpl implements CategoriaService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Una sola consulta agrupada, cacheada; se invalida con CatalogoModificadoEvent
+     */
     @Override
+    @Cacheable(cacheNames = CacheConfig.CATEGORIAS_RESUMEN, key = "'todas'")
     public List<CategoriaResponseDTO> obtenerTodasConDetalles() {
-        log.debug("Obteniendo todas las categorías con detalles");
-        List<Categoria> categorias = categoriaRepository.findAll();
-        
-        return categorias.stream()
-                .map(categoria -> {
-
-                    long cantidadProductos = categoriaRepository.countProductosByCategoria(categoria.getIdCategoria());
-                    
-                    return CategoriaResponseDTO.builder()
-                            .idCategoria(categoria.getIdCategoria())
-                            .nombre(categoria.getNombre())
-                            .cantidadProductos(cantidadProductos)
-                            .tieneProdutos(cantidadProductos > 0)
-                            .build();
-                })
-                .collect(Collectors.toList());
+        log.debug("Cache miss resumen de categorías");
+        return List.copyOf(categoriaRepository.findResumenes());
     }
 
     @Override
@@ -91,6 +86,7 @@ public class CategoriaServiceImpl implements CategoriaService {
         Categoria categoria = categoriaMapper.toEntity(createDTO);
         Categoria savedCategoria = categoriaRepository.save(categoria);
         
+        eventPublisher.publishEvent(CatalogoModificadoEvent.categoria(savedCategoria.getIdCategoria()));
         log.info("Categoría creada exitosamente con ID: {}", savedCategoria.getIdCategoria());
         return categoriaMapper.toDTO(savedCategoria);
     }
@@ -111,6 +107,7 @@ public class CategoriaServiceImpl implements CategoriaService {
         categoriaMapper.updateEntity(categoria, updateDTO);
         Categoria updatedCategoria = categoriaRepository.save(categoria);
         
+        eventPublisher.publishEvent(CatalogoModificadoEvent.categoria(id));
         log.info("Categoría actualizada exitosamente: {}", id);
         return categoriaMapper.toDTO(updatedCategoria);
     }
@@ -132,6 +129,7 @@ public class CategoriaServiceImpl implements CategoriaService {
         }
         
         categoriaRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.categoria(id));
         log.info("Categoría eliminada exitosamente: {}", id);
     }
 
@@ -0,0 +1,193 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.events.PedidoCreadoEvent;
+import com.example.Ejemplo.mapper.PedidoMapper;
+import com.example.Ejemplo.models.*;
+import com.example.Ejemplo.repository.CarritoRepository;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.repository.UsuarioRepository;
+import com.example.Ejemplo.services.CarritoMemoriaService;
+import com.example.Ejemplo.services.CheckoutService;
+import com.example.Ejemplo.services.FranjasEntregaService;
+import com.example.Ejemplo.services.InventarioService;
+import com.example.Ejemplo.services.OutboxService;
+import com.example.Ejemplo.services.PedidosService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class CheckoutServiceImpl implements CheckoutService {
+
+    private final CarritoRepository carritoRepository;
+    private final CarritoMemoriaService carritoMemoriaService;
+    private final ProductoRepository productoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final PedidosService pedidosService;
+    private final InventarioService inventarioService;
+    private final FranjasEntregaService franjasEntregaService;
+    private final OutboxService outboxService;
+    private final PedidoMapper pedidoMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CheckoutServiceImpl(CarritoRepository carritoRepository,
+                               CarritoMemoriaService carritoMemoriaService,
+                               ProductoRepository productoRepository,
+                               UsuarioRepository usuarioRepository,
+                               PedidosService pedidosService,
+                               InventarioService inventarioService,
+                               FranjasEntregaService franjasEntregaService,
+                               OutboxService outboxService,
+                               PedidoMapper pedidoMapper,
+                               ApplicationEventPublisher eventPublisher) {
+        this.carritoRepository = carritoRepository;
+        this.carritoMemoriaService = carritoMemoriaService;
+        this.productoRepository = productoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.pedidosService = pedidosService;
+        this.inventarioService = inventarioService;
+        this.franjasEntregaService = franjasEntregaService;
+        this.outboxService = outboxService;
+        this.pedidoMapper = pedidoMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public Pedido confirmarPedido(int idUsuario, LocalTime horaEntrega) {
+        // 1. Se toma el carrito de memoria (queda vacío) y sus productos en una sola consulta
+        Map<Integer, Integer> lineas = carritoMemoriaService.tomar(idUsuario);
+        if (lineas.isEmpty()) {
+            throw new IllegalStateException("El carrito está vacío");
+        }
+        devolverSiSeRevierte(idUsuario, lineas);
+
+        Map<Integer, Producto> productos = new HashMap<>();
+        for (Producto producto : productoRepository.findConCategoriaByIds(lineas.keySet())) {
+            productos.put(producto.getIdProducto(), producto);
+        }
+        if (productos.size() != lineas.size()) {
+            throw new IllegalStateException("Algún producto del carrito ya no está disponible");
+        }
+
+        // 2. Reservar capacidad en la franja de recojo y stock de todas las líneas (todo o nada)
+        int unidades = lineas.values().stream().mapToInt(Integer::intValue).sum();
+        franjasEntregaService.reservar(horaEntrega, unidades);
+        liberarFranjaSiSeRevierte(LocalDate.now(), horaEntrega, unidades);
+
+        Map<Integer, Integer> reserva = new LinkedHashMap<>(lineas);
+        inventarioService.reservar(reserva);
+        liberarSiSeRevierte(reserva);
+
+        // 3. Cabecera del pedido (IDENTITY: un INSERT inmediato para obtener el ID)
+        Usuario usuario = usuarioRepository.findById(idUsuario)
+                .orElseThrow(() -> new IllegalStateException("Usuario no encontrado"));
+
+        Pedido pedido = new Pedido();
+        pedido.setUsuario(usuario);
+        pedido.setFechaEntrega(horaEntrega);
+        pedido.setCodigoPedido(pedidosService.generarCodigoUnico());
+        pedido.setEstado(EstadoPedido.PENDIENTE);
+        entityManager.persist(pedido);
+
+        // 4. Detalles: persist directo (sin el SELECT previo de merge) para que
+        //    Hibernate los agrupe en un único batch de INSERT al hacer flush
+        List<DetallePedido> detalles = new ArrayList<>(lineas.size());
+        for (Map.Entry<Integer, Integer> linea : lineas.entrySet()) {
+            Producto producto = productos.get(linea.getKey());
+
+            DetallePedido detalle = new DetallePedido();
+            detalle.setDetallepedidoId(new DetallePedidoId(pedido.getIdPedido(), producto.getIdProducto()));
+            detalle.setPedido(pedido);
+            detalle.setProducto(producto);
+            detalle.setCantidad(linea.getValue());
+            detalle.setSubtotal(producto.getPrecio() * linea.getValue());
+
+            entityManager.persist(detalle);
+            detalles.add(detalle);
+        }
+        pedido.setDetallePedido(detalles);
+
+        // 5. Vaciar la tabla en esta misma transacción: si el proceso cae después
+        //    del commit, el carrito no reaparece al recargarse desde la BD
+        entityManager.flush();
+        carritoRepository.vaciarCarrito(idUsuario);
+
+        // 6. La notificación se encola en la misma transacción; la entrega el despachador
+        outboxService.encolarNotificacion(
+                idUsuario,
+                String.format("¡Pedido %s creado exitosamente! Te notificaremos cuando esté listo.",
+                        pedido.getCodigoPedido()),
+                OutboxService.clavePedido(pedido.getIdPedido(), EstadoPedido.PENDIENTE)
+        );
+
+        // Todo (usuario, productos, categorías) ya está cargado: el DTO sale sin consultas
+        eventPublisher.publishEvent(new PedidoCreadoEvent(pedidoMapper.toDTO(pedido)));
+
+        log.info("Pedido {} confirmado para usuario {} con {} líneas",
+                pedido.getCodigoPedido(), idUsuario, detalles.size());
+        return pedido;
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * El carrito se vació en memoria antes de la transacción: si no se
+     * confirma, las líneas vuelven al carrito del usuario
+     */
+    private void devolverSiSeRevierte(int idUsuario, Map<Integer, Integer> lineas) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    carritoMemoriaService.devolver(idUsuario, lineas);
+                    log.debug("Carrito del usuario {} restaurado tras rollback del checkout", idUsuario);
+                }
+            }
+        });
+    }
+
+    private void liberarFranjaSiSeRevierte(LocalDate fecha, LocalTime horaEntrega, int unidades) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    franjasEntregaService.liberar(fecha, horaEntrega, unidades);
+                }
+            }
+        });
+    }
+
+    /**
+     * La reserva vive en memoria, fuera de la transacción: si la BD hace
+     * rollback hay que devolver las unidades al libro de stock
+     */
+    private void liberarSiSeRevierte(Map<Integer, Integer> reserva) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    inventarioService.liberar(reserva);
+                    log.debug("Reserva de stock liberada tras rollback del checkout");
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.PedidosRepository;
+import com.example.Ejemplo.repository.SecuenciaCodigoRepository;
+import com.example.Ejemplo.services.CodigoPedidoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cada nodo arrienda un rango [inicio, fin) de la tabla secuencia_codigo y lo
+ * consume en memoria con un contador atómico. El arriendo se confirma en su
+ * propia transacción, por lo que un rango nunca se entrega dos veces aunque
+ * el pedido que lo pidió haga rollback (solo se pierden huecos).
+ *
+ * Con reinicio diario la secuencia se llama "pedido-yyyyMMdd" y cada día usa
+ * su propio tramo de capacidadDiaria códigos dentro del espacio LLLDDD. Hay
+ * ESPACIO_CODIGOS / capacidadDiaria tramos enteros y el día se reduce módulo
+ * esa cantidad, así que un tramo se reutiliza recién al cerrar el ciclo.
+ *
+ * Un código que ya existe en pedidos (p. ej. emitido por el generador aleatorio
+ * anterior) se salta y se toma el siguiente valor.
+ */
+@Service
+@Slf4j
+public class CodigoPedidoServiceImpl implements CodigoPedidoService {
+
+    private static final String SECUENCIA = "pedido";
+    private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final SecuenciaCodigoRepository secuenciaRepository;
+    private final PedidosRepository pedidosRepository;
+    private final TransactionTemplate transaccionArriendo;
+    private final int tamanoBloque;
+    private final boolean reinicioDiario;
+    private final int capacidadDiaria;
+    private final long clave;
+
+    private volatile Bloque bloqueActual = Bloque.VACIO;
+
+    public CodigoPedidoServiceImpl(SecuenciaCodigoRepository secuenciaRepository,
+                                   PedidosRepository pedidosRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${pedidos.codigo.bloque:100}") int tamanoBloque,
+                                   @Value("${pedidos.codigo.reinicio-diario:false}") boolean reinicioDiario,
+                                   @Value("${pedidos.codigo.capacidad-diaria:10000}") int capacidadDiaria,
+                                   @Value("${pedidos.codigo.clave:0}") long clave) {
+        if (tamanoBloque <= 0 || capacidadDiaria <= 0 || capacidadDiaria > ESPACIO_CODIGOS) {
+            throw new IllegalArgumentException("Configuración de códigos de pedido inválida");
+        }
+        this.secuenciaRepository = secuenciaRepository;
+        this.pedidosRepository = pedidosRepository;
+        this.transaccionArriendo = new TransactionTemplate(transactionManager);
+        this.transaccionArriendo.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanoBloque = tamanoBloque;
+        this.reinicioDiario = reinicioDiario;
+        this.capacidadDiaria = capacidadDiaria;
+        this.clave = clave;
+    }
+
+    @Override
+    public String siguienteCodigo() {
+        LocalDate hoy = LocalDate.now();
+        String secuencia = reinicioDiario ? SECUENCIA + "-" + hoy.format(FORMATO_DIA) : SECUENCIA;
+        while (true) {
+            Bloque bloque = bloqueActual;
+            if (bloque.secuencia.equals(secuencia)) {
+                long valor = bloque.siguiente.getAndIncrement();
+                if (valor < bloque.fin) {
+                    String codigo = CodigoPedidoService.codificar(
+                            CodigoPedidoService.permutar(bloque.desplazamiento + valor, clave));
+                    if (!pedidosRepository.existsByCodigoPedido(codigo)) {
+                        return codigo;
+                    }
+                    log.debug("Código {} ya emitido anteriormente, se salta", codigo);
+                    continue;
+                }
+            }
+            renovarBloque(bloque, secuencia, hoy);
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private synchronized void renovarBloque(Bloque agotado, String secuencia, LocalDate hoy) {
+        if (bloqueActual != agotado) {
+            return; // otro hilo ya lo renovó
+        }
+        Long fin = transaccionArriendo.execute(status -> {
+            secuenciaRepository.avanzar(secuencia, tamanoBloque);
+            return secuenciaRepository.findSiguiente(secuencia);
+        });
+        long inicio = fin - tamanoBloque;
+
+        if (reinicioDiario && inicio >= capacidadDiaria) {
+            throw new IllegalStateException("Se agotó la capacidad diaria de códigos de pedido");
+        }
+        long limite = reinicioDiario ? Math.min(fin, capacidadDiaria) : fin;
+
+        long desplazamiento = reinicioDiario ? tramoDelDia(hoy, capacidadDiaria) : 0;
+
+        bloqueActual = new Bloque(secuencia, inicio, limite, desplazamiento);
+        log.debug("Arrendado bloque de códigos [{}, {}) de la secuencia {}", inicio, limite, secuencia);
+    }
+
+    /**
+     * Inicio del tramo del día: siempre un tramo entero dentro del espacio,
+     * sin cruzar el final (donde se solaparía con los primeros días del ciclo)
+     */
+    static long tramoDelDia(LocalDate dia, int capacidadDiaria) {
+        long tramos = ESPACIO_CODIGOS / capacidadDiaria;
+        return Math.floorMod(dia.toEpochDay(), tramos) * capacidadDiaria;
+    }
+
+    private static final class Bloque {
+        static final Bloque VACIO = new Bloque("", 0, 0, 0);
+
+        private final String secuencia;
+        private final AtomicLong siguiente;
+        private final long fin;
+        private final long desplazamiento;
+
+        private Bloque(String secuencia, long inicio, long fin, long desplazamiento) {
+            this.secuencia = secuencia;
+            this.siguiente = new AtomicLong(inicio);
+            this.fin = fin;
+            this.desplazamiento = desplazamiento;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.FranjaEntregaDTO;
+import com.example.Ejemplo.events.PedidoEstadoCambiadoEvent;
+import com.example.Ejemplo.models.DetallePedido;
+import com.example.Ejemplo.models.EstadoPedido;
+import com.example.Ejemplo.repository.PedidosRepository;
+import com.example.Ejemplo.services.FranjasEntregaService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Un arreglo de contadores atómicos por día (uno por franja): reservar es un
+ * CAS sobre el contador de la franja, sin locks ni consultas. El día se carga
+ * la primera vez que se usa sumando las unidades de sus pedidos no cancelados,
+ * así que lo persistido es el propio pedido (se confirma en la misma
+ * transacción del checkout) y un reinicio no pierde ni duplica ocupación.
+ * <p>
+ * Supone una sola instancia de la aplicación: los contadores viven en esta
+ * JVM y nadie más reserva sobre ellos. Con varias instancias detrás de un
+ * balanceador cada una admitiría hasta la capacidad completa de la franja
+ * (hasta capacidad × instancias en total) y además no vería las reservas de
+ * las otras hasta recargar el día. Para escalar horizontalmente la reserva
+ * tendría que pasar a la BD (un UPDATE condicionado a la capacidad sobre una
+ * fila por franja) o repartir las franjas entre instancias.
+ */
+@Service
+@Slf4j
+public class FranjasEntregaServiceImpl implements FranjasEntregaService {
+
+    private final PedidosRepository pedidosRepository;
+    private final TransactionTemplate transaccionLectura;
+    private final LocalTime apertura;
+    private final int minutosFranja;
+    private final int cantidadFranjas;
+    private final int capacidad;
+    private final int anticipacionMin;
+
+    private final ConcurrentHashMap<LocalDate, AtomicIntegerArray> dias = new ConcurrentHashMap<>();
+
+    public FranjasEntregaServiceImpl(PedidosRepository pedidosRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${franjas.apertura:07:00}") String apertura,
+                                     @Value("${franjas.cierre:21:00}") String cierre,
+                                     @Value("${franjas.minutos:10}") int minutosFranja,
+                                     @Value("${franjas.capacidad:30}") int capacidad,
+                                     @Value("${franjas.anticipacion-min:10}") int anticipacionMin) {
+        LocalTime horaApertura = LocalTime.parse(apertura);
+        LocalTime horaCierre = LocalTime.parse(cierre);
+        if (minutosFranja < 1 || capacidad < 1 || !horaCierre.isAfter(horaApertura)) {
+            throw new IllegalArgumentException("Configuración de franjas inválida: revise horario, minutos y capacidad");
+        }
+        this.pedidosRepository = pedidosRepository;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transaccionLectura.setReadOnly(true);
+        this.apertura = horaApertura;
+        this.minutosFranja = minutosFranja;
+        this.cantidadFranjas = (minutoDelDia(horaCierre) - minutoDelDia(horaApertura)) / minutosFranja;
+        this.capacidad = capacidad;
+        this.anticipacionMin = anticipacionMin;
+    }
+
+    @Override
+    public LocalTime reservar(LocalTime horaEntrega, int unidades) {
+        if (unidades <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+        }
+        int indice = indice(horaEntrega);
+        if (indice < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "La hora de recojo debe estar entre las %s y las %s", apertura, inicio(cantidadFranjas)));
+        }
+        if (minutoDelDia(horaEntrega) < minimoHoy()) {
+            throw new IllegalArgumentException(String.format(
+                    "La hora de recojo debe ser al menos %d minutos después de ahora", anticipacionMin));
+        }
+
+        AtomicIntegerArray ocupadas = dia(LocalDate.now());
+        int actual;
+        do {
+            actual = ocupadas.get(indice);
+            // Un pedido más grande que la franja entra solo si la encuentra vacía
+            if (actual + unidades > capacidad && actual > 0) {
+                throw new IllegalStateException(String.format(
+                        "La franja de las %s ya no tiene capacidad. Elige otra hora de recojo.", inicio(indice)));
+            }
+        } while (!ocupadas.compareAndSet(indice, actual, actual + unidades));
+
+        log.debug("Reservadas {} unidades en la franja de las {} ({} / {})",
+                unidades, inicio(indice), actual + unidades, capacidad);
+        return inicio(indice);
+    }
+
+    @Override
+    public void liberar(LocalDate fecha, LocalTime horaEntrega, int unidades) {
+        AtomicIntegerArray ocupadas = dias.get(fecha);
+        int indice = indice(horaEntrega);
+        // Un día no cargado se calcula desde la BD, donde el pedido ya no cuenta
+        if (ocupadas == null || indice < 0 || unidades <= 0) {
+            return;
+        }
+        ocupadas.getAndUpdate(indice, actual -> Math.max(0, actual - unidades));
+    }
+
+    @Override
+    public List<FranjaEntregaDTO> disponibles(int unidades, int limite) {
+        AtomicIntegerArray ocupadas = dia(LocalDate.now());
+        int minimo = minimoHoy();
+
+        List<FranjaEntregaDTO> franjas = new ArrayList<>();
+        for (int i = 0; i < cantidadFranjas && franjas.size() < limite; i++) {
+            LocalTime inicio = inicio(i);
+            if (minutoDelDia(inicio) < minimo) {
+                continue;
+            }
+            int ocupadasFranja = ocupadas.get(i);
+            if (ocupadasFranja + unidades <= capacidad || ocupadasFranja == 0) {
+                franjas.add(new FranjaEntregaDTO(inicio, inicio.plusMinutes(minutosFranja),
+                        capacidad, Math.max(0, capacidad - ocupadasFranja)));
+            }
+        }
+        return franjas;
+    }
+
+    // ============= EVENTOS DE LA APLICACIÓN =============
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoEstadoCambiado(PedidoEstadoCambiadoEvent event) {
+        if (event.estadoNuevo() != EstadoPedido.CANCELADO) {
+            return;
+        }
+        transaccionLectura.executeWithoutResult(status ->
+                pedidosRepository.findConDetallesById(event.idPedido()).ifPresent(pedido -> {
+                    if (pedido.getFechaPedido() == null || pedido.getFechaEntrega() == null) {
+                        return;
+                    }
+                    int unidades = pedido.getDetallePedido().stream().mapToInt(DetallePedido::getCantidad).sum();
+                    liberar(pedido.getFechaPedido().toLocalDate(), pedido.getFechaEntrega(), unidades);
+                    log.debug("Pedido {} cancelado: {} unidades liberadas en la franja de las {}",
+                            pedido.getCodigoPedido(), unidades, pedido.getFechaEntrega());
+                }));
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private AtomicIntegerArray dia(LocalDate fecha) {
+        AtomicIntegerArray ocupadas = dias.get(fecha);
+        if (ocupadas != null) {
+            return ocupadas;
+        }
+        // La lectura a BD se hace fuera del mapa para no bloquear el bucket
+        AtomicIntegerArray nuevo = new AtomicIntegerArray(cantidadFranjas);
+        for (Object[] fila : pedidosRepository.sumarUnidadesPorHoraEntrega(
+                fecha.atStartOfDay(), fecha.plusDays(1).atStartOfDay(), EstadoPedido.CANCELADO)) {
+            int indice = indice((LocalTime) fila[0]);
+            if (indice >= 0) {
+                nuevo.addAndGet(indice, ((Number) fila[1]).intValue());
+            }
+        }
+        AtomicIntegerArray existente = dias.putIfAbsent(fecha, nuevo);
+        if (existente == null) {
+            // Los días anteriores ya no reciben reservas
+            dias.keySet().removeIf(otro -> otro.isBefore(fecha));
+            log.info("Franjas del {} cargadas desde los pedidos", fecha);
+            return nuevo;
+        }
+        return existente;
+    }
+
+    private int indice(LocalTime hora) {
+        int desdeApertura = minutoDelDia(hora) - minutoDelDia(apertura);
+        if (desdeApertura < 0) {
+            return -1;
+        }
+        int indice = desdeApertura / minutosFranja;
+        return indice < cantidadFranjas ? indice : -1;
+    }
+
+    private LocalTime inicio(int indice) {
+        return apertura.plusMinutes((long) indice * minutosFranja);
+    }
+
+    /**
+     * Primer minuto del día en que todavía se puede recoger (puede pasar de 1440 de noche)
+     */
+    private int minimoHoy() {
+        return minutoDelDia(LocalTime.now()) + anticipacionMin;
+    }
+
+    private static int minutoDelDia(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+}
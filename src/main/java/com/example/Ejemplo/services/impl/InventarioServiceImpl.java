@@ -0,0 +1,301 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.events.StockEditadoEvent;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.InventarioService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Mantiene un contador atómico por producto. Reservar es un CAS sobre el
+ * contador (sin locks de fila); lo pendiente de volcar es la diferencia entre
+ * el stock que ya está en la BD y el disponible en memoria, y se vuelca
+ * periódicamente con UPDATE condicionales dentro de una sola transacción.
+ * Para sacar una entrada del libro primero se cierra con un CAS (nadie más
+ * reserva sobre ella), se vuelca y recién entonces se quita del mapa.
+ * Un delta que la BD rechaza varias veces seguidas (stock editado a mano por
+ * debajo de lo vendido) se aparta en {@link #deltasDescartados()} y el
+ * producto se recarga desde la BD.
+ */
+@Service
+@Slf4j
+public class InventarioServiceImpl implements InventarioService {
+
+    // Marca de entrada cerrada: quien la encuentre vuelve a buscar en el mapa
+    private static final int RETIRADA = Integer.MIN_VALUE;
+
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate nuevaTransaccion;
+    private final int reintentosMaximos;
+
+    private final ConcurrentHashMap<Integer, EntradaStock> entradas = new ConcurrentHashMap<>();
+    // idProducto -> unidades vendidas que la BD nunca aceptó descontar
+    private final ConcurrentHashMap<Integer, Integer> descartados = new ConcurrentHashMap<>();
+
+    public InventarioServiceImpl(ProductoRepository productoRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${inventario.reintentos-volcado:10}") int reintentosMaximos) {
+        this.productoRepository = productoRepository;
+        this.reintentosMaximos = reintentosMaximos;
+        // El volcado se confirma aparte aunque lo llame un servicio con su propia transacción
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void reservar(Map<Integer, Integer> cantidadesPorProducto) {
+        Map<Integer, Integer> reservadas = new TreeMap<>();
+
+        // Orden estable por ID para que el rollback parcial sea determinista
+        for (Map.Entry<Integer, Integer> linea : new TreeMap<>(cantidadesPorProducto).entrySet()) {
+            int cantidad = linea.getValue();
+            if (cantidad <= 0) {
+                reservadas.forEach(this::devolver);
+                throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+            }
+
+            if (!reservarEnEntrada(linea.getKey(), cantidad)) {
+                reservadas.forEach(this::devolver);
+                throw new IllegalStateException(String.format(
+                        "Stock insuficiente para el producto %d. Disponible: %d, Solicitado: %d",
+                        linea.getKey(), stockDisponible(linea.getKey()), cantidad));
+            }
+            reservadas.put(linea.getKey(), cantidad);
+        }
+
+        log.debug("Reservadas {} líneas de stock en memoria", reservadas.size());
+    }
+
+    @Override
+    public void liberar(Integer idProducto, int cantidad) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+        }
+        devolver(idProducto, cantidad);
+    }
+
+    @Override
+    public void liberar(Map<Integer, Integer> cantidadesPorProducto) {
+        cantidadesPorProducto.forEach(this::liberar);
+    }
+
+    @Override
+    public int stockDisponible(Integer idProducto) {
+        while (true) {
+            int actual = obtenerEntrada(idProducto).disponible.get();
+            if (actual != RETIRADA) {
+                return actual;
+            }
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public Integer stockEnLibro(Integer idProducto) {
+        EntradaStock entrada = entradas.get(idProducto);
+        if (entrada == null) {
+            return null;
+        }
+        // Retirada: se está sincronizando y vuelve a cargarse de la BD
+        int actual = entrada.disponible.get();
+        return actual != RETIRADA ? actual : null;
+    }
+
+    @Override
+    public synchronized void sincronizar(Integer idProducto) {
+        EntradaStock entrada = entradas.get(idProducto);
+        if (entrada == null) {
+            return;
+        }
+        // Desde aquí nadie reserva sobre esta entrada: lo que se vuelca es definitivo
+        int hasta = entrada.disponible.getAndSet(RETIRADA);
+        int delta = entrada.enBd - hasta;
+        try {
+            if (delta != 0 && !Boolean.TRUE.equals(nuevaTransaccion.execute(status -> aplicarDelta(idProducto, delta)))) {
+                // No se pudo volcar: la entrada sigue en el libro con su pendiente
+                entrada.disponible.set(hasta);
+                registrarFallo(idProducto, entrada);
+                return;
+            }
+        } catch (RuntimeException e) {
+            entrada.disponible.set(hasta);
+            throw e;
+        }
+        entradas.remove(idProducto, entrada);
+        log.debug("Producto {} sincronizado con la BD (delta volcado: {})", idProducto, delta);
+    }
+
+    /**
+     * La edición se sincroniza de nuevo después del commit: si una reserva
+     * recargó la entrada antes, lo hizo con el stock anterior a la edición
+     */
+    @TransactionalEventListener
+    public void onStockEditado(StockEditadoEvent event) {
+        sincronizar(event.idProducto());
+    }
+
+    @Override
+    public Map<Integer, Integer> deltasDescartados() {
+        return Map.copyOf(descartados);
+    }
+
+    @Scheduled(fixedDelayString = "${inventario.volcado-ms:500}")
+    public void volcadoProgramado() {
+        volcarPendientes();
+    }
+
+    @PreDestroy
+    public void volcarAlApagar() {
+        int volcados = volcarPendientes();
+        log.info("Libro de stock volcado al apagar: {} productos", volcados);
+    }
+
+    /**
+     * Sincronizado con {@link #sincronizar}: el stock en BD de cada entrada
+     * solo lo mueve un volcado a la vez
+     */
+    @Override
+    public synchronized int volcarPendientes() {
+        List<Volcado> lote = new ArrayList<>();
+        entradas.forEach((idProducto, entrada) -> {
+            int disponible = entrada.disponible.get();
+            if (disponible != RETIRADA && disponible != entrada.enBd) {
+                lote.add(new Volcado(idProducto, entrada, disponible));
+            }
+        });
+
+        if (lote.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            Map<Boolean, List<Volcado>> resultado = nuevaTransaccion.execute(status -> lote.stream()
+                    .collect(Collectors.partitioningBy(v -> aplicarDelta(v.idProducto(), v.entrada().enBd - v.disponible()))));
+            // Solo después del commit: si la transacción falla todo queda pendiente
+            List<Volcado> aplicados = resultado.get(true);
+            aplicados.forEach(v -> {
+                v.entrada().enBd = v.disponible();
+                v.entrada().fallos = 0;
+            });
+            resultado.get(false).forEach(v -> registrarFallo(v.idProducto(), v.entrada()));
+            log.debug("Volcados {} deltas de stock a la BD", aplicados.size());
+            return aplicados.size();
+        } catch (RuntimeException e) {
+            log.error("Error al volcar stock a la BD, se reintentará", e);
+            return 0;
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * @return false si el UPDATE condicional no encontró stock suficiente en la BD
+     */
+    private boolean aplicarDelta(Integer idProducto, int delta) {
+        if (delta > 0) {
+            if (productoRepository.descontarStock(idProducto, delta) == 0) {
+                // La BD tiene menos de lo vendido (edición manual concurrente): las
+                // unidades ya están comprometidas, así que se mantienen pendientes
+                log.warn("Stock en BD menor a lo vendido para producto {} (delta {}). " +
+                        "Se reintentará; revise el stock del producto.", idProducto, delta);
+                return false;
+            }
+        } else {
+            productoRepository.incrementarStock(idProducto, -delta);
+        }
+        return true;
+    }
+
+    /**
+     * Llamado con el lock del servicio. Agotados los reintentos, el pendiente
+     * se aparta y la entrada se retira para recargar lo que diga la BD
+     */
+    private void registrarFallo(Integer idProducto, EntradaStock entrada) {
+        if (++entrada.fallos < reintentosMaximos) {
+            return;
+        }
+        int hasta = entrada.disponible.getAndSet(RETIRADA);
+        int delta = entrada.enBd - hasta;
+        descartados.merge(idProducto, delta, Integer::sum);
+        entradas.remove(idProducto, entrada);
+        log.error("ALERTA: {} unidades vendidas del producto {} no se pudieron descontar en la BD tras {} intentos. " +
+                "Se apartan como descartadas y el producto se recarga desde la BD; corrija su stock a mano.",
+                delta, idProducto, entrada.fallos);
+    }
+
+    private boolean reservarEnEntrada(Integer idProducto, int cantidad) {
+        while (true) {
+            EntradaStock entrada = obtenerEntrada(idProducto);
+            int actual = entrada.disponible.get();
+            if (actual == RETIRADA) {
+                // Se está sincronizando: esperar a que la saquen del mapa
+                Thread.yield();
+                continue;
+            }
+            if (actual < cantidad) {
+                return false;
+            }
+            if (entrada.disponible.compareAndSet(actual, actual - cantidad)) {
+                return true;
+            }
+        }
+    }
+
+    private void devolver(Integer idProducto, int cantidad) {
+        while (true) {
+            EntradaStock entrada = obtenerEntrada(idProducto);
+            int actual = entrada.disponible.get();
+            if (actual == RETIRADA) {
+                Thread.yield();
+                continue;
+            }
+            if (entrada.disponible.compareAndSet(actual, actual + cantidad)) {
+                return;
+            }
+        }
+    }
+
+    private EntradaStock obtenerEntrada(Integer idProducto) {
+        EntradaStock entrada = entradas.get(idProducto);
+        if (entrada != null) {
+            return entrada;
+        }
+        // La lectura a BD se hace fuera del mapa para no bloquear el bucket
+        int stock = productoRepository.findStockById(idProducto)
+                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + idProducto));
+        EntradaStock nueva = new EntradaStock(stock);
+        EntradaStock existente = entradas.putIfAbsent(idProducto, nueva);
+        return existente != null ? existente : nueva;
+    }
+
+    private record Volcado(Integer idProducto, EntradaStock entrada, int disponible) {
+    }
+
+    private static final class EntradaStock {
+        private final AtomicInteger disponible;
+        // Stock que la BD ya refleja; solo lo cambia el volcado (bajo el lock del servicio)
+        private int enBd;
+        // Volcados rechazados seguidos, también bajo el lock del servicio
+        private int fallos;
+
+        private EntradaStock(int stockInicial) {
+            this.disponible = new AtomicInteger(stockInicial);
+            this.enBd = stockInicial;
+        }
+    }
+}
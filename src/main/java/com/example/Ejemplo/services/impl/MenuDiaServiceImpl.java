@@ -1,9 +1,11 @@
 package com.example.Ejemplo.services.impl;
 
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
 import com.example.Ejemplo.models.MenuDia;
 import com.example.Ejemplo.repository.MenuDiaRepository;
 import com.example.Ejemplo.services.MenuDiaService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +21,7 @@ import java.util.Optional;
 public class MenuDiaServiceImpl implements MenuDiaService {
 
     private final MenuDiaRepository menuDia;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<MenuDia> findAllMenuDias() {
@@ -50,12 +53,15 @@ public class MenuDiaServiceImpl implements MenuDiaService {
     @Override
     @Transactional
     public MenuDia saveMenudia(MenuDia menu) {
-        return menuDia.save(menu);
+        MenuDia guardado = menuDia.save(menu);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.menuDia(guardado.getId()));
+        return guardado;
     }
     
     @Override
     @Transactional
     public void deleteById(Integer id) {
         menuDia.deleteById(id);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.menuDia(id));
     }
 }
@@ -1,15 +1,25 @@
 package com.example.Ejemplo.services.impl;
 
+import com.example.Ejemplo.dto.BandejaNotificacionesDTO;
+import com.example.Ejemplo.dto.NotificacionDTO;
+import com.example.Ejemplo.events.NotificacionCreadaEvent;
 import com.example.Ejemplo.models.Notificacion;
 import com.example.Ejemplo.models.Usuario;
 import com.example.Ejemplo.repository.NotificacionRepository;
 import com.example.Ejemplo.repository.UsuarioRepository;
 import com.example.Ejemplo.services.NotificacionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.List;
 
 @Service
@@ -19,19 +29,32 @@ public class NotificacionServiceImpl implements NotificacionService {
 
     private final NotificacionRepository notificacionRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // idUsuario -> no leídas, siempre salido del COUNT indexado. Cada commit que
+    // crea, marca o borra notificaciones descarta la entrada (no se suman deltas
+    // que puedan cruzarse con un COUNT en vuelo), y el vencimiento acota lo que
+    // puede tardar en verse un cambio hecho por otra instancia
+    private final Cache<Integer, Integer> sinLeer = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .maximumSize(10_000)
+            .build();
 
     @Override
     @Transactional
     public void sendNotificacion(int idUsuario, String mensaje) {
-        Usuario usuario = usuarioRepository.findById(idUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        // Referencia sin SELECT: la FK de id_usuario ya valida que exista
+        Usuario usuario = usuarioRepository.getReferenceById(idUsuario);
         
         Notificacion notificacion = new Notificacion();
         notificacion.setUsuario(usuario);
         notificacion.setMensaje(mensaje);
         notificacion.setEstado(false); // No leída por defecto
         
-        notificacionRepository.save(notificacion);
+        Notificacion guardada = notificacionRepository.save(notificacion);
+        despuesDelCommit(() -> sinLeer.invalidate(idUsuario));
+        eventPublisher.publishEvent(new NotificacionCreadaEvent(
+                idUsuario, guardada.getIdNotificacion(), guardada.getMensaje()));
     }
     
     @Override
@@ -55,6 +78,9 @@ public class NotificacionServiceImpl implements NotificacionService {
                 .ifPresentOrElse(
                     notif -> {
                         notificacionRepository.delete(notif);
+                        if (!notif.isEstado()) {
+                            despuesDelCommit(() -> sinLeer.invalidate(idUsuario));
+                        }
                         log.info("Notificación eliminada exitosamente: ID {}", idNotificacion);
                     },
                     () -> log.warn("Notificación no encontrada o no pertenece al usuario: ID {}", idNotificacion)
@@ -65,17 +91,58 @@ public class NotificacionServiceImpl implements NotificacionService {
     @Transactional
     public void deleteAllNotificaciones(int idUsuario) {
         log.info("Eliminando todas las notificaciones para usuario ID: {}", idUsuario);
-        List<Notificacion> notificaciones = notificacionRepository.findAllByUsuario_IdUsuario(idUsuario);
-        log.info("Encontradas {} notificaciones para eliminar", notificaciones.size());
-        notificacionRepository.deleteAll(notificaciones);
-        log.info("Todas las notificaciones eliminadas exitosamente para usuario ID: {}", idUsuario);
+        int eliminadas = notificacionRepository.eliminarTodas(idUsuario);
+        despuesDelCommit(() -> sinLeer.invalidate(idUsuario));
+        log.info("{} notificaciones eliminadas para usuario ID: {}", eliminadas, idUsuario);
     }
     
     @Override
     public List<Notificacion> getRecentNotificaciones(int idUsuario, int limit) {
-        List<Notificacion> todasLasNotificaciones = notificacionRepository.findTopByUsuarioOrderByIdDesc(idUsuario);
-        return todasLasNotificaciones.stream()
-                .limit(limit)
-                .toList();
+        return notificacionRepository.findByUsuario_IdUsuarioOrderByIdNotificacionDesc(
+                idUsuario, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public BandejaNotificacionesDTO obtenerBandeja(int idUsuario) {
+        // Una fila de más para saber si hay más sin contar el total
+        List<NotificacionDTO> filas = notificacionRepository.findRecientes(
+                idUsuario, PageRequest.of(0, TAMANO_BANDEJA + 1));
+        boolean hayMas = filas.size() > TAMANO_BANDEJA;
+        List<NotificacionDTO> recientes = hayMas ? filas.subList(0, TAMANO_BANDEJA) : filas;
+        return new BandejaNotificacionesDTO(recientes, contarSinLeer(idUsuario), hayMas);
+    }
+
+    @Override
+    public int contarSinLeer(int idUsuario) {
+        // Un invalidate que llega durante el COUNT espera a que termine y lo
+        // descarta, así un conteo anterior al commit no queda guardado
+        return sinLeer.get(idUsuario,
+                id -> (int) notificacionRepository.countByUsuario_IdUsuarioAndEstadoFalse(id));
+    }
+
+    @Override
+    @Transactional
+    public int marcarLeidas(int idUsuario, int hastaId) {
+        int marcadas = notificacionRepository.marcarLeidas(idUsuario, hastaId);
+        if (marcadas > 0) {
+            despuesDelCommit(() -> sinLeer.invalidate(idUsuario));
+        }
+        log.debug("Usuario {}: {} notificaciones marcadas como leídas", idUsuario, marcadas);
+        return marcadas;
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private void despuesDelCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
     }
 }
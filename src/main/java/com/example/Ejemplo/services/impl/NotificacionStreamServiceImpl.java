@@ -0,0 +1,187 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.events.NotificacionCreadaEvent;
+import com.example.Ejemplo.events.PedidoEstadoCambiadoEvent;
+import com.example.Ejemplo.services.NotificacionStreamService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Las conexiones son SseEmitter sobre servlet asíncrono: una conexión inactiva
+ * no ocupa hilo, solo el emitter. Cada usuario guarda en memoria sus últimos
+ * eventos para reenviarlos cuando el navegador reconecta con Last-Event-ID.
+ */
+@Service
+@Slf4j
+public class NotificacionStreamServiceImpl implements NotificacionStreamService {
+
+    public static final String TIPO_NOTIFICACION = "notificacion";
+    public static final String TIPO_PEDIDO = "pedido";
+
+    private static final long TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+    private static final int MAX_HISTORIAL = 50;
+    private static final int MAX_CONEXIONES_POR_USUARIO = 5;
+
+    // Se parte del reloj para que los IDs sigan creciendo tras un reinicio
+    private final AtomicLong secuencia = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private final Map<Integer, CopyOnWriteArrayList<SseEmitter>> emisores = new ConcurrentHashMap<>();
+
+    private final Cache<Integer, Deque<EventoSse>> historial = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(15))
+            .maximumSize(10_000)
+            .build();
+
+    @Override
+    public SseEmitter suscribir(int idUsuario, Long ultimoEventoId) {
+        SseEmitter emitter = new SseEmitter(TIMEOUT_MS);
+        emitter.onCompletion(() -> quitar(idUsuario, emitter));
+        emitter.onTimeout(() -> quitar(idUsuario, emitter));
+        emitter.onError(e -> quitar(idUsuario, emitter));
+
+        emisores.compute(idUsuario, (id, lista) -> {
+            if (lista == null) {
+                lista = new CopyOnWriteArrayList<>();
+            }
+            // Demasiadas pestañas abiertas: se cierra la conexión más antigua
+            if (lista.size() >= MAX_CONEXIONES_POR_USUARIO) {
+                lista.remove(0).complete();
+            }
+            lista.add(emitter);
+            return lista;
+        });
+
+        if (ultimoEventoId != null) {
+            for (EventoSse evento : eventosDesde(idUsuario, ultimoEventoId)) {
+                if (!enviar(idUsuario, emitter, evento)) {
+                    break;
+                }
+            }
+        } else {
+            // Comentario inicial para que proxies y navegador abran el stream ya
+            enviarComentario(idUsuario, emitter, "conectado");
+        }
+
+        log.debug("Usuario {} suscrito a SSE (Last-Event-ID: {})", idUsuario, ultimoEventoId);
+        return emitter;
+    }
+
+    @Override
+    public void publicar(int idUsuario, String tipo, Object datos) {
+        EventoSse evento = new EventoSse(secuencia.incrementAndGet(), tipo, datos);
+
+        Deque<EventoSse> eventos = historial.get(idUsuario, id -> new ArrayDeque<>());
+        synchronized (eventos) {
+            eventos.addLast(evento);
+            if (eventos.size() > MAX_HISTORIAL) {
+                eventos.removeFirst();
+            }
+        }
+
+        List<SseEmitter> conexiones = emisores.get(idUsuario);
+        if (conexiones != null) {
+            conexiones.forEach(emitter -> enviar(idUsuario, emitter, evento));
+        }
+    }
+
+    @Override
+    public int conexionesActivas() {
+        return emisores.values().stream().mapToInt(List::size).sum();
+    }
+
+    // ============= EVENTOS DE LA APLICACIÓN =============
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificacionCreada(NotificacionCreadaEvent event) {
+        publicar(event.idUsuario(), TIPO_NOTIFICACION, event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoEstadoCambiado(PedidoEstadoCambiadoEvent event) {
+        if (event.idUsuario() != null) {
+            publicar(event.idUsuario(), TIPO_PEDIDO, event);
+        }
+    }
+
+    /**
+     * Latido para que proxies no corten conexiones inactivas y para
+     * detectar (y soltar) los clientes que ya se fueron
+     */
+    @Scheduled(fixedRateString = "${sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        emisores.forEach((idUsuario, conexiones) ->
+                conexiones.forEach(emitter -> enviarComentario(idUsuario, emitter, "ping")));
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private List<EventoSse> eventosDesde(int idUsuario, long ultimoEventoId) {
+        Deque<EventoSse> eventos = historial.getIfPresent(idUsuario);
+        if (eventos == null) {
+            return List.of();
+        }
+        List<EventoSse> pendientes = new ArrayList<>();
+        synchronized (eventos) {
+            for (EventoSse evento : eventos) {
+                if (evento.id() > ultimoEventoId) {
+                    pendientes.add(evento);
+                }
+            }
+        }
+        return pendientes;
+    }
+
+    private boolean enviar(int idUsuario, SseEmitter emitter, EventoSse evento) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(evento.id()))
+                    .name(evento.tipo())
+                    .data(evento.datos(), MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            descartar(idUsuario, emitter, e);
+            return false;
+        }
+    }
+
+    private void enviarComentario(int idUsuario, SseEmitter emitter, String comentario) {
+        try {
+            emitter.send(SseEmitter.event().comment(comentario));
+        } catch (IOException | IllegalStateException e) {
+            descartar(idUsuario, emitter, e);
+        }
+    }
+
+    private void descartar(int idUsuario, SseEmitter emitter, Exception e) {
+        log.debug("Conexión SSE cerrada para usuario {}: {}", idUsuario, e.getMessage());
+        quitar(idUsuario, emitter);
+        emitter.completeWithError(e);
+    }
+
+    private void quitar(int idUsuario, SseEmitter emitter) {
+        emisores.computeIfPresent(idUsuario, (id, lista) -> {
+            lista.remove(emitter);
+            return lista.isEmpty() ? null : lista;
+        });
+    }
+
+    private record EventoSse(long id, String tipo, Object datos) {
+    }
+}
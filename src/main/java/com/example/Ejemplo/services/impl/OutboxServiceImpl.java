@@ -0,0 +1,188 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.models.OutboxNotificacion;
+import com.example.Ejemplo.repository.OutboxNotificacionRepository;
+import com.example.Ejemplo.services.NotificacionService;
+import com.example.Ejemplo.services.OutboxService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * El despachador es un único hilo virtual que duerme hasta que un commit
+ * encola algo (o hasta el intervalo, para recoger lo que quedó de un reinicio).
+ * Cada lote se entrega en una transacción: las notificaciones y la marca de
+ * procesado se confirman juntas, así que en la tabla no hay duplicados; el
+ * empuje por SSE sale después del commit y puede repetirse si se reintenta.
+ */
+@Service
+@Slf4j
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final int MAX_LARGO_ERROR = 500;
+
+    private final OutboxNotificacionRepository outboxRepository;
+    private final NotificacionService notificacionService;
+    private final TransactionTemplate nuevaTransaccion;
+    private final int tamanoLote;
+    private final long intervaloMs;
+    private final int maxIntentos;
+
+    // Un permiso por commit que encoló; el despachador los consume todos de una vez
+    private final Semaphore senal = new Semaphore(0);
+    private volatile boolean activo;
+    private Thread despachador;
+
+    public OutboxServiceImpl(OutboxNotificacionRepository outboxRepository,
+                             NotificacionService notificacionService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${outbox.lote:100}") int tamanoLote,
+                             @Value("${outbox.intervalo-ms:5000}") long intervaloMs,
+                             @Value("${outbox.max-intentos:5}") int maxIntentos) {
+        if (tamanoLote < 1 || maxIntentos < 1) {
+            throw new IllegalArgumentException("El lote y el máximo de intentos deben ser mayores a 0");
+        }
+        this.outboxRepository = outboxRepository;
+        this.notificacionService = notificacionService;
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanoLote = tamanoLote;
+        this.intervaloMs = intervaloMs;
+        this.maxIntentos = maxIntentos;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean encolarNotificacion(int idUsuario, String mensaje, String clave) {
+        if (outboxRepository.encolar(idUsuario, mensaje, clave) == 0) {
+            log.debug("Notificación {} ya estaba encolada, se ignora", clave);
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                senal.release();
+            }
+        });
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        activo = true;
+        despachador = Thread.ofVirtual().name("outbox-despachador").start(this::bucle);
+        log.info("Despachador de outbox iniciado (lote {}, intervalo {} ms)", tamanoLote, intervaloMs);
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        if (despachador != null) {
+            despachador.interrupt();
+            despachador.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Override
+    public int despachar() {
+        try {
+            Integer entregadas = nuevaTransaccion.execute(status -> entregarLote());
+            return entregadas != null ? entregadas : 0;
+        } catch (RuntimeException e) {
+            // Una fila mala (p. ej. usuario borrado) no debe frenar al resto
+            log.warn("Falló un lote del outbox, se reintenta fila por fila: {}", e.getMessage());
+            return entregarUnoPorUno();
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private void bucle() {
+        while (activo) {
+            try {
+                senal.tryAcquire(intervaloMs, TimeUnit.MILLISECONDS);
+                senal.drainPermits();
+                // Lote lleno: puede haber más esperando
+                while (activo && despachar() == tamanoLote) {
+                    Thread.yield();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error en el despachador de outbox, se reintentará", e);
+            }
+        }
+    }
+
+    private int entregarLote() {
+        List<OutboxNotificacion> lote = outboxRepository.bloquearPendientes(tamanoLote);
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        for (OutboxNotificacion pendiente : lote) {
+            notificacionService.sendNotificacion(pendiente.getIdUsuario(), pendiente.getMensaje());
+        }
+        outboxRepository.marcarProcesados(
+                lote.stream().map(OutboxNotificacion::getId).toList(), LocalDateTime.now());
+        log.debug("Outbox: {} notificaciones entregadas", lote.size());
+        return lote.size();
+    }
+
+    private int entregarUnoPorUno() {
+        List<Long> ids = nuevaTransaccion.execute(status -> outboxRepository.bloquearPendientes(tamanoLote)
+                .stream().map(OutboxNotificacion::getId).toList());
+        if (ids == null) {
+            return 0;
+        }
+        for (Long id : ids) {
+            try {
+                nuevaTransaccion.executeWithoutResult(status -> entregar(id));
+            } catch (RuntimeException e) {
+                nuevaTransaccion.executeWithoutResult(status -> registrarFallo(id, e));
+            }
+        }
+        return ids.size();
+    }
+
+    private void entregar(long id) {
+        outboxRepository.bloquearPendiente(id).ifPresent(pendiente -> {
+            notificacionService.sendNotificacion(pendiente.getIdUsuario(), pendiente.getMensaje());
+            outboxRepository.marcarProcesados(List.of(id), LocalDateTime.now());
+        });
+    }
+
+    private void registrarFallo(long id, RuntimeException error) {
+        outboxRepository.bloquearPendiente(id).ifPresent(pendiente -> {
+            pendiente.setIntentos(pendiente.getIntentos() + 1);
+            String mensaje = String.valueOf(error.getMessage());
+            pendiente.setUltimoError(mensaje.length() > MAX_LARGO_ERROR
+                    ? mensaje.substring(0, MAX_LARGO_ERROR) : mensaje);
+            if (pendiente.getIntentos() >= maxIntentos) {
+                // Se da por perdida: queda con procesado=true y el error para revisarla a mano
+                pendiente.setProcesado(true);
+                pendiente.setFechaProcesado(LocalDateTime.now());
+                log.error("Notificación {} descartada tras {} intentos: {}",
+                        pendiente.getClave(), pendiente.getIntentos(), mensaje);
+            } else {
+                log.warn("Notificación {} falló (intento {}): {}",
+                        pendiente.getClave(), pendiente.getIntentos(), mensaje);
+            }
+        });
+    }
+}
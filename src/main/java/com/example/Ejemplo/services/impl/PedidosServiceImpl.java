@@ -1,12 +1,18 @@
 package com.example.Ejemplo.services.impl;
 
+import com.example.Ejemplo.dto.PaginaCursor;
 import com.example.Ejemplo.dto.PedidoDTO;
+import com.example.Ejemplo.events.PedidoEstadoCambiadoEvent;
 import com.example.Ejemplo.mapper.PedidoMapper;
 import com.example.Ejemplo.models.*;
 import com.example.Ejemplo.repository.PedidosRepository;
-import com.example.Ejemplo.services.NotificacionService;
+import com.example.Ejemplo.services.CodigoPedidoService;
+import com.example.Ejemplo.services.OutboxService;
 import com.example.Ejemplo.services.PedidosService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,20 +27,22 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class PedidosServiceImpl implements PedidosService {
 
-    private static final String LETRAS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-    private final Set<String> codigosGenerados = new HashSet<>();
-    private final Random random = new Random();
-
     private final PedidosRepository pedidosRepository;
     private final PedidoMapper pedidoMapper;
-    private final NotificacionService notificacionService;
+    private final OutboxService outboxService;
+    private final CodigoPedidoService codigoPedidoService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PedidosServiceImpl(PedidosRepository pedidosRepository,
                              PedidoMapper pedidoMapper,
-                             NotificacionService notificacionService) {
+                             OutboxService outboxService,
+                             CodigoPedidoService codigoPedidoService,
+                             ApplicationEventPublisher eventPublisher) {
         this.pedidosRepository = pedidosRepository;
         this.pedidoMapper = pedidoMapper;
-        this.notificacionService = notificacionService;
+        this.outboxService = outboxService;
+        this.codigoPedidoService = codigoPedidoService;
+        this.eventPublisher = eventPublisher;
     }
 
     // ==================== ESTOS SON LOS MEtodos CRUD básicos ====================
@@ -50,7 +58,17 @@ public class PedidosServiceImpl implements PedidosService {
     @Transactional
     public int eliminarPedido(String codigoPedido) {
         log.debug("Eliminando pedido: {}", codigoPedido);
-        return pedidosRepository.deleteByCodigoPedido(codigoPedido);
+        List<Pedido> afectados = pedidosRepository.findByCodigoPedido(codigoPedido);
+        int actualizados = pedidosRepository.deleteByCodigoPedido(codigoPedido);
+
+        // El UPDATE masivo no pasa por la entidad: se avisa el cambio a mano
+        for (Pedido pedido : afectados) {
+            EstadoPedido estadoAnterior = pedido.getEstado();
+            if (estadoAnterior != EstadoPedido.ENTREGADO) {
+                publicarCambioEstado(pedido, estadoAnterior, EstadoPedido.ENTREGADO);
+            }
+        }
+        return actualizados;
     }
     
     // ==================== MIRA ESTOS SON LOS Métodos de consulta ====================
@@ -65,6 +83,40 @@ public class PedidosServiceImpl implements PedidosService {
         return pedidosRepository.findAllByUsuario_IdUsuario(idUsuario);
     }
     
+    @Override
+    public List<PedidoDTO> obtenerActivosPorUsuario(int idUsuario) {
+        List<EstadoPedido> activos = Arrays.stream(EstadoPedido.values()).filter(e -> !e.esFinal()).toList();
+        return pedidoMapper.toDTOList(pedidosRepository.findConDetallesByUsuarioAndEstadoIn(idUsuario, activos));
+    }
+
+    @Override
+    public PaginaCursor<PedidoDTO> obtenerHistorialPorCursor(int idUsuario, String token, int tamano) {
+        PaginaCursor.Cursor cursor = PaginaCursor.Cursor.leer(token);
+        Set<EstadoPedido> finales = EnumSet.of(EstadoPedido.ENTREGADO, EstadoPedido.CANCELADO);
+        Pageable limite = PageRequest.of(0, tamano + 1);
+
+        List<Integer> ids;
+        if (cursor == null) {
+            ids = pedidosRepository.findHistorialPrimeros(idUsuario, finales, limite);
+        } else {
+            LocalDateTime fecha = LocalDateTime.parse(cursor.valor(0));
+            int idPedido = Integer.parseInt(cursor.valor(1));
+            ids = cursor.haciaAtras()
+                    ? pedidosRepository.findHistorialAntesDe(idUsuario, finales, fecha, idPedido, limite)
+                    : pedidosRepository.findHistorialDespuesDe(idUsuario, finales, fecha, idPedido, limite);
+        }
+
+        // Segunda consulta con los detalles, respetando el orden de los IDs
+        Map<Integer, Pedido> porId = ids.isEmpty() ? Map.of()
+                : pedidosRepository.findConDetallesByIdIn(ids).stream()
+                        .collect(Collectors.toMap(Pedido::getIdPedido, p -> p));
+        List<Pedido> filas = ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+
+        return PaginaCursor.armar(filas, tamano, cursor, p -> List.of(
+                        p.getFechaPedido().toString(), String.valueOf(p.getIdPedido())))
+                .map(pedidoMapper::toDTO);
+    }
+    
     @Override
     public Optional<Pedido> buscarPorId(Integer id) {
         return pedidosRepository.findById(id);
@@ -129,11 +181,13 @@ public class PedidosServiceImpl implements PedidosService {
             
             if (pedido.avanzarEstado()) {
                 guardarPedido(pedido);
+                publicarCambioEstado(pedido, estadoAnterior);
                 
-                // Crear notificación según el nuevo estado
+                // Se encola en la misma transacción; el despachador la entrega después
                 String mensaje = generarMensajeNotificacion(pedido);
                 if (mensaje != null && idUsuarioNotificar != null) {
-                    notificacionService.crearNotificacion(idUsuarioNotificar, mensaje);
+                    outboxService.encolarNotificacion(idUsuarioNotificar, mensaje,
+                            OutboxService.clavePedido(pedido.getIdPedido(), pedido.getEstado()));
                 }
                 
                 log.info("Pedido {} avanzado de {} a {}", 
@@ -157,8 +211,11 @@ public class PedidosServiceImpl implements PedidosService {
             Pedido pedido = buscarPorId(idPedido)
                     .orElseThrow(() -> new IllegalArgumentException("Pedido no encontrado"));
             
+            EstadoPedido estadoAnterior = pedido.getEstado();
+            
             if (pedido.cancelar()) {
                 guardarPedido(pedido);
+                publicarCambioEstado(pedido, estadoAnterior);
                 
                 // Notificar al usuario
                 if (idUsuarioNotificar != null) {
@@ -168,7 +225,8 @@ public class PedidosServiceImpl implements PedidosService {
                         motivo != null && !motivo.trim().isEmpty() ? " Motivo: " + motivo : ""
                     );
                     
-                    notificacionService.crearNotificacion(idUsuarioNotificar, mensaje);
+                    outboxService.encolarNotificacion(idUsuarioNotificar, mensaje,
+                            OutboxService.clavePedido(pedido.getIdPedido(), pedido.getEstado()));
                 }
                 
                 log.info("Pedido {} cancelado. Motivo: {}", pedido.getCodigoPedido(), motivo);
@@ -183,6 +241,16 @@ public class PedidosServiceImpl implements PedidosService {
         }
     }
     
+    private void publicarCambioEstado(Pedido pedido, EstadoPedido estadoAnterior) {
+        publicarCambioEstado(pedido, estadoAnterior, pedido.getEstado());
+    }
+    
+    private void publicarCambioEstado(Pedido pedido, EstadoPedido estadoAnterior, EstadoPedido estadoNuevo) {
+        Integer idUsuario = pedido.getUsuario() != null ? pedido.getUsuario().getIdUsuario() : null;
+        eventPublisher.publishEvent(new PedidoEstadoCambiadoEvent(
+                pedido.getIdPedido(), pedido.getCodigoPedido(), idUsuario, estadoAnterior, estadoNuevo));
+    }
+    
     /**
      * Genera el mensaje de notificación según el estado del pedido
      */
@@ -206,38 +274,6 @@ public class PedidosServiceImpl implements PedidosService {
 
     @Override
     public String generarCodigoUnico() {
-        int intentos = 0;
-        int MAX_INTENTOS = 1000;
-
-        while (intentos < MAX_INTENTOS) {
-            String codigo = generarCodigoAleatorio();
-
-            if (!codigosGenerados.contains(codigo)) {
-                codigosGenerados.add(codigo);
-                return codigo;
-            }
-
-            intentos++;
-        }
-
-        throw new RuntimeException("No se pudo generar un código único tras varios intentos");
-    }
-
-    public List<String> obtenerTodosLosCodigos() {
-        return new ArrayList<>(codigosGenerados);
-    }
-
-    private String generarCodigoAleatorio() {
-        StringBuilder codigo = new StringBuilder();
-
-        for (int i = 0; i < 3; i++) {
-            codigo.append(LETRAS.charAt(random.nextInt(LETRAS.length())));
-        }
-
-        for (int i = 0; i < 3; i++) {
-            codigo.append(random.nextInt(10));
-        }
-
-        return codigo.toString();
+        return codigoPedidoService.siguienteCodigo();
     }
 }
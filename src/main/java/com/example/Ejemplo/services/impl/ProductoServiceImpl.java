@@ -1,15 +1,25 @@
 package com.example.Ejemplo.services.impl;
 
+import com.example.Ejemplo.config.CacheConfig;
 import com.example.Ejemplo.dto.*;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.events.ImagenAlmacenadaEvent;
+import com.example.Ejemplo.events.StockEditadoEvent;
 import com.example.Ejemplo.mapper.ProductoMapper;
 import com.example.Ejemplo.models.Categoria;
 import com.example.Ejemplo.models.Producto;
 import com.example.Ejemplo.repository.CategoriaRepository;
+import com.example.Ejemplo.repository.ProductoCursorRepository.ClaveProducto;
+import com.example.Ejemplo.repository.ProductoCursorRepository.FiltroProductos;
 import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.AlmacenImagenesService;
+import com.example.Ejemplo.services.BusquedaProductosService;
+import com.example.Ejemplo.services.InventarioService;
 import com.example.Ejemplo.services.ProductoService;
-import com.example.Ejemplo.services.ImgBBUploader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +28,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -30,7 +41,10 @@ public class ProductoServiceImpl implements ProductoService {
     private final ProductoRepository productoRepository;
     private final CategoriaRepository categoriaRepository;
     private final ProductoMapper productoMapper;
-    private final ImgBBUploader imgBBUploader;
+    private final AlmacenImagenesService almacenImagenesService;
+    private final InventarioService inventarioService;
+    private final BusquedaProductosService busquedaProductosService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ============= CONSULTAS :v =============
 
@@ -112,13 +126,29 @@ public class ProductoServiceImpl implements ProductoService {
             return obtenerTodosPaginado(pageable);
         } else if (categoria != null && !categoria.isEmpty() && (nombre == null || nombre.isEmpty())) {
             return obtenerPorCategoriaPaginado(categoria, pageable);
-        } else if ((categoria == null || categoria.isEmpty()) && nombre != null && !nombre.isEmpty()) {
-            return productoRepository.findByNombreContainingIgnoreCase(nombre, pageable)
-                    .map(productoMapper::toDTO);
-        } else {
-            return productoRepository.findByCategoriaNombreAndNombreContainingIgnoreCase(categoria, nombre, pageable)
-                    .map(productoMapper::toDTO);
         }
+        // Con texto se responde desde el índice en memoria (sin LIKE '%x%' en la BD)
+        return busquedaProductosService.buscar(nombre, categoria == null || categoria.isEmpty() ? null : categoria, pageable);
+    }
+
+    // ============= PAGINACIÓN POR CURSOR =============
+
+    @Override
+    public PaginaCursor<ProductoDTO> obtenerCatalogoPorCursor(String categoria, String cursor, int tamano) {
+        return paginarPorCursor(new FiltroProductos(true, null, categoria, null), cursor, tamano)
+                .map(productoMapper::toDTO);
+    }
+
+    @Override
+    public PaginaCursor<ProductoResponseDTO> obtenerAdminPorCursor(String busqueda, Boolean estado, String cursor, int tamano) {
+        return paginarPorCursor(new FiltroProductos(false, estado, null, busqueda), cursor, tamano)
+                .map(productoMapper::toResponseDTO);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.CONTEO_PRODUCTOS, key = "{#soloConStock, #estado, #categoria, #busqueda}")
+    public long contarAproximado(boolean soloConStock, Boolean estado, String categoria, String busqueda) {
+        return productoRepository.contarPorFiltros(new FiltroProductos(soloConStock, estado, categoria, busqueda));
     }
 
     @Override
@@ -132,21 +162,17 @@ public class ProductoServiceImpl implements ProductoService {
         
         Producto producto = productoMapper.toEntityWithCategoria(createDTO, categoria);
 
-        if (imagen != null && !imagen.isEmpty()) {
-            try {
-                String imageUrl = imgBBUploader.subirImagen(imagen);
-                producto.setImagenUrl(imageUrl);
-                log.debug("Imagen subida exitosamente: {}", imageUrl);
-            } catch (Exception e) {
-                log.error("Error al subir imagen", e);
-                throw new RuntimeException("Error al subir la imagen: " + e.getMessage());
-            }
-        } else {
-            producto.setImagenUrl("/imagenes/imagenpordefecto.png");
-        }
+        AlmacenImagenesService.ImagenAlmacenada imagenAlmacenada = guardarImagen(imagen);
+        producto.setImagenUrl(imagenAlmacenada != null
+                ? imagenAlmacenada.url()
+                : "/imagenes/imagenpordefecto.png");
         
         Producto savedProducto = productoRepository.save(producto);
         log.info("Producto creado exitosamente con ID: {}", savedProducto.getIdProducto());
+        eventPublisher.publishEvent(CatalogoModificadoEvent.producto(savedProducto.getIdProducto()));
+        if (imagenAlmacenada != null) {
+            eventPublisher.publishEvent(new ImagenAlmacenadaEvent(savedProducto.getIdProducto(), imagenAlmacenada.nombre()));
+        }
         
         return productoMapper.toDTO(savedProducto);
     }
@@ -156,6 +182,9 @@ public class ProductoServiceImpl implements ProductoService {
     public ProductoDTO actualizar(Integer id, ProductoCreateDTO updateDTO, MultipartFile imagen) {
         log.info("Actualizando producto ID: {}", id);
         
+        // El stock del formulario es absoluto: primero volcar lo reservado en memoria
+        inventarioService.sincronizar(id);
+        
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + id));
         
@@ -170,19 +199,22 @@ public class ProductoServiceImpl implements ProductoService {
         
         productoMapper.updateEntity(producto, updateDTO);
         
-        if (imagen != null && !imagen.isEmpty()) {
-            try {
-                String imageUrl = imgBBUploader.subirImagen(imagen);
-                producto.setImagenUrl(imageUrl);
-                log.debug("Imagen actualizada: {}", imageUrl);
-            } catch (Exception e) {
-                log.error("Error al actualizar imagen", e);
-                throw new RuntimeException("Error al actualizar la imagen: " + e.getMessage());
-            }
+        AlmacenImagenesService.ImagenAlmacenada imagenAlmacenada = guardarImagen(imagen);
+        if (imagenAlmacenada != null && !imagenAlmacenada.url().equals(producto.getImagenUrl())) {
+            producto.setImagenUrl(imagenAlmacenada.url());
+            producto.setImagenRemotaUrl(null);
+        } else {
+            imagenAlmacenada = null;
         }
         
         Producto updatedProducto = productoRepository.save(producto);
         log.info("Producto actualizado exitosamente: {}", id);
+        // Lo reservado desde el volcado de arriba se vuelca de nuevo tras el commit
+        eventPublisher.publishEvent(new StockEditadoEvent(id));
+        eventPublisher.publishEvent(CatalogoModificadoEvent.producto(id));
+        if (imagenAlmacenada != null) {
+            eventPublisher.publishEvent(new ImagenAlmacenadaEvent(id, imagenAlmacenada.nombre()));
+        }
         
         return productoMapper.toDTO(updatedProducto);
     }
@@ -199,6 +231,7 @@ public class ProductoServiceImpl implements ProductoService {
         productoRepository.save(producto);
         
         log.info("Producto desactivado exitosamente: {}", id);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.producto(id));
     }
     
     @Override
@@ -213,6 +246,7 @@ public class ProductoServiceImpl implements ProductoService {
         productoRepository.save(producto);
         
         log.info("Producto activado exitosamente: {}", id);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.producto(id));
     }
     
     @Override
@@ -227,6 +261,7 @@ public class ProductoServiceImpl implements ProductoService {
         productoRepository.save(producto);
         
         log.info("Estado del producto actualizado exitosamente: {}", id);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.producto(id));
     }
 
     @Override
@@ -238,45 +273,42 @@ public class ProductoServiceImpl implements ProductoService {
             throw new IllegalArgumentException("Producto no encontrado con ID: " + id);
         }
         
+        inventarioService.sincronizar(id);
         productoRepository.deleteById(id);
         log.info("Producto eliminado permanentemente: {}", id);
+        eventPublisher.publishEvent(new StockEditadoEvent(id));
+        eventPublisher.publishEvent(CatalogoModificadoEvent.producto(id));
     }
 
     // ============= GESTIÓN DE STOCK =============
 
     @Override
-    @Transactional
     public void reducirStock(Integer idProducto, int cantidad) {
         log.info("Reduciendo stock del producto ID: {} en {} unidades", idProducto, cantidad);
         
-        Producto producto = productoRepository.findById(idProducto)
-                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + idProducto));
+        inventarioService.reservar(Map.of(idProducto, cantidad));
         
-        producto.reducirStock(cantidad);
-        productoRepository.save(producto);
-        
-        log.info("Stock reducido. Stock actual: {}", producto.getStock());
+        log.info("Stock reducido. Stock actual: {}", inventarioService.stockDisponible(idProducto));
+        eventPublisher.publishEvent(CatalogoModificadoEvent.producto(idProducto));
     }
 
     @Override
-    @Transactional
     public void aumentarStock(Integer idProducto, int cantidad) {
         log.info("Aumentando stock del producto ID: {} en {} unidades", idProducto, cantidad);
         
-        Producto producto = productoRepository.findById(idProducto)
-                .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado con ID: " + idProducto));
-        
-        producto.aumentarStock(cantidad);
-        productoRepository.save(producto);
+        inventarioService.liberar(idProducto, cantidad);
         
-        log.info("Stock aumentado. Stock actual: {}", producto.getStock());
+        log.info("Stock aumentado. Stock actual: {}", inventarioService.stockDisponible(idProducto));
+        eventPublisher.publishEvent(CatalogoModificadoEvent.producto(idProducto));
     }
 
     @Override
     public boolean tieneStockSuficiente(Integer idProducto, int cantidadRequerida) {
-        return productoRepository.findById(idProducto)
-                .map(p -> p.getStock() >= cantidadRequerida)
-                .orElse(false);
+        try {
+            return inventarioService.stockDisponible(idProducto) >= cantidadRequerida;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 
     // ============= VALIDACIONES =============
@@ -295,6 +327,32 @@ public class ProductoServiceImpl implements ProductoService {
 
     // ============= MeTODOS PRIVADOS AUXILIARES =============
 
+    /**
+     * Escritura local por stream; la réplica remota (si está activa) va después del commit
+     * @return null si no se envió imagen
+     */
+    private AlmacenImagenesService.ImagenAlmacenada guardarImagen(MultipartFile imagen) {
+        if (imagen == null || imagen.isEmpty()) {
+            return null;
+        }
+        AlmacenImagenesService.ImagenAlmacenada almacenada = almacenImagenesService.guardar(imagen);
+        log.debug("Imagen almacenada: {} ({} bytes)", almacenada.url(), almacenada.tamano());
+        return almacenada;
+    }
+
+    /**
+     * Lee tamano + 1 filas desde la clave del cursor (id_categoria, nombre, id_producto)
+     */
+    private PaginaCursor<Producto> paginarPorCursor(FiltroProductos filtro, String token, int tamano) {
+        PaginaCursor.Cursor cursor = PaginaCursor.Cursor.leer(token);
+        ClaveProducto desde = cursor == null ? null : new ClaveProducto(
+                Integer.valueOf(cursor.valor(0)), cursor.valor(1), Integer.valueOf(cursor.valor(2)));
+        List<Producto> filas = productoRepository.findPorCursor(filtro, desde, cursor != null && cursor.haciaAtras(), tamano + 1);
+
+        return PaginaCursor.armar(filas, tamano, cursor, p -> List.of(
+                String.valueOf(p.getCategoria().getIdCategoria()), p.getNombre(), String.valueOf(p.getIdProducto())));
+    }
+
     private void validateProductoData(ProductoCreateDTO dto) {
         if (dto.getNombre() == null || dto.getNombre().trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre del producto es obligatorio");
@@ -0,0 +1,73 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.events.ImagenAlmacenadaEvent;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.AlmacenImagenesService;
+import com.example.Ejemplo.services.ImgBBUploader;
+import com.example.Ejemplo.services.ReplicacionImagenesService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class ReplicacionImagenesServiceImpl implements ReplicacionImagenesService {
+
+    private final AlmacenImagenesService almacenImagenesService;
+    private final ImgBBUploader imgBBUploader;
+    private final ProductoRepository productoRepository;
+    private final TaskExecutor taskExecutor;
+    private final boolean habilitada;
+
+    public ReplicacionImagenesServiceImpl(AlmacenImagenesService almacenImagenesService,
+                                          ImgBBUploader imgBBUploader,
+                                          ProductoRepository productoRepository,
+                                          @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                          @Value("${imagenes.replicacion.imgbb:false}") boolean habilitada) {
+        this.almacenImagenesService = almacenImagenesService;
+        this.imgBBUploader = imgBBUploader;
+        this.productoRepository = productoRepository;
+        this.taskExecutor = taskExecutor;
+        this.habilitada = habilitada;
+        if (habilitada && !imgBBUploader.configurado()) {
+            throw new IllegalStateException(
+                    "imagenes.replicacion.imgbb=true requiere la variable de entorno IMGBB_API_KEY");
+        }
+    }
+
+    /**
+     * Solo después del commit: si el guardado del producto falla no se sube nada,
+     * y la petición HTTP no retiene la conexión a la BD
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagenAlmacenada(ImagenAlmacenadaEvent event) {
+        if (habilitada) {
+            taskExecutor.execute(() -> replicar(event.idProducto(), event.nombre()));
+        }
+    }
+
+    @Override
+    public void replicar(Integer idProducto, String nombre) {
+        Optional<Path> archivo = almacenImagenesService.ubicar(nombre);
+        if (archivo.isEmpty()) {
+            log.warn("Imagen {} no encontrada en el almacén, no se replica", nombre);
+            return;
+        }
+        try {
+            String url = imgBBUploader.subirImagen(archivo.get());
+            int actualizados = productoRepository.actualizarImagenRemota(
+                    idProducto, AlmacenImagenesService.PREFIJO_URL + nombre, url);
+            log.debug("Imagen {} replicada en {} (producto {} actualizado: {})",
+                    nombre, url, idProducto, actualizados > 0);
+        } catch (RuntimeException e) {
+            // La imagen local sigue sirviendo; la réplica es solo un respaldo
+            log.warn("No se pudo replicar la imagen {} del producto {}", nombre, idProducto, e);
+        }
+    }
+}
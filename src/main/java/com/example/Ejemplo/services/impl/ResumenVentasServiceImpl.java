@@ -0,0 +1,290 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.config.CacheConfig;
+import com.example.Ejemplo.dto.ProductoMasVendidoDTO;
+import com.example.Ejemplo.dto.ResumenVentasDTO;
+import com.example.Ejemplo.events.PedidoEstadoCambiadoEvent;
+import com.example.Ejemplo.models.*;
+import com.example.Ejemplo.repository.PedidoContabilizadoRepository;
+import com.example.Ejemplo.repository.PedidosRepository;
+import com.example.Ejemplo.repository.ResumenMarcaRepository;
+import com.example.Ejemplo.repository.VentaResumenRepository;
+import com.example.Ejemplo.services.ResumenVentasService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cada pedido finalizado se suma una vez en tres granularidades (hora, día e
+ * histórico) y en varias dimensiones (total, por producto, por categoría).
+ * pedido_contabilizado guarda con qué estado quedó sumado cada pedido, así que
+ * tanto el evento de cambio de estado como el job de recuperación pueden
+ * llamar a contabilizar sin duplicar.
+ */
+@Service
+@Slf4j
+public class ResumenVentasServiceImpl implements ResumenVentasService {
+
+    private static final String MARCA = "venta_resumen";
+    private static final LocalDateTime INICIO_HISTORICO = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final Set<EstadoPedido> ESTADOS_FINALES = EnumSet.of(EstadoPedido.ENTREGADO, EstadoPedido.CANCELADO);
+    // Se relee un poco antes de la marca por si un commit tardío quedó con fecha anterior
+    private static final Duration MARGEN_RELECTURA = Duration.ofMinutes(1);
+
+    private final VentaResumenRepository resumenRepository;
+    private final PedidoContabilizadoRepository contabilizadoRepository;
+    private final ResumenMarcaRepository marcaRepository;
+    private final PedidosRepository pedidosRepository;
+    private final TransactionTemplate nuevaTransaccion;
+    private final CacheManager cacheManager;
+    private final int tamanoLote;
+
+    public ResumenVentasServiceImpl(VentaResumenRepository resumenRepository,
+                                    PedidoContabilizadoRepository contabilizadoRepository,
+                                    ResumenMarcaRepository marcaRepository,
+                                    PedidosRepository pedidosRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    CacheManager cacheManager,
+                                    @Value("${resumen.ventas.lote:1000}") int tamanoLote) {
+        this.resumenRepository = resumenRepository;
+        this.contabilizadoRepository = contabilizadoRepository;
+        this.marcaRepository = marcaRepository;
+        this.pedidosRepository = pedidosRepository;
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cacheManager = cacheManager;
+        this.tamanoLote = tamanoLote;
+    }
+
+    // ============= ESCRITURA =============
+
+    @Override
+    @Transactional
+    public void contabilizar(int idPedido) {
+        Pedido pedido = pedidosRepository.findConDetallesById(idPedido).orElse(null);
+        if (pedido == null) {
+            return;
+        }
+
+        EstadoPedido objetivo = ESTADOS_FINALES.contains(pedido.getEstado()) ? pedido.getEstado() : null;
+        PedidoContabilizado registro = contabilizadoRepository.findParaActualizar(idPedido).orElse(null);
+        EstadoPedido actual = registro != null ? registro.getEstado() : null;
+
+        if (actual == objetivo) {
+            return;
+        }
+        if (actual != null) {
+            aplicar(pedido, actual, -1);
+        }
+        if (objetivo != null) {
+            aplicar(pedido, objetivo, 1);
+            contabilizadoRepository.save(new PedidoContabilizado(idPedido, objetivo, LocalDateTime.now()));
+        } else {
+            contabilizadoRepository.delete(registro);
+        }
+        invalidarPeriodosCerrados(pedido);
+        log.debug("Pedido {} contabilizado en resúmenes: {} -> {}", idPedido, actual, objetivo);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoEstadoCambiado(PedidoEstadoCambiadoEvent event) {
+        if (!ESTADOS_FINALES.contains(event.estadoNuevo())) {
+            return;
+        }
+        try {
+            nuevaTransaccion.executeWithoutResult(status -> contabilizar(event.idPedido()));
+        } catch (RuntimeException e) {
+            // No se pierde: el job lo recoge por fecha_actualizacion
+            log.warn("No se pudo contabilizar el pedido {}; lo hará el job de recuperación", event.idPedido(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        int completados = pedidosRepository.completarFechaActualizacion();
+        if (completados > 0) {
+            log.info("fecha_actualizacion completada en {} pedidos existentes", completados);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${resumen.ventas.intervalo-ms:60000}",
+               initialDelayString = "${resumen.ventas.intervalo-ms:60000}")
+    public void procesarProgramado() {
+        procesarPendientes();
+    }
+
+    /**
+     * Recorre por cursor (fechaActualizacion, idPedido) desde la marca menos el
+     * margen: aunque el margen tenga más pedidos que el lote, cada página avanza
+     */
+    @Override
+    public int procesarPendientes() {
+        LocalDateTime marca = marcaRepository.findById(MARCA)
+                .map(ResumenMarca::getValor)
+                .orElse(INICIO_HISTORICO);
+
+        LocalDateTime desde = marca.minus(MARGEN_RELECTURA);
+        int idDesde = 0;
+        int revisados = 0;
+        List<Object[]> pagina;
+        do {
+            pagina = pedidosRepository.findFinalizadosDesde(
+                    ESTADOS_FINALES, desde, idDesde, PageRequest.of(0, tamanoLote));
+            for (Object[] fila : pagina) {
+                int idPedido = (Integer) fila[0];
+                nuevaTransaccion.executeWithoutResult(status -> contabilizar(idPedido));
+                desde = (LocalDateTime) fila[1];
+                idDesde = idPedido;
+            }
+            revisados += pagina.size();
+
+            // La marca se guarda por página para no repetir todo si el job se corta
+            if (!pagina.isEmpty() && desde.isAfter(marca)) {
+                marca = desde;
+                ResumenMarca actualizada = new ResumenMarca(MARCA, marca);
+                nuevaTransaccion.executeWithoutResult(status -> marcaRepository.save(actualizada));
+            }
+        } while (pagina.size() == tamanoLote);
+
+        if (revisados > 0) {
+            log.debug("Job de resúmenes revisó {} pedidos, marca en {}", revisados, marca);
+        }
+        return revisados;
+    }
+
+    // ============= LECTURA =============
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductoMasVendidoDTO> productosMasVendidos() {
+        return resumenRepository.findRankingProductos(
+                VentaResumen.Granularidad.HISTORICO, VentaResumen.Dimension.PRODUCTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResumenVentasDTO totales(LocalDate desde, LocalDate hasta) {
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = hasta.plusDays(1).atStartOfDay();
+
+        ResumenVentasDTO resumen = new ResumenVentasDTO();
+        for (VentaResumen bucket : resumenRepository.findBuckets(
+                VentaResumen.Dimension.TOTAL, VentaResumen.Granularidad.DIA, inicio, fin)) {
+            resumen.setMontoTotal(resumen.getMontoTotal() + bucket.getMonto());
+            resumen.setPedidosEntregados(resumen.getPedidosEntregados() + bucket.getPedidos());
+            resumen.setUnidadesVendidas(resumen.getUnidadesVendidas() + bucket.getUnidades());
+        }
+        for (VentaResumen bucket : resumenRepository.findBuckets(
+                VentaResumen.Dimension.CANCELADOS, VentaResumen.Granularidad.DIA, inicio, fin)) {
+            resumen.setPedidosCancelados(resumen.getPedidosCancelados() + bucket.getPedidos());
+        }
+        return resumen;
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * Suma (signo 1) o resta (signo -1) la contribución del pedido en su estado final
+     */
+    private void aplicar(Pedido pedido, EstadoPedido estado, int signo) {
+        LocalDateTime fecha = pedido.getFechaPedido() != null ? pedido.getFechaPedido() : LocalDateTime.now();
+        Map<VentaResumen.Granularidad, LocalDateTime> periodos = Map.of(
+                VentaResumen.Granularidad.HORA, fecha.truncatedTo(ChronoUnit.HOURS),
+                VentaResumen.Granularidad.DIA, fecha.truncatedTo(ChronoUnit.DAYS),
+                VentaResumen.Granularidad.HISTORICO, INICIO_HISTORICO);
+
+        if (estado == EstadoPedido.CANCELADO) {
+            periodos.forEach((granularidad, periodo) ->
+                    acumular(granularidad, periodo, VentaResumen.Dimension.CANCELADOS, 0, 0, 0, signo));
+            return;
+        }
+
+        // Contribución por producto y por categoría dentro de este pedido
+        Map<Integer, Acumulado> porProducto = new HashMap<>();
+        Map<Integer, Acumulado> porCategoria = new HashMap<>();
+        Acumulado total = new Acumulado();
+        List<DetallePedido> detalles = pedido.getDetallePedido() != null ? pedido.getDetallePedido() : List.of();
+        for (DetallePedido detalle : detalles) {
+            Producto producto = detalle.getProducto();
+            porProducto.computeIfAbsent(producto.getIdProducto(), id -> new Acumulado()).sumar(detalle);
+            if (producto.getCategoria() != null) {
+                porCategoria.computeIfAbsent(producto.getCategoria().getIdCategoria(), id -> new Acumulado()).sumar(detalle);
+            }
+            total.sumar(detalle);
+        }
+
+        periodos.forEach((granularidad, periodo) -> {
+            acumular(granularidad, periodo, VentaResumen.Dimension.TOTAL, 0, total.unidades, total.monto, signo);
+            porProducto.forEach((id, a) ->
+                    acumular(granularidad, periodo, VentaResumen.Dimension.PRODUCTO, id, a.unidades, a.monto, signo));
+            porCategoria.forEach((id, a) ->
+                    acumular(granularidad, periodo, VentaResumen.Dimension.CATEGORIA, id, a.unidades, a.monto, signo));
+        });
+    }
+
+    /**
+     * Si el pedido es de un día anterior, las consultas cacheadas de períodos
+     * cerrados quedan desactualizadas: se limpian tras el commit
+     */
+    private void invalidarPeriodosCerrados(Pedido pedido) {
+        LocalDateTime fecha = pedido.getFechaPedido();
+        if (fecha == null || !fecha.toLocalDate().isBefore(LocalDate.now())) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.VENTAS_ANALITICA);
+        if (cache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.clear();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.clear();
+                log.debug("Cache de análisis de ventas invalidada por pedido del {}", fecha.toLocalDate());
+            }
+        });
+    }
+
+    private void acumular(VentaResumen.Granularidad granularidad, LocalDateTime periodo,
+                          VentaResumen.Dimension dimension, int idReferencia,
+                          long unidades, double monto, int signo) {
+        resumenRepository.acumular(granularidad.name(), periodo, dimension.name(), idReferencia,
+                signo * unidades, signo * monto, signo);
+    }
+
+    private static final class Acumulado {
+        private long unidades;
+        private double monto;
+
+        private void sumar(DetallePedido detalle) {
+            unidades += detalle.getCantidad();
+            monto += detalle.getSubtotal();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.NotificacionRepository;
+import com.example.Ejemplo.repository.OutboxNotificacionRepository;
+import com.example.Ejemplo.services.RetencionNotificacionesService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * Cada tramo es un DELETE ... LIMIT en su propia transacción: los locks se
+ * liberan al confirmar cada tramo y las escrituras de notificaciones nuevas
+ * no quedan esperando a que termine toda la purga. Solo se tocan leídas, así
+ * que el contador de no leídas de NotificacionServiceImpl no cambia.
+ */
+@Service
+@Slf4j
+public class RetencionNotificacionesServiceImpl implements RetencionNotificacionesService {
+
+    private final NotificacionRepository notificacionRepository;
+    private final OutboxNotificacionRepository outboxRepository;
+    private final TransactionTemplate nuevaTransaccion;
+    private final int diasRetencion;
+    private final int tamanoLote;
+    private final int maxLotes;
+    private final long pausaMs;
+
+    private final Counter eliminadasTotal;
+    private final DistributionSummary eliminadasPorCorrida;
+    private final Timer duracionCorrida;
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+
+    public RetencionNotificacionesServiceImpl(NotificacionRepository notificacionRepository,
+                                              OutboxNotificacionRepository outboxRepository,
+                                              PlatformTransactionManager transactionManager,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${notificaciones.retencion.dias:30}") int diasRetencion,
+                                              @Value("${notificaciones.retencion.lote:5000}") int tamanoLote,
+                                              @Value("${notificaciones.retencion.max-lotes:200}") int maxLotes,
+                                              @Value("${notificaciones.retencion.pausa-ms:50}") long pausaMs) {
+        if (diasRetencion < 1 || tamanoLote < 1 || maxLotes < 1) {
+            throw new IllegalArgumentException("La retención, el lote y el máximo de lotes deben ser mayores a 0");
+        }
+        this.notificacionRepository = notificacionRepository;
+        this.outboxRepository = outboxRepository;
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.diasRetencion = diasRetencion;
+        this.tamanoLote = tamanoLote;
+        this.maxLotes = maxLotes;
+        this.pausaMs = pausaMs;
+
+        this.eliminadasTotal = Counter.builder("notificaciones.retencion.eliminadas")
+                .description("Notificaciones leídas eliminadas por el job de retención")
+                .register(meterRegistry);
+        this.eliminadasPorCorrida = DistributionSummary.builder("notificaciones.retencion.filas.corrida")
+                .description("Filas eliminadas en cada corrida del job de retención")
+                .register(meterRegistry);
+        this.duracionCorrida = Timer.builder("notificaciones.retencion.duracion")
+                .description("Duración de cada corrida del job de retención")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        int completadas = notificacionRepository.completarFechaCreacion();
+        if (completadas > 0) {
+            log.info("fecha_creacion completada en {} notificaciones existentes", completadas);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notificaciones.retencion.intervalo-ms:3600000}",
+               initialDelayString = "${notificaciones.retencion.intervalo-ms:3600000}")
+    public void purgarProgramado() {
+        purgar();
+    }
+
+    @Override
+    public int purgar() {
+        if (!enCurso.compareAndSet(false, true)) {
+            log.debug("Purga de notificaciones ya en curso, se omite");
+            return 0;
+        }
+        try {
+            return duracionCorrida.record(this::purgarPorTramos);
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private int purgarPorTramos() {
+        // Límite fijo para toda la corrida: lo que se lea durante la purga no entra
+        LocalDateTime limite = LocalDateTime.now().minusDays(diasRetencion);
+
+        int notificaciones = borrarPorTramos("notificaciones", limite,
+                () -> notificacionRepository.eliminarLeidasAnteriores(limite, tamanoLote));
+        eliminadasTotal.increment(notificaciones);
+        eliminadasPorCorrida.record(notificaciones);
+
+        // Las filas ya entregadas del outbox solo sirven para deduplicar reintentos recientes
+        borrarPorTramos("outbox_notificaciones", limite,
+                () -> outboxRepository.eliminarProcesadasAnteriores(limite, tamanoLote));
+        return notificaciones;
+    }
+
+    private int borrarPorTramos(String tabla, LocalDateTime limite, IntSupplier tramo) {
+        int total = 0;
+        int lotes = 0;
+        boolean quedanPendientes = false;
+
+        while (lotes < maxLotes) {
+            Integer eliminadas = nuevaTransaccion.execute(status -> tramo.getAsInt());
+            int filas = eliminadas != null ? eliminadas : 0;
+            total += filas;
+            lotes++;
+
+            quedanPendientes = filas == tamanoLote;
+            if (!quedanPendientes) {
+                break;
+            }
+            if (!pausar()) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Retención de {}: {} filas eliminadas en {} tramos (anteriores a {})",
+                    tabla, total, lotes, limite);
+        }
+        if (quedanPendientes && lotes == maxLotes) {
+            log.warn("La purga de {} llegó al máximo de {} tramos; sigue en la próxima corrida", tabla, maxLotes);
+        }
+        return total;
+    }
+
+    /**
+     * Pausa corta entre tramos para dejar pasar a las escrituras en espera
+     * @return false si el hilo fue interrumpido (apagado)
+     */
+    private boolean pausar() {
+        if (pausaMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pausaMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.Ejemplo.services.impl;
 
 import com.example.Ejemplo.dto.*;
+import com.example.Ejemplo.events.RolModificadoEvent;
 import com.example.Ejemplo.mapper.RolMapper;
 import com.example.Ejemplo.models.Permiso;
 import com.example.Ejemplo.models.RolEntity;
@@ -10,6 +11,7 @@ import com.example.Ejemplo.services.RolEntityService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +29,7 @@ public class RolEntityServiceImpl implements RolEntityService {
     private final RolEntityRepository rolRepository;
     private final PermisoRepository permisoRepository;
     private final RolMapper rolMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<RolDTO> findAllRoles() {
@@ -105,6 +108,7 @@ public class RolEntityServiceImpl implements RolEntityService {
         
         rolMapper.updateEntity(rol, rolDTO);
         RolEntity actualizado = rolRepository.save(rol);
+        eventPublisher.publishEvent(new RolModificadoEvent(id));
         
         logger.info("Rol actualizado exitosamente: {}", actualizado.getIdRol());
         return rolMapper.toResponseDTO(actualizado);
@@ -124,6 +128,7 @@ public class RolEntityServiceImpl implements RolEntityService {
         
         rol.setActivo(nuevoEstado);
         rolRepository.save(rol);
+        eventPublisher.publishEvent(new RolModificadoEvent(idRol));
     }
 
     @Override
@@ -147,6 +152,7 @@ public class RolEntityServiceImpl implements RolEntityService {
         }
         
         rolRepository.delete(rol);
+        eventPublisher.publishEvent(new RolModificadoEvent(idRol));
         logger.info("Rol eliminado exitosamente");
     }
 
@@ -169,6 +175,7 @@ public class RolEntityServiceImpl implements RolEntityService {
         permisos.forEach(rol::agregarPermiso);
         
         RolEntity actualizado = rolRepository.save(rol);
+        eventPublisher.publishEvent(new RolModificadoEvent(actualizado.getIdRol()));
         logger.info("Permisos asignados exitosamente. Total: {}", permisos.size());
         
         return rolMapper.toResponseDTO(actualizado);
@@ -187,6 +194,7 @@ public class RolEntityServiceImpl implements RolEntityService {
         
         rol.removerPermiso(permiso);
         rolRepository.save(rol);
+        eventPublisher.publishEvent(new RolModificadoEvent(idRol));
     }
 
     @Override
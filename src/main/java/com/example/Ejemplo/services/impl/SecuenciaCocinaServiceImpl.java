@@ -0,0 +1,164 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.DetallePedidoDTO;
+import com.example.Ejemplo.dto.PedidoDTO;
+import com.example.Ejemplo.dto.PedidoSecuenciadoDTO;
+import com.example.Ejemplo.events.PedidoCreadoEvent;
+import com.example.Ejemplo.events.PedidoEstadoCambiadoEvent;
+import com.example.Ejemplo.models.EstadoPedido;
+import com.example.Ejemplo.services.SecuenciaCocinaService;
+import com.example.Ejemplo.services.TableroCocinaService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Cola ordenada por inicio límite (TreeSet) más un índice por ID: altas y bajas
+ * son O(log n) y pedir los N siguientes recorre solo N nodos. Solo guarda los
+ * PENDIENTE; en cuanto un pedido pasa a otro estado sale de la cola. Se arma
+ * al arrancar con los pendientes del tablero de cocina.
+ */
+@Service
+@Slf4j
+public class SecuenciaCocinaServiceImpl implements SecuenciaCocinaService {
+
+    // Desempate por ID: a igual urgencia, el que llegó primero
+    private static final Comparator<EntradaCola> POR_INICIO_LIMITE = Comparator
+            .comparing(EntradaCola::inicioLimite)
+            .thenComparingInt(EntradaCola::idPedido);
+
+    private final TableroCocinaService tableroCocinaService;
+    private final int minutosPorUnidad;
+
+    private final TreeSet<EntradaCola> cola = new TreeSet<>(POR_INICIO_LIMITE);
+    private final Map<Integer, EntradaCola> porId = new HashMap<>();
+
+    public SecuenciaCocinaServiceImpl(TableroCocinaService tableroCocinaService,
+                                      @Value("${cocina.minutos-por-unidad:3}") int minutosPorUnidad) {
+        if (minutosPorUnidad < 0) {
+            throw new IllegalArgumentException("Los minutos por unidad no pueden ser negativos");
+        }
+        this.tableroCocinaService = tableroCocinaService;
+        this.minutosPorUnidad = minutosPorUnidad;
+    }
+
+    @PostConstruct
+    @Override
+    public void reconstruir() {
+        List<PedidoDTO> pendientes = tableroCocinaService.obtenerTablero()
+                .getOrDefault(EstadoPedido.PENDIENTE, List.of());
+        synchronized (cola) {
+            cola.clear();
+            porId.clear();
+            pendientes.forEach(this::encolar);
+        }
+        log.info("Secuencia de cocina construida con {} pedidos pendientes", pendientes.size());
+    }
+
+    @Override
+    public List<PedidoSecuenciadoDTO> siguientes(int limite) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<PedidoSecuenciadoDTO> resultado = new ArrayList<>(Math.min(Math.max(limite, 0), 64));
+        synchronized (cola) {
+            for (EntradaCola entrada : cola) {
+                if (resultado.size() >= limite) {
+                    break;
+                }
+                resultado.add(PedidoSecuenciadoDTO.builder()
+                        .posicion(resultado.size() + 1)
+                        .pedido(entrada.pedido())
+                        .minutosPreparacion(entrada.minutosPreparacion())
+                        .horaRecojo(entrada.horaRecojo())
+                        .inicioLimite(entrada.inicioLimite())
+                        .holguraMinutos(Duration.between(ahora, entrada.inicioLimite()).toMinutes())
+                        .build());
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public int totalEnCola() {
+        synchronized (cola) {
+            return porId.size();
+        }
+    }
+
+    // ============= EVENTOS DE LA APLICACIÓN =============
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoCreado(PedidoCreadoEvent event) {
+        if (event.pedido().getEstado() == EstadoPedido.PENDIENTE) {
+            synchronized (cola) {
+                encolar(event.pedido());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoEstadoCambiado(PedidoEstadoCambiadoEvent event) {
+        // Un pedido nunca vuelve a PENDIENTE: cualquier cambio lo saca de la cola
+        if (event.estadoNuevo() != EstadoPedido.PENDIENTE) {
+            synchronized (cola) {
+                EntradaCola entrada = porId.remove(event.idPedido());
+                if (entrada != null) {
+                    cola.remove(entrada);
+                }
+            }
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * Debe llamarse con el lock de la cola tomado
+     */
+    private void encolar(PedidoDTO pedido) {
+        EntradaCola nueva = crearEntrada(pedido);
+        EntradaCola anterior = porId.put(nueva.idPedido(), nueva);
+        if (anterior != null) {
+            cola.remove(anterior);
+        }
+        cola.add(nueva);
+    }
+
+    private EntradaCola crearEntrada(PedidoDTO pedido) {
+        int minutos = estimarMinutos(pedido);
+        LocalDateTime fechaPedido = pedido.getFechaPedido() != null ? pedido.getFechaPedido() : LocalDateTime.now();
+        // Sin hora de recojo se trata como "lo antes posible"
+        LocalDateTime horaRecojo = pedido.getFechaEntrega() != null
+                ? fechaPedido.toLocalDate().atTime(pedido.getFechaEntrega())
+                : fechaPedido.plusMinutes(minutos);
+        return new EntradaCola(pedido.getIdPedido(), pedido, minutos, horaRecojo, horaRecojo.minusMinutes(minutos));
+    }
+
+    private int estimarMinutos(PedidoDTO pedido) {
+        if (pedido.getDetalles() == null) {
+            return 0;
+        }
+        int minutos = 0;
+        for (DetallePedidoDTO detalle : pedido.getDetalles()) {
+            if (detalle == null || detalle.getCantidad() == null) {
+                continue;
+            }
+            int porUnidad = detalle.getMinutosPreparacion() != null ? detalle.getMinutosPreparacion() : minutosPorUnidad;
+            minutos += porUnidad * detalle.getCantidad();
+        }
+        return minutos;
+    }
+
+    private record EntradaCola(int idPedido, PedidoDTO pedido, int minutosPreparacion,
+                               LocalDateTime horaRecojo, LocalDateTime inicioLimite) {
+    }
+}
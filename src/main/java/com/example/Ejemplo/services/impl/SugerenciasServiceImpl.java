@@ -0,0 +1,340 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.ProductoMasVendidoDTO;
+import com.example.Ejemplo.dto.SugerenciaDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.models.Categoria;
+import com.example.Ejemplo.models.Producto;
+import com.example.Ejemplo.repository.CategoriaRepository;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.BusquedaProductosService;
+import com.example.Ejemplo.services.ResumenVentasService;
+import com.example.Ejemplo.services.SugerenciasService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Las entradas (una por producto activo y por categoría) se mantienen en un
+ * mapa que se actualiza de a una. Un cambio solo marca el trie como
+ * desactualizado: una tarea periódica lo vuelve a empaquetar en arreglos una
+ * vez por tanda de cambios, fuera del hilo que confirmó la edición, y lo
+ * publica con una referencia volatile. Cada nodo guarda ya calculadas sus
+ * mejores sugerencias, así que una consulta solo recorre los caracteres del
+ * prefijo.
+ */
+@Service
+@Slf4j
+public class SugerenciasServiceImpl implements SugerenciasService {
+
+    private final ProductoRepository productoRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final ResumenVentasService resumenVentasService;
+    private final TransactionTemplate transaccionLectura;
+
+    // Clave: "P<id>" o "C<id>"
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private volatile Map<Integer, Long> popularidad = Map.of();
+    private volatile Trie trie = Trie.vacio();
+    // Hay cambios en entradas que el trie publicado todavía no refleja
+    private final AtomicBoolean pendiente = new AtomicBoolean();
+
+    public SugerenciasServiceImpl(ProductoRepository productoRepository,
+                                  CategoriaRepository categoriaRepository,
+                                  ResumenVentasService resumenVentasService,
+                                  PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.resumenVentasService = resumenVentasService;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.transaccionLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public List<SugerenciaDTO> sugerir(String prefijo, int limite) {
+        String normalizado = BusquedaProductosService.normalizarTexto(prefijo);
+        if (normalizado.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        return trie.buscar(normalizado, Math.min(limite, MAX_SUGERENCIAS));
+    }
+
+    @PostConstruct
+    @Override
+    public synchronized void reconstruir() {
+        popularidad = cargarPopularidad();
+        transaccionLectura.executeWithoutResult(status -> {
+            entradas.clear();
+            productoRepository.findAll().forEach(this::ponerProducto);
+            categoriaRepository.findAll().forEach(this::ponerCategoria);
+        });
+        // Con el lock tomado no entran ediciones: la foto que sigue ya las tiene todas
+        pendiente.set(false);
+        empaquetar();
+    }
+
+    /**
+     * La popularidad cambia despacio: basta con refrescarla cada tanto. Solo se
+     * releen las ventas; los nombres ya están en las entradas y se les cambia el peso
+     */
+    @Scheduled(fixedDelayString = "${sugerencias.refresco-ms:600000}",
+               initialDelayString = "${sugerencias.refresco-ms:600000}")
+    public synchronized void refrescarPopularidad() {
+        Map<Integer, Long> ventas = cargarPopularidad();
+        popularidad = ventas;
+        entradas.replaceAll((clave, entrada) -> entrada.sugerencia().tipo() == SugerenciaDTO.Tipo.PRODUCTO
+                ? entrada.conPeso(ventas.getOrDefault(entrada.sugerencia().id(), 0L))
+                : entrada);
+        empaquetar();
+    }
+
+    /**
+     * Sincronizado con reconstruir y refrescarPopularidad: una entrada nunca se
+     * pone con la popularidad anterior a un refresco en curso
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogoModificado(CatalogoModificadoEvent event) {
+        switch (event.origen()) {
+            case PRODUCTO -> transaccionLectura.executeWithoutResult(status ->
+                    productoRepository.findById(event.id()).ifPresentOrElse(
+                            this::ponerProducto, () -> entradas.remove("P" + event.id())));
+            case CATEGORIA -> transaccionLectura.executeWithoutResult(status ->
+                    categoriaRepository.findById(event.id()).ifPresentOrElse(
+                            this::ponerCategoria, () -> entradas.remove("C" + event.id())));
+            case MENU_DIA -> {
+                return;
+            }
+        }
+        pendiente.set(true);
+    }
+
+    /**
+     * Una importación o una edición masiva dispara un evento por producto: el
+     * trie se arma una vez por tanda y no una vez por cambio
+     */
+    @Scheduled(fixedDelayString = "${sugerencias.empaquetado-ms:500}")
+    public void empaquetarPendientes() {
+        if (pendiente.getAndSet(false)) {
+            empaquetar();
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private void ponerProducto(Producto producto) {
+        String clave = "P" + producto.getIdProducto();
+        if (!Boolean.TRUE.equals(producto.getEstado())) {
+            entradas.remove(clave);
+            return;
+        }
+        long peso = popularidad.getOrDefault(producto.getIdProducto(), 0L);
+        entradas.put(clave, new Entrada(
+                new SugerenciaDTO(producto.getNombre(), SugerenciaDTO.Tipo.PRODUCTO, producto.getIdProducto()),
+                BusquedaProductosService.normalizarTexto(producto.getNombre()), peso));
+    }
+
+    private void ponerCategoria(Categoria categoria) {
+        // Las categorías van por delante de productos con las mismas ventas
+        entradas.put("C" + categoria.getIdCategoria(), new Entrada(
+                new SugerenciaDTO(categoria.getNombre(), SugerenciaDTO.Tipo.CATEGORIA, categoria.getIdCategoria()),
+                BusquedaProductosService.normalizarTexto(categoria.getNombre()), Long.MAX_VALUE / 2));
+    }
+
+    private Map<Integer, Long> cargarPopularidad() {
+        try {
+            Map<Integer, Long> ventas = new HashMap<>();
+            for (ProductoMasVendidoDTO p : resumenVentasService.productosMasVendidos()) {
+                ventas.put(p.getId(), p.getTotalVendidos().longValue());
+            }
+            return ventas;
+        } catch (RuntimeException e) {
+            log.warn("No se pudo leer la popularidad de productos, se usa orden alfabético", e);
+            return popularidad;
+        }
+    }
+
+    /**
+     * Sincronizado para que una foto armada antes no se publique después de una más nueva
+     */
+    private synchronized void empaquetar() {
+        long inicio = System.nanoTime();
+        trie = Trie.construir(new ArrayList<>(entradas.values()));
+        log.debug("Trie de sugerencias armado: {} entradas, {} nodos en {} µs",
+                entradas.size(), trie.etiqueta.length, (System.nanoTime() - inicio) / 1_000);
+    }
+
+    private record Entrada(SugerenciaDTO sugerencia, String normalizado, long peso) {
+
+        Entrada conPeso(long nuevo) {
+            return nuevo == peso ? this : new Entrada(sugerencia, normalizado, nuevo);
+        }
+    }
+
+    /**
+     * Trie inmutable en arreglos paralelos. Los hijos de cada nodo son
+     * contiguos y están ordenados por carácter (se buscan con búsqueda binaria);
+     * top[] guarda, por nodo, los índices de sus mejores sugerencias.
+     */
+    private static final class Trie {
+
+        private final char[] etiqueta;
+        private final int[] primerHijo;
+        private final int[] cantidadHijos;
+        private final int[] inicioTop;
+        private final byte[] cantidadTop;
+        private final int[] top;
+        private final SugerenciaDTO[] sugerencias;
+
+        private Trie(char[] etiqueta, int[] primerHijo, int[] cantidadHijos,
+                     int[] inicioTop, byte[] cantidadTop, int[] top, SugerenciaDTO[] sugerencias) {
+            this.etiqueta = etiqueta;
+            this.primerHijo = primerHijo;
+            this.cantidadHijos = cantidadHijos;
+            this.inicioTop = inicioTop;
+            this.cantidadTop = cantidadTop;
+            this.top = top;
+            this.sugerencias = sugerencias;
+        }
+
+        static Trie vacio() {
+            return construir(List.of());
+        }
+
+        List<SugerenciaDTO> buscar(String prefijo, int limite) {
+            int nodo = 0;
+            for (int i = 0; i < prefijo.length(); i++) {
+                nodo = hijo(nodo, prefijo.charAt(i));
+                if (nodo < 0) {
+                    return List.of();
+                }
+            }
+            int cantidad = Math.min(limite, cantidadTop[nodo]);
+            List<SugerenciaDTO> resultado = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                resultado.add(sugerencias[top[inicioTop[nodo] + i]]);
+            }
+            return resultado;
+        }
+
+        private int hijo(int nodo, char c) {
+            int bajo = primerHijo[nodo];
+            int alto = bajo + cantidadHijos[nodo] - 1;
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (etiqueta[medio] < c) {
+                    bajo = medio + 1;
+                } else if (etiqueta[medio] > c) {
+                    alto = medio - 1;
+                } else {
+                    return medio;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Cada entrada se inserta con su nombre completo y desde el inicio de
+         * cada palabra ("sandwich de lomo", "de lomo", "lomo"). Se insertan de
+         * mayor a menor peso, así cada nodo se queda con las primeras que pasan.
+         */
+        static Trie construir(List<Entrada> entradas) {
+            List<Entrada> ordenadas = new ArrayList<>(entradas);
+            ordenadas.sort(Comparator.comparingLong(Entrada::peso).reversed()
+                    .thenComparing(Entrada::normalizado));
+
+            NodoTemporal raiz = new NodoTemporal('\0');
+            SugerenciaDTO[] sugerencias = new SugerenciaDTO[ordenadas.size()];
+            for (int i = 0; i < ordenadas.size(); i++) {
+                Entrada entrada = ordenadas.get(i);
+                sugerencias[i] = entrada.sugerencia();
+                String texto = entrada.normalizado();
+                for (int inicio = 0; inicio < texto.length(); inicio++) {
+                    if (inicio == 0 || texto.charAt(inicio - 1) == ' ') {
+                        raiz.insertar(texto, inicio, i);
+                    }
+                }
+            }
+
+            // Empaquetado en anchura: los hijos de cada nodo quedan contiguos
+            List<NodoTemporal> orden = new ArrayList<>();
+            Map<NodoTemporal, Integer> primerHijoDe = new HashMap<>();
+            Deque<NodoTemporal> cola = new ArrayDeque<>();
+            orden.add(raiz);
+            cola.add(raiz);
+            while (!cola.isEmpty()) {
+                NodoTemporal nodo = cola.poll();
+                primerHijoDe.put(nodo, orden.size());
+                for (NodoTemporal hijo : nodo.hijos.values()) {
+                    orden.add(hijo);
+                    cola.add(hijo);
+                }
+            }
+
+            int n = orden.size();
+            char[] etiqueta = new char[n];
+            int[] primerHijo = new int[n];
+            int[] cantidadHijos = new int[n];
+            int[] inicioTop = new int[n];
+            byte[] cantidadTop = new byte[n];
+            int totalTop = orden.stream().mapToInt(nodo -> nodo.top.size()).sum();
+            int[] top = new int[totalTop];
+            int posicion = 0;
+            for (int i = 0; i < n; i++) {
+                NodoTemporal nodo = orden.get(i);
+                etiqueta[i] = nodo.caracter;
+                primerHijo[i] = primerHijoDe.get(nodo);
+                cantidadHijos[i] = nodo.hijos.size();
+                inicioTop[i] = posicion;
+                cantidadTop[i] = (byte) nodo.top.size();
+                for (int indice : nodo.top) {
+                    top[posicion++] = indice;
+                }
+            }
+            return new Trie(etiqueta, primerHijo, cantidadHijos, inicioTop, cantidadTop, top, sugerencias);
+        }
+    }
+
+    private static final class NodoTemporal {
+        private final char caracter;
+        private final TreeMap<Character, NodoTemporal> hijos = new TreeMap<>();
+        private final List<Integer> top = new ArrayList<>(2);
+
+        private NodoTemporal(char caracter) {
+            this.caracter = caracter;
+        }
+
+        private void insertar(String texto, int desde, int indice) {
+            NodoTemporal nodo = this;
+            nodo.agregarTop(indice);
+            for (int i = desde; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                nodo = nodo.hijos.computeIfAbsent(c, NodoTemporal::new);
+                nodo.agregarTop(indice);
+            }
+        }
+
+        private void agregarTop(int indice) {
+            // Una misma entrada puede llegar por dos palabras: no se repite
+            if (top.size() < MAX_SUGERENCIAS && !top.contains(indice)) {
+                top.add(indice);
+            }
+        }
+    }
+}
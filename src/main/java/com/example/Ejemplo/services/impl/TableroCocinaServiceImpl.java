@@ -0,0 +1,115 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.PedidoDTO;
+import com.example.Ejemplo.events.PedidoCreadoEvent;
+import com.example.Ejemplo.events.PedidoEstadoCambiadoEvent;
+import com.example.Ejemplo.mapper.PedidoMapper;
+import com.example.Ejemplo.models.EstadoPedido;
+import com.example.Ejemplo.repository.PedidosRepository;
+import com.example.Ejemplo.services.TableroCocinaService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class TableroCocinaServiceImpl implements TableroCocinaService {
+
+    private static final Set<EstadoPedido> ESTADOS_ACTIVOS =
+            EnumSet.of(EstadoPedido.PENDIENTE, EstadoPedido.EN_PREPARACION, EstadoPedido.LISTO);
+
+    private static final Comparator<PedidoDTO> POR_FECHA = Comparator.comparing(
+            PedidoDTO::getFechaPedido, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final PedidosRepository pedidosRepository;
+    private final PedidoMapper pedidoMapper;
+    private final TransactionTemplate transaccionLectura;
+
+    private final ConcurrentHashMap<Integer, PedidoDTO> activos = new ConcurrentHashMap<>();
+
+    public TableroCocinaServiceImpl(PedidosRepository pedidosRepository,
+                                    PedidoMapper pedidoMapper,
+                                    PlatformTransactionManager transactionManager) {
+        this.pedidosRepository = pedidosRepository;
+        this.pedidoMapper = pedidoMapper;
+        // Los oyentes corren después del commit: las lecturas van en su propia transacción
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    @PostConstruct
+    @Override
+    public void reconstruir() {
+        List<PedidoDTO> pedidos = transaccionLectura.execute(status ->
+                pedidoMapper.toDTOList(pedidosRepository.findConDetallesByEstadoIn(ESTADOS_ACTIVOS)));
+
+        activos.clear();
+        pedidos.forEach(p -> activos.put(p.getIdPedido(), p));
+        log.info("Tablero de cocina construido con {} pedidos activos", activos.size());
+    }
+
+    @Override
+    public Map<EstadoPedido, List<PedidoDTO>> obtenerTablero() {
+        Map<EstadoPedido, List<PedidoDTO>> tablero = activos.values().stream()
+                .sorted(POR_FECHA)
+                .collect(Collectors.groupingBy(
+                        PedidoDTO::getEstado,
+                        () -> new EnumMap<>(EstadoPedido.class),
+                        Collectors.toList()
+                ));
+        ESTADOS_ACTIVOS.forEach(estado -> tablero.putIfAbsent(estado, List.of()));
+        return tablero;
+    }
+
+    @Override
+    public int totalActivos() {
+        return activos.size();
+    }
+
+    // ============= EVENTOS DE LA APLICACIÓN =============
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoCreado(PedidoCreadoEvent event) {
+        PedidoDTO pedido = event.pedido();
+        if (ESTADOS_ACTIVOS.contains(pedido.getEstado())) {
+            activos.put(pedido.getIdPedido(), pedido);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPedidoEstadoCambiado(PedidoEstadoCambiadoEvent event) {
+        if (!ESTADOS_ACTIVOS.contains(event.estadoNuevo())) {
+            activos.remove(event.idPedido());
+            return;
+        }
+
+        // Se reemplaza por una copia: quien esté leyendo el tablero no ve cambios a medias
+        PedidoDTO actualizado = activos.computeIfPresent(event.idPedido(), (id, pedido) ->
+                pedido.toBuilder()
+                        .estado(event.estadoNuevo())
+                        .estadoAnterior(event.estadoAnterior() != null ? event.estadoAnterior().name() : null)
+                        .build());
+
+        if (actualizado == null) {
+            // No estaba en el tablero (p. ej. llegó antes que su alta): se lee de la BD
+            transaccionLectura.executeWithoutResult(status ->
+                    pedidosRepository.findConDetallesById(event.idPedido())
+                            .filter(p -> ESTADOS_ACTIVOS.contains(p.getEstado()))
+                            .ifPresent(p -> activos.put(p.getIdPedido(), pedidoMapper.toDTO(p))));
+        }
+    }
+}
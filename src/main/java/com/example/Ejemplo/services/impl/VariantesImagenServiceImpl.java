@@ -0,0 +1,389 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.events.ImagenAlmacenadaEvent;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.AlmacenImagenesService;
+import com.example.Ejemplo.services.VariantesImagenService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Las variantes se guardan junto al original como "&lt;sha256&gt;-&lt;ancho&gt;.jpg"
+ * (o .png si el original tiene transparencia). La generación corre en un pool
+ * chico con cola acotada: como mucho N imágenes decodificadas a la vez.
+ * <p>
+ * Para acotar la memoria, el original se decodifica con submuestreo a
+ * aproximadamente el doble del ancho mayor (una foto de 4000px no se carga
+ * completa) y se reduce por mitades hasta cada ancho.
+ * <p>
+ * Lo que la cola rechaza no se pierde: queda pendiente y se vuelve a encolar
+ * en la siguiente pasada de {@link #reintentarRechazadas()}. El backfill no
+ * corre al iniciar salvo imagenes.variantes.backfill=true; el administrador lo
+ * lanza desde la gestión de productos.
+ */
+@Service
+@Slf4j
+public class VariantesImagenServiceImpl implements VariantesImagenService {
+
+    private static final float CALIDAD_JPEG = 0.82f;
+    private static final int TIMEOUT_DESCARGA_MS = 10_000;
+    private static final int LARGO_HASH = 64;
+    private static final int MAX_HASHES = 10_000;
+
+    private final AlmacenImagenesService almacenImagenesService;
+    private final ProductoRepository productoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolTaskExecutor executor;
+    private final boolean backfillAlIniciar;
+
+    // Hash del original -> extensión de sus variantes ("" = no hay variantes)
+    private final Cache<String, String> extensiones = Caffeine.newBuilder()
+            .maximumSize(MAX_HASHES)
+            .build();
+
+    // Rechazadas por la cola llena: idProducto -> nombre del original
+    private final Map<Integer, String> rechazadas = new ConcurrentHashMap<>();
+    private final AtomicBoolean backfillRechazado = new AtomicBoolean();
+
+    public VariantesImagenServiceImpl(AlmacenImagenesService almacenImagenesService,
+                                      ProductoRepository productoRepository,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${imagenes.variantes.hilos:2}") int hilos,
+                                      @Value("${imagenes.variantes.cola:100}") int cola,
+                                      @Value("${imagenes.variantes.backfill:false}") boolean backfillAlIniciar) {
+        this.almacenImagenesService = almacenImagenesService;
+        this.productoRepository = productoRepository;
+        this.eventPublisher = eventPublisher;
+        this.backfillAlIniciar = backfillAlIniciar;
+
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(hilos);
+        this.executor.setMaxPoolSize(hilos);
+        this.executor.setQueueCapacity(cola);
+        this.executor.setThreadNamePrefix("variantes-imagen-");
+        this.executor.initialize();
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdown();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImagenAlmacenada(ImagenAlmacenadaEvent event) {
+        generar(event.idProducto(), event.nombre());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onAplicacionLista() {
+        if (backfillAlIniciar) {
+            programarBackfill();
+        }
+    }
+
+    @Override
+    public void generar(Integer idProducto, String nombre) {
+        boolean encolada = encolar(() -> {
+            if (generarAhora(nombre)) {
+                // Las páginas cacheadas del catálogo todavía no tienen el srcset
+                eventPublisher.publishEvent(CatalogoModificadoEvent.producto(idProducto));
+            }
+        }, nombre);
+        if (!encolada) {
+            rechazadas.put(idProducto, nombre);
+        }
+    }
+
+    @Override
+    public void programarBackfill() {
+        if (!encolar(this::backfill, "backfill")) {
+            backfillRechazado.set(true);
+        }
+    }
+
+    /**
+     * Vuelve a encolar lo que la cola rechazó, el backfill primero; se detiene
+     * en cuanto la cola se vuelve a llenar y deja el resto para la próxima pasada
+     */
+    @Scheduled(fixedDelayString = "${imagenes.variantes.reintento-ms:30000}")
+    public void reintentarRechazadas() {
+        if (backfillRechazado.compareAndSet(true, false)) {
+            programarBackfill();
+            if (backfillRechazado.get()) {
+                return;
+            }
+        }
+        for (Map.Entry<Integer, String> rechazada : rechazadas.entrySet()) {
+            if (!rechazadas.remove(rechazada.getKey(), rechazada.getValue())) {
+                continue;
+            }
+            generar(rechazada.getKey(), rechazada.getValue());
+            if (rechazadas.containsKey(rechazada.getKey())) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public String srcset(String imagenUrl) {
+        String hash = hashDe(imagenUrl);
+        String extension = hash != null ? extensionDeVariantes(hash) : "";
+        if (extension.isEmpty()) {
+            return null;
+        }
+        return Arrays.stream(Variante.values())
+                .map(variante -> urlDe(hash, variante, extension) + " " + variante.getAncho() + "w")
+                .collect(Collectors.joining(", "));
+    }
+
+    @Override
+    public String url(String imagenUrl, Variante variante) {
+        String hash = hashDe(imagenUrl);
+        String extension = hash != null ? extensionDeVariantes(hash) : "";
+        return extension.isEmpty() ? imagenUrl : urlDe(hash, variante, extension);
+    }
+
+    @Override
+    public int backfill() {
+        long inicio = System.currentTimeMillis();
+        int procesados = 0;
+
+        for (Object[] fila : productoRepository.findImagenes()) {
+            Integer idProducto = (Integer) fila[0];
+            String imagenUrl = (String) fila[1];
+            try {
+                if (imagenUrl.startsWith("http://") || imagenUrl.startsWith("https://")) {
+                    imagenUrl = importar(idProducto, imagenUrl);
+                }
+                String hash = hashDe(imagenUrl);
+                if (hash == null || !extensionDeVariantes(hash).isEmpty()) {
+                    continue;
+                }
+                if (generarAhora(imagenUrl.substring(AlmacenImagenesService.PREFIJO_URL.length()))) {
+                    eventPublisher.publishEvent(CatalogoModificadoEvent.producto(idProducto));
+                    procesados++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Backfill de imagen del producto {} fallido: {}", idProducto, e.getMessage());
+            }
+        }
+
+        log.info("Backfill de variantes de imagen: {} productos en {} ms",
+                procesados, System.currentTimeMillis() - inicio);
+        return procesados;
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * @return false si la cola estaba llena
+     */
+    private boolean encolar(Runnable tarea, String descripcion) {
+        try {
+            executor.execute(tarea);
+            return true;
+        } catch (TaskRejectedException e) {
+            log.warn("Cola de variantes llena, {} se reintenta más tarde", descripcion);
+            return false;
+        }
+    }
+
+    /**
+     * @return null si la URL no es de una imagen original del almacén
+     */
+    private static String hashDe(String imagenUrl) {
+        if (imagenUrl == null || !imagenUrl.startsWith(AlmacenImagenesService.PREFIJO_URL)) {
+            return null;
+        }
+        String nombre = imagenUrl.substring(AlmacenImagenesService.PREFIJO_URL.length());
+        return nombre.indexOf('.') == LARGO_HASH ? nombre.substring(0, LARGO_HASH) : null;
+    }
+
+    private String extensionDeVariantes(String hash) {
+        // La miniatura es la última que se escribe: si está, están todas
+        return extensiones.get(hash, h -> Arrays.stream(new String[]{"jpg", "png"})
+                .filter(ext -> almacenImagenesService.ubicar(nombreDe(h, Variante.MINIATURA, ext)).isPresent())
+                .findFirst()
+                .orElse(""));
+    }
+
+    private static String nombreDe(String hash, Variante variante, String extension) {
+        return hash + "-" + variante.getAncho() + "." + extension;
+    }
+
+    private static String urlDe(String hash, Variante variante, String extension) {
+        return AlmacenImagenesService.PREFIJO_URL + nombreDe(hash, variante, extension);
+    }
+
+    /**
+     * Copia al almacén una imagen que estaba en ImgBB y deja la remota como réplica
+     * @return la URL local, o la original si no se pudo importar
+     */
+    private String importar(Integer idProducto, String imagenUrl) {
+        try {
+            URLConnection conexion = URI.create(imagenUrl).toURL().openConnection();
+            conexion.setConnectTimeout(TIMEOUT_DESCARGA_MS);
+            conexion.setReadTimeout(TIMEOUT_DESCARGA_MS);
+            try (InputStream entrada = conexion.getInputStream()) {
+                AlmacenImagenesService.ImagenAlmacenada almacenada = almacenImagenesService.guardar(entrada);
+                if (productoRepository.reemplazarImagenRemota(idProducto, imagenUrl, almacenada.url()) == 0) {
+                    return imagenUrl;
+                }
+                log.debug("Imagen del producto {} importada: {} -> {}", idProducto, imagenUrl, almacenada.url());
+                return almacenada.url();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("No se pudo importar la imagen {} del producto {}: {}", imagenUrl, idProducto, e.getMessage());
+            return imagenUrl;
+        }
+    }
+
+    /**
+     * @return true si se generaron las variantes
+     */
+    private boolean generarAhora(String nombre) {
+        Optional<Path> original = almacenImagenesService.ubicar(nombre);
+        if (original.isEmpty()) {
+            log.warn("Imagen {} no encontrada en el almacén, no se generan variantes", nombre);
+            return false;
+        }
+        String hash = nombre.substring(0, LARGO_HASH);
+        long inicio = System.nanoTime();
+
+        try {
+            BufferedImage imagen = leerSubmuestreada(original.get());
+            if (imagen == null) {
+                // Formato sin lector en ImageIO (p. ej. WEBP): se sigue usando el original
+                log.debug("Sin lector ImageIO para {}, no se generan variantes", nombre);
+                return false;
+            }
+
+            boolean transparencia = imagen.getColorModel().hasAlpha();
+            String extension = transparencia ? "png" : "jpg";
+
+            // De la más grande a la más chica, reduciendo cada una desde la anterior
+            BufferedImage actual = imagen;
+            List<Variante> variantes = Arrays.asList(Variante.values());
+            for (int i = variantes.size() - 1; i >= 0; i--) {
+                Variante variante = variantes.get(i);
+                actual = reducir(actual, Math.min(variante.getAncho(), actual.getWidth()), transparencia);
+                almacenImagenesService.guardarDerivada(
+                        nombreDe(hash, variante, extension), codificar(actual, extension));
+            }
+            extensiones.put(hash, extension);
+
+            log.debug("Variantes de {} generadas en {} ms", nombre, (System.nanoTime() - inicio) / 1_000_000);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudieron generar las variantes de {}: {}", nombre, e.getMessage());
+            return false;
+        }
+    }
+
+    private static BufferedImage leerSubmuestreada(Path archivo) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(archivo.toFile())) {
+            Iterator<ImageReader> lectores = entrada != null ? ImageIO.getImageReaders(entrada) : null;
+            if (lectores == null || !lectores.hasNext()) {
+                return null;
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, true, true);
+                int paso = Math.max(1, lector.getWidth(0) / (Variante.DETALLE.getAncho() * 2));
+                ImageReadParam parametros = lector.getDefaultReadParam();
+                parametros.setSourceSubsampling(paso, paso, 0, 0);
+                return lector.read(0, parametros);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reduce por mitades (bilineal) hasta el ancho pedido; una sola pasada
+     * bilineal de 2000px a 120px pierde detalle y deja bordes serruchados
+     */
+    private static BufferedImage reducir(BufferedImage origen, int ancho, boolean transparencia) {
+        BufferedImage actual = origen;
+        int anchoActual = origen.getWidth();
+        do {
+            anchoActual = Math.max(ancho, anchoActual / 2);
+            int alto = Math.max(1, Math.round((float) actual.getHeight() * anchoActual / actual.getWidth()));
+            BufferedImage destino = new BufferedImage(anchoActual, alto,
+                    transparencia ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = destino.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!transparencia) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, anchoActual, alto);
+                }
+                g.drawImage(actual, 0, 0, anchoActual, alto, null);
+            } finally {
+                g.dispose();
+            }
+            actual = destino;
+        } while (anchoActual > ancho);
+        return actual;
+    }
+
+    private static byte[] codificar(BufferedImage imagen, String extension) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        if (extension.equals("png")) {
+            ImageIO.write(imagen, "png", salida);
+            return salida.toByteArray();
+        }
+
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream destino = ImageIO.createImageOutputStream(salida)) {
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(CALIDAD_JPEG);
+            escritor.setOutput(destino);
+            escritor.write(null, new IIOImage(imagen, null, null), parametros);
+        } finally {
+            escritor.dispose();
+        }
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.config.CacheConfig;
+import com.example.Ejemplo.dto.ProductoMasVendidoDTO;
+import com.example.Ejemplo.dto.ResumenVentasDTO;
+import com.example.Ejemplo.dto.VentaCategoriaDTO;
+import com.example.Ejemplo.dto.VentaPeriodoDTO;
+import com.example.Ejemplo.models.VentaResumen;
+import com.example.Ejemplo.repository.VentaResumenRepository;
+import com.example.Ejemplo.services.ResumenVentasService;
+import com.example.Ejemplo.services.VentasAnaliticaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lee de los buckets DIA/HORA de venta_resumen (una fila por período), nunca
+ * del historial de pedidos, así que el costo depende del rango y no del
+ * volumen de pedidos. Solo se cachean períodos cerrados: ResumenVentasServiceImpl
+ * limpia la cache si un pedido de un día anterior cambia esos buckets.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class VentasAnaliticaServiceImpl implements VentasAnaliticaService {
+
+    private static final int MAX_DIAS_POR_DIA = 366;
+    private static final int MAX_DIAS_POR_HORA = 31;
+    private static final int MAX_TOP_PRODUCTOS = 100;
+    private static final String PERIODO_CERRADO = "#hasta.isBefore(T(java.time.LocalDate).now())";
+
+    private final VentaResumenRepository resumenRepository;
+    private final ResumenVentasService resumenVentasService;
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.VENTAS_ANALITICA, condition = PERIODO_CERRADO,
+               key = "{#root.methodName, #desde, #hasta, #idCategoria}")
+    public ResumenVentasDTO resumen(LocalDate desde, LocalDate hasta, Integer idCategoria) {
+        validarRango(desde, hasta, MAX_DIAS_POR_DIA);
+        // El resumen general ya lo resuelve el servicio de resúmenes
+        ResumenVentasDTO resumen = resumenVentasService.totales(desde, hasta);
+        if (idCategoria == null) {
+            return resumen;
+        }
+
+        long pedidos = 0;
+        long unidades = 0;
+        double monto = 0;
+        for (VentaResumen bucket : buckets(VentaResumen.Dimension.CATEGORIA, VentaResumen.Granularidad.DIA,
+                idCategoria, desde, hasta)) {
+            pedidos += bucket.getPedidos();
+            unidades += bucket.getUnidades();
+            monto += bucket.getMonto();
+        }
+        resumen.setPedidosEntregados(pedidos);
+        resumen.setUnidadesVendidas(unidades);
+        resumen.setMontoTotal(monto);
+        // Los cancelados del resumen son de todas las categorías: no se mezclan con el filtro
+        resumen.setPedidosCancelados(0);
+        resumen.setFiltradoPorCategoria(true);
+        return resumen;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.VENTAS_ANALITICA, condition = PERIODO_CERRADO,
+               key = "{#root.methodName, #desde, #hasta, #granularidad, #idCategoria}")
+    public List<VentaPeriodoDTO> serie(LocalDate desde, LocalDate hasta,
+                                       VentaResumen.Granularidad granularidad, Integer idCategoria) {
+        if (granularidad == VentaResumen.Granularidad.HISTORICO) {
+            throw new IllegalArgumentException("La granularidad debe ser DIA u HORA");
+        }
+        boolean porHora = granularidad == VentaResumen.Granularidad.HORA;
+        validarRango(desde, hasta, porHora ? MAX_DIAS_POR_HORA : MAX_DIAS_POR_DIA);
+
+        VentaResumen.Dimension dimension = idCategoria != null
+                ? VentaResumen.Dimension.CATEGORIA
+                : VentaResumen.Dimension.TOTAL;
+        Map<LocalDateTime, VentaResumen> porPeriodo = new HashMap<>();
+        for (VentaResumen bucket : buckets(dimension, granularidad, idCategoria, desde, hasta)) {
+            porPeriodo.put(bucket.getId().getPeriodo(), bucket);
+        }
+
+        // Se rellenan los huecos para que el gráfico tenga un eje continuo
+        ChronoUnit paso = porHora ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        LocalDateTime fin = hasta.plusDays(1).atStartOfDay();
+        List<VentaPeriodoDTO> serie = new ArrayList<>();
+        for (LocalDateTime periodo = desde.atStartOfDay(); periodo.isBefore(fin); periodo = periodo.plus(1, paso)) {
+            VentaResumen bucket = porPeriodo.get(periodo);
+            serie.add(bucket == null
+                    ? new VentaPeriodoDTO(periodo, 0, 0, 0)
+                    : new VentaPeriodoDTO(periodo, bucket.getMonto(), bucket.getPedidos(), bucket.getUnidades()));
+        }
+        log.debug("Serie de ventas {} de {} a {}: {} períodos, {} con ventas",
+                granularidad, desde, hasta, serie.size(), porPeriodo.size());
+        return serie;
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.VENTAS_ANALITICA, condition = PERIODO_CERRADO,
+               key = "{#root.methodName, #desde, #hasta, #idCategoria, #limite}")
+    public List<ProductoMasVendidoDTO> topProductos(LocalDate desde, LocalDate hasta, Integer idCategoria, int limite) {
+        validarRango(desde, hasta, MAX_DIAS_POR_DIA);
+        if (limite <= 0 || limite > MAX_TOP_PRODUCTOS) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_TOP_PRODUCTOS);
+        }
+        return resumenRepository.findRankingProductosEntre(
+                VentaResumen.Dimension.PRODUCTO, VentaResumen.Granularidad.DIA,
+                desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay(), idCategoria,
+                PageRequest.of(0, limite));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.VENTAS_ANALITICA, condition = PERIODO_CERRADO,
+               key = "{#root.methodName, #desde, #hasta}")
+    public List<VentaCategoriaDTO> categorias(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta, MAX_DIAS_POR_DIA);
+        List<VentaCategoriaDTO> categorias = resumenRepository.findVentasPorCategoria(
+                VentaResumen.Dimension.CATEGORIA, VentaResumen.Granularidad.DIA,
+                desde.atStartOfDay(), hasta.plusDays(1).atStartOfDay());
+
+        double total = categorias.stream().mapToDouble(VentaCategoriaDTO::getMonto).sum();
+        if (total > 0) {
+            categorias.forEach(c -> c.setPorcentaje(c.getMonto() * 100.0 / total));
+        }
+        return categorias;
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private List<VentaResumen> buckets(VentaResumen.Dimension dimension, VentaResumen.Granularidad granularidad,
+                                       Integer idReferencia, LocalDate desde, LocalDate hasta) {
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = hasta.plusDays(1).atStartOfDay();
+        return idReferencia != null
+                ? resumenRepository.findBucketsDeReferencia(dimension, granularidad, idReferencia, inicio, fin)
+                : resumenRepository.findBuckets(dimension, granularidad, inicio, fin);
+    }
+
+    private void validarRango(LocalDate desde, LocalDate hasta, int maxDias) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Debe indicar las fechas desde y hasta");
+        }
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha hasta no puede ser anterior a desde");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= maxDias) {
+            throw new IllegalArgumentException("El rango no puede superar " + maxDias + " días");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+// Llena el selector de hora de recojo con las franjas que aún tienen capacidad
+function cargarFranjas() {
+    const select = document.getElementById('horaRecojo');
+    if (!select || !select.dataset.franjasUrl) return;
+
+    fetch(select.dataset.franjasUrl, {headers: {'Accept': 'application/json'}})
+        .then(respuesta => respuesta.ok ? respuesta.json() : [])
+        .then(franjas => {
+            select.innerHTML = '';
+            if (franjas.length === 0) {
+                select.add(new Option('No quedan horarios disponibles hoy', ''));
+                return;
+            }
+            franjas.forEach(franja => {
+                const inicio = franja.inicio.substring(0, 5);
+                const fin = franja.fin.substring(0, 5);
+                select.add(new Option(inicio + ' - ' + fin + ' (' + franja.disponibles + ' libres)', inicio));
+            });
+        })
+        .catch(() => {
+            select.innerHTML = '';
+            select.add(new Option('No se pudieron cargar los horarios', ''));
+        });
+}
+
+document.addEventListener('DOMContentLoaded', cargarFranjas);
@@ -2,6 +2,44 @@ function toggleNotifications() {
     const modal = document.getElementById('notification-modal');
     modal.classList.remove('hidden');
     modal.classList.add('show');
+    marcarLeidas();
+}
+
+// Al abrir la campana se marcan como leídas (en un solo POST) las que se ven
+function marcarLeidas() {
+    const bell = document.querySelector('.notification-bell');
+    const noLeidas = document.querySelectorAll('.notification-item[data-leida="false"]');
+    if (!bell || noLeidas.length === 0) return;
+
+    const hastaId = Math.max(...Array.from(document.querySelectorAll('.notification-item[data-id]'))
+        .map(item => parseInt(item.dataset.id)));
+
+    const headers = {'Content-Type': 'application/x-www-form-urlencoded'};
+    const csrfToken = document.querySelector('meta[name="_csrf"]')?.content;
+    const csrfHeader = document.querySelector('meta[name="_csrf_header"]')?.content;
+    if (csrfToken && csrfHeader) headers[csrfHeader] = csrfToken;
+
+    // La URL la arma la plantilla con @{...}, así respeta el context path
+    fetch(bell.dataset.marcarLeidasUrl, {
+        method: 'POST',
+        headers: headers,
+        body: 'hastaId=' + hastaId
+    })
+        .then(respuesta => respuesta.ok ? respuesta.json() : null)
+        .then(datos => {
+            if (!datos) return;
+            noLeidas.forEach(item => {
+                item.dataset.leida = 'true';
+                item.classList.remove('bg-warning-subtle', 'border-start', 'border-5', 'border-warning');
+                item.classList.add('bg-light');
+            });
+            const badge = document.querySelector('.notification-badge');
+            if (badge) {
+                if (datos.sinLeer > 0) badge.textContent = datos.sinLeer;
+                else badge.remove();
+            }
+        })
+        .catch(() => {});
 }
 
 function closeNotifications(event) {
@@ -16,3 +54,77 @@ document.addEventListener('keydown', function (e) {
         closeNotifications();
     }
 });
+
+// ==================== Actualizaciones en vivo (SSE) ====================
+
+function actualizarBadge(incremento) {
+    const bell = document.querySelector('.notification-bell');
+    if (!bell) return;
+
+    let badge = bell.querySelector('.notification-badge');
+    if (!badge) {
+        badge = document.createElement('span');
+        badge.className = 'notification-badge position-absolute top-0 start-100 translate-middle badge rounded-pill bg-danger';
+        badge.textContent = '0';
+        bell.appendChild(badge);
+    }
+    badge.textContent = parseInt(badge.textContent || '0') + incremento;
+}
+
+function agregarNotificacion(mensaje) {
+    const content = document.querySelector('#notification-modal .notification-content');
+    if (!content) return;
+
+    // Si estaba el estado vacío, se reemplaza por la lista
+    let body = content.querySelector('.notification-body:not(.text-center)');
+    if (!body) {
+        content.querySelector('.notification-body.text-center')?.remove();
+        body = document.createElement('div');
+        body.className = 'notification-body';
+        content.appendChild(body);
+    }
+
+    const item = document.createElement('div');
+    item.className = 'd-flex align-items-start p-3 mb-2 rounded shadow-sm position-relative bg-warning-subtle border-start border-5 border-warning';
+    item.innerHTML = '<i class="bi bi-bell-fill me-3 fs-4 text-warning"></i>' +
+        '<div class="flex-grow-1"><p class="mb-1 fw-semibold"></p></div>';
+    item.querySelector('p').textContent = mensaje;
+    body.prepend(item);
+}
+
+function conectarNotificaciones() {
+    // Solo usuarios autenticados tienen campana
+    const bell = document.querySelector('.notification-bell');
+    if (!bell || typeof EventSource === 'undefined') return;
+
+    // EventSource reconecta solo y envía Last-Event-ID para recuperar lo perdido
+    const fuente = new EventSource(bell.dataset.streamUrl);
+
+    fuente.addEventListener('notificacion', function (e) {
+        const datos = JSON.parse(e.data);
+        agregarNotificacion(datos.mensaje);
+        actualizarBadge(1);
+
+        if (typeof Swal !== 'undefined') {
+            Swal.fire({
+                toast: true,
+                position: 'top-end',
+                icon: 'info',
+                title: datos.mensaje,
+                showConfirmButton: false,
+                timer: 4000
+            });
+        }
+    });
+
+    fuente.addEventListener('pedido', function () {
+        // En "Mis pedidos" se recarga para mover el pedido a su nueva sección
+        if (window.location.pathname.startsWith('/pedidos')) {
+            setTimeout(() => window.location.reload(), 1500);
+        }
+    });
+
+    window.addEventListener('beforeunload', () => fuente.close());
+}
+
+document.addEventListener('DOMContentLoaded', conectarNotificaciones);
@@ -0,0 +1,40 @@
+document.addEventListener("DOMContentLoaded", function () {
+    const input = document.querySelector("input[data-sugerencias-url]");
+    const lista = document.getElementById("sugerenciasBusqueda");
+    if (!input || !lista) {
+        return;
+    }
+
+    const url = input.dataset.sugerenciasUrl;
+    let temporizador = null;
+    let controlador = null;
+
+    input.addEventListener("input", function () {
+        clearTimeout(temporizador);
+        const texto = input.value.trim();
+        if (texto.length < 2) {
+            lista.innerHTML = "";
+            return;
+        }
+
+        // Esperar a que el usuario deje de escribir antes de consultar
+        temporizador = setTimeout(function () {
+            if (controlador) {
+                controlador.abort();
+            }
+            controlador = new AbortController();
+
+            fetch(url + "?q=" + encodeURIComponent(texto), { signal: controlador.signal })
+                .then(respuesta => respuesta.ok ? respuesta.json() : [])
+                .then(sugerencias => {
+                    lista.innerHTML = "";
+                    sugerencias.forEach(sugerencia => {
+                        const opcion = document.createElement("option");
+                        opcion.value = sugerencia.texto;
+                        lista.appendChild(opcion);
+                    });
+                })
+                .catch(() => {});
+        }, 150);
+    });
+});
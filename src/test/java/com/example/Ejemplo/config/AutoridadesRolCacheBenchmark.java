@@ -0,0 +1,148 @@
+package com.example.Ejemplo.config;
+
+import com.example.Ejemplo.models.Permiso;
+import com.example.Ejemplo.models.RolEntity;
+import com.example.Ejemplo.models.Usuario;
+import com.example.Ejemplo.repository.RolEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Verificaciones de autorización por segundo con un rol de 30 permisos:
+ * getAuthorities() armando la lista en cada llamada (como el UsuarioDetails
+ * anterior, sin contar sus logs por llamada) frente al Set compartido de
+ * {@link AutoridadesRolCache}. Cada verificación recorre las autoridades
+ * como AuthoritiesAuthorizationManager.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class AutoridadesRolCacheBenchmark {
+
+    private static final int HILOS = 4;
+    private static final int VERIFICACIONES_POR_HILO = 500_000;
+    private static final String BUSCADA = "PEDIDOS_GESTIONAR";
+
+    @Test
+    void verificacionesPorSegundo() throws Exception {
+        Usuario usuario = usuarioAdministrador();
+        RolEntityRepository rolRepository = mock(RolEntityRepository.class, withSettings().stubOnly());
+        when(rolRepository.findById(1)).thenReturn(Optional.of(usuario.getRolEntity()));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        AutoridadesRolCache cache = new AutoridadesRolCache(rolRepository, transactionManager);
+
+        // Cada petición autenticada trae su propio UsuarioDetails de la sesión
+        Supplier<UserDetails> anterior = () -> new UsuarioAnterior(usuario);
+        UsuarioDetails compartido = new UsuarioDetails(usuario, cache.autoridadesDe(usuario));
+
+        medir(anterior);
+        medir(() -> compartido);
+        double porSegundoAnterior = medir(anterior);
+        double porSegundoCache = medir(() -> compartido);
+
+        System.out.printf("Verificaciones de autorización con %d hilos: lista por llamada %,.0f/s, Set compartido %,.0f/s (x%.1f)%n",
+                HILOS, porSegundoAnterior, porSegundoCache, porSegundoCache / porSegundoAnterior);
+        assertTrue(porSegundoCache > porSegundoAnterior, porSegundoAnterior + " -> " + porSegundoCache);
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static double medir(Supplier<UserDetails> sesion) throws Exception {
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Integer>> tareas = new ArrayList<>();
+        long inicio;
+        try (ExecutorService hilos = Executors.newFixedThreadPool(HILOS)) {
+            for (int h = 0; h < HILOS; h++) {
+                tareas.add(hilos.submit(() -> {
+                    salida.await();
+                    int concedidas = 0;
+                    for (int i = 0; i < VERIFICACIONES_POR_HILO; i++) {
+                        if (tieneAutoridad(sesion.get().getAuthorities(), BUSCADA)) {
+                            concedidas++;
+                        }
+                    }
+                    return concedidas;
+                }));
+            }
+            inicio = System.nanoTime();
+            salida.countDown();
+        }
+        long nanos = System.nanoTime() - inicio;
+        for (Future<Integer> tarea : tareas) {
+            assertTrue(tarea.get() == VERIFICACIONES_POR_HILO);
+        }
+        return (double) HILOS * VERIFICACIONES_POR_HILO * 1e9 / nanos;
+    }
+
+    private static boolean tieneAutoridad(Collection<? extends GrantedAuthority> autoridades, String buscada) {
+        for (GrantedAuthority autoridad : autoridades) {
+            if (buscada.equals(autoridad.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Usuario usuarioAdministrador() {
+        RolEntity rol = new RolEntity();
+        rol.setIdRol(1);
+        rol.setNombre("ADMINISTRADOR");
+        Set<Permiso> permisos = new HashSet<>();
+        String[] modulos = {"PRODUCTOS", "CATEGORIAS", "PEDIDOS", "USUARIOS", "VENTAS", "ESTADISTICAS"};
+        String[] acciones = {"VER", "CREAR", "EDITAR", "ELIMINAR", "GESTIONAR"};
+        for (String modulo : modulos) {
+            for (String accion : acciones) {
+                permisos.add(new Permiso(modulo + "_" + accion, modulo + " " + accion, modulo));
+            }
+        }
+        rol.setPermisos(permisos);
+        Usuario usuario = new Usuario();
+        usuario.setCorreo("admin@example.com");
+        usuario.setRolEntity(rol);
+        return usuario;
+    }
+
+    /**
+     * getAuthorities() del UsuarioDetails anterior, sin los log.debug/info por llamada
+     */
+    private static final class UsuarioAnterior extends UsuarioDetails {
+
+        private final Usuario usuario;
+
+        UsuarioAnterior(Usuario usuario) {
+            super(usuario);
+            this.usuario = usuario;
+        }
+
+        @Override
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + usuario.getRolEntity().getNombre()));
+            usuario.getRolEntity().getPermisos().stream()
+                    .map(permiso -> new SimpleGrantedAuthority(permiso.getNombre()))
+                    .forEach(authorities::add);
+            return authorities;
+        }
+    }
+}
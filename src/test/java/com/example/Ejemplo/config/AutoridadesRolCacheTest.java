@@ -0,0 +1,108 @@
+package com.example.Ejemplo.config;
+
+import com.example.Ejemplo.events.RolModificadoEvent;
+import com.example.Ejemplo.models.Permiso;
+import com.example.Ejemplo.models.RolEntity;
+import com.example.Ejemplo.models.Usuario;
+import com.example.Ejemplo.repository.RolEntityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class AutoridadesRolCacheTest {
+
+    private RolEntityRepository rolRepository;
+    private AutoridadesRolCache cache;
+
+    @BeforeEach
+    void setUp() {
+        rolRepository = mock(RolEntityRepository.class, withSettings().stubOnly());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        cache = new AutoridadesRolCache(rolRepository, transactionManager);
+    }
+
+    @Test
+    void seCompilaConElRolReleidoYNoConElDelUsuario() {
+        Usuario usuario = usuarioCon(rol("PRODUCTOS_VER"));
+        when(rolRepository.findById(1)).thenReturn(Optional.of(rol("PRODUCTOS_VER", "PEDIDOS_VER")));
+
+        Set<GrantedAuthority> autoridades = cache.autoridadesDe(usuario);
+
+        assertEquals(Set.of("ROLE_CAJERO", "PRODUCTOS_VER", "PEDIDOS_VER"), nombres(autoridades));
+        // Los demás usuarios del rol comparten la misma instancia
+        assertSame(autoridades, cache.autoridadesDe(usuarioCon(rol("PRODUCTOS_VER"))));
+    }
+
+    @Test
+    void unaEdicionQueConfirmaDuranteLaCompilacionNoDejaPermisosViejos() throws Exception {
+        CountDownLatch edicionEnCurso = new CountDownLatch(1);
+        Thread[] editor = new Thread[1];
+        when(rolRepository.findById(1))
+                .thenAnswer(inv -> {
+                    // La edición confirma mientras se relee el rol: su evento llega en medio del compute
+                    editor[0] = Thread.ofVirtual().start(() -> {
+                        edicionEnCurso.countDown();
+                        cache.onRolModificado(new RolModificadoEvent(1));
+                    });
+                    assertTrue(edicionEnCurso.await(5, TimeUnit.SECONDS));
+                    return Optional.of(rol("PRODUCTOS_VER"));
+                })
+                .thenReturn(Optional.of(rol("PRODUCTOS_VER", "PEDIDOS_VER")));
+
+        assertFalse(nombres(cache.autoridadesDe(usuarioCon(rol("PRODUCTOS_VER")))).contains("PEDIDOS_VER"));
+        editor[0].join();
+
+        assertTrue(nombres(cache.autoridadesDe(usuarioCon(rol("PRODUCTOS_VER")))).contains("PEDIDOS_VER"));
+    }
+
+    @Test
+    void unRolBorradoNoSeCachea() {
+        when(rolRepository.findById(1)).thenReturn(Optional.empty(), Optional.of(rol("PEDIDOS_VER")));
+
+        assertEquals(Set.of("ROLE_CAJERO", "PRODUCTOS_VER"), nombres(cache.autoridadesDe(usuarioCon(rol("PRODUCTOS_VER")))));
+        assertEquals(Set.of("ROLE_CAJERO", "PEDIDOS_VER"), nombres(cache.autoridadesDe(usuarioCon(rol("PRODUCTOS_VER")))));
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static RolEntity rol(String... permisos) {
+        RolEntity rol = new RolEntity();
+        rol.setIdRol(1);
+        rol.setNombre("CAJERO");
+        rol.setPermisos(Arrays.stream(permisos)
+                .map(nombre -> new Permiso(nombre, nombre, "PRUEBA"))
+                .collect(Collectors.toCollection(HashSet::new)));
+        return rol;
+    }
+
+    private static Usuario usuarioCon(RolEntity rol) {
+        Usuario usuario = new Usuario();
+        usuario.setCorreo("ana@example.com");
+        usuario.setRolEntity(rol);
+        return usuario;
+    }
+
+    private static Set<String> nombres(Set<GrantedAuthority> autoridades) {
+        return autoridades.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
+}
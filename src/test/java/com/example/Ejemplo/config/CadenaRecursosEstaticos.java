@@ -0,0 +1,165 @@
+package com.example.Ejemplo.config;
+
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Arma el mismo resource chain y el mismo interceptor que la aplicación sobre
+ * el static/ real, sin levantar el contexto de Spring Boot. La comparten las
+ * pruebas y el benchmark de recursos estáticos.
+ */
+final class CadenaRecursosEstaticos {
+
+    // Lo que pide una página: hojas de estilo, scripts propios e imágenes del catálogo
+    static final List<String> RECURSOS_PAGINA = List.of(
+            "/css/main.css", "/css/style.css", "/css/responsive.css", "/css/modal.css",
+            "/js/notificacion.js", "/js/sugerencias.js", "/js/modal.js", "/js/sweetalert-utils.js");
+    static final List<String> IMAGENES_PAGINA = List.of(
+            "/imagenes/Chaufa.png", "/imagenes/LomoSalteado.png", "/imagenes/bebidas.png", "/imagenes/postres.png");
+    static final String IMAGEN_SIN_VERSION = "/imagenes/menu.png";
+
+    private final SimpleUrlHandlerMapping handlerMapping;
+    private final List<Object> interceptores;
+    private final ResourceUrlProvider urlProvider;
+
+    CadenaRecursosEstaticos() {
+        MockServletContext servletContext = new MockServletContext();
+        GenericWebApplicationContext contexto = new GenericWebApplicationContext(servletContext);
+        contexto.refresh();
+
+        WebProperties webProperties = new WebProperties();
+        webProperties.getResources().setStaticLocations(new String[]{"classpath:/static/"});
+        webProperties.getResources().getChain().setCache(true);
+        RecursosEstaticosConfig config = new RecursosEstaticosConfig(webProperties);
+
+        RegistroRecursos recursos = new RegistroRecursos(contexto);
+        RegistroInterceptores registroInterceptores = new RegistroInterceptores();
+        config.addResourceHandlers(recursos);
+        config.addInterceptors(registroInterceptores);
+        handlerMapping = recursos.armar(contexto);
+        interceptores = registroInterceptores.armar();
+
+        urlProvider = new ResourceUrlProvider();
+        urlProvider.setHandlerMap(Map.of("/**", (ResourceHttpRequestHandler) handlerMapping.getUrlMap().get("/**")));
+    }
+
+    /**
+     * URL con la que la plantilla enlaza el recurso (con hash si se versiona)
+     */
+    String urlDe(String ruta) {
+        return urlProvider.getForLookupPath(ruta);
+    }
+
+    MockHttpServletRequest peticion(String url, boolean aceptaGzip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", url);
+        if (aceptaGzip) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+        }
+        return request;
+    }
+
+    MockHttpServletResponse pedir(String url, boolean aceptaGzip) throws Exception {
+        return atender(peticion(url, aceptaGzip));
+    }
+
+    MockHttpServletResponse atender(MockHttpServletRequest request) throws Exception {
+        ServletRequestPathUtils.parseAndCache(request);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        HandlerExecutionChain cadena = handlerMapping.getHandler(request);
+        assertNotNull(cadena, request.getRequestURI());
+        // El del mapping expone la ruta dentro del patrón que lee el handler
+        for (HandlerInterceptor interceptor : cadena.getInterceptorList()) {
+            interceptor.preHandle(request, response, cadena.getHandler());
+        }
+        for (Object interceptor : interceptores) {
+            MappedInterceptor mapeado = (MappedInterceptor) interceptor;
+            if (mapeado.matches(request)) {
+                mapeado.preHandle(request, response, cadena.getHandler());
+            }
+        }
+        ((ResourceHttpRequestHandler) cadena.getHandler()).handleRequest(request, response);
+        return response;
+    }
+
+    /**
+     * Una vista fría (caché del navegador vacía) y una caliente sobre las URLs
+     * que enlaza la página. En la caliente el navegador no pide lo inmutable y
+     * revalida el resto con If-Modified-Since.
+     */
+    Visita visitar(List<String> urls) throws Exception {
+        long fria = 0;
+        long caliente = 0;
+        int revalidaciones = 0;
+        for (String url : urls) {
+            MockHttpServletResponse primera = pedir(url, true);
+            assertEquals(200, primera.getStatus(), url);
+            fria += primera.getContentAsByteArray().length;
+
+            String cacheControl = primera.getHeader(HttpHeaders.CACHE_CONTROL);
+            if (cacheControl == null || !cacheControl.contains("immutable")) {
+                MockHttpServletRequest request = peticion(url, true);
+                request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, primera.getHeader(HttpHeaders.LAST_MODIFIED));
+                MockHttpServletResponse segunda = atender(request);
+                assertEquals(304, segunda.getStatus(), url);
+                caliente += segunda.getContentAsByteArray().length;
+                revalidaciones++;
+            }
+        }
+        return new Visita(fria, caliente, revalidaciones);
+    }
+
+    static byte[] original(String ruta) throws IOException {
+        try (InputStream entrada = new ClassPathResource("static" + ruta).getInputStream()) {
+            return entrada.readAllBytes();
+        }
+    }
+
+    record Visita(long fria, long caliente, int revalidaciones) {
+    }
+
+    /**
+     * Spring MVC solo expone lo registrado a las subclases
+     */
+    private static final class RegistroRecursos extends ResourceHandlerRegistry {
+
+        RegistroRecursos(GenericWebApplicationContext contexto) {
+            super(contexto, contexto.getServletContext());
+        }
+
+        SimpleUrlHandlerMapping armar(GenericWebApplicationContext contexto) {
+            SimpleUrlHandlerMapping mapping = (SimpleUrlHandlerMapping) getHandlerMapping();
+            mapping.setApplicationContext(contexto);
+            return mapping;
+        }
+    }
+
+    private static final class RegistroInterceptores extends InterceptorRegistry {
+
+        List<Object> armar() {
+            return getInterceptors();
+        }
+    }
+}
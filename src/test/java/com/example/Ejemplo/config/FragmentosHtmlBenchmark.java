@@ -0,0 +1,48 @@
+package com.example.Ejemplo.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tiempo de la barra del panel, que se pinta en cada página del admin,
+ * renderizada cada vez frente a servida desde el cache.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class FragmentosHtmlBenchmark {
+
+    private static final int ITERACIONES = 2_000;
+    private static final String[] PESTANAS = {"productos", "pedidos", "categorias", "usuarios"};
+
+    @Test
+    void renderCacheadoFrenteASinCache() {
+        try (MotorFragmentos motor = new MotorFragmentos()) {
+            motor.autenticar("ROLE_ADMINISTRADOR");
+
+            long sinCache = medir(motor.crear(false));
+            long conCache = medir(motor.crear(true));
+
+            System.out.printf("Barra del panel: %.1f µs por render sin cache, %.2f µs con cache (x%.0f)%n",
+                    sinCache / 1_000.0 / ITERACIONES, conCache / 1_000.0 / ITERACIONES, (double) sinCache / conCache);
+            assertTrue(conCache * 10 < sinCache, "con cache = " + conCache + " ns, sin cache = " + sinCache + " ns");
+            assertNotEquals(0, motor.estadisticas().hitCount());
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * @return nanosegundos de las iteraciones medidas, tras un calentamiento igual
+     */
+    private static long medir(FragmentosHtml fragmentos) {
+        for (int i = 0; i < ITERACIONES; i++) {
+            fragmentos.navbarAdmin(PESTANAS[i % PESTANAS.length]);
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            fragmentos.navbarAdmin(PESTANAS[i % PESTANAS.length]);
+        }
+        return Math.max(1, System.nanoTime() - inicio);
+    }
+}
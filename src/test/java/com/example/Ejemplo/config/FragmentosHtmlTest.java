@@ -0,0 +1,152 @@
+package com.example.Ejemplo.config;
+
+import com.example.Ejemplo.dto.ProductoDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Renderiza las plantillas reales de templates/fragments con el mismo motor
+ * (dialecto de Spring Security incluido) que usa la aplicación.
+ */
+class FragmentosHtmlTest {
+
+    private MotorFragmentos motor;
+
+    @BeforeEach
+    void setUp() {
+        motor = new MotorFragmentos();
+    }
+
+    @AfterEach
+    void tearDown() {
+        motor.close();
+    }
+
+    @Test
+    void laBarraDelPanelMuestraSoloLoQueLasAutoridadesPermiten() {
+        FragmentosHtml fragmentos = crear(true);
+
+        autenticar("ROLE_ADMINISTRADOR");
+        String admin = fragmentos.navbarAdmin("roles");
+        autenticar("PRODUCTOS_VER");
+        String productos = fragmentos.navbarAdmin("productos");
+
+        // Los comentarios HTML nombran todas las secciones: se miran los enlaces
+        assertTrue(admin.contains("href=\"/roles\""));
+        assertTrue(admin.contains("href=\"/admin/pedidos\""));
+        assertTrue(productos.contains("class=\"nav-link active\" href=\"/admin/productos\""), productos);
+        assertFalse(productos.contains("href=\"/roles\""));
+        assertFalse(productos.contains("href=\"/admin/pedidos\""));
+        assertTrue(productos.contains("href=\"/catalogo\""));
+    }
+
+    @Test
+    void elMismoFragmentoSeRenderizaUnaSolaVez() {
+        FragmentosHtml fragmentos = crear(true);
+        autenticar("ROLE_ADMINISTRADOR");
+
+        String primera = fragmentos.navbarAdmin("pedidos");
+        String segunda = fragmentos.navbarAdmin("pedidos");
+        // Mismas autoridades en otro orden: misma entrada
+        autenticar("PEDIDOS_VER", "ROLE_ADMINISTRADOR");
+        String otroUsuario = fragmentos.navbarAdmin("pedidos");
+        autenticar("ROLE_ADMINISTRADOR", "PEDIDOS_VER");
+        fragmentos.navbarAdmin("pedidos");
+
+        assertEquals(primera, segunda);
+        assertEquals(primera, otroUsuario);
+        CacheStats stats = estadisticas();
+        assertEquals(2, stats.missCount());
+        assertEquals(2, stats.hitCount());
+    }
+
+    @Test
+    void unCambioEnElCatalogoCaeEnOtraEntrada() {
+        FragmentosHtml fragmentos = crear(true);
+        Map<String, Long> conteos = new LinkedHashMap<>(Map.of(
+                "Sandwich", 0L, "Antojitos", 4L, "Bebidas", 2L, "Endulzate", 1L,
+                "MENU ECONOMICO", 1L, "MENU EJECUTIVO", 1L, "MENU UNIVERSITARIO", 1L));
+
+        String sinSandwich = fragmentos.filtrosCatalogo(conteos, "Bebidas");
+        conteos.put("Sandwich", 3L);
+        fragmentos.onCatalogoModificado(CatalogoModificadoEvent.producto(1));
+        String conSandwich = fragmentos.filtrosCatalogo(new LinkedHashMap<>(conteos), "Bebidas");
+
+        assertFalse(sinSandwich.contains("categoria=Sandwich"));
+        assertTrue(conSandwich.contains("categoria=Sandwich"));
+        assertTrue(conSandwich.contains("active\" href=\"/catalogo?categoria=Bebidas\""));
+        assertEquals(2, estadisticas().missCount());
+    }
+
+    @Test
+    void sinCambiosEnElCatalogoSeSirveLaMismaEntrada() {
+        FragmentosHtml fragmentos = crear(true);
+        List<ProductoDTO> menus = List.of(ProductoDTO.builder()
+                .idProducto(5).nombre("Lomo saltado").descripcion("Con arroz").precio(15.0).build());
+
+        String primera = fragmentos.menuDelDia(menus, false);
+        // Otra lista igual (la cache del menú devuelve otra instancia): no se vuelve a renderizar
+        String segunda = fragmentos.menuDelDia(List.copyOf(menus), false);
+        fragmentos.onCatalogoModificado(CatalogoModificadoEvent.menuDia(2));
+        fragmentos.menuDelDia(menus, false);
+
+        assertEquals(primera, segunda);
+        assertEquals(1, estadisticas().hitCount());
+        assertEquals(2, estadisticas().missCount());
+    }
+
+    @Test
+    void elMenuDelDiaSeparaInvitadosDeUsuarios() {
+        FragmentosHtml fragmentos = crear(true);
+        List<ProductoDTO> menus = List.of(ProductoDTO.builder()
+                .idProducto(5).nombre("Lomo saltado").descripcion("Con arroz").precio(15.0)
+                .imagenUrl("/imagenes/LomoSalteado.png").build());
+
+        String invitado = fragmentos.menuDelDia(menus, true);
+        String usuario = fragmentos.menuDelDia(menus, false);
+
+        assertTrue(invitado.contains("Lomo saltado"));
+        assertTrue(invitado.contains("Iniciar sesión"));
+        assertFalse(invitado.contains("/catalogo/agregarCarrito"));
+        assertTrue(usuario.contains("/catalogo/agregarCarrito"));
+        assertTrue(usuario.contains("15.00"));
+        // Sin menús no queda nada (sin cache: con la misma versión del catálogo sería la misma entrada)
+        assertTrue(crear(false).menuDelDia(List.of(), false).isBlank());
+    }
+
+    @Test
+    void sinCacheDeThymeleafSeRenderizaSiempre() {
+        FragmentosHtml fragmentos = crear(false);
+        autenticar("ROLE_ADMINISTRADOR");
+
+        fragmentos.navbarAdmin("pedidos");
+        fragmentos.navbarAdmin("pedidos");
+
+        assertEquals(0, estadisticas().requestCount());
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private FragmentosHtml crear(boolean habilitado) {
+        return motor.crear(habilitado);
+    }
+
+    private void autenticar(String... autoridades) {
+        motor.autenticar(autoridades);
+    }
+
+    private CacheStats estadisticas() {
+        return motor.estadisticas();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.Ejemplo.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.CacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.thymeleaf.extras.springsecurity6.dialect.SpringSecurityDialect;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.templateresolver.SpringResourceTemplateResolver;
+import org.thymeleaf.templatemode.TemplateMode;
+
+/**
+ * Las plantillas reales de templates/fragments con el mismo motor (dialecto
+ * de Spring Security incluido) que usa la aplicación, dentro de una petición
+ * simulada. La comparten las pruebas y el benchmark de FragmentosHtml.
+ */
+final class MotorFragmentos implements AutoCloseable {
+
+    private final GenericWebApplicationContext contexto;
+    private final SpringTemplateEngine templateEngine;
+    private final CacheManager cacheManager;
+
+    MotorFragmentos() {
+        MockServletContext servletContext = new MockServletContext();
+        contexto = new GenericWebApplicationContext(servletContext);
+        // sec:authorize evalúa con el SecurityExpressionHandler del contexto
+        contexto.registerBean(DefaultWebSecurityExpressionHandler.class);
+        contexto.refresh();
+        servletContext.setAttribute(WebApplicationContext.ROOT_WEB_APPLICATION_CONTEXT_ATTRIBUTE, contexto);
+
+        SpringResourceTemplateResolver resolver = new SpringResourceTemplateResolver();
+        resolver.setApplicationContext(contexto);
+        resolver.setPrefix("classpath:/templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.addDialect(new SpringSecurityDialect());
+
+        cacheManager = new CacheConfig().cacheManager();
+
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+    }
+
+    FragmentosHtml crear(boolean habilitado) {
+        return new FragmentosHtml(templateEngine, contexto, cacheManager, habilitado);
+    }
+
+    void autenticar(String... autoridades) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                "ana", null, AuthorityUtils.createAuthorityList(autoridades)));
+    }
+
+    CacheStats estadisticas() {
+        return ((com.github.benmanes.caffeine.cache.Cache<?, ?>) cacheManager.getCache(CacheConfig.FRAGMENTOS_HTML)
+                .getNativeCache()).stats();
+    }
+
+    @Override
+    public void close() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+        contexto.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.Ejemplo.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.Ejemplo.config.CadenaRecursosEstaticos.IMAGENES_PAGINA;
+import static com.example.Ejemplo.config.CadenaRecursosEstaticos.IMAGEN_SIN_VERSION;
+import static com.example.Ejemplo.config.CadenaRecursosEstaticos.RECURSOS_PAGINA;
+import static com.example.Ejemplo.config.CadenaRecursosEstaticos.original;
+
+/**
+ * Bytes que baja una vista de página, CSS/JS e imágenes por separado: antes
+ * (cache.period=0, sin gzip) cada vista lo bajaba todo sin comprimir; ahora la
+ * fría baja CSS/JS en gzip y la caliente solo revalida lo que no lleva hash.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class RecursosEstaticosConfigBenchmark {
+
+    @Test
+    void bytesPorVistaFriaYCaliente() throws Exception {
+        CadenaRecursosEstaticos cadena = new CadenaRecursosEstaticos();
+        List<String> imagenes = new ArrayList<>(IMAGENES_PAGINA);
+        imagenes.add(IMAGEN_SIN_VERSION);
+
+        System.out.println("Bytes por vista de página:");
+        imprimir("CSS/JS  ", RECURSOS_PAGINA, versionadas(cadena, RECURSOS_PAGINA), cadena);
+        List<String> urlsImagenes = new ArrayList<>(versionadas(cadena, IMAGENES_PAGINA));
+        urlsImagenes.add(IMAGEN_SIN_VERSION);
+        imprimir("imágenes", imagenes, urlsImagenes, cadena);
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static List<String> versionadas(CadenaRecursosEstaticos cadena, List<String> rutas) {
+        return rutas.stream().map(cadena::urlDe).toList();
+    }
+
+    private static void imprimir(String tipo, List<String> rutas, List<String> urls, CadenaRecursosEstaticos cadena)
+            throws Exception {
+        long antes = 0;
+        for (String ruta : rutas) {
+            antes += original(ruta).length;
+        }
+        CadenaRecursosEstaticos.Visita visita = cadena.visitar(urls);
+        System.out.printf("  %s: antes %,9d | fría %,9d (%3.0f %%) | caliente %,d bytes en %d revalidaciones%n",
+                tipo, antes, visita.fria(), 100.0 * visita.fria() / antes, visita.caliente(), visita.revalidaciones());
+    }
+}
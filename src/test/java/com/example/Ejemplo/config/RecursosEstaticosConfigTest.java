@@ -0,0 +1,200 @@
+package com.example.Ejemplo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static com.example.Ejemplo.config.CadenaRecursosEstaticos.IMAGENES_PAGINA;
+import static com.example.Ejemplo.config.CadenaRecursosEstaticos.IMAGEN_SIN_VERSION;
+import static com.example.Ejemplo.config.CadenaRecursosEstaticos.RECURSOS_PAGINA;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecursosEstaticosConfigTest {
+
+    private CadenaRecursosEstaticos cadena;
+
+    @BeforeEach
+    void setUp() {
+        cadena = new CadenaRecursosEstaticos();
+    }
+
+    @Test
+    void lasUrlsDeLasPlantillasSeReescribenConElHashDelContenido() throws Exception {
+        String hash = DigestUtils.md5DigestAsHex(original("/css/main.css"));
+
+        assertEquals("/css/main-" + hash + ".css", cadena.urlDe("/css/main.css"));
+    }
+
+    @Test
+    void urlVersionadaSeSirveInmutableYComprimida() throws Exception {
+        String url = cadena.urlDe("/css/main.css");
+
+        MockHttpServletResponse response = pedir(url, true, null);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("max-age=31536000, public, immutable", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        // El ETag del versionado sobrevive a la compresión, marcado como variante gzip
+        assertEquals("W/\"" + DigestUtils.md5DigestAsHex(original("/css/main.css")) + "-gzip\"",
+                response.getHeader(HttpHeaders.ETAG));
+        assertEquals(1, vecesEnVary(response));
+        assertTrue(response.getContentType().startsWith("text/css"), response.getContentType());
+        assertArrayEquals(original("/css/main.css"), descomprimir(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void lasVariantesConYSinGzipTienenEtagDistintoYUnSoloVary() throws Exception {
+        String url = cadena.urlDe("/js/notificacion.js");
+
+        MockHttpServletResponse gzip = pedir(url, true, null);
+        MockHttpServletResponse identidad = pedir(url, false, null);
+
+        String hash = DigestUtils.md5DigestAsHex(original("/js/notificacion.js"));
+        assertEquals("W/\"" + hash + "\"", identidad.getHeader(HttpHeaders.ETAG));
+        assertEquals("W/\"" + hash + "-gzip\"", gzip.getHeader(HttpHeaders.ETAG));
+        // Lo pone solo el interceptor; antes la variante gzip lo repetía
+        assertEquals(1, vecesEnVary(gzip));
+        assertEquals(1, vecesEnVary(identidad));
+    }
+
+    @Test
+    void urlSinVersionSeRevalidaYDevuelve304SinCuerpo() throws Exception {
+        MockHttpServletResponse primera = pedir("/css/main.css", true, null);
+        assertEquals("no-cache, public", primera.getHeader(HttpHeaders.CACHE_CONTROL));
+        String ultimaModificacion = primera.getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(ultimaModificacion);
+
+        MockHttpServletResponse revalidacion = pedir("/css/main.css", true, ultimaModificacion);
+
+        assertEquals(304, revalidacion.getStatus());
+        assertEquals(0, revalidacion.getContentAsByteArray().length);
+    }
+
+    @Test
+    void sinAcceptEncodingOImagenesSeSirvenSinComprimir() throws Exception {
+        MockHttpServletResponse css = pedir("/css/main.css", false, null);
+        assertNull(css.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(original("/css/main.css"), css.getContentAsByteArray());
+
+        MockHttpServletResponse png = pedir("/imagenes/menu.png", true, null);
+        assertNull(png.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(original("/imagenes/menu.png").length, png.getContentAsByteArray().length);
+    }
+
+    @Test
+    void cadaRecursoSeComprimeUnaSolaVez() {
+        AtomicInteger lecturas = new AtomicInteger();
+        Resource recurso = new ByteArrayResource("body { color: red; }\n".repeat(100).getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return "contado.css";
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                lecturas.incrementAndGet();
+                return new ByteArrayInputStream(getByteArray());
+            }
+        };
+        ResourceResolverChain cadena = new ResourceResolverChain() {
+            @Override
+            public Resource resolveResource(HttpServletRequest request, String requestPath,
+                                            List<? extends Resource> locations) {
+                return recurso;
+            }
+
+            @Override
+            public String resolveUrlPath(String resourcePath, List<? extends Resource> locations) {
+                return resourcePath;
+            }
+        };
+        RecursoGzipResolver resolver = new RecursoGzipResolver();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/css/contado.css");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+
+        Resource primera = resolver.resolveResource(request, "css/contado.css", List.of(), cadena);
+        Resource segunda = resolver.resolveResource(request, "css/contado.css", List.of(), cadena);
+
+        assertEquals(1, lecturas.get());
+        assertSame(((ByteArrayResource) primera).getByteArray(), ((ByteArrayResource) segunda).getByteArray());
+    }
+
+    /**
+     * Antes (cache.period=0, sin gzip) cada vista bajaba todo sin comprimir;
+     * ahora la primera baja CSS/JS en gzip y las imágenes tal cual, y las
+     * siguientes solo revalidan lo que no lleva hash.
+     */
+    @Test
+    void bytesTransferidosEnVisitaFriaYCaliente() throws Exception {
+        long sinComprimir = 0;
+        List<String> urls = new ArrayList<>();
+        for (String recurso : RECURSOS_PAGINA) {
+            sinComprimir += original(recurso).length;
+            urls.add(cadena.urlDe(recurso));
+        }
+        long imagenes = 0;
+        for (String imagen : IMAGENES_PAGINA) {
+            imagenes += original(imagen).length;
+            urls.add(cadena.urlDe(imagen));
+        }
+        // Un enlace escrito a mano, sin pasar por @{...}
+        imagenes += original(IMAGEN_SIN_VERSION).length;
+        urls.add(IMAGEN_SIN_VERSION);
+
+        CadenaRecursosEstaticos.Visita visita = cadena.visitar(urls);
+
+        long css = visita.fria() - imagenes;
+        assertTrue(css * 2 < sinComprimir, "CSS/JS en frío = " + css + " bytes, sin comprimir = " + sinComprimir);
+        assertEquals(0, visita.caliente());
+        assertEquals(1, visita.revalidaciones());
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private MockHttpServletResponse pedir(String url, boolean aceptaGzip, String ifModifiedSince) throws Exception {
+        MockHttpServletRequest request = cadena.peticion(url, aceptaGzip);
+        if (ifModifiedSince != null) {
+            request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+        }
+        return cadena.atender(request);
+    }
+
+    private static long vecesEnVary(MockHttpServletResponse response) {
+        return response.getHeaders(HttpHeaders.VARY).stream()
+                .flatMap(valor -> Arrays.stream(valor.split(",")))
+                .filter(valor -> valor.trim().equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING))
+                .count();
+    }
+
+    private static byte[] original(String ruta) throws IOException {
+        return CadenaRecursosEstaticos.original(ruta);
+    }
+
+    private static byte[] descomprimir(byte[] gzip) throws IOException {
+        try (InputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return entrada.readAllBytes();
+        }
+    }
+}
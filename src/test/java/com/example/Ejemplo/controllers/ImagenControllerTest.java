@@ -0,0 +1,197 @@
+package com.example.Ejemplo.controllers;
+
+import com.example.Ejemplo.services.AlmacenImagenesService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImagenControllerTest {
+
+    private static final String HASH = "ab12cd34";
+    private static final String NOMBRE = HASH + ".png";
+    private static final String ETAG = "\"" + HASH + "\"";
+    private static final byte[] CONTENIDO = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directorio;
+
+    private ImagenController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path archivo = Files.write(directorio.resolve(NOMBRE), CONTENIDO);
+        AlmacenImagenesService almacen = mock(AlmacenImagenesService.class);
+        when(almacen.ubicar(anyString())).thenReturn(Optional.empty());
+        when(almacen.ubicar(NOMBRE)).thenReturn(Optional.of(archivo));
+        controller = new ImagenController(almacen);
+    }
+
+    @Test
+    void sinRangoEnviaElArchivoCompletoConCacheInmutable() throws Exception {
+        MockHttpServletResponse response = servir(peticion());
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(CONTENIDO, response.getContentAsByteArray());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("image/png", response.getContentType());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals("max-age=31536000, public, immutable", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void archivoInexistenteDa404() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/media/imagenes/otro.png");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.servir("otro.png", request, response);
+
+        assertEquals(404, response.getStatus());
+    }
+
+    @Test
+    void ifNoneMatchConElMismoEtagDa304SinCuerpo() throws Exception {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"otro\", " + ETAG);
+        MockHttpServletResponse response = servir(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+
+        MockHttpServletRequest comodin = peticion();
+        comodin.addHeader(HttpHeaders.IF_NONE_MATCH, " * ");
+        assertEquals(304, servir(comodin).getStatus());
+
+        MockHttpServletRequest distinto = peticion();
+        distinto.addHeader(HttpHeaders.IF_NONE_MATCH, "\"otro\"");
+        assertEquals(200, servir(distinto).getStatus());
+    }
+
+    @Test
+    void rangoCerradoDevuelveEsosBytes() throws Exception {
+        MockHttpServletResponse response = servirRango("bytes=2-5");
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("2345", response.getContentAsString());
+        assertEquals(4, response.getContentLengthLong());
+    }
+
+    @Test
+    void rangoAbiertoYFinMayorAlTamanoSeRecortan() throws Exception {
+        MockHttpServletResponse abierto = servirRango("bytes=7-");
+        assertEquals(206, abierto.getStatus());
+        assertEquals("bytes 7-9/10", abierto.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("789", abierto.getContentAsString());
+
+        MockHttpServletResponse largo = servirRango("bytes=8-500");
+        assertEquals("bytes 8-9/10", largo.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("89", largo.getContentAsString());
+    }
+
+    @Test
+    void rangoSufijoDevuelveLosUltimosBytes() throws Exception {
+        MockHttpServletResponse response = servirRango("bytes=-3");
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 7-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("789", response.getContentAsString());
+
+        // Sufijo mayor que el archivo: el archivo entero como 206
+        MockHttpServletResponse todo = servirRango("bytes=-50");
+        assertEquals("bytes 0-9/10", todo.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(CONTENIDO, todo.getContentAsByteArray());
+    }
+
+    @Test
+    void rangoFueraDelArchivoDa416() throws Exception {
+        for (String rango : new String[]{"bytes=10-", "bytes=5-2", "bytes=-0"}) {
+            MockHttpServletResponse response = servirRango(rango);
+            assertEquals(416, response.getStatus(), rango);
+            assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE), rango);
+        }
+    }
+
+    @Test
+    void rangosQueNoSeEntiendenSeIgnoran() throws Exception {
+        for (String rango : new String[]{"bytes=-", "bytes=0-1,4-5", "items=0-1", "bytes=a-b",
+                "bytes=99999999999999999999-"}) {
+            MockHttpServletResponse response = servirRango(rango);
+            assertEquals(200, response.getStatus(), rango);
+            assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE), rango);
+            assertArrayEquals(CONTENIDO, response.getContentAsByteArray(), rango);
+        }
+    }
+
+    @Test
+    void ifRangeRespetaElEtag() throws Exception {
+        MockHttpServletRequest igual = peticion();
+        igual.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+        igual.addHeader(HttpHeaders.IF_RANGE, ETAG);
+        assertEquals(206, servir(igual).getStatus());
+
+        // Otra versión en el cliente: archivo completo
+        MockHttpServletRequest distinto = peticion();
+        distinto.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+        distinto.addHeader(HttpHeaders.IF_RANGE, "\"viejo\"");
+        MockHttpServletResponse response = servir(distinto);
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(CONTENIDO, response.getContentAsByteArray());
+    }
+
+    @Test
+    void headNoEnviaCuerpo() throws Exception {
+        MockHttpServletRequest request = peticion();
+        request.setMethod("HEAD");
+        MockHttpServletResponse response = servir(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void conSendfileDelegaElRangoAlConector() throws Exception {
+        MockHttpServletRequest request = peticion();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=3-6");
+        MockHttpServletResponse response = servir(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(3L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        // El fin de sendfile es exclusivo
+        assertEquals(7L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private MockHttpServletRequest peticion() {
+        return new MockHttpServletRequest("GET", AlmacenImagenesService.PREFIJO_URL + NOMBRE);
+    }
+
+    private MockHttpServletResponse servirRango(String rango) throws Exception {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, rango);
+        return servir(request);
+    }
+
+    private MockHttpServletResponse servir(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.servir(NOMBRE, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.Ejemplo.repository;
+
+import com.example.Ejemplo.repository.ProductoCursorRepository.ClaveProducto;
+import com.example.Ejemplo.repository.ProductoCursorRepository.FiltroProductos;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class ProductoCursorRepositoryImplTest {
+
+    private static final Pattern PARAMETRO = Pattern.compile(":(\\w+)");
+    private static final ClaveProducto CLAVE = new ClaveProducto(3, "Café", 41);
+
+    private final List<String> consultas = new ArrayList<>();
+    private final Map<String, Object> parametros = new HashMap<>();
+    private ProductoCursorRepositoryImpl repositorio;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        TypedQuery<Object> query = mock(TypedQuery.class, withSettings().stubOnly());
+        when(query.setParameter(anyString(), any())).thenAnswer(inv -> {
+            parametros.put(inv.getArgument(0), inv.getArgument(1));
+            return query;
+        });
+        when(query.setMaxResults(anyInt())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of());
+        when(query.getSingleResult()).thenReturn(0L);
+        EntityManager entityManager = mock(EntityManager.class, withSettings().stubOnly());
+        when(entityManager.createQuery(anyString(), any(Class.class))).thenAnswer(inv -> {
+            consultas.add(inv.getArgument(0));
+            return query;
+        });
+
+        repositorio = new ProductoCursorRepositoryImpl();
+        ReflectionTestUtils.setField(repositorio, "entityManager", entityManager);
+    }
+
+    @Test
+    void cadaCombinacionDeFiltrosTieneSuPropiaConsultaSinPredicadosOpcionales() {
+        Set<String> distintas = new HashSet<>();
+        for (FiltroProductos filtro : combinaciones()) {
+            for (ClaveProducto desde : new ClaveProducto[]{null, CLAVE}) {
+                for (boolean haciaAtras : new boolean[]{false, true}) {
+                    if (desde == null && haciaAtras) {
+                        continue;
+                    }
+                    String jpql = ejecutar(() -> repositorio.findPorCursor(filtro, desde, haciaAtras, 21));
+                    distintas.add(jpql);
+
+                    assertFalse(jpql.contains("IS NULL"), jpql);
+                    assertEquals(filtro.soloConStock(), jpql.contains("p.stock > 0"), jpql);
+                    assertEquals(filtro.estado() != null, jpql.contains("p.estado"), jpql);
+                    assertEquals(filtro.categoria() != null, jpql.contains("p.categoria.nombre"), jpql);
+                    assertEquals(filtro.busqueda() != null, jpql.contains("LIKE"), jpql);
+                    assertEquals(desde != null, jpql.contains(":idProducto"), jpql);
+                    assertTrue(jpql.endsWith(haciaAtras ? "p.idProducto DESC" : "p.idProducto"), jpql);
+                    // Todos los parámetros del texto se enlazan, y ninguno más
+                    assertEquals(nombresEn(jpql), parametros.keySet(), jpql);
+                }
+            }
+        }
+        assertEquals(16 * 3, distintas.size());
+    }
+
+    @Test
+    void elConteoUsaLosMismosPredicadosQueLaPagina() {
+        FiltroProductos filtro = new FiltroProductos(false, true, null, "Café");
+
+        String conteo = ejecutar(() -> repositorio.contarPorFiltros(filtro));
+        String pagina = ejecutar(() -> repositorio.findPorCursor(filtro, null, false, 21));
+
+        assertEquals("SELECT COUNT(p) FROM Producto p WHERE p.estado = :estado AND LOWER(p.nombre) LIKE :busqueda", conteo);
+        assertTrue(pagina.startsWith("SELECT p FROM Producto p WHERE p.estado = :estado AND LOWER(p.nombre) LIKE :busqueda ORDER BY"));
+        assertEquals("%café%", parametros.get("busqueda"));
+    }
+
+    @Test
+    void laPaginaAnteriorLeeHaciaAtrasDesdeLaClave() {
+        String jpql = ejecutar(() -> repositorio.findPorCursor(new FiltroProductos(true, null, null, null), CLAVE, true, 21));
+
+        assertTrue(jpql.contains("p.categoria.idCategoria < :idCategoria"), jpql);
+        assertTrue(jpql.contains("p.idProducto < :idProducto"), jpql);
+        assertEquals(Map.of("idCategoria", 3, "nombre", "Café", "idProducto", 41), parametros);
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private String ejecutar(Runnable consulta) {
+        consultas.clear();
+        parametros.clear();
+        consulta.run();
+        assertEquals(1, consultas.size());
+        return consultas.get(0);
+    }
+
+    private static List<FiltroProductos> combinaciones() {
+        List<FiltroProductos> filtros = new ArrayList<>();
+        for (boolean soloConStock : new boolean[]{false, true}) {
+            for (Boolean estado : new Boolean[]{null, true}) {
+                for (String categoria : new String[]{null, "Bebidas"}) {
+                    for (String busqueda : new String[]{null, "cafe"}) {
+                        filtros.add(new FiltroProductos(soloConStock, estado, categoria, busqueda));
+                    }
+                }
+            }
+        }
+        return filtros;
+    }
+
+    private static Set<String> nombresEn(String jpql) {
+        Set<String> nombres = new HashSet<>();
+        Matcher matcher = PARAMETRO.matcher(jpql);
+        while (matcher.find()) {
+            nombres.add(matcher.group(1));
+        }
+        return nombres;
+    }
+}
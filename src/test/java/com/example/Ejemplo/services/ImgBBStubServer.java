@@ -0,0 +1,85 @@
+package com.example.Ejemplo.services;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imitación local de la API de ImgBB para las pruebas de ImgBBUploader.
+ * Descarta el archivo recibido y devuelve una URL ficticia con el mismo
+ * formato de respuesta; el retardo y el estado permiten simular un ImgBB
+ * lento o caído para ver actuar los timeouts, el bulkhead y el circuito.
+ */
+class ImgBBStubServer {
+
+    private final int puerto;
+    private final long retardoMs;
+    private final int estado;
+    private final AtomicLong recibidas = new AtomicLong();
+    private HttpServer servidor;
+
+    ImgBBStubServer(int puerto, long retardoMs, int estado) {
+        this.puerto = puerto;
+        this.retardoMs = retardoMs;
+        this.estado = estado;
+    }
+
+    void iniciar() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("localhost", puerto), 0);
+        servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        servidor.createContext("/1/upload", this::subir);
+        servidor.start();
+    }
+
+    void detener() {
+        if (servidor != null) {
+            servidor.stop(0);
+        }
+    }
+
+    int puerto() {
+        return puerto;
+    }
+
+    /**
+     * @return subidas que llegaron al stub, respondidas o no
+     */
+    long recibidas() {
+        return recibidas.get();
+    }
+
+    private void subir(HttpExchange exchange) throws IOException {
+        long id = recibidas.incrementAndGet();
+        long bytes;
+        try (InputStream cuerpo = exchange.getRequestBody()) {
+            bytes = cuerpo.transferTo(OutputStream.nullOutputStream());
+        }
+
+        if (retardoMs > 0) {
+            try {
+                Thread.sleep(retardoMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        String respuesta = estado == 200
+                ? "{\"data\":{\"id\":\"stub" + id + "\",\"url\":\"http://localhost:" + puerto + "/i/stub" + id
+                  + ".png\",\"size\":" + bytes + "},\"success\":true,\"status\":200}"
+                : "{\"error\":{\"message\":\"stub\"},\"success\":false,\"status\":" + estado + "}";
+        byte[] cuerpo = respuesta.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(estado, cuerpo.length);
+        try (OutputStream salida = exchange.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.Ejemplo.services;
+
+import com.example.Ejemplo.events.ImagenAlmacenadaEvent;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.impl.ReplicacionImagenesServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImgBBUploaderTest {
+
+    @TempDir
+    Path directorio;
+
+    private final List<ImgBBStubServer> stubs = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        stubs.forEach(ImgBBStubServer::detener);
+    }
+
+    @Test
+    void subeContraElStubYLeeLaUrl() throws Exception {
+        String url = iniciarStub(0, 200);
+        ImgBBUploader uploader = uploader(url, 1000, 4, 500, 1, 10, 5, 60_000);
+
+        String imagenUrl = uploader.subirImagen(imagen());
+
+        assertTrue(imagenUrl.matches("http://localhost:\\d+/i/stub1\\.png"), imagenUrl);
+    }
+
+    @Test
+    void conElStubLentoLaPeticionHttpNoEsperaLaReplica() throws Exception {
+        String url = iniciarStub(3000, 200);
+        ImgBBUploader uploader = uploader(url, 5000, 4, 500, 1, 10, 5, 60_000);
+        Path archivo = imagen();
+        AlmacenImagenesService almacen = mock(AlmacenImagenesService.class);
+        when(almacen.ubicar(anyString())).thenReturn(Optional.of(archivo));
+        ProductoRepository productoRepository = mock(ProductoRepository.class);
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setVirtualThreads(true);
+        ReplicacionImagenesServiceImpl replicacion = new ReplicacionImagenesServiceImpl(
+                almacen, uploader, productoRepository, executor, true);
+
+        long inicio = System.nanoTime();
+        replicacion.onImagenAlmacenada(new ImagenAlmacenadaEvent(7, "abc.png"));
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // El hilo de la petición vuelve enseguida; la subida termina después por su cuenta
+        assertTrue(ms < 500, "onImagenAlmacenada tardó " + ms + " ms");
+        verify(productoRepository, timeout(10_000))
+                .actualizarImagenRemota(anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void conElStubLentoLosHilosSeLiberanPorTimeoutYBulkhead() throws Exception {
+        String url = iniciarStub(5000, 200);
+        // 2 subidas a la vez como mucho, 300 ms de lectura, 100 ms de espera en el bulkhead
+        ImgBBUploader uploader = uploader(url, 300, 2, 100, 1, 10, 1000, 60_000);
+        Path archivo = imagen();
+        int llamadas = 20;
+
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<String>> resultados = new ArrayList<>();
+        long inicio;
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < llamadas; i++) {
+                resultados.add(hilos.submit(() -> {
+                    largada.await();
+                    try {
+                        uploader.subirImagen(archivo);
+                        return "ok";
+                    } catch (IllegalStateException e) {
+                        return e.getMessage();
+                    }
+                }));
+            }
+            inicio = System.nanoTime();
+            largada.countDown();
+        }
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // Nadie queda colgado los 5 s del stub: todas terminan en el orden del timeout de lectura
+        assertTrue(ms < 2500, "Las subidas tardaron " + ms + " ms");
+        long rechazadasPorBulkhead = 0;
+        long vencidas = 0;
+        for (Future<String> resultado : resultados) {
+            String mensaje = resultado.get();
+            if (mensaje.startsWith("Demasiadas subidas")) {
+                rechazadasPorBulkhead++;
+            } else if (mensaje.startsWith("No se pudo subir")) {
+                vencidas++;
+            }
+        }
+        assertEquals(llamadas, rechazadasPorBulkhead + vencidas);
+        assertTrue(rechazadasPorBulkhead > 0);
+        assertTrue(vencidas >= 2);
+    }
+
+    @Test
+    void unTimeoutDeLecturaNoSeReintentaPorqueImgBBPudoRecibirLaImagen() throws Exception {
+        ImgBBStubServer stub = iniciar(1000, 200);
+        ImgBBUploader uploader = uploader(url(stub), 200, 4, 500, 3, 10, 5, 60_000);
+        Path archivo = imagen();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> uploader.subirImagen(archivo));
+
+        assertTrue(e.getMessage().startsWith("No se pudo subir"), e.getMessage());
+        assertEquals(1, stub.recibidas());
+    }
+
+    @Test
+    void sinConexionSeReintentaPorqueImgBBNoRecibioNada() throws Exception {
+        int puerto;
+        try (ServerSocket libre = new ServerSocket(0)) {
+            puerto = libre.getLocalPort();
+        }
+        // Nadie escucha en el puerto: la conexión se rechaza en cada intento
+        ImgBBUploader uploader = uploader("http://localhost:" + puerto + "/1/upload", 1000, 4, 500, 3, 10, 5, 60_000);
+        Path archivo = imagen();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> uploader.subirImagen(archivo));
+
+        assertEquals("No se pudo subir la imagen a ImgBB tras 3 intentos", e.getMessage());
+        assertTrue(e.getCause() instanceof ResourceAccessException, String.valueOf(e.getCause()));
+    }
+
+    @Test
+    void circuitoAbiertoRechazaSinLlamarAImgBB() throws Exception {
+        ImgBBStubServer stub = iniciar(0, 503);
+        ImgBBUploader uploader = uploader(url(stub), 1000, 4, 500, 1, 10, 2, 60_000);
+        Path archivo = imagen();
+
+        assertThrows(IllegalStateException.class, () -> uploader.subirImagen(archivo));
+        assertThrows(IllegalStateException.class, () -> uploader.subirImagen(archivo));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> uploader.subirImagen(archivo));
+        assertTrue(e.getMessage().startsWith("ImgBB no disponible"), e.getMessage());
+        assertEquals(2, stub.recibidas());
+    }
+
+    @Test
+    void unaPruebaInterrumpidaNoDejaElCircuitoAbierto() throws Exception {
+        String url = iniciarStub(400, 503);
+        ImgBBUploader uploader = uploader(url, 5000, 4, 500, 2, 10, 1, 50);
+        Path archivo = imagen();
+
+        // Abre el circuito
+        assertThrows(IllegalStateException.class, () -> uploader.subirImagen(archivo));
+        Thread.sleep(100);
+
+        // La prueba se interrumpe a mitad de la subida y sale sin registrar éxito ni fallo
+        AtomicReference<RuntimeException> errorPrueba = new AtomicReference<>();
+        Thread prueba = Thread.ofVirtual().start(() -> {
+            try {
+                uploader.subirImagen(archivo);
+            } catch (RuntimeException e) {
+                errorPrueba.set(e);
+            }
+        });
+        Thread.sleep(150);
+        prueba.interrupt();
+        prueba.join(5000);
+        assertFalse(prueba.isAlive());
+        assertTrue(errorPrueba.get().getMessage().contains("interrumpida"), errorPrueba.get().getMessage());
+
+        // La siguiente puede volver a probar en lugar de encontrarse el circuito trabado
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> uploader.subirImagen(archivo));
+        assertTrue(e.getMessage().startsWith("No se pudo subir"), e.getMessage());
+    }
+
+    @Test
+    void sinClaveNoSeSubeNiArrancaLaReplica() throws Exception {
+        ImgBBUploader sinClave = new ImgBBUploader(new ObjectMapper(), "http://localhost:1/1/upload", "",
+                1000, 1000, 4, 500, 1, 10, 5, 60_000);
+        Path archivo = imagen();
+
+        assertFalse(sinClave.configurado());
+        assertThrows(IllegalStateException.class, () -> sinClave.subirImagen(archivo));
+        assertThrows(IllegalStateException.class, () -> new ReplicacionImagenesServiceImpl(
+                mock(AlmacenImagenesService.class), sinClave, mock(ProductoRepository.class),
+                new SimpleAsyncTaskExecutor(), true));
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private String iniciarStub(long retardoMs, int estado) throws IOException {
+        return url(iniciar(retardoMs, estado));
+    }
+
+    private ImgBBStubServer iniciar(long retardoMs, int estado) throws IOException {
+        int puerto;
+        try (ServerSocket libre = new ServerSocket(0)) {
+            puerto = libre.getLocalPort();
+        }
+        ImgBBStubServer stub = new ImgBBStubServer(puerto, retardoMs, estado);
+        stub.iniciar();
+        stubs.add(stub);
+        return stub;
+    }
+
+    private static String url(ImgBBStubServer stub) {
+        return "http://localhost:" + stub.puerto() + "/1/upload";
+    }
+
+    private static ImgBBUploader uploader(String url, long timeoutLecturaMs, int maxConcurrentes,
+                                          long esperaBulkheadMs, int intentos, long backoffMs,
+                                          int fallosParaAbrir, long pausaCircuitoMs) {
+        return new ImgBBUploader(new ObjectMapper(), url, "clave-de-prueba", 1000, timeoutLecturaMs,
+                maxConcurrentes, esperaBulkheadMs, intentos, backoffMs, fallosParaAbrir, pausaCircuitoMs);
+    }
+
+    private Path imagen() throws IOException {
+        return Files.write(directorio.resolve("imagen.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G', 1, 2, 3});
+    }
+}
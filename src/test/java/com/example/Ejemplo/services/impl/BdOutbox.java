@@ -0,0 +1,134 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.models.OutboxNotificacion;
+import com.example.Ejemplo.repository.OutboxNotificacionRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Tablas outbox_notificaciones y notificaciones en memoria. Las filas que
+ * devuelve son las mismas instancias (como entidades administradas), así que
+ * los cambios del servicio se ven sin save. La comparten la prueba y el
+ * benchmark del outbox.
+ */
+final class BdOutbox {
+
+    private final Runnable alEjecutar;
+    private TreeMap<Long, OutboxNotificacion> outbox = new TreeMap<>();
+    private List<String> entregadas = new ArrayList<>();
+    private long secuencia;
+    private TreeMap<Long, OutboxNotificacion> fotoOutbox;
+    private List<String> fotoEntregadas;
+
+    BdOutbox() {
+        this(() -> { });
+    }
+
+    /**
+     * @param alEjecutar corre antes de cada sentencia del repositorio, fuera del
+     *                   monitor de la tabla (p. ej. para simular el viaje a MySQL)
+     */
+    BdOutbox(Runnable alEjecutar) {
+        this.alEjecutar = alEjecutar;
+    }
+
+    OutboxNotificacionRepository repository() {
+        OutboxNotificacionRepository repository = mock(OutboxNotificacionRepository.class, withSettings().stubOnly());
+        when(repository.encolar(anyInt(), anyString(), anyString())).thenAnswer(inv -> {
+            alEjecutar.run();
+            return encolar(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2));
+        });
+        when(repository.bloquearPendientes(anyInt())).thenAnswer(inv -> {
+            alEjecutar.run();
+            return pendientes(inv.getArgument(0));
+        });
+        when(repository.bloquearPendiente(anyLong())).thenAnswer(inv -> {
+            alEjecutar.run();
+            return pendiente(inv.getArgument(0));
+        });
+        when(repository.marcarProcesados(any(), any())).thenAnswer(inv -> {
+            alEjecutar.run();
+            return marcarProcesados(inv.getArgument(0), inv.getArgument(1));
+        });
+        return repository;
+    }
+
+    PlatformTransactionManager transactionManager() {
+        return TransaccionesFalsas.conFoto(this::abrirTransaccion, this::revertir);
+    }
+
+    synchronized int encolar(int idUsuario, String mensaje, String clave) {
+        if (outbox.values().stream().anyMatch(o -> o.getClave().equals(clave))) {
+            return 0;
+        }
+        long id = ++secuencia;
+        outbox.put(id, new OutboxNotificacion(id, idUsuario, mensaje, clave, false, 0, null,
+                LocalDateTime.now(), null));
+        return 1;
+    }
+
+    synchronized List<OutboxNotificacion> pendientes(int lote) {
+        return outbox.values().stream().filter(o -> !o.isProcesado()).limit(lote).toList();
+    }
+
+    synchronized Optional<OutboxNotificacion> pendiente(long id) {
+        return Optional.ofNullable(outbox.get(id)).filter(o -> !o.isProcesado());
+    }
+
+    synchronized int marcarProcesados(Collection<Long> ids, LocalDateTime fecha) {
+        ids.forEach(id -> {
+            outbox.get(id).setProcesado(true);
+            outbox.get(id).setFechaProcesado(fecha);
+        });
+        return ids.size();
+    }
+
+    synchronized void entregar(int idUsuario, String mensaje) {
+        entregadas.add(idUsuario + ":" + mensaje);
+    }
+
+    synchronized List<String> entregadas() {
+        return List.copyOf(entregadas);
+    }
+
+    synchronized int cantidadEntregadas() {
+        return entregadas.size();
+    }
+
+    synchronized OutboxNotificacion fila(String clave) {
+        return outbox.values().stream().filter(o -> o.getClave().equals(clave)).findFirst().orElseThrow();
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private synchronized void abrirTransaccion() {
+        fotoOutbox = new TreeMap<>();
+        outbox.forEach((id, o) -> fotoOutbox.put(id, copiar(o)));
+        fotoEntregadas = new ArrayList<>(entregadas);
+    }
+
+    private synchronized void revertir() {
+        outbox = fotoOutbox;
+        entregadas = fotoEntregadas;
+    }
+
+    private static OutboxNotificacion copiar(OutboxNotificacion o) {
+        return new OutboxNotificacion(o.getId(), o.getIdUsuario(), o.getMensaje(), o.getClave(),
+                o.isProcesado(), o.getIntentos(), o.getUltimoError(), o.getFechaCreacion(),
+                o.getFechaProcesado());
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.ProductoDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.mapper.ProductoMapper;
+import com.example.Ejemplo.models.Producto;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.BusquedaProductosService;
+import com.example.Ejemplo.services.InventarioService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Búsquedas sobre 10.000 y 100.000 productos generados: el índice de
+ * trigramas frente a un recorrido completo con "contiene", que es lo mejor que
+ * puede hacer LIKE '%x%' en la BD (sin contar E/S ni red, y sin ordenar por
+ * relevancia), y el costo de publicar una foto nueva al editar un producto.
+ * Con pocos platos distintos los términos frecuentes coinciden con un 10% del
+ * catálogo: ahí el costo lo pone puntuar y filtrar por stock cada resultado y
+ * el índice no le gana al recorrido; se exige que gane en los términos
+ * selectivos, que son los que el recorrido paga completo.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class BusquedaProductosServiceImplBenchmark {
+
+    private static final String[] PLATOS = {"Café", "Jugo", "Sándwich", "Ají", "Lomo", "Ensalada", "Torta", "Empanada",
+            "Té", "Batido", "Tamal", "Chicharrón", "Pollo", "Arroz", "Tallarín", "Causa"};
+    private static final String[] DETALLES = {"de gallina", "con leche", "de papaya", "mixto", "saltado", "de fresa",
+            "a la plancha", "de queso", "criollo", "helado", "verde", "al horno", "con palta", "especial"};
+    private static final String[] CATEGORIAS = {"Bebidas", "Antojitos", "Sandwich", "Almuerzos", "Postres"};
+    private static final String[] BUSQUEDAS = {"cafe", "aji gallina", "sandwich pollo", "ja", "chicharron criollo", "xyz"};
+    private static final String[] SELECTIVAS = {"ja", "xyz"};
+    private static final int REPETICIONES = 200;
+
+    @Test
+    void indiceFrenteARecorridoCompleto() {
+        for (int cantidad : new int[]{10_000, 100_000}) {
+            List<ProductoDTO> productos = generar(cantidad);
+            BusquedaProductosServiceImpl busqueda = crear(productos);
+            List<String> textos = productos.stream()
+                    .map(p -> BusquedaProductosService.normalizarTexto(
+                            p.getNombre() + " " + p.getNombreCategoria() + " " + p.getDescripcion()))
+                    .toList();
+
+            System.out.printf("%,d productos:%n", cantidad);
+            for (String texto : BUSQUEDAS) {
+                long resultados = busqueda.buscar(texto, null, PageRequest.of(0, 20)).getTotalElements();
+                double indice = medir(() -> busqueda.buscar(texto, null, PageRequest.of(0, 20)));
+                double recorrido = medir(() -> recorrer(textos, texto));
+                System.out.printf("  %-20s %,7d resultados: índice %9.1f µs, recorrido completo %9.1f µs%n",
+                        "'" + texto + "'", resultados, indice, recorrido);
+                assertEquals(recorrer(textos, texto), resultados);
+            }
+
+            long inicio = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                busqueda.onCatalogoModificado(CatalogoModificadoEvent.producto(1 + i));
+            }
+            System.out.printf("  editar un producto (nueva foto del índice): %.2f ms%n", (System.nanoTime() - inicio) / 1e6 / 20);
+
+            for (String texto : SELECTIVAS) {
+                double indice = medir(() -> busqueda.buscar(texto, null, PageRequest.of(0, 20)));
+                double recorrido = medir(() -> recorrer(textos, texto));
+                assertTrue(indice < recorrido, "'" + texto + "': " + indice + " µs >= " + recorrido + " µs");
+            }
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static double medir(Runnable busqueda) {
+        for (int i = 0; i < REPETICIONES / 4; i++) {
+            busqueda.run();
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            busqueda.run();
+        }
+        return (System.nanoTime() - inicio) / 1e3 / REPETICIONES;
+    }
+
+    /**
+     * Cuenta los productos que contienen todos los términos, como
+     * WHERE texto LIKE '%t1%' AND texto LIKE '%t2%'
+     */
+    private static long recorrer(List<String> textos, String texto) {
+        String[] terminos = texto.split(" ");
+        long coincidencias = 0;
+        for (String candidato : textos) {
+            boolean todos = true;
+            for (String termino : terminos) {
+                if (!candidato.contains(termino)) {
+                    todos = false;
+                    break;
+                }
+            }
+            if (todos) {
+                coincidencias++;
+            }
+        }
+        return coincidencias;
+    }
+
+    private static List<ProductoDTO> generar(int cantidad) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<ProductoDTO> productos = new ArrayList<>(cantidad);
+        for (int id = 1; id <= cantidad; id++) {
+            String nombre = PLATOS[random.nextInt(PLATOS.length)] + " " + DETALLES[random.nextInt(DETALLES.length)] + " " + id;
+            productos.add(ProductoDTO.builder().idProducto(id).nombre(nombre)
+                    .nombreCategoria(CATEGORIAS[random.nextInt(CATEGORIAS.length)])
+                    .descripcion(DETALLES[random.nextInt(DETALLES.length)] + " " + PLATOS[random.nextInt(PLATOS.length)])
+                    .estado(true).stock(10).build());
+        }
+        return productos;
+    }
+
+    private static BusquedaProductosServiceImpl crear(List<ProductoDTO> productos) {
+        ProductoRepository productoRepository = mock(ProductoRepository.class, withSettings().stubOnly());
+        when(productoRepository.findAll()).thenAnswer(inv -> productos.stream()
+                .map(p -> Producto.builder().idProducto(p.getIdProducto()).build()).toList());
+        when(productoRepository.findById(anyInt())).thenAnswer(inv ->
+                Optional.of(Producto.builder().idProducto(inv.getArgument(0)).build()));
+        ProductoMapper productoMapper = mock(ProductoMapper.class, withSettings().stubOnly());
+        when(productoMapper.toDTO(any())).thenAnswer(inv -> productos.get(((Producto) inv.getArgument(0)).getIdProducto() - 1));
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // Libro real y vacío: el stock sale del documento, como en frío tras arrancar
+        InventarioService inventarioService = new InventarioServiceImpl(productoRepository, transactionManager, 10);
+
+        BusquedaProductosServiceImpl busqueda = new BusquedaProductosServiceImpl(productoRepository, productoMapper,
+                inventarioService, transactionManager);
+        busqueda.reconstruir();
+        return busqueda;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.ProductoDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.mapper.ProductoMapper;
+import com.example.Ejemplo.models.Producto;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.InventarioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class BusquedaProductosServiceImplTest {
+
+    private static final PageRequest PAGINA = PageRequest.of(0, 50);
+
+    // Lo que hay en la tabla productos, ya como DTO
+    private final Map<Integer, ProductoDTO> tabla = new ConcurrentHashMap<>();
+    private ProductoRepository productoRepository;
+    private InventarioService inventarioService;
+    private BusquedaProductosServiceImpl busqueda;
+
+    @BeforeEach
+    void setUp() {
+        guardar(1, "Café americano", "Bebidas", 10);
+        guardar(2, "Café con leche", "Bebidas", 10);
+        guardar(3, "Ají de gallina", "Almuerzos", 10);
+        guardar(4, "Jugo de papaya", "Bebidas", 0);
+
+        productoRepository = mock(ProductoRepository.class);
+        when(productoRepository.findAll()).thenAnswer(inv -> tabla.keySet().stream().map(this::entidad).toList());
+        when(productoRepository.findById(anyInt())).thenAnswer(inv ->
+                Optional.ofNullable(tabla.get((Integer) inv.getArgument(0))).map(dto -> entidad(dto.getIdProducto())));
+        ProductoMapper productoMapper = mock(ProductoMapper.class, withSettings().stubOnly());
+        when(productoMapper.toDTO(any())).thenAnswer(inv -> tabla.get(((Producto) inv.getArgument(0)).getIdProducto()));
+        inventarioService = mock(InventarioService.class);
+        when(inventarioService.stockEnLibro(any())).thenReturn(null);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        busqueda = new BusquedaProductosServiceImpl(productoRepository, productoMapper, inventarioService, transactionManager);
+        busqueda.reconstruir();
+    }
+
+    @Test
+    void encuentraSinTildesYPrimeroLoQueEmpiezaEnElNombre() {
+        assertEquals(List.of(3), ids("aji"));
+        assertEquals(List.of(1, 2), ids("cafe"));
+        assertEquals(List.of(2), ids("caf leche"));
+        assertEquals(List.of(1, 2), ids("bebidas"));
+    }
+
+    @Test
+    void buscarNoConsultaLaBd() {
+        // El 1 está cargado en el libro y agotado; los demás usan el stock indexado
+        when(inventarioService.stockEnLibro(1)).thenReturn(0);
+        clearInvocations(productoRepository);
+
+        assertEquals(List.of(2), ids("cafe"));
+        assertEquals(List.of(), ids("papaya"));
+
+        verifyNoInteractions(productoRepository);
+        verify(inventarioService, never()).stockDisponible(any());
+    }
+
+    @Test
+    void unaEdicionSeVeEnLaSiguienteBusqueda() {
+        guardar(2, "Té con leche", "Bebidas", 10);
+        busqueda.onCatalogoModificado(CatalogoModificadoEvent.producto(2));
+        tabla.remove(3);
+        busqueda.onCatalogoModificado(CatalogoModificadoEvent.producto(3));
+
+        assertEquals(List.of(1), ids("cafe"));
+        assertEquals(List.of(2), ids("te leche"));
+        assertEquals(List.of(), ids("aji"));
+    }
+
+    /**
+     * Antes reconstruir vaciaba los mapas vivos y los volvía a llenar: una
+     * búsqueda en medio veía el índice vacío o a medias
+     */
+    @Test
+    void mientrasSeReconstruyeLasBusquedasVenElIndiceCompleto() throws Exception {
+        for (int id = 10; id < 1_000; id++) {
+            guardar(id, "Café " + id, "Bebidas", 5);
+        }
+        busqueda.reconstruir();
+        long esperados = busqueda.buscar("cafe", null, PAGINA).getTotalElements();
+        AtomicBoolean terminado = new AtomicBoolean();
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Integer>> lectores = new ArrayList<>();
+
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int h = 0; h < 4; h++) {
+                lectores.add(hilos.submit(() -> {
+                    salida.await();
+                    int busquedas = 0;
+                    do {
+                        assertEquals(esperados, busqueda.buscar("cafe", null, PageRequest.of(0, 5)).getTotalElements());
+                        busquedas++;
+                    } while (!terminado.get());
+                    return busquedas;
+                }));
+            }
+            salida.countDown();
+            for (int i = 0; i < 20; i++) {
+                busqueda.reconstruir();
+                busqueda.onCatalogoModificado(CatalogoModificadoEvent.producto(10 + i));
+            }
+            terminado.set(true);
+        }
+        for (Future<Integer> lector : lectores) {
+            assertTrue(lector.get() > 0);
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private void guardar(int id, String nombre, String categoria, int stock) {
+        tabla.put(id, ProductoDTO.builder().idProducto(id).nombre(nombre).nombreCategoria(categoria)
+                .descripcion("").estado(true).stock(stock).build());
+    }
+
+    private Producto entidad(int id) {
+        return Producto.builder().idProducto(id).build();
+    }
+
+    private List<Integer> ids(String texto) {
+        return busqueda.buscar(texto, null, PAGINA).stream().map(ProductoDTO::getIdProducto).toList();
+    }
+}
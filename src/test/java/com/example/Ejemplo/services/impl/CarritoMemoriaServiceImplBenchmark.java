@@ -0,0 +1,160 @@
+package com.example.Ejemplo.services.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Operaciones de carrito por segundo con 32 usuarios a la vez: en memoria con
+ * volcado en segundo plano frente a la ruta anterior, donde cada operación iba
+ * a la tabla (SELECT del carrito y UPDATE/INSERT al sumar, DELETE al quitar,
+ * SELECT al listar). Cada sentencia es un viaje simulado a MySQL, también las
+ * del volcado.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class CarritoMemoriaServiceImplBenchmark {
+
+    private static final long VIAJE_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int HILOS = 32;
+    private static final int OPERACIONES_POR_HILO = 2_000;
+    private static final int USUARIOS = 500;
+
+    @Test
+    void operacionesPorSegundoFrenteALaTabla() throws Exception {
+        // Ruta anterior: cada operación es una o dos sentencias en el hilo de la petición
+        TablaCarrito directa = new TablaCarrito();
+        Resultado antes = medir(new Carrito() {
+            @Override
+            public void sumar(int idUsuario, int idProducto) {
+                viaje();
+                int actual = directa.carrito(idUsuario).getOrDefault(idProducto, 0);
+                viaje();
+                directa.fijar(idUsuario, idProducto, Math.min(actual + 1, 50));
+            }
+
+            @Override
+            public void quitar(int idUsuario, int idProducto) {
+                viaje();
+                directa.fijar(idUsuario, idProducto, 0);
+            }
+
+            @Override
+            public Map<Integer, Integer> lineas(int idUsuario) {
+                viaje();
+                return directa.carrito(idUsuario);
+            }
+        }, () -> { }, directa);
+
+        TablaCarrito tabla = new TablaCarrito();
+        tabla.alEscribir(CarritoMemoriaServiceImplBenchmark::viaje);
+        CarritoMemoriaServiceImpl servicio = new CarritoMemoriaServiceImpl(tabla.repository(),
+                new TransactionTemplate(tabla.transactionManager()), 10_000, 30);
+        Resultado ahora = medir(new Carrito() {
+            @Override
+            public void sumar(int idUsuario, int idProducto) {
+                servicio.sumar(idUsuario, idProducto, 1, 50);
+            }
+
+            @Override
+            public void quitar(int idUsuario, int idProducto) {
+                servicio.quitar(idUsuario, idProducto);
+            }
+
+            @Override
+            public Map<Integer, Integer> lineas(int idUsuario) {
+                return servicio.lineas(idUsuario);
+            }
+        }, servicio::volcadoProgramado, tabla);
+        servicio.volcarPendientes();
+        for (int idUsuario = 0; idUsuario < USUARIOS; idUsuario++) {
+            assertEquals(servicio.lineas(idUsuario), tabla.carrito(idUsuario), "usuario " + idUsuario);
+        }
+
+        long operaciones = (long) HILOS * OPERACIONES_POR_HILO;
+        System.out.printf("%,d operaciones de carrito, %d hilos, %d µs por sentencia:%n",
+                operaciones, HILOS, TimeUnit.NANOSECONDS.toMicros(VIAJE_NANOS));
+        imprimir("tabla directa", antes, operaciones);
+        imprimir("en memoria   ", ahora, operaciones);
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static Resultado medir(Carrito carrito, Runnable volcado, TablaCarrito tabla) throws Exception {
+        AtomicBoolean corriendo = new AtomicBoolean(true);
+        CountDownLatch largada = new CountDownLatch(1);
+        long nanos;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> {
+                while (corriendo.get()) {
+                    volcado.run();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                }
+            });
+            List<Future<?>> trabajos = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                trabajos.add(executor.submit(() -> {
+                    largada.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                        int idUsuario = random.nextInt(USUARIOS);
+                        int idProducto = random.nextInt(20);
+                        switch (random.nextInt(10)) {
+                            case 0 -> carrito.quitar(idUsuario, idProducto);
+                            case 1, 2 -> carrito.lineas(idUsuario);
+                            default -> carrito.sumar(idUsuario, idProducto);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long inicio = System.nanoTime();
+            largada.countDown();
+            try {
+                for (Future<?> trabajo : trabajos) {
+                    trabajo.get();
+                }
+                nanos = System.nanoTime() - inicio;
+            } finally {
+                corriendo.set(false);
+            }
+        }
+        return new Resultado(nanos, tabla.escrituras());
+    }
+
+    private static void viaje() {
+        LockSupport.parkNanos(VIAJE_NANOS);
+    }
+
+    private static void imprimir(String modo, Resultado r, long operaciones) {
+        System.out.printf("  %s: %,9d ops/s, %,7d escrituras a la tabla durante la medición%n",
+                modo, operaciones * TimeUnit.SECONDS.toNanos(1) / r.nanos(), r.escrituras());
+    }
+
+    /**
+     * Las tres operaciones que mide, con o sin memoria de por medio
+     */
+    private interface Carrito {
+
+        void sumar(int idUsuario, int idProducto);
+
+        void quitar(int idUsuario, int idProducto);
+
+        Map<Integer, Integer> lineas(int idUsuario);
+    }
+
+    private record Resultado(long nanos, int escrituras) {
+    }
+}
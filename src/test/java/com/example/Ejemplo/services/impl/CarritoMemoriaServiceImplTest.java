@@ -0,0 +1,271 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.CarritoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CarritoMemoriaServiceImplTest {
+
+    private static final int USUARIO = 1;
+    private static final int SIN_TOPE = Integer.MAX_VALUE;
+
+    private final TablaCarrito tabla = new TablaCarrito();
+
+    private CarritoRepository carritoRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        carritoRepository = tabla.repository();
+        // La transacción del volcado revierte la tabla si algo falla
+        transactionTemplate = new TransactionTemplate(tabla.transactionManager());
+    }
+
+    @Test
+    void variosClicsSobreUnaLineaTerminanEnUnaSolaEscritura() {
+        CarritoMemoriaServiceImpl servicio = servicio(100, 30);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(servicio.sumar(USUARIO, 5, 1, SIN_TOPE));
+        }
+        assertFalse(servicio.sumar(USUARIO, 5, 1, 10));
+
+        assertEquals(1, servicio.volcarPendientes());
+        assertEquals(1, tabla.escrituras());
+        assertEquals(Map.of(5, 10), tabla.carrito(USUARIO));
+        assertEquals(0, servicio.volcarPendientes());
+    }
+
+    @Test
+    void unVolcadoFallidoVuelveAMarcarLasLineasSucias() {
+        CarritoMemoriaServiceImpl servicio = servicio(100, 30);
+        servicio.sumar(USUARIO, 5, 2, SIN_TOPE);
+        servicio.sumar(USUARIO, 6, 1, SIN_TOPE);
+        servicio.volcarPendientes();
+
+        servicio.sumar(USUARIO, 5, 1, SIN_TOPE);
+        servicio.quitar(USUARIO, 6);
+        tabla.alEscribir(() -> {
+            throw new IllegalStateException("Conexión perdida");
+        });
+
+        assertEquals(0, servicio.volcarPendientes());
+        // La transacción se revirtió entera: la tabla sigue como en el volcado anterior
+        assertEquals(Map.of(5, 2, 6, 1), tabla.carrito(USUARIO));
+
+        tabla.alEscribir(() -> { });
+        assertEquals(2, servicio.volcarPendientes());
+        assertEquals(Map.of(5, 3), tabla.carrito(USUARIO));
+    }
+
+    @Test
+    void unCambioHechoDuranteUnVolcadoFallidoNoSePierde() {
+        CarritoMemoriaServiceImpl servicio = servicio(100, 30);
+        servicio.sumar(USUARIO, 5, 1, SIN_TOPE);
+        tabla.alEscribir(() -> {
+            // El usuario vuelve a hacer clic mientras el volcado escribe
+            tabla.alEscribir(() -> { });
+            servicio.sumar(USUARIO, 5, 1, SIN_TOPE);
+            servicio.sumar(USUARIO, 7, 4, SIN_TOPE);
+            throw new IllegalStateException("Deadlock");
+        });
+
+        assertEquals(0, servicio.volcarPendientes());
+        assertTrue(tabla.carrito(USUARIO).isEmpty());
+
+        assertEquals(2, servicio.volcarPendientes());
+        assertEquals(Map.of(5, 2, 7, 4), tabla.carrito(USUARIO));
+    }
+
+    @Test
+    void soloSeDesalojanCarritosLimpios() {
+        // Inactividad 0: cualquier carrito limpio se puede desalojar
+        CarritoMemoriaServiceImpl servicio = servicio(100, 0);
+        servicio.sumar(USUARIO, 5, 3, SIN_TOPE);
+        tabla.alEscribir(() -> {
+            throw new IllegalStateException("BD caída");
+        });
+
+        servicio.volcadoProgramado();
+        // Sigue en memoria con sus cambios aunque la BD no los tenga
+        int cargasAntes = tabla.cargas();
+        assertEquals(Map.of(5, 3), servicio.lineas(USUARIO));
+        assertEquals(cargasAntes, tabla.cargas());
+
+        tabla.alEscribir(() -> { });
+        servicio.volcadoProgramado();
+        assertEquals(Map.of(5, 3), tabla.carrito(USUARIO));
+
+        // Desalojado tras volcar: la próxima lectura lo recarga de la tabla
+        assertEquals(Map.of(5, 3), servicio.lineas(USUARIO));
+        assertEquals(cargasAntes + 1, tabla.cargas());
+    }
+
+    @Test
+    void porEncimaDelMaximoSeDesalojaElMenosUsado() {
+        CarritoMemoriaServiceImpl servicio = servicio(2, 30);
+        servicio.sumar(1, 5, 1, SIN_TOPE);
+        servicio.sumar(2, 5, 1, SIN_TOPE);
+        servicio.sumar(3, 5, 1, SIN_TOPE);
+        servicio.lineas(1);
+        servicio.volcadoProgramado();
+
+        int cargasAntes = tabla.cargas();
+        servicio.lineas(1);
+        servicio.lineas(3);
+        assertEquals(cargasAntes, tabla.cargas());
+        assertEquals(Map.of(5, 1), servicio.lineas(2));
+        assertEquals(cargasAntes + 1, tabla.cargas());
+    }
+
+    @Test
+    void trasUnReinicioElCarritoSeRecuperaDeLaTabla() {
+        CarritoMemoriaServiceImpl antes = servicio(100, 30);
+        antes.sumar(USUARIO, 9, 1, SIN_TOPE);
+        antes.sumar(USUARIO, 5, 2, SIN_TOPE);
+        antes.sumar(USUARIO, 7, 1, SIN_TOPE);
+        antes.quitar(USUARIO, 7);
+        // Apagado normal: se vuelca todo lo pendiente
+        antes.volcarAlApagar();
+
+        CarritoMemoriaServiceImpl despues = servicio(100, 30);
+        assertEquals(Map.of(9, 1, 5, 2), despues.lineas(USUARIO));
+        assertTrue(despues.sumar(USUARIO, 5, 1, SIN_TOPE));
+        despues.volcarPendientes();
+        assertEquals(Map.of(9, 1, 5, 3), tabla.carrito(USUARIO));
+    }
+
+    @Test
+    void unCheckoutQueCruzaUnVolcadoNoDejaElCarritoEnLaTabla() throws Exception {
+        CarritoMemoriaServiceImpl servicio = servicio(100, 30);
+        servicio.sumar(USUARIO, 5, 2, SIN_TOPE);
+
+        CountDownLatch escribiendo = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        tabla.alEscribir(() -> {
+            tabla.alEscribir(() -> { });
+            escribiendo.countDown();
+            esperar(seguir);
+        });
+
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            // El volcado ya tomó la línea (cantidad 2) y está a mitad de su transacción
+            Future<Integer> volcado = hilos.submit(servicio::volcarPendientes);
+            assertTrue(escribiendo.await(5, TimeUnit.SECONDS));
+
+            // Checkout: vacía la memoria y la tabla en su transacción
+            assertEquals(Map.of(5, 2), servicio.tomar(USUARIO));
+            tabla.vaciar(USUARIO);
+
+            seguir.countDown();
+            assertEquals(1, volcado.get());
+        }
+
+        // El UPSERT del volcado viejo llegó después del DELETE del checkout...
+        assertEquals(Map.of(5, 2), tabla.carrito(USUARIO));
+        // ...pero la línea quedó sucia en 0, así que el siguiente volcado la borra
+        servicio.volcadoProgramado();
+        assertTrue(tabla.carrito(USUARIO).isEmpty());
+        assertTrue(servicio(100, 30).lineas(USUARIO).isEmpty());
+    }
+
+    @Test
+    void checkoutRevertidoDevuelveLasLineas() {
+        CarritoMemoriaServiceImpl servicio = servicio(100, 30);
+        servicio.sumar(USUARIO, 5, 2, SIN_TOPE);
+        servicio.volcarPendientes();
+
+        Map<Integer, Integer> tomadas = servicio.tomar(USUARIO);
+        servicio.sumar(USUARIO, 6, 1, SIN_TOPE);
+        servicio.devolver(USUARIO, tomadas);
+
+        assertEquals(Map.of(6, 1, 5, 2), servicio.lineas(USUARIO));
+        servicio.volcarPendientes();
+        assertEquals(Map.of(6, 1, 5, 2), tabla.carrito(USUARIO));
+    }
+
+    /**
+     * Varios usuarios a la vez con el volcado corriendo en paralelo: al final la
+     * tabla debe coincidir con la memoria. Las operaciones por segundo están en
+     * CarritoMemoriaServiceImplBenchmark.
+     */
+    @Test
+    void conVolcadoConcurrenteLaTablaTerminaIgualQueLaMemoria() throws Exception {
+        CarritoMemoriaServiceImpl servicio = servicio(10_000, 30);
+        int hilos = 32;
+        int operacionesPorHilo = 5_000;
+        int usuarios = 500;
+        AtomicBoolean corriendo = new AtomicBoolean(true);
+        CountDownLatch largada = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> {
+                while (corriendo.get()) {
+                    servicio.volcadoProgramado();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                }
+            });
+            List<Future<?>> trabajos = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                trabajos.add(executor.submit(() -> {
+                    largada.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operacionesPorHilo; i++) {
+                        int idUsuario = random.nextInt(usuarios);
+                        int idProducto = random.nextInt(20);
+                        switch (random.nextInt(10)) {
+                            case 0 -> servicio.quitar(idUsuario, idProducto);
+                            case 1, 2 -> servicio.lineas(idUsuario);
+                            default -> servicio.sumar(idUsuario, idProducto, 1, 50);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            try {
+                for (Future<?> trabajo : trabajos) {
+                    trabajo.get();
+                }
+            } finally {
+                corriendo.set(false);
+            }
+        }
+
+        servicio.volcarPendientes();
+        for (int idUsuario = 0; idUsuario < usuarios; idUsuario++) {
+            assertEquals(servicio.lineas(idUsuario), tabla.carrito(idUsuario), "usuario " + idUsuario);
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private CarritoMemoriaServiceImpl servicio(int maxCarritos, long inactividadMin) {
+        return new CarritoMemoriaServiceImpl(carritoRepository, transactionTemplate, maxCarritos, inactividadMin);
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
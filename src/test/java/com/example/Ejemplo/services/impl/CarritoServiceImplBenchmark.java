@@ -0,0 +1,157 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.LineaCarritoDTO;
+import com.example.Ejemplo.repository.CarritoRepository;
+import com.example.Ejemplo.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Consultas a la BD por cada "agregar al carrito". Antes eran tres: el
+ * producto (con su categoría), el carrito entero del usuario y el UPDATE o
+ * INSERT de la línea. Ahora el alta va a la memoria y a la BD llegan la
+ * consulta de totales de la respuesta JSON, la primera carga de cada carrito
+ * y de cada stock, y los volcados (varios clics entre dos volcados son una
+ * sola escritura). Los repositorios cuentan cada llamada como una consulta.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class CarritoServiceImplBenchmark {
+
+    private static final int USUARIOS = 200;
+    private static final int CLICS_POR_USUARIO = 12;
+    private static final int PRODUCTOS = 30;
+    private static final int PRODUCTOS_POR_CARRITO = 5;
+    // Clics de todos los usuarios entre dos volcados programados
+    private static final int RONDAS_POR_VOLCADO = 2;
+
+    @Test
+    void consultasPorAgregado() {
+        AtomicLong lecturas = new AtomicLong();
+        AtomicLong escrituras = new AtomicLong();
+        CarritoMemoriaServiceImpl memoria = new CarritoMemoriaServiceImpl(carritoRepository(lecturas, escrituras),
+                new TransactionTemplate(transactionManager()), USUARIOS, 30);
+        ProductoRepository productoRepository = productoRepository(lecturas);
+        CarritoServiceImpl servicio = new CarritoServiceImpl(memoria, productoRepository,
+                new InventarioServiceImpl(productoRepository, transactionManager(), 10));
+
+        int[][] clics = clics();
+        long consultasAntes = 0;
+        for (int ronda = 0; ronda < CLICS_POR_USUARIO; ronda++) {
+            for (int idUsuario = 0; idUsuario < USUARIOS; idUsuario++) {
+                consultasAntes += consultasComoAntes();
+                // Lo que hace POST /api/carrito/items con un ítem
+                servicio.agregarItems(idUsuario, Map.of(clics[idUsuario][ronda], 1));
+            }
+            if ((ronda + 1) % RONDAS_POR_VOLCADO == 0) {
+                memoria.volcarPendientes();
+            }
+        }
+        memoria.volcarPendientes();
+
+        double agregados = USUARIOS * CLICS_POR_USUARIO;
+        double antes = consultasAntes / agregados;
+        double ahora = (lecturas.get() + escrituras.get()) / agregados;
+        System.out.printf("%,d agregados de %d usuarios (volcado cada %d clics por usuario):%n",
+                (long) agregados, USUARIOS, RONDAS_POR_VOLCADO);
+        System.out.printf("  antes: %.2f consultas por agregado%n", antes);
+        System.out.printf("  ahora: %.2f consultas por agregado (%.2f lecturas, %.2f escrituras)%n",
+                ahora, lecturas.get() / agregados, escrituras.get() / agregados);
+        assertTrue(ahora < antes, ahora + " >= " + antes);
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * La ruta anterior de subirAlCarrito, sentencia por sentencia
+     */
+    private static int consultasComoAntes() {
+        int consultas = 1;  // buscarPorId: SELECT del producto con su categoría (EAGER)
+        consultas++;        // obtenerCarritosPorUsuario: SELECT del carrito entero para buscar la línea
+        consultas++;        // updateCantidadCarrito o saveCarritoByIdUsuario
+        return consultas;
+    }
+
+    /**
+     * Cada usuario elige unos pocos productos y los agrega varias veces
+     */
+    private static int[][] clics() {
+        SplittableRandom random = new SplittableRandom(11);
+        int[][] clics = new int[USUARIOS][CLICS_POR_USUARIO];
+        for (int[] delUsuario : clics) {
+            int[] elegidos = random.ints(PRODUCTOS_POR_CARRITO, 1, PRODUCTOS + 1).toArray();
+            for (int i = 0; i < delUsuario.length; i++) {
+                delUsuario[i] = elegidos[random.nextInt(elegidos.length)];
+            }
+        }
+        return clics;
+    }
+
+    private static CarritoRepository carritoRepository(AtomicLong lecturas, AtomicLong escrituras) {
+        Map<Integer, Map<Integer, Integer>> tabla = new HashMap<>();
+        return (CarritoRepository) Proxy.newProxyInstance(CarritoRepository.class.getClassLoader(),
+                new Class<?>[]{CarritoRepository.class}, (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "findCantidadesByUsuario" -> {
+                        lecturas.incrementAndGet();
+                        List<Object[]> filas = new ArrayList<>();
+                        tabla.getOrDefault((Integer) args[0], Map.of())
+                                .forEach((idProducto, cantidad) -> filas.add(new Object[]{idProducto, cantidad}));
+                        yield filas;
+                    }
+                    case "fijarCantidad" -> {
+                        escrituras.incrementAndGet();
+                        tabla.computeIfAbsent((Integer) args[0], k -> new HashMap<>())
+                                .put((Integer) args[1], (Integer) args[2]);
+                        yield 1;
+                    }
+                    case "deleteCarritoByUsuarioIdAndProductoId" -> {
+                        escrituras.incrementAndGet();
+                        Map<Integer, Integer> carrito = tabla.getOrDefault((Integer) args[0], new HashMap<>());
+                        yield carrito.remove((Integer) args[1]) != null ? 1 : 0;
+                    }
+                    default -> throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    private static ProductoRepository productoRepository(AtomicLong lecturas) {
+        return (ProductoRepository) Proxy.newProxyInstance(ProductoRepository.class.getClassLoader(),
+                new Class<?>[]{ProductoRepository.class}, (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "findStockById" -> {
+                        lecturas.incrementAndGet();
+                        yield Optional.of(1_000);
+                    }
+                    case "findLineasCarrito" -> {
+                        lecturas.incrementAndGet();
+                        List<LineaCarritoDTO> lineas = new ArrayList<>();
+                        for (Object id : (Collection<?>) args[0]) {
+                            lineas.add(new LineaCarritoDTO((Integer) id, "Producto " + id, 2.5, null));
+                        }
+                        yield lineas;
+                    }
+                    default -> throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return transactionManager;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.CarritoResumenDTO;
+import com.example.Ejemplo.dto.LineaCarritoDTO;
+import com.example.Ejemplo.repository.CarritoRepository;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.InventarioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class CarritoServiceImplTest {
+
+    private static final int USUARIO = 1;
+
+    // Tabla carrito con PK (id_usuario, id_producto): "usuario-producto" -> cantidad
+    private final Map<String, Integer> tabla = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> stock = new ConcurrentHashMap<>();
+
+    private CarritoMemoriaServiceImpl carritoMemoriaService;
+    private CarritoServiceImpl servicio;
+
+    @BeforeEach
+    void setUp() {
+        CarritoRepository carritoRepository = mock(CarritoRepository.class, withSettings().stubOnly());
+        // INSERT ... ON DUPLICATE KEY UPDATE: nunca choca con la clave
+        when(carritoRepository.fijarCantidad(anyInt(), anyInt(), anyInt())).thenAnswer(inv -> {
+            tabla.put(inv.getArgument(0) + "-" + inv.getArgument(1), inv.getArgument(2));
+            return 1;
+        });
+        when(carritoRepository.deleteCarritoByUsuarioIdAndProductoId(anyInt(), anyInt()))
+                .thenAnswer(inv -> tabla.remove(inv.getArgument(0) + "-" + inv.getArgument(1)) != null ? 1 : 0);
+        when(carritoRepository.findCantidadesByUsuario(anyInt())).thenReturn(List.of());
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        carritoMemoriaService = new CarritoMemoriaServiceImpl(
+                carritoRepository, new TransactionTemplate(transactionManager), 100, 30);
+
+        InventarioService inventarioService = mock(InventarioService.class, withSettings().stubOnly());
+        when(inventarioService.stockDisponible(any())).thenAnswer(inv -> {
+            Integer disponible = stock.get((Integer) inv.getArgument(0));
+            if (disponible == null) {
+                throw new IllegalArgumentException("Producto no encontrado con ID: " + inv.getArgument(0));
+            }
+            return disponible;
+        });
+
+        ProductoRepository productoRepository = mock(ProductoRepository.class, withSettings().stubOnly());
+        when(productoRepository.findLineasCarrito(any())).thenAnswer(inv -> {
+            Collection<Integer> ids = inv.getArgument(0);
+            List<LineaCarritoDTO> lineas = new ArrayList<>();
+            for (Integer id : ids) {
+                lineas.add(new LineaCarritoDTO(id, "Producto " + id, 2.5, null));
+            }
+            return lineas;
+        });
+
+        servicio = new CarritoServiceImpl(carritoMemoriaService, productoRepository, inventarioService);
+    }
+
+    @Test
+    void dobleClicConcurrenteNoPasaDelStockNiDuplicaLaLinea() throws Exception {
+        stock.put(5, 50);
+        int clics = 200;
+        AtomicBoolean corriendo = new AtomicBoolean(true);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            // El volcado corre a la par de los clics
+            hilos.submit(() -> {
+                while (corriendo.get()) {
+                    carritoMemoriaService.volcarPendientes();
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+                }
+            });
+            for (int i = 0; i < clics; i++) {
+                resultados.add(hilos.submit(() -> {
+                    largada.await();
+                    return servicio.agregarItem(USUARIO, 5, 1);
+                }));
+            }
+            largada.countDown();
+            long aceptados = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get()) {
+                    aceptados++;
+                }
+            }
+            corriendo.set(false);
+            assertEquals(50, aceptados);
+        }
+
+        carritoMemoriaService.volcarPendientes();
+        assertEquals(Map.of(5, 50), carritoMemoriaService.lineas(USUARIO));
+        assertEquals(Map.of(USUARIO + "-5", 50), tabla);
+    }
+
+    @Test
+    void agregarItemsDevuelveLosRechazadosYAgregaElResto() {
+        stock.put(5, 3);
+        stock.put(6, 10);
+
+        CarritoResumenDTO resumen = servicio.agregarItems(USUARIO, Map.of(5, 4, 6, 2, 99, 1));
+
+        assertEquals(List.of(5, 99), resumen.getRechazados());
+        assertEquals(2, resumen.getArticulos());
+        assertEquals(5.0, resumen.getTotal());
+
+        // Un segundo envío se suma a la línea existente
+        resumen = servicio.agregarItems(USUARIO, Map.of(5, 3, 6, 1));
+        assertTrue(resumen.getRechazados().isEmpty());
+        assertEquals(6, resumen.getArticulos());
+    }
+
+    @Test
+    void cantidadInvalidaSeRechazaSinTocarElCarrito() {
+        stock.put(5, 3);
+
+        assertThrows(IllegalArgumentException.class, () -> servicio.agregarItem(USUARIO, 5, 0));
+        assertThrows(IllegalArgumentException.class, () -> servicio.agregarItems(USUARIO, Map.of(5, -1)));
+        assertFalse(servicio.agregarItem(USUARIO, 42, 1));
+        assertTrue(carritoMemoriaService.lineas(USUARIO).isEmpty());
+    }
+}
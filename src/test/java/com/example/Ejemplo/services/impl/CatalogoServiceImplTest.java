@@ -0,0 +1,190 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.config.CacheConfig;
+import com.example.Ejemplo.dto.PaginaCursor;
+import com.example.Ejemplo.dto.ProductoDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.mapper.ProductoMapper;
+import com.example.Ejemplo.services.BusquedaProductosService;
+import com.example.Ejemplo.services.CatalogoService;
+import com.example.Ejemplo.services.MenuDiaService;
+import com.example.Ejemplo.services.ProductoService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Levanta CacheConfig con el proxy de cache de Spring sobre el servicio real;
+ * cada llamada a los servicios de abajo cuenta como una consulta a la BD.
+ */
+class CatalogoServiceImplTest {
+
+    private static final List<String> CATEGORIAS = java.util.Arrays.asList(null, "Bebidas", "Antojitos", "Sandwich");
+
+    private final AtomicInteger consultas = new AtomicInteger();
+    private AnnotationConfigApplicationContext contexto;
+    private CatalogoService catalogo;
+
+    @BeforeEach
+    void setUp() {
+        ProductoService productoService = mock(ProductoService.class, withSettings().stubOnly());
+        when(productoService.obtenerCatalogoPorCursor(any(), any(), anyInt())).thenAnswer(inv -> {
+            consultas.incrementAndGet();
+            return new PaginaCursor<>(List.of(new ProductoDTO()), "sig", null, null);
+        });
+        when(productoService.contarAproximado(anyBoolean(), isNull(), any(), isNull())).thenAnswer(inv -> {
+            consultas.incrementAndGet();
+            return 40L;
+        });
+        BusquedaProductosService busqueda = mock(BusquedaProductosService.class, withSettings().stubOnly());
+        when(busqueda.buscar(anyString(), any(), any())).thenAnswer(inv -> {
+            consultas.incrementAndGet();
+            return new PageImpl<>(List.of(new ProductoDTO()));
+        });
+        MenuDiaService menuDiaService = mock(MenuDiaService.class, withSettings().stubOnly());
+        when(menuDiaService.findMenusDelDia(any())).thenAnswer(inv -> {
+            consultas.incrementAndGet();
+            return List.of();
+        });
+
+        contexto = new AnnotationConfigApplicationContext();
+        contexto.register(CacheConfig.class, ProxyPorClase.class);
+        // Sin transacción en curso el oyente corre en el acto (fallbackExecution)
+        contexto.registerBean(TransactionalEventListenerFactory.class);
+        contexto.registerBean(ProductoService.class, () -> productoService);
+        contexto.registerBean(BusquedaProductosService.class, () -> busqueda);
+        contexto.registerBean(MenuDiaService.class, () -> menuDiaService);
+        contexto.registerBean(ProductoMapper.class, () -> mock(ProductoMapper.class, withSettings().stubOnly()));
+        contexto.registerBean(CatalogoServiceImpl.class);
+        contexto.refresh();
+        catalogo = contexto.getBean(CatalogoService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        contexto.close();
+    }
+
+    @Test
+    void laMismaPaginaSeLeeUnaSolaVez() {
+        PaginaCursor<ProductoDTO> primera = catalogo.obtenerPagina("Bebidas", null, null);
+        PaginaCursor<ProductoDTO> segunda = catalogo.obtenerPagina("Bebidas", null, null);
+        catalogo.obtenerPagina("Bebidas", null, "sig");
+
+        assertEquals(primera, segunda);
+        // Página + total aproximado por cada clave distinta
+        assertEquals(4, consultas.get());
+    }
+
+    @Test
+    void unCambioDeProductoInvalidaElCatalogoYElMenu() {
+        catalogo.obtenerPagina(null, null, null);
+        catalogo.obtenerMenuDelDia(LocalDate.now());
+        contexto.publishEvent(CatalogoModificadoEvent.producto(3));
+        consultas.set(0);
+
+        catalogo.obtenerPagina(null, null, null);
+        catalogo.obtenerMenuDelDia(LocalDate.now());
+
+        assertEquals(3, consultas.get());
+    }
+
+    @Test
+    void unCambioDelMenuNoInvalidaElCatalogo() {
+        catalogo.obtenerPagina(null, null, null);
+        catalogo.obtenerMenuDelDia(LocalDate.now());
+        contexto.publishEvent(CatalogoModificadoEvent.menuDia(1));
+        consultas.set(0);
+
+        catalogo.obtenerPagina(null, null, null);
+        catalogo.obtenerMenuDelDia(LocalDate.now());
+
+        assertEquals(1, consultas.get());
+    }
+
+    /**
+     * Carga de hora punta: 20.000 vistas de /catalogo (página + menú del día)
+     * repartidas entre categorías, segunda página y búsquedas, desde 50 hilos,
+     * con diez cambios del catálogo en el medio. Sin cache cada vista cuesta
+     * 3 consultas.
+     */
+    @Test
+    void conCargaLasConsultasPorVistaQuedanCercaDeCero() throws Exception {
+        int hilos = 50;
+        int vistasPorHilo = 400;
+        String segundaPagina = PaginaCursor.Cursor.codificar(false, List.of("1"));
+        AtomicInteger vistas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                tareas.add(ejecutor.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < vistasPorHilo; i++) {
+                        int n = hilo * vistasPorHilo + i;
+                        String categoria = CATEGORIAS.get(n % CATEGORIAS.size());
+                        String busqueda = n % 10 == 0 ? (n % 20 == 0 ? "jugo" : "cafe") : null;
+                        String cursor = n % 3 == 0 ? segundaPagina : null;
+                        catalogo.obtenerPagina(categoria, busqueda, cursor);
+                        catalogo.obtenerMenuDelDia(LocalDate.now());
+                        if (vistas.incrementAndGet() % 2_000 == 0) {
+                            contexto.publishEvent(CatalogoModificadoEvent.producto(1));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+
+        double porVista = (double) consultas.get() / vistas.get();
+        assertTrue(porVista < 0.05, "consultas por vista = " + porVista);
+        CacheStats stats = estadisticas(CacheConfig.CATALOGO);
+        assertTrue(stats.hitRate() > 0.95, stats.toString());
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * Spring Boot arma los proxies por clase (spring.aop.proxy-target-class=true)
+     */
+    @EnableCaching(proxyTargetClass = true)
+    static class ProxyPorClase {
+    }
+
+    private CacheStats estadisticas(String nombre) {
+        CacheManager cacheManager = contexto.getBean(CacheManager.class);
+        return ((com.github.benmanes.caffeine.cache.Cache<?, ?>) cacheManager.getCache(nombre).getNativeCache()).stats();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.config.CacheConfig;
+import com.example.Ejemplo.dto.CategoriaResponseDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.mapper.CategoriaMapper;
+import com.example.Ejemplo.mapper.ProductoMapper;
+import com.example.Ejemplo.repository.CategoriaRepository;
+import com.example.Ejemplo.services.BusquedaProductosService;
+import com.example.Ejemplo.services.CategoriaService;
+import com.example.Ejemplo.services.MenuDiaService;
+import com.example.Ejemplo.services.ProductoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Sin BD embebida en el proyecto no hay estadísticas de Hibernate: cada
+ * llamada al repositorio cuenta como una consulta (la proyección agrupada no
+ * devuelve entidades, así que no hay cargas perezosas detrás).
+ */
+class CategoriaServiceImplTest {
+
+    @Test
+    void lasConsultasNoCrecenConLasCategorias() {
+        for (int categorias : new int[]{3, 30, 300}) {
+            CategoriaRepository categoriaRepository = mock(CategoriaRepository.class);
+            when(categoriaRepository.findResumenes()).thenReturn(resumenes(categorias));
+            CategoriaServiceImpl servicio = new CategoriaServiceImpl(categoriaRepository,
+                    mock(CategoriaMapper.class, withSettings().stubOnly()), evento -> { });
+
+            List<CategoriaResponseDTO> resultado = servicio.obtenerTodasConDetalles();
+
+            assertEquals(categorias, resultado.size());
+            assertEquals(1, mockingDetails(categoriaRepository).getInvocations().size(), categorias + " categorías");
+        }
+    }
+
+    @Test
+    void elResumenSeCacheaHastaQueCambiaUnaCategoria() {
+        CategoriaRepository categoriaRepository = mock(CategoriaRepository.class);
+        when(categoriaRepository.findResumenes()).thenReturn(resumenes(5));
+
+        try (AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext()) {
+            contexto.register(CacheConfig.class, CatalogoServiceImplTest.ProxyPorClase.class);
+            contexto.registerBean(TransactionalEventListenerFactory.class);
+            contexto.registerBean(CategoriaRepository.class, () -> categoriaRepository);
+            contexto.registerBean(CategoriaMapper.class, () -> mock(CategoriaMapper.class, withSettings().stubOnly()));
+            contexto.registerBean(CategoriaServiceImpl.class);
+            // CatalogoServiceImpl es quien limpia el resumen al llegar el evento
+            contexto.registerBean(ProductoService.class, () -> mock(ProductoService.class, withSettings().stubOnly()));
+            contexto.registerBean(BusquedaProductosService.class, () -> mock(BusquedaProductosService.class, withSettings().stubOnly()));
+            contexto.registerBean(MenuDiaService.class, () -> mock(MenuDiaService.class, withSettings().stubOnly()));
+            contexto.registerBean(ProductoMapper.class, () -> mock(ProductoMapper.class, withSettings().stubOnly()));
+            contexto.registerBean(CatalogoServiceImpl.class);
+            contexto.refresh();
+            CategoriaService categorias = contexto.getBean(CategoriaService.class);
+
+            categorias.obtenerTodasConDetalles();
+            categorias.obtenerTodasConDetalles();
+            assertEquals(1, mockingDetails(categoriaRepository).getInvocations().size());
+
+            contexto.publishEvent(CatalogoModificadoEvent.categoria(2));
+            categorias.obtenerTodasConDetalles();
+            assertEquals(2, mockingDetails(categoriaRepository).getInvocations().size());
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static List<CategoriaResponseDTO> resumenes(int cantidad) {
+        List<CategoriaResponseDTO> resumenes = new ArrayList<>();
+        for (int i = 1; i <= cantidad; i++) {
+            resumenes.add(new CategoriaResponseDTO(i, "Categoría " + i, (long) i % 4, (long) i % 3, i * 10L));
+        }
+        return resumenes;
+    }
+}
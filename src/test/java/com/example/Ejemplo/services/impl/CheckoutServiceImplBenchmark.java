@@ -0,0 +1,221 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.mapper.PedidoMapper;
+import com.example.Ejemplo.models.Categoria;
+import com.example.Ejemplo.models.DetallePedido;
+import com.example.Ejemplo.models.Pedido;
+import com.example.Ejemplo.models.Producto;
+import com.example.Ejemplo.models.Usuario;
+import com.example.Ejemplo.repository.CarritoRepository;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.repository.UsuarioRepository;
+import com.example.Ejemplo.services.CarritoMemoriaService;
+import com.example.Ejemplo.services.FranjasEntregaService;
+import com.example.Ejemplo.services.InventarioService;
+import com.example.Ejemplo.services.OutboxService;
+import com.example.Ejemplo.services.PedidosService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Idas y vueltas a la BD y latencia de un checkout de 6 líneas: el recorrido
+ * línea por línea del PedidoController anterior (cada servicio en su propia
+ * transacción) frente a {@link CheckoutServiceImpl}. Cada sentencia y cada
+ * commit cuestan {@link #IDA_Y_VUELTA_NANOS}.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class CheckoutServiceImplBenchmark {
+
+    private static final int LINEAS = 6;
+    private static final int CHECKOUTS = 200;
+    private static final long IDA_Y_VUELTA_NANOS = TimeUnit.MICROSECONDS.toNanos(300);
+
+    private final AtomicInteger idasYVueltas = new AtomicInteger();
+    private final List<Producto> productos = new ArrayList<>();
+    private CheckoutServiceImpl checkout;
+
+    @BeforeEach
+    void setUp() {
+        Categoria categoria = new Categoria();
+        categoria.setNombre("Bebidas");
+        Map<Integer, Integer> carrito = new LinkedHashMap<>();
+        for (int i = 1; i <= LINEAS; i++) {
+            productos.add(Producto.builder().idProducto(i).nombre("Producto " + i)
+                    .precio(5.0).stock(1_000).categoria(categoria).build());
+            carrito.put(i, 2);
+        }
+
+        CarritoMemoriaService carritoMemoria = mock(CarritoMemoriaService.class, withSettings().stubOnly());
+        when(carritoMemoria.tomar(anyInt())).thenAnswer(inv -> new LinkedHashMap<>(carrito));
+        ProductoRepository productoRepository = mock(ProductoRepository.class, withSettings().stubOnly());
+        when(productoRepository.findConCategoriaByIds(any())).thenAnswer(inv -> {
+            idaYVuelta();
+            return productos;
+        });
+        UsuarioRepository usuarioRepository = mock(UsuarioRepository.class, withSettings().stubOnly());
+        when(usuarioRepository.findById(anyInt())).thenAnswer(inv -> {
+            idaYVuelta();
+            return Optional.of(new Usuario());
+        });
+        CarritoRepository carritoRepository = mock(CarritoRepository.class, withSettings().stubOnly());
+        when(carritoRepository.vaciarCarrito(anyInt())).thenAnswer(inv -> {
+            idaYVuelta();
+            return LINEAS;
+        });
+        OutboxService outboxService = mock(OutboxService.class, withSettings().stubOnly());
+        when(outboxService.encolarNotificacion(anyInt(), anyString(), anyString())).thenAnswer(inv -> {
+            idaYVuelta();
+            return true;
+        });
+        // Los códigos salen de un bloque ya arrendado: sin ida y vuelta por pedido
+        PedidosService pedidosService = mock(PedidosService.class, withSettings().stubOnly());
+        when(pedidosService.generarCodigoUnico()).thenReturn("ABC123");
+
+        checkout = new CheckoutServiceImpl(carritoRepository, carritoMemoria, productoRepository, usuarioRepository,
+                pedidosService, mock(InventarioService.class, withSettings().stubOnly()),
+                mock(FranjasEntregaService.class, withSettings().stubOnly()), outboxService,
+                mock(PedidoMapper.class, withSettings().stubOnly()), evento -> { });
+        ReflectionTestUtils.setField(checkout, "entityManager", entityManager());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void idasYVueltasYLatenciaPorCheckout() {
+        for (int i = 0; i < 20; i++) {
+            caminoAnterior();
+            confirmarEnTransaccion();
+        }
+
+        idasYVueltas.set(0);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            caminoAnterior();
+        }
+        long nanosAnterior = System.nanoTime() - inicio;
+        int idasAnterior = idasYVueltas.getAndSet(0) / CHECKOUTS;
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            confirmarEnTransaccion();
+        }
+        long nanosCheckout = System.nanoTime() - inicio;
+        int idasCheckout = idasYVueltas.get() / CHECKOUTS;
+
+        System.out.printf("Checkout de %d líneas: antes %d idas y vueltas, %.2f ms; CheckoutService %d idas y vueltas, %.2f ms%n",
+                LINEAS, idasAnterior, nanosAnterior / 1e6 / CHECKOUTS, idasCheckout, nanosCheckout / 1e6 / CHECKOUTS);
+        // Carrito, usuario, INSERT del pedido, batch de detalles, vaciar carrito, outbox y commit
+        assertEquals(7, idasCheckout);
+        assertTrue(nanosCheckout < nanosAnterior);
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private void idaYVuelta() {
+        idasYVueltas.incrementAndGet();
+        LockSupport.parkNanos(IDA_Y_VUELTA_NANOS);
+    }
+
+    private void confirmarEnTransaccion() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            checkout.confirmarPedido(1, LocalTime.of(12, 50));
+            idaYVuelta();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Las sentencias que emitía PedidoController.pedir con un carrito de
+     * {@link #LINEAS} líneas, cada llamada a servicio en su propia transacción
+     */
+    private void caminoAnterior() {
+        // obtenerTodosProductos y obtenerTodosProductosConCantidad: el carrito dos
+        // veces, con el producto EAGER de cada línea en su propio SELECT
+        for (int i = 0; i < 2; i++) {
+            idaYVuelta();
+            productos.forEach(p -> idaYVuelta());
+        }
+        // findUsuarioEntityById
+        idaYVuelta();
+        // guardarPedido: INSERT + commit
+        idaYVuelta();
+        idaYVuelta();
+        for (int i = 0; i < LINEAS; i++) {
+            // reducirStock: findById + UPDATE + commit
+            idaYVuelta();
+            idaYVuelta();
+            idaYVuelta();
+            // saveDetallePedido: SELECT del merge + INSERT + commit
+            idaYVuelta();
+            idaYVuelta();
+            idaYVuelta();
+        }
+        // limpiarCarrito: DELETE + commit
+        idaYVuelta();
+        idaYVuelta();
+        // crearNotificacion: findById del usuario + INSERT + commit
+        idaYVuelta();
+        idaYVuelta();
+        idaYVuelta();
+    }
+
+    /**
+     * El INSERT del pedido (IDENTITY) sale al persistir; los de los detalles
+     * se acumulan y salen en un solo batch en el flush
+     */
+    private EntityManager entityManager() {
+        EntityManager entityManager = mock(EntityManager.class, withSettings().stubOnly());
+        AtomicInteger detallesPendientes = new AtomicInteger();
+        doAnswer(inv -> {
+            Object entidad = inv.getArgument(0);
+            if (entidad instanceof Pedido pedido) {
+                idaYVuelta();
+                pedido.setIdPedido(1);
+            } else if (entidad instanceof DetallePedido) {
+                detallesPendientes.incrementAndGet();
+            }
+            return null;
+        }).when(entityManager).persist(any());
+        doAnswer(inv -> {
+            if (detallesPendientes.getAndSet(0) > 0) {
+                idaYVuelta();
+            }
+            return null;
+        }).when(entityManager).flush();
+        return entityManager;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.PedidosRepository;
+import com.example.Ejemplo.repository.SecuenciaCodigoRepository;
+import com.example.Ejemplo.services.CodigoPedidoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Códigos por segundo con 1 y con 32 hilos, según el tamaño del bloque
+ * arrendado. Arrendar cuesta {@link #ARRIENDO_NANOS} (la transacción
+ * REQUIRES_NEW sobre secuencia_codigo); la consulta de código ya emitido
+ * se deja en memoria para medir solo el generador.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class CodigoPedidoServiceImplBenchmark {
+
+    private static final int CODIGOS = 200_000;
+    private static final long ARRIENDO_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void codigosPorSegundoSegunElBloque() throws Exception {
+        for (int bloque : new int[]{1, 100, 1_000}) {
+            for (int hilos : new int[]{1, 32}) {
+                AtomicInteger arriendos = new AtomicInteger();
+                CodigoPedidoService servicio = nuevoNodo(bloque, arriendos);
+                int porHilo = (bloque == 1 ? CODIGOS / 100 : CODIGOS) / hilos;
+
+                long nanos = generar(servicio, hilos, porHilo);
+
+                System.out.printf("Bloque %5d, %2d hilos: %,10.0f códigos/s (%d arriendos)%n",
+                        bloque, hilos, hilos * porHilo * 1e9 / nanos, arriendos.get());
+            }
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static long generar(CodigoPedidoService servicio, int hilos, int porHilo) throws InterruptedException {
+        Set<String> emitidos = ConcurrentHashMap.newKeySet();
+        CountDownLatch salida = new CountDownLatch(1);
+        long inicio;
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int h = 0; h < hilos; h++) {
+                ejecutor.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < porHilo; i++) {
+                        emitidos.add(servicio.siguienteCodigo());
+                    }
+                    return null;
+                });
+            }
+            inicio = System.nanoTime();
+            salida.countDown();
+        }
+        long nanos = System.nanoTime() - inicio;
+        assertEquals(hilos * porHilo, emitidos.size());
+        return nanos;
+    }
+
+    private static CodigoPedidoService nuevoNodo(int bloque, AtomicInteger arriendos) {
+        ConcurrentHashMap<String, Long> secuencias = new ConcurrentHashMap<>();
+        ThreadLocal<Long> leido = new ThreadLocal<>();
+        SecuenciaCodigoRepository secuenciaRepository = mock(SecuenciaCodigoRepository.class, withSettings().stubOnly());
+        when(secuenciaRepository.avanzar(anyString(), anyLong())).thenAnswer(inv -> {
+            arriendos.incrementAndGet();
+            LockSupport.parkNanos(ARRIENDO_NANOS);
+            leido.set(secuencias.merge(inv.getArgument(0), inv.<Long>getArgument(1), Long::sum));
+            return 1;
+        });
+        when(secuenciaRepository.findSiguiente(anyString())).thenAnswer(inv -> leido.get());
+        PedidosRepository pedidosRepository = mock(PedidosRepository.class, withSettings().stubOnly());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new CodigoPedidoServiceImpl(secuenciaRepository, pedidosRepository, transactionManager,
+                bloque, false, 10_000, 0x5EED_C0DEL);
+    }
+}
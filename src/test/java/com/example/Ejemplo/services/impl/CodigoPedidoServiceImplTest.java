@@ -0,0 +1,158 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.PedidosRepository;
+import com.example.Ejemplo.repository.SecuenciaCodigoRepository;
+import com.example.Ejemplo.services.CodigoPedidoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CodigoPedidoServiceImplTest {
+
+    private static final long CLAVE = 0x5EED_C0DEL;
+
+    // Hace de tabla secuencia_codigo compartida por todos los nodos
+    private final ConcurrentHashMap<String, Long> secuencias = new ConcurrentHashMap<>();
+    // Lo que cada transacción de arriendo leería de su fila bloqueada
+    private final ThreadLocal<Long> leidoEnTransaccion = new ThreadLocal<>();
+    private final Set<String> codigosExistentes = ConcurrentHashMap.newKeySet();
+
+    private SecuenciaCodigoRepository secuenciaRepository;
+    private PedidosRepository pedidosRepository;
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        secuenciaRepository = mock(SecuenciaCodigoRepository.class);
+        when(secuenciaRepository.avanzar(anyString(), anyLong())).thenAnswer(inv -> {
+            long bloque = inv.getArgument(1);
+            leidoEnTransaccion.set(secuencias.merge(inv.getArgument(0), bloque, Long::sum));
+            return 1;
+        });
+        when(secuenciaRepository.findSiguiente(anyString())).thenAnswer(inv -> leidoEnTransaccion.get());
+
+        pedidosRepository = mock(PedidosRepository.class);
+        when(pedidosRepository.existsByCodigoPedido(anyString()))
+                .thenAnswer(inv -> codigosExistentes.contains(inv.<String>getArgument(0)));
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void codigosUnicosEntreNodosSimulados() throws Exception {
+        int nodos = 4;
+        int hilosPorNodo = 8;
+        int codigosPorHilo = 2_000;
+        List<CodigoPedidoService> servicios = new ArrayList<>();
+        for (int i = 0; i < nodos; i++) {
+            servicios.add(nuevoNodo(false));
+        }
+
+        Set<String> emitidos = ConcurrentHashMap.newKeySet();
+        CountDownLatch salida = new CountDownLatch(1);
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (CodigoPedidoService servicio : servicios) {
+                for (int h = 0; h < hilosPorNodo; h++) {
+                    hilos.submit(() -> {
+                        salida.await();
+                        for (int c = 0; c < codigosPorHilo; c++) {
+                            String codigo = servicio.siguienteCodigo();
+                            assertTrue(codigo.matches("[A-Z]{3}\\d{3}"), codigo);
+                            assertTrue(emitidos.add(codigo), "Código repetido: " + codigo);
+                        }
+                        return null;
+                    });
+                }
+            }
+            salida.countDown();
+        }
+
+        assertEquals(nodos * hilosPorNodo * codigosPorHilo, emitidos.size());
+    }
+
+    @Test
+    void saltaCodigosYaEmitidosPorElGeneradorAnterior() {
+        // Los primeros valores de la secuencia chocan con códigos históricos
+        for (long valor = 0; valor < 10; valor++) {
+            codigosExistentes.add(CodigoPedidoService.codificar(CodigoPedidoService.permutar(valor, CLAVE)));
+        }
+        CodigoPedidoService servicio = nuevoNodo(false);
+
+        Set<String> emitidos = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            String codigo = servicio.siguienteCodigo();
+            assertFalse(codigosExistentes.contains(codigo), codigo);
+            emitidos.add(codigo);
+        }
+        assertEquals(50, emitidos.size());
+    }
+
+    @Test
+    void codigosConsecutivosNoSonCorrelativos() {
+        CodigoPedidoService servicio = nuevoNodo(false);
+
+        String primero = servicio.siguienteCodigo();
+        String segundo = servicio.siguienteCodigo();
+
+        assertFalse(primero.substring(0, 3).equals(segundo.substring(0, 3))
+                && Math.abs(Integer.parseInt(primero.substring(3)) - Integer.parseInt(segundo.substring(3))) == 1,
+                primero + " -> " + segundo);
+    }
+
+    @Test
+    void permutarEsBiyectivaEnTodoElEspacio() {
+        long espacio = CodigoPedidoService.ESPACIO_CODIGOS;
+        java.util.BitSet vistos = new java.util.BitSet((int) espacio);
+        for (long valor = 0; valor < espacio; valor++) {
+            long permutado = CodigoPedidoService.permutar(valor, CLAVE);
+            assertTrue(permutado >= 0 && permutado < espacio);
+            vistos.set((int) permutado);
+        }
+        assertEquals(espacio, vistos.cardinality());
+    }
+
+    @Test
+    void losTramosDiariosNoSeSolapanEnTodoElCiclo() {
+        int capacidad = 10_000;
+        long tramos = CodigoPedidoService.ESPACIO_CODIGOS / capacidad;
+        // Un día de hoy: epochDay * capacidad ya pasó varias veces el espacio
+        LocalDate desde = LocalDate.of(2026, 10, 18);
+
+        Set<Long> inicios = new HashSet<>();
+        for (long d = 0; d < tramos; d++) {
+            long inicio = CodigoPedidoServiceImpl.tramoDelDia(desde.plusDays(d), capacidad);
+            assertEquals(0, inicio % capacidad);
+            assertTrue(inicio + capacidad <= CodigoPedidoService.ESPACIO_CODIGOS, "día " + d + ": " + inicio);
+            assertTrue(inicios.add(inicio), "tramo repetido el día " + d);
+        }
+        // Cerrado el ciclo se vuelve al primer tramo
+        assertEquals(CodigoPedidoServiceImpl.tramoDelDia(desde, capacidad),
+                CodigoPedidoServiceImpl.tramoDelDia(desde.plusDays(tramos), capacidad));
+    }
+
+    private CodigoPedidoService nuevoNodo(boolean reinicioDiario) {
+        return new CodigoPedidoServiceImpl(secuenciaRepository, pedidosRepository, transactionManager,
+                100, reinicioDiario, 10_000, CLAVE);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.PedidosRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Reservas simultáneas sobre las tres franjas de la hora punta (12:40-13:10):
+ * cuánto tarda una ronda de checkouts en virtual threads y la latencia de cada
+ * reserva, con capacidad normal (casi todo se rechaza) y holgada (todo entra,
+ * el peor caso para los reintentos del CAS).
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class FranjasEntregaServiceImplBenchmark {
+
+    private static final int CHECKOUTS = 50_000;
+    private static final int RONDAS = 5;
+    private static final List<LocalTime> HORAS = List.of(LocalTime.of(12, 40), LocalTime.of(12, 50), LocalTime.of(13, 0));
+
+    @Test
+    void reservasConcurrentesEnLaHoraPunta() throws Exception {
+        System.out.printf("%,d checkouts simultáneos sobre %d franjas:%n", CHECKOUTS, HORAS.size());
+        for (int capacidad : new int[]{30, Integer.MAX_VALUE / 4}) {
+            Resultado resultado = null;
+            // La primera ronda calienta el JIT; se informa la última
+            for (int ronda = 0; ronda < RONDAS; ronda++) {
+                resultado = medir(capacidad);
+            }
+            System.out.printf("  capacidad %,13d: %,5d ms | reserva p50 %,6.1f µs, p99 %,8.1f µs | %,d rechazadas%n",
+                    capacidad, resultado.ms(), resultado.p50() / 1e3, resultado.p99() / 1e3, resultado.rechazadas());
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static Resultado medir(int capacidad) {
+        PedidosRepository pedidosRepository = mock(PedidosRepository.class, withSettings().stubOnly());
+        when(pedidosRepository.sumarUnidadesPorHoraEntrega(any(), any(), any())).thenReturn(List.of());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // Sin anticipación: la hora punta se puede reservar a cualquier hora que corra
+        FranjasEntregaServiceImpl servicio = new FranjasEntregaServiceImpl(pedidosRepository, transactionManager,
+                "07:00", "21:00", 10, capacidad, -24 * 60);
+        servicio.disponibles(1, 1);
+
+        long[] latencias = new long[CHECKOUTS];
+        AtomicInteger rechazadas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        long inicio;
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CHECKOUTS; i++) {
+                int checkout = i;
+                hilos.submit(() -> {
+                    largada.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    LocalTime hora = HORAS.get(random.nextInt(HORAS.size())).plusMinutes(random.nextInt(10));
+                    int unidades = 1 + random.nextInt(4);
+                    long antes = System.nanoTime();
+                    try {
+                        servicio.reservar(hora, unidades);
+                    } catch (IllegalStateException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                    latencias[checkout] = System.nanoTime() - antes;
+                    return null;
+                });
+            }
+            inicio = System.nanoTime();
+            largada.countDown();
+        }
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        Arrays.sort(latencias);
+        return new Resultado(ms, latencias[CHECKOUTS / 2], latencias[CHECKOUTS * 99 / 100], rechazadas.get());
+    }
+
+    private record Resultado(long ms, long p50, long p99, int rechazadas) {
+    }
+}
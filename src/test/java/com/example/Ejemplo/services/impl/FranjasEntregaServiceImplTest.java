@@ -0,0 +1,238 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.FranjaEntregaDTO;
+import com.example.Ejemplo.events.PedidoEstadoCambiadoEvent;
+import com.example.Ejemplo.models.DetallePedido;
+import com.example.Ejemplo.models.EstadoPedido;
+import com.example.Ejemplo.models.Pedido;
+import com.example.Ejemplo.repository.PedidosRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FranjasEntregaServiceImplTest {
+
+    // Sin anticipación: cualquier franja de hoy se puede reservar, sea la hora que sea al correr el test
+    private static final int SIN_ANTICIPACION = -24 * 60;
+
+    private final List<Object[]> ocupacionEnBd = new ArrayList<>();
+    private PedidosRepository pedidosRepository;
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        pedidosRepository = mock(PedidosRepository.class);
+        when(pedidosRepository.sumarUnidadesPorHoraEntrega(any(), any(), any())).thenReturn(ocupacionEnBd);
+        when(pedidosRepository.findConDetallesById(anyInt())).thenReturn(Optional.empty());
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void cadaHoraCaeEnLaFranjaQueLaContiene() {
+        FranjasEntregaServiceImpl servicio = servicio("07:00", "21:00", 10, 30, SIN_ANTICIPACION);
+
+        assertEquals(LocalTime.of(7, 0), servicio.reservar(LocalTime.of(7, 0), 1));
+        assertEquals(LocalTime.of(7, 0), servicio.reservar(LocalTime.of(7, 9, 59), 1));
+        assertEquals(LocalTime.of(7, 10), servicio.reservar(LocalTime.of(7, 10), 1));
+        assertEquals(LocalTime.of(12, 30), servicio.reservar(LocalTime.of(12, 37), 1));
+        assertEquals(LocalTime.of(20, 50), servicio.reservar(LocalTime.of(20, 59), 1));
+    }
+
+    @Test
+    void horasFueraDelHorarioSeRechazan() {
+        FranjasEntregaServiceImpl servicio = servicio("07:00", "21:00", 10, 30, SIN_ANTICIPACION);
+
+        assertThrows(IllegalArgumentException.class, () -> servicio.reservar(LocalTime.of(6, 59), 1));
+        assertThrows(IllegalArgumentException.class, () -> servicio.reservar(LocalTime.of(21, 0), 1));
+        assertThrows(IllegalArgumentException.class, () -> servicio.reservar(LocalTime.of(7, 0), 0));
+
+        // Un cierre que no cae justo en una franja deja fuera el tramo incompleto
+        FranjasEntregaServiceImpl corto = servicio("07:00", "07:25", 10, 30, SIN_ANTICIPACION);
+        assertEquals(LocalTime.of(7, 10), corto.reservar(LocalTime.of(7, 19), 1));
+        assertThrows(IllegalArgumentException.class, () -> corto.reservar(LocalTime.of(7, 20), 1));
+        assertEquals(2, corto.disponibles(1, 50).size());
+    }
+
+    @Test
+    void sinLaAnticipacionMinimaNoSeReserva() {
+        // Anticipación de un día entero: ninguna franja de hoy está a tiempo
+        FranjasEntregaServiceImpl servicio = servicio("07:00", "21:00", 10, 30, 24 * 60);
+
+        assertThrows(IllegalArgumentException.class, () -> servicio.reservar(LocalTime.of(20, 50), 1));
+        assertTrue(servicio.disponibles(1, 50).isEmpty());
+    }
+
+    @Test
+    void laCapacidadSeRespetaYUnPedidoGrandeSoloEntraEnUnaFranjaVacia() {
+        FranjasEntregaServiceImpl servicio = servicio("07:00", "21:00", 10, 30, SIN_ANTICIPACION);
+        LocalTime hora = LocalTime.of(9, 0);
+
+        servicio.reservar(hora, 20);
+        servicio.reservar(hora, 10);
+        assertThrows(IllegalStateException.class, () -> servicio.reservar(hora, 1));
+
+        LocalTime otra = LocalTime.of(9, 10);
+        servicio.reservar(otra, 45);
+        assertThrows(IllegalStateException.class, () -> servicio.reservar(otra, 1));
+    }
+
+    @Test
+    void liberarDevuelveCapacidadSinBajarDeCero() {
+        FranjasEntregaServiceImpl servicio = servicio("07:00", "21:00", 10, 30, SIN_ANTICIPACION);
+        LocalTime hora = LocalTime.of(9, 0);
+        servicio.reservar(hora, 30);
+
+        servicio.liberar(LocalDate.now(), hora, 5);
+        servicio.reservar(hora, 5);
+        assertThrows(IllegalStateException.class, () -> servicio.reservar(hora, 1));
+
+        servicio.liberar(LocalDate.now(), hora, 100);
+        assertEquals(30, disponiblesEn(servicio, hora));
+        // Un día que no está cargado no se toca
+        servicio.liberar(LocalDate.now().minusDays(1), hora, 5);
+        servicio.liberar(LocalDate.now(), LocalTime.of(23, 0), 5);
+    }
+
+    @Test
+    void elDiaSeCargaDesdeLosPedidos() {
+        ocupacionEnBd.add(new Object[]{LocalTime.of(9, 5), 25L});
+        ocupacionEnBd.add(new Object[]{LocalTime.of(9, 7), 3L});
+        ocupacionEnBd.add(new Object[]{LocalTime.of(22, 0), 8L});
+        FranjasEntregaServiceImpl servicio = servicio("07:00", "21:00", 10, 30, SIN_ANTICIPACION);
+
+        assertEquals(2, disponiblesEn(servicio, LocalTime.of(9, 0)));
+        assertThrows(IllegalStateException.class, () -> servicio.reservar(LocalTime.of(9, 0), 3));
+        servicio.reservar(LocalTime.of(9, 0), 2);
+
+        // Una sola carga por día
+        servicio.disponibles(1, 50);
+        verify(pedidosRepository, times(1)).sumarUnidadesPorHoraEntrega(any(), any(), any());
+    }
+
+    @Test
+    void disponiblesOfreceLasFranjasDondeEntraElCarrito() {
+        FranjasEntregaServiceImpl servicio = servicio("07:00", "08:00", 10, 30, SIN_ANTICIPACION);
+        servicio.reservar(LocalTime.of(7, 0), 28);
+        servicio.reservar(LocalTime.of(7, 10), 30);
+
+        List<FranjaEntregaDTO> franjas = servicio.disponibles(3, 50);
+        assertEquals(4, franjas.size());
+        assertEquals(LocalTime.of(7, 20), franjas.get(0).getInicio());
+        assertEquals(LocalTime.of(7, 30), franjas.get(0).getFin());
+        assertEquals(30, franjas.get(0).getDisponibles());
+
+        assertEquals(5, servicio.disponibles(2, 50).size());
+        assertEquals(2, servicio.disponibles(1, 2).size());
+        // Más grande que la capacidad: solo las vacías
+        assertEquals(4, servicio.disponibles(40, 50).size());
+    }
+
+    @Test
+    void cancelarUnPedidoLiberaSuFranja() {
+        FranjasEntregaServiceImpl servicio = servicio("07:00", "21:00", 10, 30, SIN_ANTICIPACION);
+        LocalTime hora = LocalTime.of(9, 0);
+        servicio.reservar(hora, 30);
+
+        Pedido pedido = new Pedido();
+        pedido.setIdPedido(7);
+        pedido.setFechaPedido(LocalDateTime.now());
+        pedido.setFechaEntrega(hora);
+        pedido.setDetallePedido(List.of(detalle(10), detalle(2)));
+        when(pedidosRepository.findConDetallesById(7)).thenReturn(Optional.of(pedido));
+
+        servicio.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(
+                7, "ABC123", 1, EstadoPedido.PENDIENTE, EstadoPedido.EN_PREPARACION));
+        assertEquals(0, disponiblesEn(servicio, hora));
+
+        servicio.onPedidoEstadoCambiado(new PedidoEstadoCambiadoEvent(
+                7, "ABC123", 1, EstadoPedido.PENDIENTE, EstadoPedido.CANCELADO));
+        assertEquals(12, disponiblesEn(servicio, hora));
+    }
+
+    @Test
+    void milesDeCheckoutsSimultaneosNoSobrepasanLaCapacidad() throws Exception {
+        int capacidad = 30;
+        FranjasEntregaServiceImpl servicio = servicio("07:00", "07:30", 10, capacidad, SIN_ANTICIPACION);
+        List<LocalTime> horas = List.of(LocalTime.of(7, 0), LocalTime.of(7, 10), LocalTime.of(7, 20));
+        int checkouts = 5000;
+
+        Map<LocalTime, AtomicInteger> aceptadas = new ConcurrentHashMap<>();
+        horas.forEach(hora -> aceptadas.put(hora, new AtomicInteger()));
+        AtomicInteger rechazados = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < checkouts; i++) {
+                hilos.submit(() -> {
+                    largada.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    LocalTime hora = horas.get(random.nextInt(horas.size())).plusMinutes(random.nextInt(10));
+                    int unidades = 1 + random.nextInt(4);
+                    try {
+                        aceptadas.get(servicio.reservar(hora, unidades)).addAndGet(unidades);
+                    } catch (IllegalStateException e) {
+                        rechazados.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            largada.countDown();
+        }
+
+        for (LocalTime hora : horas) {
+            int reservadas = aceptadas.get(hora).get();
+            assertTrue(reservadas <= capacidad, hora + ": " + reservadas);
+            // Lo aceptado es exactamente lo que registra el contador
+            assertEquals(capacidad - reservadas, disponiblesEn(servicio, hora), hora.toString());
+        }
+        assertTrue(rechazados.get() > checkouts - horas.size() * capacidad);
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private FranjasEntregaServiceImpl servicio(String apertura, String cierre, int minutos,
+                                               int capacidad, int anticipacionMin) {
+        return new FranjasEntregaServiceImpl(pedidosRepository, transactionManager,
+                apertura, cierre, minutos, capacidad, anticipacionMin);
+    }
+
+    private static int disponiblesEn(FranjasEntregaServiceImpl servicio, LocalTime inicio) {
+        return servicio.disponibles(1, 1000).stream()
+                .filter(franja -> franja.getInicio().equals(inicio))
+                .mapToInt(FranjaEntregaDTO::getDisponibles)
+                .findFirst()
+                .orElse(0);
+    }
+
+    private static DetallePedido detalle(int cantidad) {
+        DetallePedido detalle = new DetallePedido();
+        detalle.setCantidad(cantidad);
+        return detalle;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.services.AlmacenImagenesService;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+
+/**
+ * Originales en un almacén de prueba (un directorio temporal), nombrados por
+ * su SHA-256 como los guarda AlmacenImagenesService. Lo comparten la prueba y
+ * el benchmark de variantes.
+ */
+final class ImagenesDePrueba {
+
+    private ImagenesDePrueba() {
+    }
+
+    static String url(String nombre) {
+        return AlmacenImagenesService.PREFIJO_URL + nombre;
+    }
+
+    /**
+     * Escribe la imagen en el almacén con su SHA-256 como nombre
+     */
+    static String guardarOriginal(Path directorio, BufferedImage imagen, String extension) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, extension.equals("jpg") ? "jpeg" : extension, salida);
+        byte[] bytes = salida.toByteArray();
+        String nombre = sha256(bytes) + "." + extension;
+        Files.write(directorio.resolve(nombre), bytes);
+        return nombre;
+    }
+
+    /**
+     * Degradado con figuras al azar: algo que el JPEG no comprima a nada
+     */
+    static BufferedImage foto(int ancho, int alto, long semilla) {
+        Random random = new Random(semilla);
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(random.nextInt()), ancho, alto, new Color(random.nextInt())));
+        g.fillRect(0, 0, ancho, alto);
+        for (int i = 0; i < 200; i++) {
+            g.setColor(new Color(random.nextInt()));
+            g.fillOval(random.nextInt(ancho), random.nextInt(alto), 1 + random.nextInt(ancho / 8), 1 + random.nextInt(alto / 8));
+        }
+        g.dispose();
+        return imagen;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Compras de un producto muy pedido desde cientos de hilos virtuales: el
+ * camino anterior (findById + reducirStock + save por línea, serializado por
+ * el lock de fila) frente al libro de stock con su volcado por lotes. Cada
+ * sentencia a la BD cuesta {@link #IDA_Y_VUELTA_NANOS}.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class InventarioServiceImplBenchmark {
+
+    private static final int ID_PRODUCTO = 7;
+    private static final int COMPRADORES = 400;
+    private static final long IDA_Y_VUELTA_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final AtomicInteger stockEnBd = new AtomicInteger();
+
+    @Test
+    void libroDeStockFrenteALockDeFila() throws Exception {
+        stockEnBd.set(COMPRADORES);
+        ReentrantLock lockDeFila = new ReentrantLock();
+        long conLock = comprar(() -> {
+            // SELECT ... FOR UPDATE, UPDATE y commit con la fila tomada
+            lockDeFila.lock();
+            try {
+                LockSupport.parkNanos(IDA_Y_VUELTA_NANOS);
+                stockEnBd.decrementAndGet();
+                LockSupport.parkNanos(IDA_Y_VUELTA_NANOS);
+            } finally {
+                lockDeFila.unlock();
+            }
+        });
+        assertEquals(0, stockEnBd.get());
+
+        stockEnBd.set(COMPRADORES);
+        InventarioServiceImpl inventario = crearInventario();
+        AtomicBoolean terminado = new AtomicBoolean();
+        Thread volcador = Thread.ofVirtual().start(() -> {
+            while (!terminado.get()) {
+                inventario.volcarPendientes();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+        });
+        long conLibro = comprar(() -> inventario.reservar(Map.of(ID_PRODUCTO, 1)));
+        terminado.set(true);
+        volcador.join();
+        inventario.volcarPendientes();
+        assertEquals(0, stockEnBd.get());
+
+        System.out.printf("%d compras del mismo producto: lock de fila %.0f compras/s, libro de stock %.0f compras/s (x%.0f)%n",
+                COMPRADORES, porSegundo(conLock), porSegundo(conLibro), (double) conLock / conLibro);
+        assertTrue(conLibro < conLock, "libro = " + conLibro + " ns, lock de fila = " + conLock + " ns");
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * @return nanosegundos desde que se suelta a los compradores hasta que terminan todos
+     */
+    private static long comprar(Runnable compra) throws InterruptedException {
+        CountDownLatch salida = new CountDownLatch(1);
+        long inicio;
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < COMPRADORES; i++) {
+                hilos.submit(() -> {
+                    salida.await();
+                    compra.run();
+                    return null;
+                });
+            }
+            inicio = System.nanoTime();
+            salida.countDown();
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private static double porSegundo(long nanos) {
+        return COMPRADORES * 1e9 / nanos;
+    }
+
+    private InventarioServiceImpl crearInventario() {
+        ProductoRepository productoRepository = mock(ProductoRepository.class, withSettings().stubOnly());
+        when(productoRepository.findStockById(ID_PRODUCTO)).thenAnswer(inv -> {
+            LockSupport.parkNanos(IDA_Y_VUELTA_NANOS);
+            return java.util.Optional.of(stockEnBd.get());
+        });
+        when(productoRepository.descontarStock(eq(ID_PRODUCTO), anyInt())).thenAnswer(inv -> {
+            LockSupport.parkNanos(IDA_Y_VUELTA_NANOS);
+            int cantidad = inv.getArgument(1);
+            int anterior = stockEnBd.getAndUpdate(s -> s >= cantidad ? s - cantidad : s);
+            return anterior >= cantidad ? 1 : 0;
+        });
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new InventarioServiceImpl(productoRepository, transactionManager, 10);
+    }
+}
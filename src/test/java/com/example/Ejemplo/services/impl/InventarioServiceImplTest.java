@@ -0,0 +1,185 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.events.StockEditadoEvent;
+import com.example.Ejemplo.repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class InventarioServiceImplTest {
+
+    private static final int ID_PRODUCTO = 7;
+
+    // Hace de columna productos.stock con los mismos UPDATE condicionales del repositorio
+    private final AtomicInteger stockEnBd = new AtomicInteger();
+    private InventarioServiceImpl inventario;
+
+    @BeforeEach
+    void setUp() {
+        ProductoRepository productoRepository = mock(ProductoRepository.class, withSettings().stubOnly());
+        when(productoRepository.findStockById(ID_PRODUCTO))
+                .thenAnswer(inv -> Optional.of(stockEnBd.get()));
+        when(productoRepository.descontarStock(eq(ID_PRODUCTO), anyInt())).thenAnswer(inv -> {
+            int cantidad = inv.getArgument(1);
+            int anterior = stockEnBd.getAndUpdate(s -> s >= cantidad ? s - cantidad : s);
+            return anterior >= cantidad ? 1 : 0;
+        });
+        when(productoRepository.incrementarStock(eq(ID_PRODUCTO), anyInt())).thenAnswer(inv -> {
+            stockEnBd.addAndGet(inv.getArgument(1));
+            return 1;
+        });
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        inventario = new InventarioServiceImpl(productoRepository, transactionManager, 3);
+    }
+
+    @Test
+    void noVendeMasQueElStockConCientosDeHilosYVolcadosConcurrentes() throws Exception {
+        stockEnBd.set(100);
+        int compradores = 500;
+        AtomicInteger vendidas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        AtomicBoolean terminado = new AtomicBoolean();
+        CountDownLatch salida = new CountDownLatch(1);
+
+        // Volcados y sincronizaciones (edición manual) compiten con las reservas
+        Thread volcador = Thread.ofVirtual().start(() -> {
+            int vuelta = 0;
+            while (!terminado.get()) {
+                if (vuelta++ % 2 == 0) {
+                    inventario.volcarPendientes();
+                } else {
+                    inventario.sincronizar(ID_PRODUCTO);
+                }
+                LockSupport.parkNanos(200_000);
+            }
+        });
+
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < compradores; i++) {
+                hilos.submit(() -> {
+                    salida.await();
+                    try {
+                        inventario.reservar(Map.of(ID_PRODUCTO, 1));
+                        vendidas.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            salida.countDown();
+        }
+        terminado.set(true);
+        volcador.join();
+        inventario.volcarPendientes();
+
+        assertEquals(100, vendidas.get());
+        assertEquals(compradores - 100, rechazadas.get());
+        assertEquals(0, inventario.stockDisponible(ID_PRODUCTO));
+        assertEquals(0, stockEnBd.get());
+    }
+
+    @Test
+    void liberarDevuelveLoReservadoSinTocarLaBd() {
+        stockEnBd.set(10);
+
+        inventario.reservar(Map.of(ID_PRODUCTO, 3));
+        inventario.liberar(ID_PRODUCTO, 3);
+
+        assertEquals(0, inventario.volcarPendientes());
+        assertEquals(10, inventario.stockDisponible(ID_PRODUCTO));
+        assertEquals(10, stockEnBd.get());
+    }
+
+    @Test
+    void reservaSinStockNoDejaReservasParciales() {
+        stockEnBd.set(2);
+
+        assertThrows(IllegalStateException.class, () -> inventario.reservar(Map.of(ID_PRODUCTO, 3)));
+
+        assertEquals(2, inventario.stockDisponible(ID_PRODUCTO));
+    }
+
+    @Test
+    void updateCondicionalFallidoMantieneLoVendidoPendiente() {
+        stockEnBd.set(100);
+        inventario.reservar(Map.of(ID_PRODUCTO, 10));
+        // Alguien bajó el stock a mano por debajo de lo ya vendido
+        stockEnBd.set(5);
+
+        assertEquals(0, inventario.volcarPendientes());
+        inventario.sincronizar(ID_PRODUCTO);
+        assertEquals(5, stockEnBd.get());
+        assertEquals(90, inventario.stockDisponible(ID_PRODUCTO));
+
+        // Corregido el stock, el siguiente volcado descuenta las 10 unidades
+        stockEnBd.set(50);
+        assertEquals(1, inventario.volcarPendientes());
+        assertEquals(40, stockEnBd.get());
+    }
+
+    @Test
+    void deltaRechazadoSeApartaAlAgotarLosReintentos() {
+        stockEnBd.set(100);
+        inventario.reservar(Map.of(ID_PRODUCTO, 10));
+        stockEnBd.set(5);
+
+        assertEquals(0, inventario.volcarPendientes());
+        assertEquals(0, inventario.volcarPendientes());
+        assertEquals(Map.of(), inventario.deltasDescartados());
+        assertEquals(0, inventario.volcarPendientes());
+
+        // Tercer rechazo: las 10 unidades quedan apartadas y manda la BD
+        assertEquals(Map.of(ID_PRODUCTO, 10), inventario.deltasDescartados());
+        assertEquals(5, inventario.stockDisponible(ID_PRODUCTO));
+        assertEquals(0, inventario.volcarPendientes());
+        assertEquals(5, stockEnBd.get());
+    }
+
+    @Test
+    void trasElCommitDeUnaEdicionSeRecargaElStockNuevo() {
+        stockEnBd.set(20);
+        // actualizar vuelca antes de editar, pero una reserva recarga la entrada antes del commit
+        inventario.sincronizar(ID_PRODUCTO);
+        inventario.reservar(Map.of(ID_PRODUCTO, 2));
+        stockEnBd.set(50);
+
+        inventario.onStockEditado(new StockEditadoEvent(ID_PRODUCTO));
+
+        assertEquals(48, stockEnBd.get());
+        assertEquals(48, inventario.stockDisponible(ID_PRODUCTO));
+    }
+
+    @Test
+    void sincronizarVuelcaAntesDeRecargarDesdeLaBd() {
+        stockEnBd.set(20);
+        inventario.reservar(Map.of(ID_PRODUCTO, 4));
+
+        inventario.sincronizar(ID_PRODUCTO);
+
+        assertEquals(16, stockEnBd.get());
+        assertEquals(16, inventario.stockDisponible(ID_PRODUCTO));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.Ejemplo.services.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.annotation.RestrictedTransactionalEventListenerFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Spring rechaza al arrancar los oyentes transaccionales cuyo @Transactional
+ * efectivo (p. ej. heredado de la clase) no sea REQUIRES_NEW ni NOT_SUPPORTED.
+ */
+class ListenersTransaccionalesTest {
+
+    private static final List<Class<?>> SERVICIOS_CON_OYENTES = List.of(
+            CatalogoServiceImpl.class,
+            ResumenVentasServiceImpl.class);
+
+    @Test
+    void losOyentesSeRegistranSinErrores() {
+        RestrictedTransactionalEventListenerFactory fabrica = new RestrictedTransactionalEventListenerFactory();
+        for (Class<?> servicio : SERVICIOS_CON_OYENTES) {
+            List<Method> oyentes = java.util.Arrays.stream(servicio.getDeclaredMethods())
+                    .filter(m -> AnnotatedElementUtils.hasAnnotation(m, TransactionalEventListener.class))
+                    .toList();
+            assertFalse(oyentes.isEmpty(), servicio.getSimpleName());
+            for (Method oyente : oyentes) {
+                assertDoesNotThrow(() -> fabrica.createApplicationListener("servicio", servicio, oyente),
+                        servicio.getSimpleName() + "." + oyente.getName());
+            }
+        }
+    }
+}
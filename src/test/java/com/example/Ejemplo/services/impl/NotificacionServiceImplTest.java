@@ -0,0 +1,190 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.models.Notificacion;
+import com.example.Ejemplo.models.Usuario;
+import com.example.Ejemplo.repository.NotificacionRepository;
+import com.example.Ejemplo.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class NotificacionServiceImplTest {
+
+    private static final int USUARIO = 1;
+
+    // Notificaciones del "BD" falso: idNotificacion -> leída
+    private final Map<Integer, Boolean> filas = new ConcurrentHashMap<>();
+    private final AtomicInteger secuencia = new AtomicInteger();
+    private volatile Runnable alGuardar = () -> { };
+
+    private NotificacionRepository notificacionRepository;
+    private NotificacionServiceImpl servicio;
+
+    @BeforeEach
+    void setUp() {
+        notificacionRepository = mock(NotificacionRepository.class, withSettings().stubOnly());
+        UsuarioRepository usuarioRepository = mock(UsuarioRepository.class, withSettings().stubOnly());
+        Usuario usuario = new Usuario();
+        usuario.setIdUsuario(USUARIO);
+        when(usuarioRepository.getReferenceById(anyInt())).thenReturn(usuario);
+        when(notificacionRepository.save(any())).thenAnswer(inv -> {
+            Notificacion notificacion = inv.getArgument(0);
+            notificacion.setIdNotificacion(secuencia.incrementAndGet());
+            filas.put(notificacion.getIdNotificacion(), notificacion.isEstado());
+            alGuardar.run();
+            return notificacion;
+        });
+        when(notificacionRepository.countByUsuario_IdUsuarioAndEstadoFalse(anyInt())).thenAnswer(inv -> noLeidas());
+        when(notificacionRepository.marcarLeidas(anyInt(), anyInt())).thenAnswer(inv -> {
+            int hastaId = inv.getArgument(1);
+            int marcadas = 0;
+            for (Map.Entry<Integer, Boolean> fila : filas.entrySet()) {
+                if (fila.getKey() <= hastaId && filas.replace(fila.getKey(), false, true)) {
+                    marcadas++;
+                }
+            }
+            return marcadas;
+        });
+        when(notificacionRepository.findById(anyInt())).thenAnswer(inv -> {
+            Integer id = inv.getArgument(0);
+            Boolean leida = filas.get(id);
+            if (leida == null) {
+                return Optional.empty();
+            }
+            Notificacion notificacion = new Notificacion();
+            notificacion.setIdNotificacion(id);
+            notificacion.setUsuario(usuario);
+            notificacion.setEstado(leida);
+            return Optional.of(notificacion);
+        });
+        doAnswer(inv -> {
+            filas.remove(((Notificacion) inv.getArgument(0)).getIdNotificacion());
+            return null;
+        }).when(notificacionRepository).delete(any());
+        when(notificacionRepository.eliminarTodas(anyInt())).thenAnswer(inv -> {
+            int eliminadas = filas.size();
+            filas.clear();
+            return eliminadas;
+        });
+
+        servicio = new NotificacionServiceImpl(notificacionRepository, usuarioRepository,
+                mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void elContadorSigueAltasMarcadosYBorrados() {
+        assertEquals(0, servicio.contarSinLeer(USUARIO));
+
+        servicio.sendNotificacion(USUARIO, "a");
+        servicio.sendNotificacion(USUARIO, "b");
+        servicio.sendNotificacion(USUARIO, "c");
+        assertEquals(3, servicio.contarSinLeer(USUARIO));
+
+        assertEquals(2, servicio.marcarLeidas(USUARIO, 2));
+        assertEquals(1, servicio.contarSinLeer(USUARIO));
+
+        servicio.deleteNotificacion(3, USUARIO);
+        assertEquals(0, servicio.contarSinLeer(USUARIO));
+
+        servicio.sendNotificacion(USUARIO, "d");
+        assertEquals(1, servicio.contarSinLeer(USUARIO));
+        servicio.deleteAllNotificaciones(USUARIO);
+        assertEquals(0, servicio.contarSinLeer(USUARIO));
+    }
+
+    @Test
+    void unCountEnVueloNoQuedaGuardadoSiUnCommitLoAdelanta() throws Exception {
+        CountDownLatch contando = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        AtomicInteger llamadas = new AtomicInteger();
+        when(notificacionRepository.countByUsuario_IdUsuarioAndEstadoFalse(anyInt())).thenAnswer(inv -> {
+            long total = noLeidas();
+            if (llamadas.incrementAndGet() == 1) {
+                // Primer COUNT: lee antes del alta y se demora en volver
+                contando.countDown();
+                seguir.await();
+            }
+            return total;
+        });
+
+        CountDownLatch guardada = new CountDownLatch(1);
+        alGuardar = guardada::countDown;
+
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            hilos.submit(() -> servicio.contarSinLeer(USUARIO));
+            assertTrue(contando.await(5, TimeUnit.SECONDS));
+            // El alta confirma mientras el COUNT anterior sigue en vuelo
+            Thread alta = Thread.ofPlatform().start(() -> servicio.sendNotificacion(USUARIO, "nueva"));
+            try {
+                assertTrue(guardada.await(5, TimeUnit.SECONDS));
+                // Tras el save, su invalidate queda esperando a que termine el COUNT
+                esperarBloqueado(alta);
+            } finally {
+                seguir.countDown();
+            }
+            alta.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        assertEquals(1, servicio.contarSinLeer(USUARIO));
+    }
+
+    @Test
+    void conAltasYMarcadosConcurrentesElContadorTerminaIgualAlCount() throws Exception {
+        int hilos = 16;
+        int operaciones = 300;
+        CountDownLatch largada = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int h = 0; h < hilos; h++) {
+                executor.submit(() -> {
+                    largada.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operaciones; i++) {
+                        switch (random.nextInt(4)) {
+                            case 0, 1 -> servicio.sendNotificacion(USUARIO, "n");
+                            case 2 -> servicio.marcarLeidas(USUARIO, random.nextInt(secuencia.get() + 1));
+                            default -> servicio.contarSinLeer(USUARIO);
+                        }
+                    }
+                    return null;
+                });
+            }
+            largada.countDown();
+        }
+
+        assertEquals(noLeidas(), servicio.contarSinLeer(USUARIO));
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static void esperarBloqueado(Thread hilo) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hilo.getState() != Thread.State.BLOCKED && hilo.getState() != Thread.State.WAITING) {
+            assertTrue(hilo.isAlive(), "el invalidate no esperó al COUNT en vuelo");
+            assertTrue(System.nanoTime() < limite, "estado: " + hilo.getState());
+            Thread.onSpinWait();
+        }
+    }
+
+    private long noLeidas() {
+        return filas.values().stream().filter(leida -> !leida).count();
+    }
+}
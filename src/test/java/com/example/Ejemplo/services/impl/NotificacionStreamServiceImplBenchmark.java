@@ -0,0 +1,206 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.services.NotificacionStreamService;
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Miles de conexiones SSE inactivas contra un Tomcat embebido con hilos
+ * virtuales (como la aplicación con spring.threads.virtual.enabled): mide la
+ * memoria por conexión, los hilos de plataforma y el tiempo de entregar un
+ * evento a todos, y comprueba el reenvío con Last-Event-ID al reconectar.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class NotificacionStreamServiceImplBenchmark {
+
+    private static final int CONEXIONES = 5_000;
+
+    @TempDir
+    Path directorio;
+
+    private Tomcat tomcat;
+    private AnnotationConfigWebApplicationContext contexto;
+    private NotificacionStreamService servicio;
+    private HttpClient cliente;
+    private ExecutorService lectores;
+    private int puerto;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        contexto = new AnnotationConfigWebApplicationContext();
+        contexto.register(Web.class);
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(directorio.toString());
+        tomcat.setPort(0);
+        Connector conector = tomcat.getConnector();
+        conector.getProtocolHandler().setExecutor(new VirtualThreadExecutor("tomcat-"));
+        conector.setProperty("maxConnections", String.valueOf(CONEXIONES * 2));
+        Context ctx = tomcat.addContext("", directorio.toString());
+        Wrapper dispatcher = Tomcat.addServlet(ctx, "dispatcher", new DispatcherServlet(contexto));
+        dispatcher.setAsyncSupported(true);
+        dispatcher.setLoadOnStartup(1);
+        ctx.addServletMappingDecoded("/*", "dispatcher");
+        tomcat.start();
+        puerto = conector.getLocalPort();
+        servicio = contexto.getBean(NotificacionStreamService.class);
+
+        lectores = Executors.newVirtualThreadPerTaskExecutor();
+        cliente = HttpClient.newBuilder().executor(lectores).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        tomcat.stop();
+        tomcat.destroy();
+        cliente.shutdownNow();
+        lectores.shutdownNow();
+        contexto.close();
+    }
+
+    @Test
+    void milesDeConexionesInactivasYUnEventoATodas() throws Exception {
+        long memoriaAntes = memoriaUsada();
+        int hilosAntes = ManagementFactory.getThreadMXBean().getThreadCount();
+        CountDownLatch entregados = new CountDownLatch(CONEXIONES);
+        List<Stream<String>> streams = new ArrayList<>();
+
+        for (int id = 1; id <= CONEXIONES; id++) {
+            HttpResponse<Stream<String>> respuesta = conectar(id, null);
+            streams.add(respuesta.body());
+            lectores.submit(() -> respuesta.body()
+                    .filter(linea -> linea.equals("event:pedido"))
+                    .forEach(linea -> entregados.countDown()));
+        }
+        esperar(() -> servicio.conexionesActivas() == CONEXIONES);
+
+        long memoriaPorConexion = (memoriaUsada() - memoriaAntes) / CONEXIONES;
+        int hilosDespues = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        long inicio = System.nanoTime();
+        for (int id = 1; id <= CONEXIONES; id++) {
+            servicio.publicar(id, NotificacionStreamServiceImpl.TIPO_PEDIDO, Map.of("estado", "LISTO"));
+        }
+        assertTrue(entregados.await(60, TimeUnit.SECONDS), "faltan " + entregados.getCount());
+        long entregaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        System.out.printf("%d conexiones SSE: ~%d KB de heap por conexión (cliente incluido), hilos de plataforma %d -> %d, "
+                + "un evento a todas en %d ms%n", CONEXIONES, memoriaPorConexion / 1024, hilosAntes, hilosDespues, entregaMs);
+        // Las conexiones inactivas no ocupan hilos de plataforma
+        assertTrue(hilosDespues - hilosAntes < 100, hilosAntes + " -> " + hilosDespues);
+        streams.forEach(Stream::close);
+    }
+
+    @Test
+    void alReconectarSeReenviaLoPerdidoDesdeLastEventId() throws Exception {
+        HttpResponse<Stream<String>> primera = conectar(7, null);
+        AtomicLong ultimoId = new AtomicLong();
+        CountDownLatch recibido = new CountDownLatch(1);
+        lectores.submit(() -> primera.body()
+                .filter(linea -> linea.startsWith("id:"))
+                .forEach(linea -> {
+                    ultimoId.set(Long.parseLong(linea.substring(3)));
+                    recibido.countDown();
+                }));
+        esperar(() -> servicio.conexionesActivas() == 1);
+
+        servicio.publicar(7, NotificacionStreamServiceImpl.TIPO_PEDIDO, Map.of("estado", "EN_PREPARACION"));
+        assertTrue(recibido.await(10, TimeUnit.SECONDS));
+        primera.body().close();
+        // Mientras el navegador está desconectado
+        servicio.publicar(7, NotificacionStreamServiceImpl.TIPO_PEDIDO, Map.of("estado", "LISTO"));
+
+        try (Stream<String> segunda = conectar(7, ultimoId.get()).body()) {
+            String datos = segunda.filter(linea -> linea.startsWith("data:")).findFirst().orElseThrow();
+            assertEquals("data:{\"estado\":\"LISTO\"}", datos);
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private HttpResponse<Stream<String>> conectar(int idUsuario, Long ultimoEventoId) throws Exception {
+        HttpRequest.Builder pedido = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/stream/" + idUsuario));
+        if (ultimoEventoId != null) {
+            pedido.header("Last-Event-ID", String.valueOf(ultimoEventoId));
+        }
+        return cliente.send(pedido.build(), HttpResponse.BodyHandlers.ofLines());
+    }
+
+    private static void esperar(java.util.function.BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.nanoTime() < limite, "tiempo de espera agotado");
+            Thread.sleep(20);
+        }
+    }
+
+    private static long memoriaUsada() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class Web {
+
+        @Bean
+        NotificacionStreamServiceImpl notificacionStreamService() {
+            return new NotificacionStreamServiceImpl();
+        }
+
+        @Bean
+        Canal canal(NotificacionStreamService servicio) {
+            return new Canal(servicio);
+        }
+    }
+
+    /**
+     * Lo mismo que NotificacionController.stream, con el usuario en la ruta
+     */
+    @RestController
+    record Canal(NotificacionStreamService servicio) {
+
+        @GetMapping("/stream/{idUsuario}")
+        SseEmitter stream(@PathVariable int idUsuario,
+                          @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEventoId) {
+            return servicio.suscribir(idUsuario, ultimoEventoId);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.mapper.PedidoMapper;
+import com.example.Ejemplo.models.EstadoPedido;
+import com.example.Ejemplo.models.Pedido;
+import com.example.Ejemplo.repository.PedidosRepository;
+import com.example.Ejemplo.services.CodigoPedidoService;
+import com.example.Ejemplo.services.NotificacionService;
+import com.example.Ejemplo.services.OutboxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Latencia de "avanzar" en el panel de cocina con la notificación escrita en
+ * la misma transacción (como antes: SELECT del usuario e INSERT en
+ * notificaciones) frente al outbox (un INSERT en outbox_notificaciones; el
+ * despachador entrega después). Cada sentencia es un viaje simulado a MySQL,
+ * y el INSERT en notificaciones se mide normal y lento (tabla bajo carga).
+ * También mide cuánto tarda el outbox en entregar tras el commit.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class OutboxServiceImplBenchmark {
+
+    private static final long VIAJE_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long INSERT_LENTO_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final int ADMINISTRADORES = 4;
+    private static final int TRANSICIONES_POR_ADMINISTRADOR = 300;
+
+    @Test
+    void latenciaDeAvanzarEstadoEnLineaFrenteAOutbox() throws Exception {
+        // Calentamiento: la primera ronda paga el JIT y la carga de clases
+        medirEnLinea(VIAJE_NANOS);
+        medirOutbox(VIAJE_NANOS);
+
+        System.out.printf("avanzarEstadoPedido, %d administradores x %d transiciones:%n",
+                ADMINISTRADORES, TRANSICIONES_POR_ADMINISTRADOR);
+        for (long insertNotificacion : new long[]{VIAJE_NANOS, INSERT_LENTO_NANOS}) {
+            String escenario = "INSERT de notificación " + TimeUnit.NANOSECONDS.toMicros(insertNotificacion) + " µs";
+            imprimir(escenario + ", en línea", medirEnLinea(insertNotificacion));
+            imprimir(escenario + ", outbox  ", medirOutbox(insertNotificacion));
+        }
+    }
+
+    @Test
+    void latenciaDelCommitALaEntrega() throws Exception {
+        BdOutbox bd = new BdOutbox();
+        OutboxServiceImpl outbox = outbox(bd, 0);
+        outbox.iniciar();
+        int mensajes = 200;
+        long[] latencias = new long[mensajes];
+        try {
+            for (int i = 0; i < mensajes; i++) {
+                String clave = "k" + i;
+                long inicio = System.nanoTime();
+                conCommit(() -> outbox.encolarNotificacion(1, "m", clave));
+                while (bd.cantidadEntregadas() <= i) {
+                    Thread.onSpinWait();
+                }
+                latencias[i] = System.nanoTime() - inicio;
+            }
+        } finally {
+            outbox.detener();
+        }
+
+        Arrays.sort(latencias);
+        System.out.printf("Commit -> entrega del outbox: p50 %,d µs, p99 %,d µs%n",
+                TimeUnit.NANOSECONDS.toMicros(latencias[mensajes / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencias[mensajes * 99 / 100]));
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static long[] medirEnLinea(long insertNotificacion) throws Exception {
+        // Como antes: el hilo del administrador relee al usuario e inserta la notificación
+        OutboxService enLinea = new OutboxService() {
+            @Override
+            public boolean encolarNotificacion(int idUsuario, String mensaje, String clave) {
+                viaje(VIAJE_NANOS);
+                viaje(insertNotificacion);
+                return true;
+            }
+
+            @Override
+            public int despachar() {
+                return 0;
+            }
+        };
+        return avanzar(enLinea);
+    }
+
+    private static long[] medirOutbox(long insertNotificacion) throws Exception {
+        BdOutbox bd = new BdOutbox(() -> viaje(VIAJE_NANOS));
+        OutboxServiceImpl outbox = outbox(bd, insertNotificacion);
+        outbox.iniciar();
+        try {
+            long[] latencias = avanzar(outbox);
+            // El despachador termina de entregar fuera del tiempo medido
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (bd.cantidadEntregadas() < latencias.length && System.nanoTime() < limite) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            assertEquals(latencias.length, bd.cantidadEntregadas());
+            return latencias;
+        } finally {
+            outbox.detener();
+        }
+    }
+
+    private static OutboxServiceImpl outbox(BdOutbox bd, long insertNotificacion) {
+        NotificacionService notificacionService = mock(NotificacionService.class, withSettings().stubOnly());
+        doAnswer(inv -> {
+            viaje(insertNotificacion);
+            bd.entregar(inv.getArgument(0), inv.getArgument(1));
+            return null;
+        }).when(notificacionService).sendNotificacion(anyInt(), anyString());
+        return new OutboxServiceImpl(bd.repository(), notificacionService, bd.transactionManager(), 100, 60_000, 5);
+    }
+
+    /**
+     * Cada administrador avanza sus propios pedidos de PENDIENTE a EN_PREPARACION
+     * @return latencias de cada transición, en ns
+     */
+    private static long[] avanzar(OutboxService outboxService) throws Exception {
+        AtomicInteger ids = new AtomicInteger();
+        PedidosRepository pedidosRepository = mock(PedidosRepository.class, withSettings().stubOnly());
+        when(pedidosRepository.findById(anyInt())).thenAnswer(inv -> {
+            viaje(VIAJE_NANOS);
+            Pedido pedido = new Pedido();
+            pedido.setIdPedido(inv.getArgument(0));
+            pedido.setCodigoPedido("P-" + inv.getArgument(0));
+            pedido.setEstado(EstadoPedido.PENDIENTE);
+            return Optional.of(pedido);
+        });
+        when(pedidosRepository.save(any())).thenAnswer(inv -> {
+            viaje(VIAJE_NANOS);
+            return inv.getArgument(0);
+        });
+        PedidosServiceImpl pedidosService = new PedidosServiceImpl(pedidosRepository,
+                mock(PedidoMapper.class, withSettings().stubOnly()), outboxService,
+                mock(CodigoPedidoService.class, withSettings().stubOnly()),
+                mock(ApplicationEventPublisher.class, withSettings().stubOnly()));
+
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<long[]>> administradores = new ArrayList<>();
+        try (ExecutorService hilos = Executors.newFixedThreadPool(ADMINISTRADORES)) {
+            for (int a = 0; a < ADMINISTRADORES; a++) {
+                administradores.add(hilos.submit(() -> {
+                    long[] latencias = new long[TRANSICIONES_POR_ADMINISTRADOR];
+                    largada.await();
+                    for (int i = 0; i < latencias.length; i++) {
+                        int idPedido = ids.incrementAndGet();
+                        long inicio = System.nanoTime();
+                        conCommit(() -> pedidosService.avanzarEstadoPedido(idPedido, 1));
+                        latencias[i] = System.nanoTime() - inicio;
+                    }
+                    return latencias;
+                }));
+            }
+            largada.countDown();
+        }
+        List<long[]> porAdministrador = new ArrayList<>();
+        for (Future<long[]> administrador : administradores) {
+            porAdministrador.add(administrador.get());
+        }
+        return porAdministrador.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+    }
+
+    /**
+     * Corre como lo haría un servicio transaccional y dispara el afterCommit
+     */
+    private static void conCommit(Runnable transaccion) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            transaccion.run();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void viaje(long nanos) {
+        LockSupport.parkNanos(nanos);
+    }
+
+    private static void imprimir(String escenario, long[] ordenadas) {
+        System.out.printf("  %s: p50 %,7.0f µs, p99 %,7.0f µs%n", escenario,
+                ordenadas[ordenadas.length / 2] / 1e3, ordenadas[ordenadas.length * 99 / 100] / 1e3);
+    }
+}
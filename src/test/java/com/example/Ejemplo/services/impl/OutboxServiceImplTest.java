@@ -0,0 +1,167 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.models.OutboxNotificacion;
+import com.example.Ejemplo.services.NotificacionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+class OutboxServiceImplTest {
+
+    private static final int MAX_INTENTOS = 3;
+    private static final int USUARIO_ROTO = 99;
+
+    private final BdOutbox bd = new BdOutbox();
+    // Usuario -> error con el que falla sendNotificacion (p. ej. usuario borrado)
+    private final Map<Integer, String> fallos = new ConcurrentHashMap<>();
+    private OutboxServiceImpl servicio;
+
+    @BeforeEach
+    void setUp() {
+        NotificacionService notificacionService = mock(NotificacionService.class, withSettings().stubOnly());
+        doAnswer(inv -> {
+            int idUsuario = inv.getArgument(0);
+            if (fallos.containsKey(idUsuario)) {
+                throw new IllegalStateException(fallos.get(idUsuario));
+            }
+            bd.entregar(idUsuario, inv.getArgument(1));
+            return null;
+        }).when(notificacionService).sendNotificacion(anyInt(), anyString());
+
+        servicio = new OutboxServiceImpl(bd.repository(), notificacionService, bd.transactionManager(),
+                10, 60_000, MAX_INTENTOS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        servicio.detener();
+    }
+
+    @Test
+    void unaClaveRepetidaSeEncolaYSeEntregaUnaSolaVez() {
+        assertTrue(encolarConCommit(1, "Pedido listo", "pedido-7-LISTO"));
+        assertFalse(encolarConCommit(1, "Pedido listo", "pedido-7-LISTO"));
+        assertTrue(encolarConCommit(1, "Pedido entregado", "pedido-7-ENTREGADO"));
+
+        assertEquals(2, servicio.despachar());
+        assertEquals(0, servicio.despachar());
+        assertEquals(List.of("1:Pedido listo", "1:Pedido entregado"), bd.entregadas());
+    }
+
+    @Test
+    void unaFilaMalaNoFrenaNiDuplicaAlRestoDelLote() {
+        encolarConCommit(1, "a", "k1");
+        encolarConCommit(USUARIO_ROTO, "b", "k2");
+        encolarConCommit(2, "c", "k3");
+        fallos.put(USUARIO_ROTO, "Usuario 99 no existe");
+
+        assertEquals(3, servicio.despachar());
+
+        // El lote revertido no deja entregas a medias: cada buena queda una sola vez
+        assertEquals(List.of("1:a", "2:c"), bd.entregadas());
+        OutboxNotificacion mala = bd.fila("k2");
+        assertFalse(mala.isProcesado());
+        assertEquals(1, mala.getIntentos());
+        assertEquals("Usuario 99 no existe", mala.getUltimoError());
+    }
+
+    @Test
+    void seReintentaHastaElMaximoYLuegoSeDescarta() {
+        encolarConCommit(USUARIO_ROTO, "x", "k1");
+        fallos.put(USUARIO_ROTO, "Usuario 99 no existe");
+
+        for (int intento = 1; intento <= MAX_INTENTOS; intento++) {
+            assertEquals(1, servicio.despachar());
+            assertEquals(intento, bd.fila("k1").getIntentos());
+        }
+
+        OutboxNotificacion descartada = bd.fila("k1");
+        assertTrue(descartada.isProcesado());
+        assertNotNull(descartada.getFechaProcesado());
+        assertEquals(0, servicio.despachar());
+        assertTrue(bd.entregadas().isEmpty());
+    }
+
+    @Test
+    void unFalloPasajeroSeEntregaEnElSiguienteIntento() {
+        encolarConCommit(USUARIO_ROTO, "x", "k1");
+        fallos.put(USUARIO_ROTO, "Usuario 99 no existe");
+        servicio.despachar();
+
+        fallos.clear();
+        assertEquals(1, servicio.despachar());
+
+        OutboxNotificacion entregada = bd.fila("k1");
+        assertTrue(entregada.isProcesado());
+        assertEquals(1, entregada.getIntentos());
+        assertEquals(List.of("99:x"), bd.entregadas());
+        assertEquals(0, servicio.despachar());
+    }
+
+    @Test
+    void elErrorGuardadoSeRecortaAlLargoDeLaColumna() {
+        encolarConCommit(USUARIO_ROTO, "x", "k1");
+        fallos.put(USUARIO_ROTO, "e".repeat(600));
+
+        servicio.despachar();
+
+        assertEquals(500, bd.fila("k1").getUltimoError().length());
+    }
+
+    /**
+     * El intervalo es de 60 s: cada mensaje se entrega mucho antes solo si la
+     * señal del commit despierta al despachador. La latencia está en
+     * OutboxServiceImplBenchmark.
+     */
+    @Test
+    void elDespachadorDespiertaConElCommitSinEsperarElIntervalo() {
+        servicio.iniciar();
+        int mensajes = 20;
+
+        for (int i = 0; i < mensajes; i++) {
+            long inicio = System.nanoTime();
+            encolarConCommit(1, "m" + i, "k" + i);
+            while (bd.cantidadEntregadas() <= i) {
+                if (System.nanoTime() - inicio > TimeUnit.SECONDS.toNanos(5)) {
+                    throw new AssertionError("El mensaje " + i + " no se entregó en 5 s");
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        assertEquals(mensajes, bd.cantidadEntregadas());
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * Encola como lo haría un servicio transaccional y dispara el afterCommit
+     */
+    private boolean encolarConCommit(int idUsuario, String mensaje, String clave) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            boolean encolada = servicio.encolarNotificacion(idUsuario, mensaje, clave);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            return encolada;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
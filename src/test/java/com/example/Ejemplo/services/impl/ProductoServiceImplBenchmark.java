@@ -0,0 +1,202 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.PaginaCursor;
+import com.example.Ejemplo.dto.ProductoDTO;
+import com.example.Ejemplo.mapper.ProductoMapper;
+import com.example.Ejemplo.models.Categoria;
+import com.example.Ejemplo.models.Producto;
+import com.example.Ejemplo.repository.CategoriaRepository;
+import com.example.Ejemplo.repository.ProductoCursorRepository.ClaveProducto;
+import com.example.Ejemplo.repository.ProductoCursorRepository.FiltroProductos;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.AlmacenImagenesService;
+import com.example.Ejemplo.services.BusquedaProductosService;
+import com.example.Ejemplo.services.InventarioService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Páginas profundas del catálogo sobre 100.000 productos: por cursor frente a
+ * OFFSET + COUNT (la paginación anterior). Sin MySQL en las pruebas, la tabla
+ * es un arreglo ordenado como idx_producto_cursor que cuenta las filas que
+ * examina cada consulta: el cursor busca la clave y lee tamaño + 1 filas; OFFSET
+ * recorre todas las anteriores y el COUNT de cada página toda la tabla.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class ProductoServiceImplBenchmark {
+
+    private static final int PRODUCTOS = 100_000;
+    private static final int TAMANO = 20;
+    private static final int[] PAGINAS = {1, 10, 100, 1_000, 4_000};
+    private static final Comparator<Producto> POR_INDICE = Comparator
+            .comparing((Producto p) -> p.getCategoria().getIdCategoria())
+            .thenComparing(Producto::getNombre)
+            .thenComparing(Producto::getIdProducto);
+
+    @Test
+    void paginaProfundaPorCursorFrenteAOffset() {
+        TablaProductos tabla = new TablaProductos(generar());
+        ProductoRepository productoRepository = (ProductoRepository) Proxy.newProxyInstance(
+                ProductoRepository.class.getClassLoader(), new Class<?>[]{ProductoRepository.class}, (proxy, metodo, args) ->
+                        switch (metodo.getName()) {
+                            case "findPorCursor" -> tabla.porCursor((FiltroProductos) args[0], (ClaveProducto) args[1],
+                                    (Boolean) args[2], (Integer) args[3]);
+                            case "findAll" -> tabla.porOffset((Pageable) args[0]);
+                            default -> throw new UnsupportedOperationException(metodo.getName());
+                        });
+        // Sin mock en el camino de cada fila, para no medir a Mockito
+        ProductoMapper productoMapper = new ProductoMapper(null, null) {
+            @Override
+            public ProductoDTO toDTO(Producto producto) {
+                return ProductoDTO.builder().idProducto(producto.getIdProducto()).nombre(producto.getNombre()).build();
+            }
+        };
+        ProductoServiceImpl productoService = new ProductoServiceImpl(productoRepository,
+                mock(CategoriaRepository.class, withSettings().stubOnly()), productoMapper,
+                mock(AlmacenImagenesService.class, withSettings().stubOnly()),
+                mock(InventarioService.class, withSettings().stubOnly()),
+                mock(BusquedaProductosService.class, withSettings().stubOnly()),
+                mock(ApplicationEventPublisher.class, withSettings().stubOnly()));
+
+        // Tokens de cada página siguiendo "siguiente" desde la primera
+        List<String> tokens = new ArrayList<>();
+        tokens.add(null);
+        PaginaCursor<ProductoDTO> pagina = productoService.obtenerCatalogoPorCursor(null, null, TAMANO);
+        while (pagina.getSiguiente() != null && tokens.size() < PAGINAS[PAGINAS.length - 1]) {
+            tokens.add(pagina.getSiguiente());
+            pagina = productoService.obtenerCatalogoPorCursor(null, pagina.getSiguiente(), TAMANO);
+        }
+
+        System.out.printf("%,d productos (%,d con stock), páginas de %d:%n", PRODUCTOS, tabla.conStock(), TAMANO);
+        for (int numero : PAGINAS) {
+            String token = tokens.get(numero - 1);
+            Medicion cursor = medir(tabla, () -> productoService.obtenerCatalogoPorCursor(null, token, TAMANO).getContenido());
+            Medicion offset = medir(tabla, () -> productoService.obtenerTodosPaginado(PageRequest.of(numero - 1, TAMANO)).getContent());
+            System.out.printf("  página %,5d: cursor %8.1f µs (%,7d filas) | OFFSET + COUNT %8.1f µs (%,7d filas)%n",
+                    numero, cursor.micros(), cursor.filas(), offset.micros(), offset.filas());
+
+            assertEquals(offset.contenido(), cursor.contenido());
+            // La página por cursor lee lo mismo en la primera que en la última
+            assertTrue(cursor.filas() <= 2L * (TAMANO + 1), "página " + numero + ": " + cursor.filas() + " filas");
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static Medicion medir(TablaProductos tabla, Supplier<List<ProductoDTO>> pagina) {
+        for (int i = 0; i < 20; i++) {
+            pagina.get();
+        }
+        tabla.filasLeidas = 0;
+        List<ProductoDTO> contenido = pagina.get();
+        long filas = tabla.filasLeidas;
+
+        int repeticiones = 100;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            pagina.get();
+        }
+        return new Medicion((System.nanoTime() - inicio) / 1e3 / repeticiones, filas,
+                contenido.stream().map(ProductoDTO::getIdProducto).toList());
+    }
+
+    private static List<Producto> generar() {
+        SplittableRandom random = new SplittableRandom(7);
+        List<Categoria> categorias = new ArrayList<>();
+        for (int id = 1; id <= 40; id++) {
+            categorias.add(Categoria.builder().idCategoria(id).nombre("Categoría " + id).build());
+        }
+        List<Producto> productos = new ArrayList<>(PRODUCTOS);
+        for (int id = 1; id <= PRODUCTOS; id++) {
+            productos.add(Producto.builder().idProducto(id)
+                    .nombre("Producto " + Integer.toString(random.nextInt(1 << 20), 36))
+                    .categoria(categorias.get(random.nextInt(categorias.size())))
+                    .stock(random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(50))
+                    .estado(true)
+                    .build());
+        }
+        return productos;
+    }
+
+    private record Medicion(double micros, long filas, List<Integer> contenido) {
+    }
+
+    /**
+     * productos ordenados como idx_producto_cursor; solo entiende el filtro de stock
+     */
+    private static final class TablaProductos {
+
+        private final Producto[] indice;
+        private long filasLeidas;
+
+        TablaProductos(List<Producto> productos) {
+            this.indice = productos.stream().sorted(POR_INDICE).toArray(Producto[]::new);
+        }
+
+        long conStock() {
+            return Arrays.stream(indice).filter(p -> p.getStock() > 0).count();
+        }
+
+        List<Producto> porCursor(FiltroProductos filtro, ClaveProducto desde, boolean haciaAtras, int limite) {
+            int posicion = 0;
+            if (desde != null) {
+                Producto clave = Producto.builder().idProducto(desde.idProducto()).nombre(desde.nombre())
+                        .categoria(Categoria.builder().idCategoria(desde.idCategoria()).build()).build();
+                int encontrada = Arrays.binarySearch(indice, clave, POR_INDICE);
+                int insercion = encontrada >= 0 ? encontrada : -encontrada - 1;
+                // Estrictamente después (o antes) de la clave
+                posicion = haciaAtras ? insercion - 1 : (encontrada >= 0 ? encontrada + 1 : insercion);
+            } else if (haciaAtras) {
+                posicion = indice.length - 1;
+            }
+
+            List<Producto> filas = new ArrayList<>(limite);
+            for (int i = posicion; i >= 0 && i < indice.length && filas.size() < limite; i += haciaAtras ? -1 : 1) {
+                filasLeidas++;
+                if (!filtro.soloConStock() || indice[i].getStock() > 0) {
+                    filas.add(indice[i]);
+                }
+            }
+            return filas;
+        }
+
+        /**
+         * SELECT ... WHERE stock > 0 ORDER BY ... LIMIT offset, n y el COUNT de Page
+         */
+        Page<Producto> porOffset(Pageable pageable) {
+            List<Producto> filas = new ArrayList<>(pageable.getPageSize());
+            long saltadas = 0;
+            for (int i = 0; i < indice.length && filas.size() < pageable.getPageSize(); i++) {
+                filasLeidas++;
+                if (indice[i].getStock() > 0 && saltadas++ >= pageable.getOffset()) {
+                    filas.add(indice[i]);
+                }
+            }
+            long total = 0;
+            for (Producto producto : indice) {
+                filasLeidas++;
+                if (producto.getStock() > 0) {
+                    total++;
+                }
+            }
+            return new PageImpl<>(filas, pageable, total);
+        }
+    }
+}
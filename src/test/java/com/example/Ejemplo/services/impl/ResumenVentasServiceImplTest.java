@@ -0,0 +1,104 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.models.ResumenMarca;
+import com.example.Ejemplo.repository.PedidoContabilizadoRepository;
+import com.example.Ejemplo.repository.PedidosRepository;
+import com.example.Ejemplo.repository.ResumenMarcaRepository;
+import com.example.Ejemplo.repository.VentaResumenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResumenVentasServiceImplTest {
+
+    private static final int LOTE = 3;
+    private static final LocalDateTime MARCA = LocalDateTime.of(2026, 3, 10, 12, 0);
+
+    // Pedidos finalizados como [idPedido, fechaActualizacion]
+    private final List<Object[]> finalizados = new ArrayList<>();
+    private final AtomicReference<ResumenMarca> marcaGuardada = new AtomicReference<>();
+
+    private PedidosRepository pedidosRepository;
+    private ResumenVentasServiceImpl servicio;
+
+    @BeforeEach
+    void setUp() {
+        pedidosRepository = mock(PedidosRepository.class);
+        when(pedidosRepository.findConDetallesById(anyInt())).thenReturn(Optional.empty());
+        // Mismo criterio de cursor que la consulta JPQL
+        when(pedidosRepository.findFinalizadosDesde(any(), any(), anyInt(), any())).thenAnswer(inv -> {
+            LocalDateTime desde = inv.getArgument(1);
+            int idDesde = inv.getArgument(2);
+            Pageable pagina = inv.getArgument(3);
+            return finalizados.stream()
+                    .filter(f -> ((LocalDateTime) f[1]).isAfter(desde)
+                            || (f[1].equals(desde) && (Integer) f[0] > idDesde))
+                    .sorted(Comparator.<Object[], LocalDateTime>comparing(f -> (LocalDateTime) f[1])
+                            .thenComparing(f -> (Integer) f[0]))
+                    .limit(pagina.getPageSize())
+                    .toList();
+        });
+
+        ResumenMarcaRepository marcaRepository = mock(ResumenMarcaRepository.class);
+        marcaGuardada.set(new ResumenMarca("venta_resumen", MARCA));
+        when(marcaRepository.findById(anyString())).thenAnswer(inv -> Optional.ofNullable(marcaGuardada.get()));
+        when(marcaRepository.save(any())).thenAnswer(inv -> {
+            marcaGuardada.set(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        servicio = new ResumenVentasServiceImpl(mock(VentaResumenRepository.class),
+                mock(PedidoContabilizadoRepository.class), marcaRepository, pedidosRepository,
+                transactionManager, new ConcurrentMapCacheManager(), LOTE);
+    }
+
+    @Test
+    void avanzaAunqueElMargenTengaMasPedidosQueElLote() {
+        // Diez pedidos dentro del margen de relectura, todos con la misma fecha
+        for (int id = 1; id <= 10; id++) {
+            finalizados.add(new Object[]{id, MARCA.minusSeconds(30)});
+        }
+
+        assertEquals(10, servicio.procesarPendientes());
+
+        for (int id = 1; id <= 10; id++) {
+            verify(pedidosRepository, times(1)).findConDetallesById(id);
+        }
+        assertEquals(MARCA, marcaGuardada.get().getValor());
+    }
+
+    @Test
+    void laMarcaAvanzaHastaElUltimoPedidoRevisado() {
+        for (int id = 1; id <= 7; id++) {
+            finalizados.add(new Object[]{id, MARCA.plusMinutes(id)});
+        }
+
+        assertEquals(7, servicio.procesarPendientes());
+        assertEquals(MARCA.plusMinutes(7), marcaGuardada.get().getValor());
+
+        // La siguiente corrida solo relee el margen de un minuto (bordes incluidos)
+        assertEquals(2, servicio.procesarPendientes());
+    }
+}
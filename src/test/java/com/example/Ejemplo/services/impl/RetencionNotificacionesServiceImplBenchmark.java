@@ -0,0 +1,108 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.NotificacionRepository;
+import com.example.Ejemplo.repository.OutboxNotificacionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Purga de un millón de notificaciones con un costo de borrado por fila y
+ * cuatro escritores que necesitan el mismo lock mientras corre. Borrando todo
+ * en una transacción los escritores esperan lo que dure el DELETE completo;
+ * por tramos esperan a lo sumo un tramo.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class RetencionNotificacionesServiceImplBenchmark {
+
+    private static final int FILAS = 1_000_000;
+    private static final int DIAS_RETENCION = 30;
+    private static final int ESCRITORES = 4;
+    // 200 ns por fila: un tramo de 5000 tarda ~1 ms y el millón ~0,2 s
+    private static final long COSTO_POR_FILA_NANOS = 200;
+    private static final LocalDateTime AHORA = LocalDateTime.now();
+
+    @Test
+    void esperaDeLosEscritoresPorTramosFrenteADeUnaVez() throws Exception {
+        TablaNotificaciones porTramos = TablaNotificaciones.sembrada(FILAS, AHORA, DIAS_RETENCION, COSTO_POR_FILA_NANOS);
+        int esperadas = porTramos.elegibles(AHORA.minusDays(DIAS_RETENCION));
+        Resultado tramos = purgarConEscritores(porTramos, crearServicio(porTramos, 5_000, 200, 1));
+
+        TablaNotificaciones deUnaVez = TablaNotificaciones.sembrada(FILAS, AHORA, DIAS_RETENCION, COSTO_POR_FILA_NANOS);
+        Resultado unaVez = purgarConEscritores(deUnaVez, crearServicio(deUnaVez, FILAS, 1, 0));
+
+        System.out.printf("%,d notificaciones, %d escritores:%n", FILAS, ESCRITORES);
+        imprimir("por tramos", tramos, porTramos.tramos().size());
+        imprimir("de una vez", unaVez, deUnaVez.tramos().size());
+        assertEquals(esperadas, tramos.eliminadas());
+        assertEquals(esperadas, unaVez.eliminadas());
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static RetencionNotificacionesServiceImpl crearServicio(TablaNotificaciones tabla, int lote, int maxLotes,
+                                                                    long pausaMs) {
+        NotificacionRepository notificacionRepository = mock(NotificacionRepository.class, withSettings().stubOnly());
+        when(notificacionRepository.eliminarLeidasAnteriores(any(), anyInt()))
+                .thenAnswer(inv -> tabla.eliminarLeidasAnteriores(inv.getArgument(0), inv.getArgument(1)));
+        return new RetencionNotificacionesServiceImpl(notificacionRepository,
+                mock(OutboxNotificacionRepository.class, withSettings().stubOnly()),
+                tabla.transactionManager(), new SimpleMeterRegistry(), DIAS_RETENCION, lote, maxLotes, pausaMs);
+    }
+
+    private static Resultado purgarConEscritores(TablaNotificaciones tabla, RetencionNotificacionesServiceImpl servicio)
+            throws Exception {
+        AtomicBoolean corriendo = new AtomicBoolean(true);
+        List<Future<Long>> escritores = new ArrayList<>();
+        long inicio = System.nanoTime();
+        int eliminadas;
+        try (ExecutorService hilos = Executors.newFixedThreadPool(ESCRITORES)) {
+            for (int i = 0; i < ESCRITORES; i++) {
+                // Cada escritor inserta una notificación por milisegundo y anota su peor espera
+                escritores.add(hilos.submit(() -> {
+                    long peor = 0;
+                    while (corriendo.get()) {
+                        peor = Math.max(peor, tabla.escribir());
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                    return peor;
+                }));
+            }
+            try {
+                eliminadas = servicio.purgar();
+            } finally {
+                corriendo.set(false);
+            }
+        }
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        long peorEspera = 0;
+        for (Future<Long> escritor : escritores) {
+            peorEspera = Math.max(peorEspera, escritor.get());
+        }
+        return new Resultado(eliminadas, duracionMs, peorEspera / 1_000_000.0);
+    }
+
+    private static void imprimir(String modo, Resultado r, int tramos) {
+        System.out.printf("  %s: %,d filas en %,d tramos, %,d ms | espera máxima de un escritor %,.1f ms%n",
+                modo, r.eliminadas(), tramos, r.duracionMs(), r.esperaMaximaMs());
+    }
+
+    private record Resultado(int eliminadas, long duracionMs, double esperaMaximaMs) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.NotificacionRepository;
+import com.example.Ejemplo.repository.OutboxNotificacionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class RetencionNotificacionesServiceImplTest {
+
+    private static final int DIAS_RETENCION = 30;
+    private static final LocalDateTime AHORA = LocalDateTime.now();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void soloBorraLasLeidasAnterioresALaRetencion() {
+        TablaNotificaciones tabla = new TablaNotificaciones(6, 0);
+        tabla.agregar(AHORA.minusDays(60), true);
+        tabla.agregar(AHORA.minusDays(45), false);
+        tabla.agregar(AHORA.minusDays(40), true);
+        tabla.agregar(AHORA.minusDays(31), true);
+        tabla.agregar(AHORA.minusDays(29), true);
+        tabla.agregar(AHORA.minusDays(1), false);
+
+        assertEquals(3, crearServicio(tabla, 2, 10, 0).purgar());
+
+        // Quedan la no leída vieja y las dos recientes
+        assertEquals(3, tabla.vivas());
+        assertEquals(List.of(2, 1), tabla.tramos());
+        assertEquals(3.0, meterRegistry.get("notificaciones.retencion.eliminadas").counter().count());
+        assertEquals(3.0, meterRegistry.get("notificaciones.retencion.filas.corrida").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("notificaciones.retencion.duracion").timer().count());
+    }
+
+    @Test
+    void alLlegarAlMaximoDeTramosSigueEnLaProximaCorrida() {
+        TablaNotificaciones tabla = new TablaNotificaciones(45, 0);
+        for (int i = 0; i < 45; i++) {
+            tabla.agregar(AHORA.minusDays(90).plusMinutes(i), true);
+        }
+        RetencionNotificacionesServiceImpl servicio = crearServicio(tabla, 10, 3, 0);
+
+        assertEquals(30, servicio.purgar());
+        assertEquals(15, servicio.purgar());
+        assertEquals(0, servicio.purgar());
+        assertEquals(0, tabla.vivas());
+    }
+
+    @Test
+    void unaCorridaEnCursoNoSeSolapaConOtra() throws Exception {
+        TablaNotificaciones tabla = new TablaNotificaciones(20, 0);
+        for (int i = 0; i < 20; i++) {
+            tabla.agregar(AHORA.minusDays(90).plusMinutes(i), true);
+        }
+        CountDownLatch dentroDelTramo = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        tabla.alBorrar(() -> {
+            dentroDelTramo.countDown();
+            esperar(seguir);
+        });
+        RetencionNotificacionesServiceImpl servicio = crearServicio(tabla, 100, 10, 0);
+
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> primera = hilos.submit(servicio::purgar);
+            assertTrue(dentroDelTramo.await(5, TimeUnit.SECONDS));
+
+            assertEquals(0, servicio.purgar());
+
+            seguir.countDown();
+            assertEquals(20, primera.get());
+        }
+    }
+
+    @Test
+    void alInterrumpirseCortaEntreTramos() {
+        TablaNotificaciones tabla = new TablaNotificaciones(30, 0);
+        for (int i = 0; i < 30; i++) {
+            tabla.agregar(AHORA.minusDays(90).plusMinutes(i), true);
+        }
+        RetencionNotificacionesServiceImpl servicio = crearServicio(tabla, 10, 10, 1_000);
+
+        Thread.currentThread().interrupt();
+        try {
+            // La pausa tras el primer tramo ve la interrupción y no espera el segundo
+            assertEquals(10, servicio.purgar());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(20, tabla.vivas());
+    }
+
+    @Test
+    void losParametrosDebenSerMayoresACero() {
+        TablaNotificaciones tabla = new TablaNotificaciones(0, 0);
+        assertThrows(IllegalArgumentException.class, () -> crearServicio(tabla, 0, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> crearServicio(tabla, 10, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RetencionNotificacionesServiceImpl(
+                mock(NotificacionRepository.class), mock(OutboxNotificacionRepository.class),
+                tabla.transactionManager(), meterRegistry, 0, 10, 10, 0));
+    }
+
+    /**
+     * Un millón de filas: se borran todas las elegibles y cada DELETE corre en
+     * su propia transacción, así que el lock de la tabla se retiene a lo sumo
+     * un tramo. Los tiempos de espera de los escritores están en
+     * RetencionNotificacionesServiceImplBenchmark.
+     */
+    @Test
+    void unMillonDeFilasSeBorraPorTramos() {
+        int filas = 1_000_000;
+        TablaNotificaciones tabla = TablaNotificaciones.sembrada(filas, AHORA, DIAS_RETENCION, 0);
+        int esperadas = tabla.elegibles(AHORA.minusDays(DIAS_RETENCION));
+        AtomicBoolean anidada = new AtomicBoolean();
+        tabla.alBorrar(() -> anidada.compareAndSet(false, !tabla.enUnaTransaccion()));
+
+        assertEquals(esperadas, crearServicio(tabla, 5_000, 200, 0).purgar());
+
+        assertEquals(filas - esperadas, tabla.vivas());
+        assertTrue(tabla.tramos().stream().allMatch(t -> t <= 5_000));
+        assertFalse(anidada.get(), "un tramo corrió fuera de su propia transacción");
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private RetencionNotificacionesServiceImpl crearServicio(TablaNotificaciones tabla, int lote, int maxLotes, long pausaMs) {
+        NotificacionRepository notificacionRepository = mock(NotificacionRepository.class, withSettings().stubOnly());
+        when(notificacionRepository.eliminarLeidasAnteriores(any(), anyInt()))
+                .thenAnswer(inv -> tabla.eliminarLeidasAnteriores(inv.getArgument(0), inv.getArgument(1)));
+        return new RetencionNotificacionesServiceImpl(notificacionRepository,
+                mock(OutboxNotificacionRepository.class, withSettings().stubOnly()),
+                tabla.transactionManager(), meterRegistry, DIAS_RETENCION, lote, maxLotes, pausaMs);
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.PedidoDTO;
+import com.example.Ejemplo.events.PedidoCreadoEvent;
+import com.example.Ejemplo.models.EstadoPedido;
+import com.example.Ejemplo.services.TableroCocinaService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.example.Ejemplo.services.impl.SimulacionCocina.APERTURA;
+import static com.example.Ejemplo.services.impl.SimulacionCocina.cambio;
+import static com.example.Ejemplo.services.impl.SimulacionCocina.detalle;
+import static com.example.Ejemplo.services.impl.SimulacionCocina.pedido;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Pedidos tarde en la hora punta simulada (un puesto, carga cercana al 90 %)
+ * tomando el más antiguo (FIFO) frente a la secuencia por inicio límite, y lo
+ * que cuesta mantener la secuencia (alta, salida y consulta de los 10
+ * siguientes) con colas de distinto tamaño.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class SecuenciaCocinaServiceImplBenchmark {
+
+    private static final int MINUTOS_POR_UNIDAD = 3;
+    private static final int[] TAMANOS_COLA = {1_000, 10_000, 100_000};
+    private static final int OPERACIONES = 200_000;
+
+    @Test
+    void pedidosATiempoFrenteAFifo() {
+        int rondas = 1_000;
+        SimulacionCocina.Atrasos atrasos = SimulacionCocina.comparar(this::crear, 42, rondas, 40);
+
+        System.out.printf("Hora punta simulada, %d rondas de 40 pedidos:%n", rondas);
+        System.out.printf("  FIFO         : %,6d/%,d pedidos tarde, %,8d min de atraso en total%n",
+                atrasos.tardeFifo(), atrasos.pedidos(), atrasos.minutosFifo());
+        System.out.printf("  inicio límite: %,6d/%,d pedidos tarde, %,8d min de atraso en total%n",
+                atrasos.tardeSecuencia(), atrasos.pedidos(), atrasos.minutosSecuencia());
+    }
+
+    @Test
+    void costoPorOperacionSegunElTamanoDeLaCola() {
+        System.out.println("Alta + salida + siguientes(10) con la cola llena:");
+        for (int tamano : TAMANOS_COLA) {
+            // La primera pasada calienta el JIT
+            medir(tamano);
+            System.out.printf("  %,7d pedidos en cola: %,6.2f µs por operación%n", tamano, medir(tamano));
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * Llena la cola y luego, en régimen, cada operación da de alta un pedido,
+     * saca al más antiguo y pide los 10 siguientes: el tamaño se mantiene
+     * @return microsegundos por operación
+     */
+    private double medir(int tamano) {
+        SecuenciaCocinaServiceImpl secuencia = crear();
+        Random random = new Random(7);
+        List<PedidoDTO> pedidos = new ArrayList<>(tamano + OPERACIONES);
+        for (int id = 1; id <= tamano + OPERACIONES; id++) {
+            pedidos.add(pedido(id, 0, APERTURA.plusMinutes(random.nextInt(600)).toLocalTime(),
+                    detalle(1 + random.nextInt(3), 1 + random.nextInt(5))));
+        }
+        for (int i = 0; i < tamano; i++) {
+            secuencia.onPedidoCreado(new PedidoCreadoEvent(pedidos.get(i)));
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < OPERACIONES; i++) {
+            secuencia.onPedidoCreado(new PedidoCreadoEvent(pedidos.get(tamano + i)));
+            secuencia.onPedidoEstadoCambiado(cambio(i + 1, EstadoPedido.EN_PREPARACION));
+            secuencia.siguientes(10);
+        }
+        double micros = (System.nanoTime() - inicio) / 1e3 / OPERACIONES;
+        assertEquals(tamano, secuencia.totalEnCola());
+        return micros;
+    }
+
+    private SecuenciaCocinaServiceImpl crear() {
+        TableroCocinaService tableroCocinaService = mock(TableroCocinaService.class, withSettings().stubOnly());
+        when(tableroCocinaService.obtenerTablero()).thenReturn(Map.of());
+        return new SecuenciaCocinaServiceImpl(tableroCocinaService, MINUTOS_POR_UNIDAD);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.PedidoDTO;
+import com.example.Ejemplo.dto.PedidoSecuenciadoDTO;
+import com.example.Ejemplo.events.PedidoCreadoEvent;
+import com.example.Ejemplo.models.EstadoPedido;
+import com.example.Ejemplo.services.TableroCocinaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.Ejemplo.services.impl.SimulacionCocina.APERTURA;
+import static com.example.Ejemplo.services.impl.SimulacionCocina.cambio;
+import static com.example.Ejemplo.services.impl.SimulacionCocina.detalle;
+import static com.example.Ejemplo.services.impl.SimulacionCocina.pedido;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SecuenciaCocinaServiceImplTest {
+
+    private static final int MINUTOS_POR_UNIDAD = 3;
+
+    private TableroCocinaService tableroCocinaService;
+    private SecuenciaCocinaServiceImpl servicio;
+
+    @BeforeEach
+    void setUp() {
+        tableroCocinaService = mock(TableroCocinaService.class);
+        when(tableroCocinaService.obtenerTablero()).thenReturn(Map.of());
+        servicio = new SecuenciaCocinaServiceImpl(tableroCocinaService, MINUTOS_POR_UNIDAD);
+        servicio.reconstruir();
+    }
+
+    @Test
+    void ordenaPorInicioLimiteYNoPorOrdenDeLlegada() {
+        // Llega primero, recoge 12:30 y tarda 5 min: puede empezar hasta 12:25
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(1, 0, LocalTime.of(12, 30), detalle(1, 5))));
+        // Llega después, recoge 12:40 pero son 10 unidades sin tiempo propio: 30 min, empezar 12:10
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(2, 10, LocalTime.of(12, 40), detalle(10, null))));
+
+        List<PedidoSecuenciadoDTO> siguientes = servicio.siguientes(5);
+
+        assertEquals(List.of(2, 1), ids(siguientes));
+        PedidoSecuenciadoDTO primero = siguientes.get(0);
+        assertEquals(1, primero.getPosicion());
+        assertEquals(30, primero.getMinutosPreparacion());
+        assertEquals(APERTURA.toLocalDate().atTime(12, 40), primero.getHoraRecojo());
+        assertEquals(APERTURA.toLocalDate().atTime(12, 10), primero.getInicioLimite());
+        assertFalse(primero.isAtrasado());
+        assertEquals(2, siguientes.get(1).getPosicion());
+    }
+
+    @Test
+    void aIgualInicioLimitePrimeroElDeMenorId() {
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(8, 5, LocalTime.of(12, 0), detalle(2, 5))));
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(3, 0, LocalTime.of(11, 55), detalle(1, 5))));
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(5, 0, LocalTime.of(12, 5), detalle(3, 5))));
+
+        // Los tres deben empezar a las 11:50
+        assertEquals(List.of(3, 5, 8), ids(servicio.siguientes(10)));
+    }
+
+    @Test
+    void sinHoraDeRecojoSeTrataComoLoAntesPosible() {
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(1, 0, LocalTime.of(9, 0), detalle(1, 5))));
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(2, 30, null, detalle(2, 4))));
+
+        PedidoSecuenciadoDTO primero = servicio.siguientes(1).get(0);
+
+        // Empezar a la hora del pedido (8:30) gana a empezar a las 8:55
+        assertEquals(2, primero.getPedido().getIdPedido());
+        assertEquals(APERTURA.plusMinutes(30), primero.getInicioLimite());
+        assertEquals(APERTURA.plusMinutes(38), primero.getHoraRecojo());
+    }
+
+    @Test
+    void cualquierCambioDeEstadoSacaAlPedidoDeLaCola() {
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(1, 0, LocalTime.of(9, 0), detalle(1, 5))));
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(2, 0, LocalTime.of(9, 30), detalle(1, 5))));
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(3, 0, LocalTime.of(10, 0), detalle(1, 5))));
+
+        servicio.onPedidoEstadoCambiado(cambio(1, EstadoPedido.EN_PREPARACION));
+        servicio.onPedidoEstadoCambiado(cambio(3, EstadoPedido.CANCELADO));
+        // Un pedido que no estaba en la cola no rompe nada
+        servicio.onPedidoEstadoCambiado(cambio(42, EstadoPedido.LISTO));
+
+        assertEquals(List.of(2), ids(servicio.siguientes(10)));
+        assertEquals(1, servicio.totalEnCola());
+    }
+
+    @Test
+    void unPedidoRepetidoReemplazaSuEntradaYUnoNoPendienteNoEntra() {
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(1, 0, LocalTime.of(9, 0), detalle(1, 5))));
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(2, 0, LocalTime.of(9, 30), detalle(1, 5))));
+        // Mismo pedido 2, ahora con más unidades: pasa delante del 1
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(2, 0, LocalTime.of(9, 30), detalle(10, 5))));
+        PedidoDTO listo = pedido(3, 0, LocalTime.of(8, 5), detalle(1, 5));
+        listo.setEstado(EstadoPedido.LISTO);
+        servicio.onPedidoCreado(new PedidoCreadoEvent(listo));
+
+        assertEquals(List.of(2, 1), ids(servicio.siguientes(10)));
+        assertEquals(2, servicio.totalEnCola());
+    }
+
+    @Test
+    void reconstruirTomaSoloLosPendientesDelTablero() {
+        servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(99, 0, LocalTime.of(9, 0), detalle(1, 5))));
+        when(tableroCocinaService.obtenerTablero()).thenReturn(Map.of(
+                EstadoPedido.PENDIENTE, List.of(
+                        pedido(1, 0, LocalTime.of(10, 0), detalle(1, 5)),
+                        pedido(2, 0, LocalTime.of(9, 0), detalle(1, 5))),
+                EstadoPedido.EN_PREPARACION, List.of(pedido(3, 0, LocalTime.of(8, 30), detalle(1, 5)))));
+
+        servicio.reconstruir();
+
+        assertEquals(List.of(2, 1), ids(servicio.siguientes(10)));
+        assertEquals(2, servicio.totalEnCola());
+    }
+
+    @Test
+    void siguientesRespetaElLimite() {
+        for (int id = 1; id <= 20; id++) {
+            servicio.onPedidoCreado(new PedidoCreadoEvent(pedido(id, 0, LocalTime.of(9, id), detalle(1, 5))));
+        }
+
+        assertEquals(List.of(1, 2, 3), ids(servicio.siguientes(3)));
+        assertTrue(servicio.siguientes(0).isEmpty());
+        assertTrue(servicio.siguientes(-1).isEmpty());
+        assertEquals(20, servicio.siguientes(100).size());
+    }
+
+    @Test
+    void losMinutosPorUnidadNoPuedenSerNegativos() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SecuenciaCocinaServiceImpl(tableroCocinaService, -1));
+    }
+
+    /**
+     * Hora punta simulada con semilla fija: por inicio límite llegan tarde menos
+     * pedidos que tomando el más antiguo. Las cifras están en
+     * SecuenciaCocinaServiceImplBenchmark.
+     */
+    @Test
+    void porInicioLimiteLleganTardeMenosPedidosQueEnOrdenDeLlegada() {
+        SimulacionCocina.Atrasos atrasos = SimulacionCocina.comparar(
+                () -> new SecuenciaCocinaServiceImpl(tableroCocinaService, MINUTOS_POR_UNIDAD), 42, 200, 40);
+
+        assertTrue(atrasos.tardeSecuencia() < atrasos.tardeFifo(),
+                "tarde con secuencia = " + atrasos.tardeSecuencia() + ", con FIFO = " + atrasos.tardeFifo());
+        assertTrue(atrasos.minutosSecuencia() < atrasos.minutosFifo(),
+                "atraso con secuencia = " + atrasos.minutosSecuencia() + " min, con FIFO = "
+                        + atrasos.minutosFifo() + " min");
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static List<Integer> ids(List<PedidoSecuenciadoDTO> secuencia) {
+        return secuencia.stream().map(s -> s.getPedido().getIdPedido()).toList();
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.DetallePedidoDTO;
+import com.example.Ejemplo.dto.PedidoDTO;
+import com.example.Ejemplo.dto.PedidoSecuenciadoDTO;
+import com.example.Ejemplo.events.PedidoCreadoEvent;
+import com.example.Ejemplo.events.PedidoEstadoCambiadoEvent;
+import com.example.Ejemplo.models.EstadoPedido;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Pedidos de prueba y una cocina con un solo puesto durante la hora punta: los
+ * pedidos llegan al azar, cada uno con su hora de recojo, y cuando el puesto
+ * se libera se empieza el siguiente de la cola. La comparten la prueba y el
+ * benchmark del secuenciador.
+ */
+final class SimulacionCocina {
+
+    // Mañana a las 8:00: las horas de recojo quedan en el mismo día
+    static final LocalDateTime APERTURA = LocalDateTime.now().toLocalDate().plusDays(1).atTime(8, 0);
+
+    private SimulacionCocina() {
+    }
+
+    static PedidoDTO pedido(int id, int minutoLlegada, LocalTime horaRecojo, DetallePedidoDTO... detalles) {
+        return PedidoDTO.builder()
+                .idPedido(id)
+                .codigoPedido("P-" + id)
+                .fechaPedido(APERTURA.plusMinutes(minutoLlegada))
+                .fechaEntrega(horaRecojo)
+                .estado(EstadoPedido.PENDIENTE)
+                .detalles(new ArrayList<>(Arrays.asList(detalles)))
+                .build();
+    }
+
+    static DetallePedidoDTO detalle(int cantidad, Integer minutosPorUnidad) {
+        return DetallePedidoDTO.builder()
+                .cantidad(cantidad)
+                .minutosPreparacion(minutosPorUnidad)
+                .build();
+    }
+
+    static PedidoEstadoCambiadoEvent cambio(int idPedido, EstadoPedido estadoNuevo) {
+        return new PedidoEstadoCambiadoEvent(idPedido, "P-" + idPedido, 1, EstadoPedido.PENDIENTE, estadoNuevo);
+    }
+
+    /**
+     * Tres horas de pedidos con una carga cercana al 90 % del puesto: de 1 a 3
+     * unidades de 1 a 3 min cada una, a recoger entre 5 y 60 min después de lo
+     * que tarda prepararlos. Quedan ordenados por llegada.
+     */
+    static List<PedidoDTO> generarHoraPunta(Random random, int cantidad) {
+        List<PedidoDTO> pedidos = new ArrayList<>(cantidad);
+        int[] llegadas = random.ints(cantidad, 0, 180).sorted().toArray();
+        for (int i = 0; i < cantidad; i++) {
+            int unidades = 1 + random.nextInt(3);
+            int minutosPorUnidad = 1 + random.nextInt(3);
+            int recojo = llegadas[i] + unidades * minutosPorUnidad + 5 + random.nextInt(56);
+            pedidos.add(pedido(i + 1, llegadas[i], APERTURA.plusMinutes(recojo).toLocalTime(),
+                    detalle(unidades, minutosPorUnidad)));
+        }
+        return pedidos;
+    }
+
+    /**
+     * Varias rondas de hora punta, cada una con los mismos pedidos para las dos colas
+     * @param secuenciador crea un secuenciador vacío para cada ronda
+     */
+    static Atrasos comparar(Supplier<SecuenciaCocinaServiceImpl> secuenciador, long semilla, int rondas,
+                            int pedidosPorRonda) {
+        Random random = new Random(semilla);
+        long[] tardeFifo = new long[2];
+        long[] tardeSecuencia = new long[2];
+        for (int ronda = 0; ronda < rondas; ronda++) {
+            List<PedidoDTO> pedidos = generarHoraPunta(random, pedidosPorRonda);
+            sumar(tardeFifo, simular(pedidos, new ColaFifo()));
+            sumar(tardeSecuencia, simular(pedidos, new ColaSecuencia(secuenciador.get())));
+        }
+        return new Atrasos(rondas * pedidosPorRonda, tardeFifo[0], tardeFifo[1],
+                tardeSecuencia[0], tardeSecuencia[1]);
+    }
+
+    record Atrasos(int pedidos, long tardeFifo, long minutosFifo, long tardeSecuencia, long minutosSecuencia) {
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * Devuelve {pedidos tarde, minutos de atraso sumados}
+     */
+    private static long[] simular(List<PedidoDTO> pedidos, Cola cola) {
+        long[] resultado = new long[2];
+        int siguienteLlegada = 0;
+        int preparados = 0;
+        LocalDateTime reloj = APERTURA;
+        while (preparados < pedidos.size()) {
+            while (siguienteLlegada < pedidos.size()
+                    && !pedidos.get(siguienteLlegada).getFechaPedido().isAfter(reloj)) {
+                cola.agregar(pedidos.get(siguienteLlegada++));
+            }
+            PedidoDTO pedido = cola.tomar();
+            if (pedido == null) {
+                // Puesto libre hasta que llegue el próximo
+                reloj = pedidos.get(siguienteLlegada).getFechaPedido();
+                continue;
+            }
+            DetallePedidoDTO detalle = pedido.getDetalles().get(0);
+            reloj = reloj.plusMinutes((long) detalle.getCantidad() * detalle.getMinutosPreparacion());
+            LocalDateTime horaRecojo = APERTURA.toLocalDate().atTime(pedido.getFechaEntrega());
+            if (reloj.isAfter(horaRecojo)) {
+                resultado[0]++;
+                resultado[1] += Duration.between(horaRecojo, reloj).toMinutes();
+            }
+            preparados++;
+        }
+        return resultado;
+    }
+
+    private static void sumar(long[] acumulado, long[] ronda) {
+        acumulado[0] += ronda[0];
+        acumulado[1] += ronda[1];
+    }
+
+    private interface Cola {
+        void agregar(PedidoDTO pedido);
+
+        /**
+         * El siguiente a empezar, o null si no hay ninguno esperando
+         */
+        PedidoDTO tomar();
+    }
+
+    private static final class ColaFifo implements Cola {
+        private final Deque<PedidoDTO> pedidos = new ArrayDeque<>();
+
+        @Override
+        public void agregar(PedidoDTO pedido) {
+            pedidos.addLast(pedido);
+        }
+
+        @Override
+        public PedidoDTO tomar() {
+            return pedidos.pollFirst();
+        }
+    }
+
+    /**
+     * Usa el servicio real: entra por el evento de alta y sale al pasar a
+     * EN_PREPARACION, como en la aplicación
+     */
+    private static final class ColaSecuencia implements Cola {
+        private final SecuenciaCocinaServiceImpl secuencia;
+
+        ColaSecuencia(SecuenciaCocinaServiceImpl secuencia) {
+            this.secuencia = secuencia;
+        }
+
+        @Override
+        public void agregar(PedidoDTO pedido) {
+            secuencia.onPedidoCreado(new PedidoCreadoEvent(pedido));
+        }
+
+        @Override
+        public PedidoDTO tomar() {
+            List<PedidoSecuenciadoDTO> siguiente = secuencia.siguientes(1);
+            if (siguiente.isEmpty()) {
+                return null;
+            }
+            PedidoDTO pedido = siguiente.get(0).getPedido();
+            secuencia.onPedidoEstadoCambiado(cambio(pedido.getIdPedido(), EstadoPedido.EN_PREPARACION));
+            return pedido;
+        }
+    }
+}
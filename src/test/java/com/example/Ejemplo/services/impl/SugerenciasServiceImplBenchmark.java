@@ -0,0 +1,180 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.models.Producto;
+import com.example.Ejemplo.repository.CategoriaRepository;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.BusquedaProductosService;
+import com.example.Ejemplo.services.ResumenVentasService;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Latencia del autocompletado con 10.000 productos mientras una edición masiva
+ * dispara 100 eventos de catálogo, con 4 hilos consultando sin parar. Se compara
+ * empaquetar el trie con cada cambio (como antes) frente a la tanda periódica:
+ * cuánto retiene cada evento al hilo que confirmó la edición y cómo quedan
+ * los percentiles de las consultas concurrentes.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class SugerenciasServiceImplBenchmark {
+
+    private static final int PRODUCTOS = 10_000;
+    private static final int EDICIONES = 100;
+    private static final int MUESTRA_POR_LECTOR = 100_000;
+    private static final int LECTORES = 4;
+    private static final long TANDA_MS = 100;
+    private static final String[] PALABRAS = {"Café", "Jugo", "Sándwich", "Ají", "Lomo", "Ensalada", "Torta", "Empanada",
+            "Pollo", "Arroz", "Tallarín", "Causa", "Queso", "Papaya", "Fresa", "Leche", "Mixto", "Criollo", "Verde", "Especial"};
+
+    @Test
+    void latenciaDuranteUnaEdicionMasiva() throws Exception {
+        Resultado porCambio = medir(false);
+        Resultado porTanda = medir(true);
+
+        System.out.printf("%,d productos, %d ediciones, %d lectores:%n", PRODUCTOS, EDICIONES, LECTORES);
+        imprimir("trie por cambio", porCambio);
+        imprimir("trie por tanda ", porTanda);
+        assertTrue(porTanda.microsPorEvento() * 10 < porCambio.microsPorEvento(),
+                porTanda.microsPorEvento() + " µs >= " + porCambio.microsPorEvento() + " µs / 10");
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static Resultado medir(boolean porTanda) throws Exception {
+        SugerenciasServiceImpl servicio = crear();
+        AtomicBoolean terminado = new AtomicBoolean();
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<long[]>> lectores = new ArrayList<>();
+        double microsPorEvento;
+
+        try (ExecutorService hilos = Executors.newFixedThreadPool(LECTORES + 1)) {
+            for (int h = 0; h < LECTORES; h++) {
+                int semilla = h;
+                lectores.add(hilos.submit(() -> leer(servicio, semilla, salida, terminado)));
+            }
+            if (porTanda) {
+                hilos.submit(() -> {
+                    while (!terminado.get()) {
+                        Thread.sleep(TANDA_MS);
+                        servicio.empaquetarPendientes();
+                    }
+                    return null;
+                });
+            }
+            salida.countDown();
+
+            long inicio = System.nanoTime();
+            for (int i = 1; i <= EDICIONES; i++) {
+                servicio.onCatalogoModificado(CatalogoModificadoEvent.producto(i));
+                if (!porTanda) {
+                    servicio.empaquetarPendientes();
+                }
+            }
+            microsPorEvento = (System.nanoTime() - inicio) / 1e3 / EDICIONES;
+            // Los lectores siguen un poco para incluir el último empaquetado
+            Thread.sleep(2 * TANDA_MS);
+            terminado.set(true);
+        }
+
+        long[] todas = lectores.stream().map(SugerenciasServiceImplBenchmark::obtener).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Resultado(microsPorEvento, percentil(todas, 500), percentil(todas, 990), percentil(todas, 999));
+    }
+
+    /**
+     * @return una muestra uniforme (reservorio) de las latencias, en ns
+     */
+    private static long[] leer(SugerenciasServiceImpl servicio, int semilla, CountDownLatch salida, AtomicBoolean terminado)
+            throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(semilla);
+        long[] muestra = new long[MUESTRA_POR_LECTOR];
+        long consultas = 0;
+        salida.await();
+        do {
+            String palabra = BusquedaProductosService.normalizarTexto(PALABRAS[random.nextInt(PALABRAS.length)]);
+            String prefijo = palabra.substring(0, 1 + random.nextInt(palabra.length()));
+            long inicio = System.nanoTime();
+            servicio.sugerir(prefijo, 8);
+            long latencia = System.nanoTime() - inicio;
+            if (consultas < muestra.length) {
+                muestra[(int) consultas] = latencia;
+            } else {
+                long posicion = random.nextLong(consultas + 1);
+                if (posicion < muestra.length) {
+                    muestra[(int) posicion] = latencia;
+                }
+            }
+            consultas++;
+        } while (!terminado.get());
+        return Arrays.copyOf(muestra, (int) Math.min(consultas, muestra.length));
+    }
+
+    private static SugerenciasServiceImpl crear() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Producto> productos = new ArrayList<>(PRODUCTOS);
+        for (int id = 1; id <= PRODUCTOS; id++) {
+            String nombre = PALABRAS[random.nextInt(PALABRAS.length)] + " " + PALABRAS[random.nextInt(PALABRAS.length)] + " " + id;
+            productos.add(Producto.builder().idProducto(id).nombre(nombre).estado(true).build());
+        }
+        ProductoRepository productoRepository = mock(ProductoRepository.class, withSettings().stubOnly());
+        when(productoRepository.findAll()).thenReturn(productos);
+        // La edición le cambia el nombre
+        when(productoRepository.findById(anyInt())).thenAnswer(inv -> {
+            int id = inv.getArgument(0);
+            return Optional.of(Producto.builder().idProducto(id).nombre("Editado " + id).estado(true).build());
+        });
+        CategoriaRepository categoriaRepository = mock(CategoriaRepository.class, withSettings().stubOnly());
+        when(categoriaRepository.findAll()).thenReturn(List.of());
+        ResumenVentasService resumenVentasService = mock(ResumenVentasService.class, withSettings().stubOnly());
+        when(resumenVentasService.productosMasVendidos()).thenReturn(List.of());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        SugerenciasServiceImpl servicio = new SugerenciasServiceImpl(productoRepository, categoriaRepository,
+                resumenVentasService, transactionManager);
+        servicio.reconstruir();
+        return servicio;
+    }
+
+    private static long[] obtener(Future<long[]> lector) {
+        try {
+            return lector.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param milesimo percentil en milésimos (990 = p99)
+     */
+    private static long percentil(long[] ordenadas, int milesimo) {
+        return ordenadas[(int) Math.min(ordenadas.length - 1, (long) ordenadas.length * milesimo / 1000)];
+    }
+
+    private static void imprimir(String modo, Resultado r) {
+        System.out.printf("  %s: %,9.1f µs por evento | consultas p50 %,6.1f µs, p99 %,8.1f µs, p99.9 %,8.1f µs%n",
+                modo, r.microsPorEvento(), r.p50() / 1e3, r.p99() / 1e3, r.p999() / 1e3);
+    }
+
+    private record Resultado(double microsPorEvento, long p50, long p99, long p999) {
+    }
+}
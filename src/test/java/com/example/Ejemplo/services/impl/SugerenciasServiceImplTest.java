@@ -0,0 +1,206 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.ProductoMasVendidoDTO;
+import com.example.Ejemplo.dto.SugerenciaDTO;
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.models.Categoria;
+import com.example.Ejemplo.models.Producto;
+import com.example.Ejemplo.repository.CategoriaRepository;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.ResumenVentasService;
+import com.example.Ejemplo.services.SugerenciasService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SugerenciasServiceImplTest {
+
+    private final List<Producto> productos = new ArrayList<>();
+    private final List<Categoria> categorias = new ArrayList<>();
+    private final List<ProductoMasVendidoDTO> masVendidos = new ArrayList<>();
+
+    private ProductoRepository productoRepository;
+    private CategoriaRepository categoriaRepository;
+    private SugerenciasServiceImpl servicio;
+
+    @BeforeEach
+    void setUp() {
+        productoRepository = mock(ProductoRepository.class);
+        categoriaRepository = mock(CategoriaRepository.class);
+        ResumenVentasService resumenVentasService = mock(ResumenVentasService.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(productoRepository.findAll()).thenReturn(productos);
+        when(categoriaRepository.findAll()).thenReturn(categorias);
+        when(resumenVentasService.productosMasVendidos()).thenReturn(masVendidos);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        servicio = new SugerenciasServiceImpl(productoRepository, categoriaRepository,
+                resumenVentasService, transactionManager);
+    }
+
+    @Test
+    void sugiereDesdeElInicioDeCualquierPalabra() {
+        producto(1, "Sándwich de Lomo", true);
+        producto(2, "Lomo Saltado", true);
+        producto(3, "Palomitas", true);
+        servicio.reconstruir();
+
+        assertEquals(List.of("Lomo Saltado", "Sándwich de Lomo"), textos(servicio.sugerir("lomo", 10)));
+        // "lomo" dentro de "Palomitas" no empieza palabra
+        assertTrue(servicio.sugerir("omo", 10).isEmpty());
+    }
+
+    @Test
+    void ignoraTildesMayusculasYSignos() {
+        producto(1, "Café con Leche", true);
+        servicio.reconstruir();
+
+        assertEquals(List.of("Café con Leche"), textos(servicio.sugerir("CAFE", 5)));
+        assertEquals(List.of("Café con Leche"), textos(servicio.sugerir("  café con l", 5)));
+        assertTrue(servicio.sugerir("   ", 5).isEmpty());
+        assertTrue(servicio.sugerir("té", 5).isEmpty());
+    }
+
+    @Test
+    void ordenaPorVentasYPoneCategoriasPrimero() {
+        producto(1, "Empanada de Pollo", true);
+        producto(2, "Empanada de Carne", true);
+        producto(3, "Empanada de Queso", true);
+        categoria(10, "Empanadas");
+        vendidos(2, 50);
+        vendidos(3, 20);
+        servicio.reconstruir();
+
+        List<SugerenciaDTO> resultado = servicio.sugerir("empa", 10);
+
+        assertEquals(SugerenciaDTO.Tipo.CATEGORIA, resultado.get(0).tipo());
+        // Sin ventas queda al final; empates se resuelven alfabéticamente
+        assertEquals(List.of("Empanadas", "Empanada de Carne", "Empanada de Queso", "Empanada de Pollo"),
+                textos(resultado));
+    }
+
+    @Test
+    void excluyeProductosInactivos() {
+        producto(1, "Jugo de Naranja", true);
+        producto(2, "Jugo de Mango", false);
+        servicio.reconstruir();
+
+        assertEquals(List.of("Jugo de Naranja"), textos(servicio.sugerir("jugo", 10)));
+        assertTrue(servicio.sugerir("mango", 10).isEmpty());
+    }
+
+    @Test
+    void respetaElLimitePedidoYElMaximo() {
+        IntStream.rangeClosed(1, 30).forEach(i -> producto(i, String.format("Pan %02d", i), true));
+        servicio.reconstruir();
+
+        assertEquals(3, servicio.sugerir("pan", 3).size());
+        assertEquals(SugerenciasService.MAX_SUGERENCIAS, servicio.sugerir("pan", 100).size());
+        assertTrue(servicio.sugerir("pan", 0).isEmpty());
+        // Un prefijo más largo sigue encontrando entradas que no entraron en el top del padre
+        assertEquals(List.of("Pan 27"), textos(servicio.sugerir("pan 27", 5)));
+    }
+
+    @Test
+    void unaEntradaConDosPalabrasIgualesNoSeRepite() {
+        producto(1, "Té de Té Verde", true);
+        servicio.reconstruir();
+
+        assertEquals(1, servicio.sugerir("te", 10).size());
+    }
+
+    @Test
+    void seActualizaConLosCambiosDelCatalogo() {
+        producto(1, "Arroz con Pollo", true);
+        servicio.reconstruir();
+
+        Producto nuevo = Producto.builder().idProducto(2).nombre("Arroz Chaufa").estado(true).build();
+        when(productoRepository.findById(2)).thenReturn(Optional.of(nuevo));
+        servicio.onCatalogoModificado(CatalogoModificadoEvent.producto(2));
+        servicio.empaquetarPendientes();
+        assertEquals(List.of("Arroz Chaufa", "Arroz con Pollo"), textos(servicio.sugerir("arroz", 10)));
+
+        // Desactivar o borrar lo saca de las sugerencias
+        nuevo.setEstado(false);
+        servicio.onCatalogoModificado(CatalogoModificadoEvent.producto(2));
+        when(productoRepository.findById(1)).thenReturn(Optional.empty());
+        servicio.onCatalogoModificado(CatalogoModificadoEvent.producto(1));
+        servicio.empaquetarPendientes();
+        assertTrue(servicio.sugerir("arroz", 10).isEmpty());
+
+        Categoria bebidas = Categoria.builder().idCategoria(5).nombre("Bebidas").build();
+        when(categoriaRepository.findById(5)).thenReturn(Optional.of(bebidas));
+        servicio.onCatalogoModificado(CatalogoModificadoEvent.categoria(5));
+        servicio.empaquetarPendientes();
+        assertEquals(List.of("Bebidas"), textos(servicio.sugerir("beb", 10)));
+    }
+
+    @Test
+    void unaTandaDeCambiosSePublicaJuntaEnElSiguienteEmpaquetado() {
+        producto(1, "Arroz con Pollo", true);
+        servicio.reconstruir();
+
+        for (int id = 2; id <= 50; id++) {
+            Producto nuevo = Producto.builder().idProducto(id).nombre("Arroz " + id).estado(true).build();
+            when(productoRepository.findById(id)).thenReturn(Optional.of(nuevo));
+            servicio.onCatalogoModificado(CatalogoModificadoEvent.producto(id));
+        }
+        // Hasta el empaquetado se sigue sirviendo la foto anterior
+        assertEquals(List.of("Arroz con Pollo"), textos(servicio.sugerir("arroz", 10)));
+
+        servicio.empaquetarPendientes();
+        assertEquals(SugerenciasService.MAX_SUGERENCIAS, servicio.sugerir("arroz", 100).size());
+        assertEquals(List.of("Arroz 37"), textos(servicio.sugerir("arroz 37", 10)));
+    }
+
+    @Test
+    void refrescarLaPopularidadReordenaSinReleerElCatalogo() {
+        producto(1, "Empanada de Pollo", true);
+        producto(2, "Empanada de Carne", true);
+        categoria(10, "Empanadas");
+        vendidos(1, 5);
+        servicio.reconstruir();
+        assertEquals(List.of("Empanadas", "Empanada de Pollo", "Empanada de Carne"), textos(servicio.sugerir("empa", 10)));
+
+        masVendidos.clear();
+        vendidos(2, 80);
+        vendidos(1, 5);
+        clearInvocations(productoRepository, categoriaRepository);
+        servicio.refrescarPopularidad();
+
+        assertEquals(List.of("Empanadas", "Empanada de Carne", "Empanada de Pollo"), textos(servicio.sugerir("empa", 10)));
+        verifyNoInteractions(productoRepository, categoriaRepository);
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private void producto(int id, String nombre, boolean activo) {
+        productos.add(Producto.builder().idProducto(id).nombre(nombre).estado(activo).build());
+    }
+
+    private void categoria(int id, String nombre) {
+        categorias.add(Categoria.builder().idCategoria(id).nombre(nombre).build());
+    }
+
+    private void vendidos(int idProducto, long cantidad) {
+        masVendidos.add(new ProductoMasVendidoDTO(idProducto, null, (Double) null, null, cantidad));
+    }
+
+    private static List<String> textos(List<SugerenciaDTO> sugerencias) {
+        return sugerencias.stream().map(SugerenciaDTO::texto).toList();
+    }
+}
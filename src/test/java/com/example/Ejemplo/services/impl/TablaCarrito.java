@@ -0,0 +1,106 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.CarritoRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Tabla carrito en memoria con rollback por foto (un volcado a la vez). La
+ * comparten la prueba y el benchmark del carrito en memoria.
+ */
+final class TablaCarrito {
+
+    private final AtomicInteger cargas = new AtomicInteger();
+    // Se ejecuta dentro de cada escritura (para fallar o demorar un volcado)
+    private volatile Runnable alEscribir = () -> { };
+    private Map<Integer, Map<Integer, Integer>> filas = new HashMap<>();
+    private Map<Integer, Map<Integer, Integer>> foto;
+    private int escrituras;
+
+    CarritoRepository repository() {
+        CarritoRepository carritoRepository = mock(CarritoRepository.class, withSettings().stubOnly());
+        when(carritoRepository.fijarCantidad(anyInt(), anyInt(), anyInt())).thenAnswer(inv -> {
+            alEscribir.run();
+            fijar(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2));
+            return 1;
+        });
+        when(carritoRepository.deleteCarritoByUsuarioIdAndProductoId(anyInt(), anyInt())).thenAnswer(inv -> {
+            alEscribir.run();
+            fijar(inv.getArgument(0), inv.getArgument(1), 0);
+            return 1;
+        });
+        when(carritoRepository.findCantidadesByUsuario(anyInt())).thenAnswer(inv -> {
+            cargas.incrementAndGet();
+            return filas(inv.getArgument(0));
+        });
+        when(carritoRepository.vaciarCarrito(any())).thenAnswer(inv -> vaciar(inv.getArgument(0)));
+        return carritoRepository;
+    }
+
+    PlatformTransactionManager transactionManager() {
+        return TransaccionesFalsas.conFoto(this::abrirTransaccion, this::revertir);
+    }
+
+    void alEscribir(Runnable accion) {
+        this.alEscribir = accion;
+    }
+
+    synchronized void fijar(int idUsuario, int idProducto, int cantidad) {
+        escrituras++;
+        Map<Integer, Integer> carrito = filas.computeIfAbsent(idUsuario, id -> new HashMap<>());
+        if (cantidad > 0) {
+            carrito.put(idProducto, cantidad);
+        } else {
+            carrito.remove(idProducto);
+        }
+    }
+
+    synchronized int vaciar(int idUsuario) {
+        Map<Integer, Integer> carrito = filas.remove(idUsuario);
+        return carrito != null ? carrito.size() : 0;
+    }
+
+    synchronized List<Object[]> filas(int idUsuario) {
+        List<Object[]> resultado = new ArrayList<>();
+        filas.getOrDefault(idUsuario, Map.of())
+                .forEach((idProducto, cantidad) -> resultado.add(new Object[]{idProducto, cantidad}));
+        return resultado;
+    }
+
+    synchronized Map<Integer, Integer> carrito(int idUsuario) {
+        return Map.copyOf(filas.getOrDefault(idUsuario, Map.of()));
+    }
+
+    synchronized int escrituras() {
+        return escrituras;
+    }
+
+    /**
+     * Veces que se leyó un carrito de la tabla (findCantidadesByUsuario)
+     */
+    int cargas() {
+        return cargas.get();
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private synchronized void abrirTransaccion() {
+        foto = new HashMap<>();
+        filas.forEach((idUsuario, carrito) -> foto.put(idUsuario, new HashMap<>(carrito)));
+    }
+
+    private synchronized void revertir() {
+        filas = foto;
+    }
+}
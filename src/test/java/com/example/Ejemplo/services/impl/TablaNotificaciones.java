@@ -0,0 +1,145 @@
+package com.example.Ejemplo.services.impl;
+
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tabla notificaciones en memoria ordenada por fecha_creacion, como el índice
+ * (estado, fecha_creacion). Cada transacción toma un lock de tabla que se
+ * suelta en el commit; los escritores necesitan el mismo lock. La comparten
+ * la prueba y el benchmark de retención.
+ */
+final class TablaNotificaciones {
+
+    private final long[] fechas;
+    private final boolean[] leidas;
+    private final boolean[] borradas;
+    private final long costoPorFilaNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Integer> tramos = new ArrayList<>();
+    private int filas;
+    private int vivas;
+    // Antes de este índice ya no queda ninguna fila elegible
+    private int cursor;
+    private Runnable alBorrar = () -> { };
+
+    TablaNotificaciones(int capacidad, long costoPorFilaNanos) {
+        this.fechas = new long[capacidad];
+        this.leidas = new boolean[capacidad];
+        this.borradas = new boolean[capacidad];
+        this.costoPorFilaNanos = costoPorFilaNanos;
+    }
+
+    /**
+     * 80 % de filas más viejas que la retención y 20 % recientes, 90 % leídas
+     */
+    static TablaNotificaciones sembrada(int filas, LocalDateTime ahora, int diasRetencion, long costoPorFilaNanos) {
+        TablaNotificaciones tabla = new TablaNotificaciones(filas, costoPorFilaNanos);
+        Random random = new Random(7);
+        LocalDateTime desde = ahora.minusDays(90);
+        int viejas = filas * 8 / 10;
+        for (int i = 0; i < filas; i++) {
+            LocalDateTime fecha = i < viejas
+                    ? desde.plusSeconds(i * 6L)
+                    : ahora.minusDays(diasRetencion - 1).plusSeconds((i - viejas) * 10L);
+            tabla.agregar(fecha, random.nextInt(10) != 0);
+        }
+        return tabla;
+    }
+
+    void agregar(LocalDateTime fecha, boolean leida) {
+        fechas[filas] = segundos(fecha);
+        leidas[filas] = leida;
+        filas++;
+        vivas++;
+    }
+
+    void alBorrar(Runnable accion) {
+        this.alBorrar = accion;
+    }
+
+    PlatformTransactionManager transactionManager() {
+        return TransaccionesFalsas.conLock(lock);
+    }
+
+    /**
+     * DELETE ... WHERE estado = true AND fecha_creacion < :limite ORDER BY fecha_creacion LIMIT :lote
+     */
+    int eliminarLeidasAnteriores(LocalDateTime limite, int lote) {
+        alBorrar.run();
+        long hasta = segundos(limite);
+        int eliminadas = 0;
+        int i = cursor;
+        for (; i < filas && fechas[i] < hasta && eliminadas < lote; i++) {
+            if (leidas[i] && !borradas[i]) {
+                borradas[i] = true;
+                eliminadas++;
+            }
+        }
+        cursor = i;
+        vivas -= eliminadas;
+        tramos.add(eliminadas);
+        consumir(eliminadas * costoPorFilaNanos);
+        return eliminadas;
+    }
+
+    /**
+     * INSERT de una notificación nueva
+     * @return nanosegundos esperando el lock
+     */
+    long escribir() {
+        long inicio = System.nanoTime();
+        lock.lock();
+        try {
+            return System.nanoTime() - inicio;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return si quien llama tiene abierta exactamente una transacción
+     */
+    boolean enUnaTransaccion() {
+        return lock.getHoldCount() == 1;
+    }
+
+    int elegibles(LocalDateTime limite) {
+        long hasta = segundos(limite);
+        int total = 0;
+        for (int i = 0; i < filas; i++) {
+            if (leidas[i] && !borradas[i] && fechas[i] < hasta) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    int vivas() {
+        return vivas;
+    }
+
+    List<Integer> tramos() {
+        // El último tramo vacío solo confirma que no quedaba nada
+        return tramos.isEmpty() || tramos.get(tramos.size() - 1) != 0
+                ? tramos
+                : tramos.subList(0, tramos.size() - 1);
+    }
+
+    private static long segundos(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static void consumir(long nanos) {
+        long fin = System.nanoTime() + nanos;
+        while (System.nanoTime() < fin) {
+            Thread.onSpinWait();
+        }
+    }
+}
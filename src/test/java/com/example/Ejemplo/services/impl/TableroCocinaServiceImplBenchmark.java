@@ -0,0 +1,167 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.PedidoDTO;
+import com.example.Ejemplo.mapper.PedidoMapper;
+import com.example.Ejemplo.models.DetallePedido;
+import com.example.Ejemplo.models.EstadoPedido;
+import com.example.Ejemplo.models.Pedido;
+import com.example.Ejemplo.models.Producto;
+import com.example.Ejemplo.repository.PedidosRepository;
+import com.example.Ejemplo.services.CodigoPedidoService;
+import com.example.Ejemplo.services.OutboxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Latencia del tablero del admin con 1.000, 10.000 y 100.000 pedidos en el
+ * historial y los mismos {@link #ACTIVOS} activos: agruparPedidosPorEstado
+ * (findAll + un SELECT perezoso de detalles por pedido) frente a
+ * {@link TableroCocinaServiceImpl}. Las idas y vueltas a la BD se cuentan, no
+ * se esperan, así el tiempo es solo el de la JVM.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class TableroCocinaServiceImplBenchmark {
+
+    private static final int ACTIVOS = 60;
+    private static final int[] HISTORIALES = {1_000, 10_000, 100_000};
+    private static final int LECTURAS = 50;
+
+    private final AtomicInteger idasYVueltas = new AtomicInteger();
+
+    @Test
+    void laLatenciaDelTableroNoCreceConElHistorial() {
+        PedidoMapper pedidoMapper = new PedidoMapper();
+        double primeraLectura = 0;
+        double ultimaLectura = 0;
+
+        for (int historial : HISTORIALES) {
+            List<Pedido> pedidos = generarPedidos(historial);
+            PedidosRepository pedidosRepository = mock(PedidosRepository.class, withSettings().stubOnly());
+            when(pedidosRepository.findAll()).thenAnswer(inv -> {
+                idasYVueltas.incrementAndGet();
+                return pedidos;
+            });
+            when(pedidosRepository.findConDetallesByEstadoIn(any())).thenAnswer(inv -> {
+                idasYVueltas.incrementAndGet();
+                return pedidos.subList(historial - ACTIVOS, historial);
+            });
+            PedidosServiceImpl pedidosService = new PedidosServiceImpl(pedidosRepository, pedidoMapper,
+                    mock(OutboxService.class, withSettings().stubOnly()),
+                    mock(CodigoPedidoService.class, withSettings().stubOnly()), evento -> { });
+            TableroCocinaServiceImpl tablero = new TableroCocinaServiceImpl(pedidosRepository, pedidoMapper,
+                    transactionManager());
+            tablero.reconstruir();
+
+            idasYVueltas.set(0);
+            long inicio = System.nanoTime();
+            for (int i = 0; i < LECTURAS; i++) {
+                pedidosService.agruparPedidosPorEstado();
+            }
+            double msAnterior = (System.nanoTime() - inicio) / 1e6 / LECTURAS;
+            int idasAnterior = idasYVueltas.getAndSet(0) / LECTURAS;
+
+            // Calentamiento y medida del tablero en memoria
+            medir(tablero);
+            double msTablero = medir(tablero);
+            int activos = tablero.obtenerTablero().values().stream().mapToInt(List::size).sum();
+
+            System.out.printf("Historial de %,d pedidos: agruparPedidosPorEstado %.2f ms y %,d idas y vueltas; "
+                    + "tablero %.4f ms y %d idas y vueltas%n", historial, msAnterior, idasAnterior, msTablero, idasYVueltas.get());
+            assertEquals(0, idasYVueltas.get());
+            assertEquals(ACTIVOS, activos);
+            if (historial == HISTORIALES[0]) {
+                primeraLectura = msTablero;
+            }
+            ultimaLectura = msTablero;
+        }
+        // Cien veces más historial, el mismo tablero: el margen absorbe el ruido del JIT
+        assertTrue(ultimaLectura < Math.max(primeraLectura * 5, 0.05), primeraLectura + " ms -> " + ultimaLectura + " ms");
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private static double medir(TableroCocinaServiceImpl tablero) {
+        long inicio = System.nanoTime();
+        int total = 0;
+        for (int i = 0; i < LECTURAS * 100; i++) {
+            Map<EstadoPedido, List<PedidoDTO>> columnas = tablero.obtenerTablero();
+            total += columnas.size();
+        }
+        assertTrue(total > 0);
+        return (System.nanoTime() - inicio) / 1e6 / (LECTURAS * 100);
+    }
+
+    /**
+     * El historial entregado primero y los {@link #ACTIVOS} activos al final
+     */
+    private List<Pedido> generarPedidos(int cantidad) {
+        EstadoPedido[] activos = {EstadoPedido.PENDIENTE, EstadoPedido.EN_PREPARACION, EstadoPedido.LISTO};
+        Producto producto = Producto.builder().idProducto(1).nombre("Café").precio(3.5).build();
+        LocalDateTime inicio = LocalDateTime.now().minusDays(365);
+        List<Pedido> pedidos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Pedido pedido = new Pedido();
+            pedido.setIdPedido(i + 1);
+            pedido.setCodigoPedido("P" + i);
+            pedido.setFechaPedido(inicio.plusMinutes(i));
+            pedido.setEstado(i < cantidad - ACTIVOS ? EstadoPedido.ENTREGADO : activos[i % activos.length]);
+            DetallePedido detalle = new DetallePedido();
+            detalle.setProducto(producto);
+            detalle.setCantidad(2);
+            detalle.setSubtotal(7.0);
+            pedido.setDetallePedido(new DetallesPerezosos(List.of(detalle)));
+            pedidos.add(pedido);
+        }
+        return pedidos;
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return transactionManager;
+    }
+
+    /**
+     * Como la colección LAZY de Hibernate: cada vez que se inicializa cuesta un SELECT
+     */
+    private final class DetallesPerezosos extends AbstractList<DetallePedido> {
+
+        private final List<DetallePedido> detalles;
+
+        DetallesPerezosos(List<DetallePedido> detalles) {
+            this.detalles = detalles;
+        }
+
+        @Override
+        public DetallePedido get(int indice) {
+            return detalles.get(indice);
+        }
+
+        @Override
+        public int size() {
+            return detalles.size();
+        }
+
+        @Override
+        public java.util.stream.Stream<DetallePedido> stream() {
+            // Cada lectura usa una sesión nueva: la colección vuelve a cargarse
+            idasYVueltas.incrementAndGet();
+            return detalles.stream();
+        }
+    }
+}
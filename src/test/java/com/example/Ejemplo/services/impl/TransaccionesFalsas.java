@@ -0,0 +1,59 @@
+package com.example.Ejemplo.services.impl;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.locks.Lock;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * PlatformTransactionManager de mentira para las tablas en memoria de las
+ * pruebas y los benchmarks de servicios.
+ */
+final class TransaccionesFalsas {
+
+    private TransaccionesFalsas() {
+    }
+
+    /**
+     * Cada transacción toma el lock de la tabla y el commit o el rollback lo sueltan
+     */
+    static PlatformTransactionManager conLock(Lock lock) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> {
+            lock.lock();
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(inv -> {
+            lock.unlock();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(inv -> {
+            lock.unlock();
+            return null;
+        }).when(transactionManager).rollback(any());
+        return transactionManager;
+    }
+
+    /**
+     * Cada transacción toma una foto de la tabla y el rollback la restaura
+     * (el commit solo la descarta). Sirve para una transacción a la vez.
+     */
+    static PlatformTransactionManager conFoto(Runnable tomarFoto, Runnable restaurar) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class, withSettings().stubOnly());
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> {
+            tomarFoto.run();
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(inv -> {
+            restaurar.run();
+            return null;
+        }).when(transactionManager).rollback(any());
+        return transactionManager;
+    }
+}
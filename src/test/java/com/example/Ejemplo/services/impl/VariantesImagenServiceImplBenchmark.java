@@ -0,0 +1,89 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.AlmacenImagenesService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.Ejemplo.services.impl.ImagenesDePrueba.foto;
+import static com.example.Ejemplo.services.impl.ImagenesDePrueba.guardarOriginal;
+import static com.example.Ejemplo.services.impl.ImagenesDePrueba.url;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fotos de celular de 4000x3000: cuántas por segundo procesa el backfill y
+ * cuánta memoria asigna por imagen. Con el submuestreo se decodifican a
+ * 2000x1500, así que generar las tres variantes asigna menos que solo
+ * decodificar el original completo.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+class VariantesImagenServiceImplBenchmark {
+
+    private static final int CANTIDAD = 8;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void throughputYMemoriaPorImagenConFotosGrandes() throws Exception {
+        List<Object[]> imagenes = new ArrayList<>();
+        for (int i = 0; i < CANTIDAD; i++) {
+            imagenes.add(new Object[]{i, url(guardarOriginal(directorio, foto(4000, 3000, 100 + i), "jpg"))});
+        }
+        VariantesImagenServiceImpl servicio = crear(imagenes);
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long hilo = Thread.currentThread().threadId();
+
+        long asignadoAntes = hilos.getThreadAllocatedBytes(hilo);
+        long inicio = System.nanoTime();
+        assertEquals(CANTIDAD, servicio.backfill());
+        long nanos = System.nanoTime() - inicio;
+        long asignadoPorImagen = (hilos.getThreadAllocatedBytes(hilo) - asignadoAntes) / CANTIDAD;
+        servicio.detener();
+
+        // Referencia: solo decodificar un original completo, sin generar nada
+        String primera = ((String) imagenes.get(0)[1]).substring(AlmacenImagenesService.PREFIJO_URL.length());
+        asignadoAntes = hilos.getThreadAllocatedBytes(hilo);
+        ImageIO.read(directorio.resolve(primera).toFile());
+        long decodificacionCompleta = hilos.getThreadAllocatedBytes(hilo) - asignadoAntes;
+
+        System.out.printf("Variantes de fotos 4000x3000: %.1f imágenes/s (%d ms c/u), %.1f MB asignados por imagen "
+                        + "(decodificar el original: %.1f MB)%n",
+                CANTIDAD * 1e9 / nanos, TimeUnit.NANOSECONDS.toMillis(nanos) / CANTIDAD,
+                asignadoPorImagen / 1e6, decodificacionCompleta / 1e6);
+        assertTrue(asignadoPorImagen < decodificacionCompleta,
+                "asignado por imagen = " + asignadoPorImagen + " bytes");
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    private VariantesImagenServiceImpl crear(List<Object[]> imagenes) throws Exception {
+        AlmacenImagenesService almacen = mock(AlmacenImagenesService.class);
+        when(almacen.ubicar(anyString())).thenAnswer(inv -> {
+            Path archivo = directorio.resolve((String) inv.getArgument(0));
+            return Files.exists(archivo) ? Optional.of(archivo) : Optional.empty();
+        });
+        doAnswer(inv -> {
+            Files.write(directorio.resolve((String) inv.getArgument(0)), (byte[]) inv.getArgument(1));
+            return null;
+        }).when(almacen).guardarDerivada(anyString(), any());
+        ProductoRepository productoRepository = mock(ProductoRepository.class);
+        when(productoRepository.findImagenes()).thenReturn(imagenes);
+        return new VariantesImagenServiceImpl(almacen, productoRepository, evento -> { }, 2, 10, false);
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.events.CatalogoModificadoEvent;
+import com.example.Ejemplo.repository.ProductoRepository;
+import com.example.Ejemplo.services.AlmacenImagenesService;
+import com.example.Ejemplo.services.VariantesImagenService.Variante;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.Ejemplo.services.impl.ImagenesDePrueba.foto;
+import static com.example.Ejemplo.services.impl.ImagenesDePrueba.guardarOriginal;
+import static com.example.Ejemplo.services.impl.ImagenesDePrueba.url;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VariantesImagenServiceImplTest {
+
+    @TempDir
+    Path directorio;
+
+    // [idProducto, imagenUrl] como los devuelve findImagenes
+    private final List<Object[]> imagenes = new ArrayList<>();
+    private final BlockingQueue<Object> eventos = new LinkedBlockingQueue<>();
+
+    // Original cuya generación espera a que la prueba abra el latch
+    private String bloqueado;
+    private final CountDownLatch ocupado = new CountDownLatch(1);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+
+    private AlmacenImagenesService almacen;
+    private ProductoRepository productoRepository;
+    private VariantesImagenServiceImpl servicio;
+
+    @BeforeEach
+    void setUp() {
+        almacen = mock(AlmacenImagenesService.class);
+        when(almacen.ubicar(anyString())).thenAnswer(inv -> {
+            String nombre = inv.getArgument(0);
+            if (nombre.equals(bloqueado)) {
+                ocupado.countDown();
+                liberar.await();
+            }
+            Path archivo = directorio.resolve(nombre);
+            return Files.exists(archivo) ? Optional.of(archivo) : Optional.empty();
+        });
+        doAnswer(inv -> {
+            Files.write(directorio.resolve((String) inv.getArgument(0)), (byte[]) inv.getArgument(1));
+            return null;
+        }).when(almacen).guardarDerivada(anyString(), any());
+
+        productoRepository = mock(ProductoRepository.class);
+        when(productoRepository.findImagenes()).thenReturn(imagenes);
+
+        servicio = new VariantesImagenServiceImpl(almacen, productoRepository, eventos::add, 2, 10, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        servicio.detener();
+    }
+
+    @Test
+    void backfillGeneraLasTresVariantesConSusAnchosYElSrcset() throws Exception {
+        String nombre = guardarOriginal(directorio, foto(1600, 1200, 1), "jpg");
+        imagenes.add(new Object[]{7, url(nombre)});
+
+        assertEquals(1, servicio.backfill());
+
+        String hash = nombre.substring(0, 64);
+        for (Variante variante : Variante.values()) {
+            BufferedImage generada = ImageIO.read(directorio.resolve(hash + "-" + variante.getAncho() + ".jpg").toFile());
+            assertEquals(variante.getAncho(), generada.getWidth());
+            // Mantiene la proporción 4:3
+            assertEquals(variante.getAncho() * 3 / 4, generada.getHeight(), 1);
+        }
+        String base = AlmacenImagenesService.PREFIJO_URL + hash;
+        assertEquals(base + "-120.jpg 120w, " + base + "-360.jpg 360w, " + base + "-720.jpg 720w",
+                servicio.srcset(url(nombre)));
+        assertEquals(base + "-120.jpg", servicio.url(url(nombre), Variante.MINIATURA));
+        assertEquals(List.of(CatalogoModificadoEvent.producto(7)), List.copyOf(eventos));
+    }
+
+    @Test
+    void conTransparenciaLasVariantesSonPng() throws Exception {
+        BufferedImage logo = new BufferedImage(800, 400, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = logo.createGraphics();
+        g.setColor(new Color(200, 30, 30, 180));
+        g.fillOval(100, 50, 600, 300);
+        g.dispose();
+        String nombre = guardarOriginal(directorio, logo, "png");
+        imagenes.add(new Object[]{1, url(nombre)});
+
+        servicio.backfill();
+
+        BufferedImage miniatura = ImageIO.read(directorio.resolve(nombre.substring(0, 64) + "-120.png").toFile());
+        assertTrue(miniatura.getColorModel().hasAlpha());
+        assertEquals(60, miniatura.getHeight());
+        assertTrue(servicio.srcset(url(nombre)).contains("-720.png 720w"));
+    }
+
+    @Test
+    void unaImagenMasChicaQueLaVarianteNoSeAgranda() throws Exception {
+        String nombre = guardarOriginal(directorio, foto(300, 200, 2), "jpg");
+        imagenes.add(new Object[]{1, url(nombre)});
+
+        servicio.backfill();
+
+        String hash = nombre.substring(0, 64);
+        assertEquals(300, ImageIO.read(directorio.resolve(hash + "-720.jpg").toFile()).getWidth());
+        assertEquals(300, ImageIO.read(directorio.resolve(hash + "-360.jpg").toFile()).getWidth());
+        assertEquals(120, ImageIO.read(directorio.resolve(hash + "-120.jpg").toFile()).getWidth());
+    }
+
+    @Test
+    void sinVariantesSeUsaLaImagenOriginal() throws Exception {
+        String nombre = guardarOriginal(directorio, foto(400, 300, 3), "jpg");
+        String externa = "https://i.ibb.co/abc/foto.jpg";
+
+        assertNull(servicio.srcset(url(nombre)));
+        assertEquals(url(nombre), servicio.url(url(nombre), Variante.TARJETA));
+        assertNull(servicio.srcset(externa));
+        assertEquals(externa, servicio.url(externa, Variante.TARJETA));
+        assertNull(servicio.srcset(null));
+    }
+
+    @Test
+    void elBackfillSaltaLasQueYaTienenVariantes() throws Exception {
+        imagenes.add(new Object[]{1, url(guardarOriginal(directorio, foto(800, 600, 4), "jpg"))});
+        imagenes.add(new Object[]{2, url(guardarOriginal(directorio, foto(800, 600, 5), "jpg"))});
+        // Un archivo que ya no está en el almacén no corta el resto
+        imagenes.add(new Object[]{3, AlmacenImagenesService.PREFIJO_URL + "f".repeat(64) + ".jpg"});
+
+        assertEquals(2, servicio.backfill());
+        assertEquals(0, servicio.backfill());
+    }
+
+    @Test
+    void generarCorreEnSegundoPlanoYAvisaAlCatalogo() throws Exception {
+        String nombre = guardarOriginal(directorio, foto(1000, 750, 6), "jpg");
+
+        servicio.generar(9, nombre);
+
+        assertEquals(CatalogoModificadoEvent.producto(9), eventos.poll(10, TimeUnit.SECONDS));
+        assertTrue(servicio.srcset(url(nombre)).endsWith("720w"));
+    }
+
+    @Test
+    void loRechazadoPorLaColaLlenaSeReintentaDespues() throws Exception {
+        servicio.detener();
+        // Un hilo y sin cola: mientras trabaja, todo lo demás se rechaza
+        servicio = new VariantesImagenServiceImpl(almacen, productoRepository, eventos::add, 1, 0, false);
+        bloqueado = guardarOriginal(directorio, foto(400, 300, 7), "jpg");
+        String rechazada = guardarOriginal(directorio, foto(400, 300, 8), "jpg");
+
+        servicio.generar(1, bloqueado);
+        assertTrue(ocupado.await(10, TimeUnit.SECONDS));
+        servicio.generar(2, rechazada);
+        servicio.programarBackfill();
+        // Con el hilo todavía ocupado el reintento vuelve a quedar pendiente
+        servicio.reintentarRechazadas();
+        liberar.countDown();
+        assertEquals(CatalogoModificadoEvent.producto(1), eventos.poll(10, TimeUnit.SECONDS));
+        assertNull(servicio.srcset(url(rechazada)));
+
+        // Hilo libre: cada pasada programada encola lo que quepa, el backfill primero
+        Object evento = null;
+        for (int pasada = 0; evento == null && pasada < 100; pasada++) {
+            servicio.reintentarRechazadas();
+            evento = eventos.poll(100, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(CatalogoModificadoEvent.producto(2), evento);
+        assertTrue(servicio.srcset(url(rechazada)).endsWith("720w"));
+        verify(productoRepository).findImagenes();
+    }
+
+    @Test
+    void elBackfillNoCorreAlIniciarSalvoQueSeConfigure() throws Exception {
+        servicio.detener();
+        servicio = new VariantesImagenServiceImpl(almacen, productoRepository, eventos::add, 1, 10, false);
+        String nombre = guardarOriginal(directorio, foto(400, 300, 9), "jpg");
+
+        servicio.onAplicacionLista();
+        // Un solo hilo en orden: si el backfill se hubiera encolado, ya habría corrido
+        servicio.generar(3, nombre);
+
+        assertEquals(CatalogoModificadoEvent.producto(3), eventos.poll(10, TimeUnit.SECONDS));
+        verify(productoRepository, never()).findImagenes();
+    }
+}
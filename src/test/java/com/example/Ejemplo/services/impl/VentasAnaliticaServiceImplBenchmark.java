@@ -0,0 +1,346 @@
+package com.example.Ejemplo.services.impl;
+
+import com.example.Ejemplo.dto.ProductoMasVendidoDTO;
+import com.example.Ejemplo.dto.ResumenVentasDTO;
+import com.example.Ejemplo.dto.VentaCategoriaDTO;
+import com.example.Ejemplo.models.Categoria;
+import com.example.Ejemplo.models.DetallePedido;
+import com.example.Ejemplo.models.EstadoPedido;
+import com.example.Ejemplo.models.Pedido;
+import com.example.Ejemplo.models.Producto;
+import com.example.Ejemplo.models.VentaResumen;
+import com.example.Ejemplo.models.VentaResumenId;
+import com.example.Ejemplo.repository.PedidoContabilizadoRepository;
+import com.example.Ejemplo.repository.PedidosRepository;
+import com.example.Ejemplo.repository.ResumenMarcaRepository;
+import com.example.Ejemplo.repository.VentaResumenRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Latencia de /api/ventas con un año de historial generado (1.000.000 de
+ * pedidos por defecto, {@code -Dventas.pedidos=N} para otro tamaño). Los
+ * pedidos pasan por el ResumenVentasServiceImpl real hacia una tabla
+ * venta_resumen en memoria; después se mide cada consulta de la API sin cache
+ * y las filas que lee, frente a las filas de pedidos y detalles que leería un
+ * recorrido del rango por el índice de fecha_pedido.
+ * Se corre con {@code mvn test -Pperf}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VentasAnaliticaServiceImplBenchmark {
+
+    private static final int PEDIDOS = Integer.getInteger("ventas.pedidos", 1_000_000);
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+    private static final int DIAS = 365;
+    private static final int CATEGORIAS = 6;
+    private static final int PRODUCTOS = 40;
+    private static final int REPETICIONES = 200;
+
+    private final GeneradorPedidos generador = new GeneradorPedidos(PEDIDOS, INICIO, DIAS);
+    private final TablaResumen tabla = new TablaResumen();
+    private VentasAnaliticaServiceImpl analitica;
+
+    @BeforeAll
+    void cargarHistorial() {
+        PedidosRepository pedidosRepository = repositorio(PedidosRepository.class, (metodo, args) ->
+                "findConDetallesById".equals(metodo) ? Optional.of(generador.pedido((Integer) args[0])) : null);
+        PedidoContabilizadoRepository contabilizadoRepository = repositorio(PedidoContabilizadoRepository.class,
+                (metodo, args) -> "findParaActualizar".equals(metodo) ? Optional.empty() : null);
+        VentaResumenRepository resumenRepository = repositorio(VentaResumenRepository.class, tabla::atender);
+
+        ResumenVentasServiceImpl resumenVentas = new ResumenVentasServiceImpl(resumenRepository, contabilizadoRepository,
+                mock(ResumenMarcaRepository.class, withSettings().stubOnly()), pedidosRepository,
+                mock(PlatformTransactionManager.class, withSettings().stubOnly()), new ConcurrentMapCacheManager(), 1_000);
+        long inicio = System.nanoTime();
+        for (int id = 1; id <= PEDIDOS; id++) {
+            resumenVentas.contabilizar(id);
+        }
+        System.out.printf("%,d pedidos contabilizados en %.1f s: %,d filas en venta_resumen%n",
+                PEDIDOS, (System.nanoTime() - inicio) / 1e9, tabla.filas());
+
+        analitica = new VentasAnaliticaServiceImpl(resumenRepository, resumenVentas);
+    }
+
+    @Test
+    void losTotalesCoincidenConLosPedidosGenerados() {
+        ResumenVentasDTO resumen = analitica.resumen(INICIO, INICIO.plusDays(DIAS - 1), null);
+
+        assertEquals(generador.entregados(), resumen.getPedidosEntregados());
+        assertEquals(generador.cancelados(), resumen.getPedidosCancelados());
+        assertEquals(generador.monto(), resumen.getMontoTotal(), 0.01);
+    }
+
+    @Test
+    void laLatenciaDependeDelRangoYNoDelHistorial() {
+        for (int dias : new int[]{1, 31, DIAS}) {
+            LocalDate desde = INICIO.plusDays(DIAS - dias);
+            LocalDate hasta = INICIO.plusDays(DIAS - 1);
+            List<String> medidas = new ArrayList<>();
+
+            medidas.add(medir("resumen", () -> analitica.resumen(desde, hasta, null)));
+            medidas.add(medir("resumen por categoría", () -> analitica.resumen(desde, hasta, 2)));
+            medidas.add(medir("serie diaria", () -> analitica.serie(desde, hasta, VentaResumen.Granularidad.DIA, null)));
+            if (dias <= 31) {
+                medidas.add(medir("serie por hora", () -> analitica.serie(desde, hasta, VentaResumen.Granularidad.HORA, null)));
+            }
+            medidas.add(medir("top 10", () -> analitica.topProductos(desde, hasta, null, 10)));
+            medidas.add(medir("categorías", () -> analitica.categorias(desde, hasta)));
+
+            long filasPedidos = generador.filasEnRango(desde, hasta);
+            System.out.printf("Rango de %d días (%,d filas de pedidos y detalles por índice de fecha):%n  %s%n",
+                    dias, filasPedidos, String.join("\n  ", medidas));
+            // El resumen lee como mucho un bucket TOTAL y uno CANCELADOS por día
+            tabla.filasLeidas.set(0);
+            analitica.resumen(desde, hasta, null);
+            assertTrue(tabla.filasLeidas.get() <= 2L * dias, "filas = " + tabla.filasLeidas.get());
+            assertTrue(tabla.filasLeidas.get() * 100 < filasPedidos, "filas = " + tabla.filasLeidas.get());
+        }
+    }
+
+    // ============= MÉTODOS PRIVADOS AUXILIARES =============
+
+    /**
+     * @return la línea del informe: latencia media y filas de venta_resumen leídas por llamada
+     */
+    private String medir(String consulta, Supplier<?> llamada) {
+        for (int i = 0; i < REPETICIONES; i++) {
+            llamada.get();
+        }
+        tabla.filasLeidas.set(0);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICIONES; i++) {
+            llamada.get();
+        }
+        double ms = (System.nanoTime() - inicio) / 1e6 / REPETICIONES;
+        return String.format("%-22s %8.3f ms  %,7d filas de venta_resumen", consulta, ms, tabla.filasLeidas.get() / REPETICIONES);
+    }
+
+    @FunctionalInterface
+    private interface Atencion {
+        Object atender(String metodo, Object[] args);
+    }
+
+    /**
+     * Repositorio de Spring Data que atiende solo los métodos que usa el
+     * servicio; un proxy directo evita el costo de Mockito por llamada
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T repositorio(Class<T> tipo, Atencion atencion) {
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) ->
+                switch (metodo.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> tipo.getSimpleName();
+                    default -> {
+                        Object respuesta = atencion.atender(metodo.getName(), args);
+                        yield respuesta != null || metodo.getReturnType() == void.class ? respuesta
+                                : metodo.getReturnType() == int.class ? 0 : null;
+                    }
+                });
+    }
+
+    /**
+     * Genera el pedido de cada id a demanda y de forma determinista (semilla =
+     * id), repartidos a lo largo de los días con más peso al mediodía, así el
+     * millón de pedidos no tiene que vivir en memoria
+     */
+    static final class GeneradorPedidos {
+
+        private static final int[] HORAS = {7, 8, 9, 10, 11, 12, 12, 12, 13, 13, 13, 14, 15, 16, 17, 18};
+
+        private final int cantidad;
+        private final LocalDate inicio;
+        private final int dias;
+        private final List<Producto> productos = new ArrayList<>();
+        private final long[] pedidosPorDia;
+        private final long[] detallesPorDia;
+        private long entregados;
+        private long cancelados;
+        private double monto;
+
+        GeneradorPedidos(int cantidad, LocalDate inicio, int dias) {
+            this.cantidad = cantidad;
+            this.inicio = inicio;
+            this.dias = dias;
+            for (int i = 1; i <= PRODUCTOS; i++) {
+                Categoria categoria = Categoria.builder().idCategoria(1 + i % CATEGORIAS).nombre("Categoría " + (1 + i % CATEGORIAS)).build();
+                productos.add(Producto.builder().idProducto(i).nombre("Producto " + i)
+                        .precio(2.5 + i % 9).categoria(categoria).build());
+            }
+            pedidosPorDia = new long[dias];
+            detallesPorDia = new long[dias];
+            for (int id = 1; id <= cantidad; id++) {
+                Pedido pedido = pedido(id);
+                int dia = (int) (pedido.getFechaPedido().toLocalDate().toEpochDay() - inicio.toEpochDay());
+                pedidosPorDia[dia]++;
+                detallesPorDia[dia] += pedido.getDetallePedido().size();
+                if (pedido.getEstado() == EstadoPedido.CANCELADO) {
+                    cancelados++;
+                } else {
+                    entregados++;
+                    monto += pedido.getDetallePedido().stream().mapToDouble(DetallePedido::getSubtotal).sum();
+                }
+            }
+        }
+
+        Pedido pedido(int id) {
+            SplittableRandom random = new SplittableRandom(id);
+            Pedido pedido = new Pedido();
+            pedido.setIdPedido(id);
+            int dia = (int) ((long) (id - 1) * dias / cantidad);
+            pedido.setFechaPedido(inicio.plusDays(dia).atTime(HORAS[random.nextInt(HORAS.length)], random.nextInt(60)));
+            pedido.setEstado(random.nextInt(100) < 5 ? EstadoPedido.CANCELADO : EstadoPedido.ENTREGADO);
+            List<DetallePedido> detalles = new ArrayList<>();
+            int lineas = 1 + random.nextInt(4);
+            for (int i = 0; i < lineas; i++) {
+                // Productos distintos por pedido, con los primeros más pedidos
+                Producto producto = productos.get((i * 11 + (int) Math.abs(random.nextGaussian() * 8)) % PRODUCTOS);
+                if (detalles.stream().anyMatch(d -> d.getProducto() == producto)) {
+                    continue;
+                }
+                DetallePedido detalle = new DetallePedido();
+                detalle.setProducto(producto);
+                detalle.setCantidad(1 + random.nextInt(3));
+                detalle.setSubtotal(detalle.getCantidad() * producto.getPrecio());
+                detalles.add(detalle);
+            }
+            pedido.setDetallePedido(detalles);
+            return pedido;
+        }
+
+        long filasEnRango(LocalDate desde, LocalDate hasta) {
+            long filas = 0;
+            for (int dia = (int) (desde.toEpochDay() - inicio.toEpochDay()); dia <= hasta.toEpochDay() - inicio.toEpochDay(); dia++) {
+                filas += pedidosPorDia[dia] + detallesPorDia[dia];
+            }
+            return filas;
+        }
+
+        long entregados() {
+            return entregados;
+        }
+
+        long cancelados() {
+            return cancelados;
+        }
+
+        double monto() {
+            return monto;
+        }
+    }
+
+    /**
+     * venta_resumen en memoria con su índice (dimension, granularidad, periodo):
+     * cada consulta lee solo los buckets del rango y cuenta las filas leídas
+     */
+    private final class TablaResumen {
+
+        private record Clave(VentaResumen.Dimension dimension, VentaResumen.Granularidad granularidad, int idReferencia) {
+        }
+
+        private final Map<Clave, TreeMap<LocalDateTime, VentaResumen>> buckets = new HashMap<>();
+        private final AtomicLong filasLeidas = new AtomicLong();
+
+        long filas() {
+            return buckets.values().stream().mapToLong(TreeMap::size).sum();
+        }
+
+        Object atender(String metodo, Object[] args) {
+            return switch (metodo) {
+                case "acumular" -> acumular(args);
+                case "findBuckets" -> leer((VentaResumen.Dimension) args[0], (VentaResumen.Granularidad) args[1], null,
+                        (LocalDateTime) args[2], (LocalDateTime) args[3]);
+                case "findBucketsDeReferencia" -> leer((VentaResumen.Dimension) args[0], (VentaResumen.Granularidad) args[1],
+                        (Integer) args[2], (LocalDateTime) args[3], (LocalDateTime) args[4]);
+                case "findRankingProductosEntre" -> ranking(args);
+                case "findVentasPorCategoria" -> porCategoria(args);
+                default -> throw new UnsupportedOperationException(metodo);
+            };
+        }
+
+        private int acumular(Object[] args) {
+            Clave clave = new Clave(VentaResumen.Dimension.valueOf((String) args[2]),
+                    VentaResumen.Granularidad.valueOf((String) args[0]), (Integer) args[3]);
+            LocalDateTime periodo = (LocalDateTime) args[1];
+            VentaResumen bucket = buckets.computeIfAbsent(clave, c -> new TreeMap<>()).computeIfAbsent(periodo, p ->
+                    new VentaResumen(new VentaResumenId(clave.granularidad(), p, clave.dimension(), clave.idReferencia()), 0, 0, 0));
+            bucket.setUnidades(bucket.getUnidades() + (Long) args[4]);
+            bucket.setMonto(bucket.getMonto() + (Double) args[5]);
+            bucket.setPedidos(bucket.getPedidos() + (Long) args[6]);
+            return 1;
+        }
+
+        private List<VentaResumen> leer(VentaResumen.Dimension dimension, VentaResumen.Granularidad granularidad,
+                                        Integer idReferencia, LocalDateTime desde, LocalDateTime hasta) {
+            List<VentaResumen> leidos = new ArrayList<>();
+            buckets.forEach((clave, porPeriodo) -> {
+                if (clave.dimension() == dimension && clave.granularidad() == granularidad
+                        && (idReferencia == null || clave.idReferencia() == idReferencia)) {
+                    leidos.addAll(porPeriodo.subMap(desde, true, hasta, false).values());
+                }
+            });
+            filasLeidas.addAndGet(leidos.size());
+            leidos.sort(Comparator.comparing(r -> r.getId().getPeriodo()));
+            return leidos;
+        }
+
+        private List<ProductoMasVendidoDTO> ranking(Object[] args) {
+            Integer idCategoria = (Integer) args[4];
+            Pageable pagina = (Pageable) args[5];
+            Map<Integer, Long> unidades = new HashMap<>();
+            for (VentaResumen r : leer(VentaResumen.Dimension.PRODUCTO, VentaResumen.Granularidad.DIA, null,
+                    (LocalDateTime) args[2], (LocalDateTime) args[3])) {
+                Producto producto = generador.productos.get(r.getId().getIdReferencia() - 1);
+                if (idCategoria == null || producto.getCategoria().getIdCategoria().equals(idCategoria)) {
+                    unidades.merge(producto.getIdProducto(), r.getUnidades(), Long::sum);
+                }
+            }
+            return unidades.entrySet().stream()
+                    .filter(e -> e.getValue() > 0)
+                    .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+                    .limit(pagina.getPageSize())
+                    .map(e -> {
+                        Producto p = generador.productos.get(e.getKey() - 1);
+                        return new ProductoMasVendidoDTO(p.getIdProducto(), p.getNombre(), p.getPrecio(), p.getDescripcion(), e.getValue());
+                    })
+                    .toList();
+        }
+
+        private List<VentaCategoriaDTO> porCategoria(Object[] args) {
+            Map<Integer, VentaCategoriaDTO> categorias = new HashMap<>();
+            for (VentaResumen r : leer(VentaResumen.Dimension.CATEGORIA, VentaResumen.Granularidad.DIA, null,
+                    (LocalDateTime) args[2], (LocalDateTime) args[3])) {
+                VentaCategoriaDTO categoria = categorias.computeIfAbsent(r.getId().getIdReferencia(), id ->
+                        new VentaCategoriaDTO(id, "Categoría " + id, 0.0, 0L));
+                categoria.setMonto(categoria.getMonto() + r.getMonto());
+                categoria.setUnidades(categoria.getUnidades() + r.getUnidades());
+            }
+            List<VentaCategoriaDTO> lista = new ArrayList<>(categorias.values());
+            lista.sort(Comparator.comparingDouble(VentaCategoriaDTO::getMonto).reversed());
+            return lista;
+        }
+    }
+}